@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.examples.recurrent;
+
+import java.util.Random;
+
+import de.jannlab.Net;
+import de.jannlab.core.CellFunction;
+import de.jannlab.core.CellType;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.generator.LSTMGenerator;
+import de.jannlab.misc.TimeCounter;
+import de.jannlab.tools.NetTools;
+import de.jannlab.tools.RegressionValidator;
+import de.jannlab.training.GradientDescent;
+
+/**
+ * This example measures the accuracy loss against the speedup of the
+ * approximated activation functions (see CellFunction.approximate).
+ * First, the maximum error of each approximation mode is measured
+ * for all approximated functions and compared to the documented bound.
+ * Then, an LSTM is trained on the adding problem (see AddingExample)
+ * with exact functions, and the trained weights are evaluated by nets
+ * which use the approximated functions.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class ApproximationExample {
+
+    private static TimeCounter TC = new TimeCounter();
+
+    private static final int[] MODES = {
+        CellFunction.EXACT, CellFunction.LUT,
+        CellFunction.RATIONAL, CellFunction.SCHRAUDOLPH
+    };
+
+    private static final int[] FUNCTIONS = {
+        CellFunction.SIGMOID, CellFunction.SIGMOIDDX,
+        CellFunction.SIGMOID1, CellFunction.SIGMOID1DX,
+        CellFunction.SIGMOID2, CellFunction.SIGMOID2DX,
+        CellFunction.TANH, CellFunction.TANHDX
+    };
+
+    public static Net LSTM(final int mode) {
+        LSTMGenerator gen = new LSTMGenerator();
+        gen.getCoreGenerator().useApproximation(mode);
+        gen.inputLayer(2);
+        gen.hiddenLayer(
+            4, CellType.SIGMOID, CellType.TANH, CellType.TANH, true
+        );
+        gen.outputLayer(1, CellType.TANH);
+        return gen.generate();
+    }
+
+    /**
+     * Measures the maximum absolute error of the given
+     * approximation mode over all functions.
+     */
+    public static double maxError(final int mode) {
+        final int size = 1 << 20;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final double[] z = new double[size];
+        //
+        for (int i = 0; i < size; i++) {
+            x[i] = -40.0 + ((80.0 * i) / size);
+        }
+        double max = 0.0;
+        for (int f : FUNCTIONS) {
+            CellFunction.perform(x, 0, y, 0, size, f);
+            CellFunction.perform(
+                x, 0, z, 0, size, CellFunction.approximate(f, mode)
+            );
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, Math.abs(y[i] - z[i]));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Measures the time of the activation functions of the given mode
+     * in nanoseconds per value.
+     */
+    public static double time(final int mode) {
+        final int size = 4096;
+        final int reps = 2000;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final Random rnd = new Random(0L);
+        //
+        for (int i = 0; i < size; i++) {
+            x[i] = rnd.nextGaussian() * 2.0;
+        }
+        for (int k = 0; k < reps; k++) {
+            for (int f : FUNCTIONS) {
+                CellFunction.perform(
+                    x, 0, y, 0, size, CellFunction.approximate(f, mode)
+                );
+            }
+        }
+        TC.reset();
+        for (int k = 0; k < reps; k++) {
+            for (int f : FUNCTIONS) {
+                CellFunction.perform(
+                    x, 0, y, 0, size, CellFunction.approximate(f, mode)
+                );
+            }
+        }
+        return TC.valueNanoDouble() / ((double)size * reps * FUNCTIONS.length);
+    }
+
+    public static void main(String[] args) {
+        //
+        // accuracy and speed of the functions.
+        //
+        final double exact = time(CellFunction.EXACT);
+        for (int mode : MODES) {
+            final double t = time(mode);
+            System.out.println(
+                "mode " + mode +
+                ": max error " + maxError(mode) +
+                " (bound " + CellFunction.maxError(mode) + ")" +
+                ", " + t + " ns per value" +
+                ", speedup " + (exact / t)
+            );
+        }
+        //
+        // train an lstm with exact functions.
+        //
+        final Random rnd = new Random(0L);
+        final int length = 30;
+        //
+        SampleSet trainset = AddingExample.generate(1000, length);
+        SampleSet testset  = AddingExample.generate(1000, length);
+        //
+        Net net = LSTM(CellFunction.EXACT);
+        net.initializeWeights(rnd);
+        net.rebuffer(length);
+        //
+        GradientDescent trainer = new GradientDescent();
+        trainer.setNet(net);
+        trainer.setRnd(rnd);
+        trainer.setPermute(true);
+        trainer.setTrainingSet(trainset);
+        trainer.setLearningRate(0.001);
+        trainer.setMomentum(0.9);
+        trainer.setEpochs(50);
+        trainer.train();
+        //
+        final double[] weights = new double[net.getWeightsNum()];
+        net.readWeights(weights, 0);
+        //
+        // evaluate the trained weights with approximated functions.
+        //
+        for (int mode : MODES) {
+            Net approx = LSTM(mode);
+            approx.writeWeights(weights, 0);
+            approx.rebuffer(length);
+            //
+            double diff = 0.0;
+            for (Sample s : testset) {
+                final double[] y1 = new double[1];
+                final double[] y2 = new double[1];
+                net.reset();
+                NetTools.performForward(net, s);
+                net.output(y1, 0);
+                approx.reset();
+                NetTools.performForward(approx, s);
+                approx.output(y2, 0);
+                diff = Math.max(diff, Math.abs(y1[0] - y2[0]));
+            }
+            RegressionValidator v = new RegressionValidator(approx, 0.04);
+            TC.reset();
+            for (Sample s : testset) {
+                v.apply(s);
+            }
+            System.out.println(
+                "mode " + mode +
+                ": max output diff " + diff +
+                ", validation " + (v.ratio() * 100) + "%" +
+                ", time " + TC.valueMilliDouble() + " ms."
+            );
+        }
+    }
+}
@@ -21,6 +21,7 @@ package de.jannlab;
 
 import java.io.Serializable;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
 
 import de.jannlab.core.NetStructure;
 import de.jannlab.data.ReadPort;
@@ -141,6 +142,37 @@ public interface Net extends Serializable {
      * @return Shared copy of this instance.
      */
     public Net sharedCopy();
+    /**
+     * Creates an inference-only (frozen) copy of the network instance. The 
+     * frozen copy has its own weights and data buffers, but it does not 
+     * allocate gradient buffers and omits the reverted links, which roughly 
+     * halves the memory per instance. A frozen network only supports the 
+     * forward pass: computeGradient, error, target and targetPort throw an 
+     * UnsupportedOperationException, the gradient buffers and the reverted 
+     * links are null. Shared copies of a frozen network are frozen as well.
+     * @return Frozen copy of this instance.
+     */
+    public Net freeze();
+    /**
+     * Returns true if the network is inference-only (frozen), false otherwise.
+     */
+    public boolean isFrozen();
+    /**
+     * Creates a compiled shared copy of the network instance (see sharedCopy).
+     * The layers of a compiled network are computed by a kernel class which
+     * is generated for the network structure at runtime (see NetCompiler). 
+     * The results are identical to the interpreted computation. If the 
+     * network cannot be compiled, e.g., because no system Java compiler is 
+     * available, the copy computes as usual (see NetCompiler.getLastError).
+     * The kernel is only used in double precision and for batch size 1. 
+     * It does not survive serialization, thus deep copies are not compiled.
+     * @return Compiled shared copy of this instance.
+     */
+    public Net compile();
+    /**
+     * Returns true if the network is computed by a compiled kernel, false otherwise.
+     */
+    public boolean isCompiled();
     /**
      * Computes the activation of the network. The method strongly depends on the underlying
      * network implementation (online vs. offline).
@@ -152,7 +184,25 @@ public interface Net extends Serializable {
      */
     public void computeGradient();
     /**
-     * Increases the current frame index (time index).
+     * Sets the gradient sink of the network. If a sink is given,
+     * computeGradient additionally accumulates the weight gradients
+     * (delta[dst] * output[src] of each weighted link, summed over the
+     * batch) of all computed frames into the sink, while the deltas of
+     * the computed arrays are still hot. Thus, trainers need not to iterate
+     * over the links and frames again after the backward pass. The sink
+     * is indexed like the weights vector and is never cleared by the
+     * network. It is neither shared by shared copies nor serialized.
+     * <br></br>
+     * @param sink An array of at least getWeightsNum() + 1 values or null.
+     */
+    public void setGradientSink(final double[] sink);
+    /**
+     * Returns the gradient sink (see setGradientSink) or null.
+     */
+    public double[] getGradientSink();
+    /**
+     * Increases the current frame index (time index). In streaming mode
+     * the frame index wraps around to 0 after the last frame.
      */
     public void incrFrameIdx();
     /**
@@ -166,6 +216,12 @@ public interface Net extends Serializable {
      * @return Frame width of this instance.
      */
     public int getFrameWidth();
+    /**
+     * Get the number of allocated frames, which can be greater than the 
+     * frame width.
+     * @return Number of allocated frames.
+     */
+    public int getFrameCapacity();
     /**
      * Return the current frame index (time index).
      * @return Current frame index (time index).
@@ -177,6 +233,8 @@ public interface Net extends Serializable {
     public void decrFrameIdx();
     /**
      * Gives the internal output buffer for a given frame index (time index).
+     * If the batch size is greater than 1 the buffer contains the values
+     * of all batch samples interleaved (see rebuffer).
      * <br></br>
      * @param frameidx The requested frame idx (time index).
      * @return Output data buffer for frame idx (time index).
@@ -196,6 +254,36 @@ public interface Net extends Serializable {
      * @return Gradient input buffer for frame idx (time index).
      */
     public double[] getGradInputBuffer(final int frameidx);
+    /**
+     * Gives the internal single precision output buffer for a given frame 
+     * index (time index). Only available in single precision mode.
+     * <br></br>
+     * @param frameidx The requested frame idx (time index).
+     * @return Output data buffer for frame idx (time index).
+     */
+    public float[] getOutputBufferSingle(final int frameidx);
+    /**
+     * Gives the internal single precision gradient output buffer for a given 
+     * frame index (time index). Only available in single precision mode.
+     * <br></br>
+     * @param frameidx The requested frame idx (time index).
+     * @return Gradient output data buffer for frame idx (time index).
+     */
+    public float[] getGradOutputBufferSingle(final int frameidx);
+    /**
+     * Gives the internal single precision gradient input buffer for a given 
+     * frame index (time index). Only available in single precision mode.
+     * <br></br>
+     * @param frameidx The requested frame idx (time index).
+     * @return Gradient input buffer for frame idx (time index).
+     */
+    public float[] getGradInputBufferSingle(final int frameidx);
+    /**
+     * Returns true if the network computes in single precision (float),
+     * false otherwise. In single precision mode the double buffers
+     * are not available.
+     */
+    public boolean isSinglePrecision();
     /**
      * Returns true if the network has recurrent connections, false otherwise.
      */
@@ -231,8 +319,18 @@ public interface Net extends Serializable {
     /**
      * Returns the current weight vector. Note that the first
      * weight of the vector is still 1.0. 
+     * <br></br>
+     * In single precision mode the returned vector is the double master 
+     * copy of the weights. After modifying it directly, syncWeights must be
+     * called. If the net has no master copy, it is created by this method.
      */
     public double[] getWeights();
+    /**
+     * Transfers the weight vector returned by getWeights into the weights
+     * used for computation. This is only necessary in single precision mode
+     * and has no effect otherwise.
+     */
+    public void syncWeights();
     /**
      * Returns the number of weights. Note that the first
      * weight of the vector is still 1.0. The weight is not counted
@@ -251,6 +349,32 @@ public interface Net extends Serializable {
      * @param offset Gives an offset for the target array.
      */
     public void readWeights(final double[] data, final int offset);
+    /**
+     * Switches the network into population mode, where each batch sample
+     * is computed with its own weight vector, e.g., for evaluating the
+     * individuals of an evolutionary optimizer at once. The given weight 
+     * vectors are consecutive within data. The weight vector i is assigned 
+     * to the batch sample i, the remaining batch samples are computed
+     * with the regular weights. The population mode only supports the 
+     * forward pass in double precision, i.e., computeGradient throws an
+     * UnsupportedOperationException. It is left by clearPopulationWeights
+     * or by changing the batch size (see rebuffer).
+     * <br></br>
+     * @param data Reference to the source double array.
+     * @param offset Gives the offset of the first weight vector.
+     * @param num The number of weight vectors (at most the batch size).
+     */
+    public void writePopulationWeights(
+        final double[] data, final int offset, final int num
+    );
+    /**
+     * Leaves the population mode (see writePopulationWeights).
+     */
+    public void clearPopulationWeights();
+    /**
+     * Returns true if the network is in population mode, false otherwise.
+     */
+    public boolean isPopulation();
     /**
      * Returns the forward links. The links are optimized for
      * the forward pass. 
@@ -258,7 +382,7 @@ public interface Net extends Serializable {
     public int[] getLinks();
     /**
      * Returns the backward links. The links are optimized for the
-     * backward pass.
+     * backward pass. Frozen networks provide no backward links (null).
      */
     public int[] getLinksRev();
     /**
@@ -271,6 +395,87 @@ public interface Net extends Serializable {
      * @param frames The number of time steps provided by the network.
      */
     public void rebuffer(final int frames);
+    /**
+     * Rebuffers (reallocates) the internal data buffers for the given number
+     * of time steps and the given number of samples, which are computed 
+     * simultaneously (mini-batch). The values of all samples are interleaved 
+     * within the buffers, i.e., the value of cell c for the batch sample b is 
+     * located at index (c * batchsize) + b.
+     * <br></br>
+     * @param frames The number of time steps provided by the network.
+     * @param batchsize The number of samples per time step.
+     */
+    public void rebuffer(final int frames, final int batchsize);
+    /**
+     * Ensures that the network provides at least the given number of time 
+     * steps. If the frame width is smaller, it is increased without resetting
+     * the network. Additional frames are allocated only if the capacity is
+     * exceeded. Note that the allocated frames are kept, even if the frame 
+     * width is reduced later (by rebuffer).
+     * <br></br>
+     * @param frames The required number of time steps.
+     */
+    public void ensureFrameWidth(final int frames);
+    /**
+     * Switches the network into streaming mode, where the given number 
+     * of frames is used as a ring. Thus, compute can be called for an 
+     * unbounded number of time steps with constant memory and without
+     * losing the recurrent state. For pure inference 2 frames are sufficient, 
+     * more frames keep a window of the recent time steps accessible. Streaming
+     * mode is only available for online computing networks and does not 
+     * support gradient computation. It is left by calling rebuffer.
+     * <br></br>
+     * @param frames The number of frames of the ring (at least 2).
+     */
+    public void stream(final int frames);
+    /**
+     * Returns true if the network is in streaming mode, false otherwise.
+     */
+    public boolean isStreaming();
+    /**
+     * Returns the number of samples that are computed simultaneously.
+     */
+    public int getBatchSize();
+    /**
+     * Sets the current batch index to the given value. The methods
+     * input, output, target and error as well as the data ports refer to 
+     * the batch sample given by this index.
+     * <br></br>
+     * @param idx The new batch index.
+     */
+    public void setBatchIdx(final int idx);
+    /**
+     * Returns the current batch index.
+     * @return Current batch index.
+     */
+    public int getBatchIdx();
+    /**
+     * Sets the executor which is used for parallel computation within 
+     * the network, e.g., for computing independent layers of bidirectional
+     * networks concurrently. If the executor is null (default), the network 
+     * computes sequentially. The executor is shared by shared copies, but 
+     * it is neither serialized nor copied by copy.
+     * <br></br>
+     * @param executor An executor or null.
+     */
+    public void setExecutor(final ExecutorService executor);
+    /**
+     * Returns the executor used for parallel computation or null.
+     */
+    public ExecutorService getExecutor();
+    /**
+     * Sets the minimum amount of work (number of links times batch size) 
+     * of the independent arrays of one computation index, which is required 
+     * to compute these arrays in parallel. This only has an effect if an 
+     * executor is given (see setExecutor). 
+     * <br></br>
+     * @param threshold The threshold. A value less than 1 selects the default.
+     */
+    public void setParallelThreshold(final int threshold);
+    /**
+     * Returns the parallel threshold (see setParallelThreshold).
+     */
+    public int getParallelThreshold();
     /**
      * Performs a numerical check for debugging the framework. Return false
      * if at least one value is NaN or Infinity.
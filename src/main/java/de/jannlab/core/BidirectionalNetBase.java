@@ -18,15 +18,28 @@
 
 package de.jannlab.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This class is a specific implementation for bidirectional networks.
  * It computes all times steps per layer and inverts the computing direction
  * for REVERSED layer.
  * <br></br>
+ * Layers which are not connected with each other, e.g., the forward and 
+ * the backward hidden layer of a BRNN, are grouped into stages. If an 
+ * executor is given (see setExecutor), the layers of a stage are computed 
+ * concurrently and joined before the next stage.
+ * <br></br>
  * @author Sebastian Otte
  */
 public final class BidirectionalNetBase extends RecurrentNetBase {
     private static final long serialVersionUID = 3076455342302573784L;
+    /**
+     * The layer indices grouped by stages in computation order. The 
+     * stages are determined on demand.
+     */
+    private transient int[][] stages = null;
 
     /**
      * Creates an instance of this class by a given NetStructure and
@@ -43,52 +56,176 @@ public final class BidirectionalNetBase extends RecurrentNetBase {
     public BidirectionalNetBase(NetStructure structure, NetData data) {
         super(structure, data);
     }
+    
+    /**
+     * Groups the layers (except the input layer) into stages. Each layer
+     * is placed behind all layers with a lower index it is connected with 
+     * (in any direction), so the layers of one stage are independent from 
+     * each other and the sequential computation order is preserved.
+     * <br></br>
+     * @return The layer indices grouped by stages.
+     */
+    private int[][] stages() {
+        if (this.stages != null) return this.stages;
+        //
+        final Layer[] layers = this.structure.layers;
+        final int[] cellmap  = new int[this.structure.cellsnum];
+        for (int l = 0; l < layers.length; l++) {
+            for (int c = layers[l].cellslbd; c <= layers[l].cellsubd; c++) {
+                cellmap[c] = l;
+            }
+        }
+        //
+        // determine connected layer pairs.
+        //
+        final boolean[][] connected = new boolean[layers.length][layers.length];
+        final int[] links = this.structure.links;
+        for (int i = 0; i < this.structure.linksnum; i++) {
+            final int off = i * Link.LINK_SIZE;
+            final int ls  = cellmap[links[off + Link.IDX_SRC]];
+            final int ld  = cellmap[links[off + Link.IDX_DST]];
+            connected[ls][ld] = true;
+            connected[ld][ls] = true;
+        }
+        //
+        // determine the stage of each layer.
+        //
+        final int[] level = new int[layers.length];
+        int levels = 0;
+        for (int l = 0; l < layers.length; l++) {
+            if (l == this.structure.inputlayer) continue;
+            for (int k = 0; k < l; k++) {
+                if (
+                    (k != this.structure.inputlayer) && 
+                    connected[k][l] && (level[k] >= level[l])
+                ) {
+                    level[l] = level[k] + 1;
+                }
+            }
+            levels = Math.max(levels, level[l] + 1);
+        }
+        final List<List<Integer>> groups = new ArrayList<List<Integer>>();
+        for (int i = 0; i < levels; i++) {
+            groups.add(new ArrayList<Integer>());
+        }
+        for (int l = 0; l < layers.length; l++) {
+            if (l == this.structure.inputlayer) continue;
+            groups.get(level[l]).add(l);
+        }
+        //
+        final int[][] result = new int[levels][];
+        for (int i = 0; i < levels; i++) {
+            final List<Integer> group = groups.get(i);
+            result[i] = new int[group.size()];
+            for (int j = 0; j < result[i].length; j++) {
+                result[i][j] = group.get(j);
+            }
+        }
+        this.stages = result;
+        return result;
+    }
+    
+    /**
+     * Computes the activations of the given layer for all frames up to last.
+     * The method does not change the current frame index.
+     * <br></br>
+     * @param l The layer index.
+     * @param last The last frame index.
+     */
+    private void computeLayer(final int l, final int last) {
+        final Layer layer = this.structure.layers[l];
+        final boolean copy = !this.structure.resolved;
+        //
+        // regular or reversed layer? 
+        //
+        if (layer.tag == LayerTag.REGULAR) {
+            for (int t = 0; t <= last; t++) {
+                //
+                final int prev = (t > 0)?(t - 1):(t);
+                if (copy && (t > 0)) {
+                    this.copyOutput(t - 1, t, l);
+                }
+                this.computeLayerActivations(l, t, prev);
+            }
+        } else {
+            for (int t = last; t >= 0; t--) {
+                //
+                final int prev = (t < last)?(t + 1):(t);
+                if (copy && (t < last)) {
+                    this.copyOutput(t + 1, t, l);
+                }
+                this.computeLayerActivations(l, t, prev);
+            }
+        }
+    }
+    
+    /**
+     * Computes the gradients of the given layer for all frames up to last.
+     * The method does not change the current frame index.
+     * <br></br>
+     * @param l The layer index.
+     * @param last The last frame index.
+     */
+    private void computeLayerGradient(final int l, final int last) {
+        final Layer layer = this.structure.layers[l];
+        final boolean copy = !this.structure.resolved;
+        //
+        // regular or reversed layer? 
+        //
+        if (layer.tag == LayerTag.REGULAR) {
+            for (int t = last; t >= 0; t--) {
+                //
+                final int next = (t < last)?(t + 1):(t);
+                if (copy && (t < last)) {
+                    this.copyGradOutput(t + 1, t, l);
+                }
+                this.computeLayerGradients(l, t, next);
+            }
+        } else {
+            for (int t = 0; t <= last; t++) {
+                //
+                final int next = (t > 0)?(t - 1):(t);
+                if (copy && (t > 0)) {
+                    this.copyGradOutput(t - 1, t, l);
+                }
+                this.computeLayerGradients(l, t, next);
+            }
+        }
+    }
 
     /**
      * {@inheritDoc}
      */
     @Override
     final public void compute() {
-        //
-        // reset time.
         //
         final int last = this.frameidx;
         //
-        // from first to last layer.
+        // sequential computation from first to last layer.
         //
-        for (int l = 0; l < this.structure.layers.length; l++) {
-            //
-            if (l == this.structure.inputlayer) continue;
-            final Layer layer = this.structure.layers[l];
-            //
-            // regular or reversed layer? 
-            //
-            if (layer.tag == LayerTag.REGULAR) {
-                this.setFrameIdx(0);
-                for (int t = 0; t <= last; t++) {
-                    //
-                    if (t > 0) {
-                        this.copyOutput(this.frameidx - 1, this.frameidx, l);
-                    }
-                    this.computeLayerActivations(l);
-                    //
-                    this.incrFrameIdx();
-                    
-                }
-            } else {
-                this.setFrameIdx(last);
-                for (int t = last; t >= 0; t--) {
-                    //
-                    if (t < last) {
-                        this.copyOutput(this.frameidx + 1, this.frameidx, l);
+        if (this.executor == null) {
+            for (int l = 0; l < this.structure.layers.length; l++) {
+                if (l == this.structure.inputlayer) continue;
+                this.computeLayer(l, last);
+            }
+            return;
+        }
+        //
+        // stage-wise computation.
+        //
+        for (final int[] stage : this.stages()) {
+            final Runnable[] tasks = new Runnable[stage.length];
+            for (int i = 0; i < stage.length; i++) {
+                final int l = stage[i];
+                tasks[i] = new Runnable() {
+                    @Override
+                    public void run() {
+                        BidirectionalNetBase.this.computeLayer(l, last);
                     }
-                    this.computeLayerActivations(l);
-                    //
-                    this.decrFrameIdx();
-                }
+                };
             }
-        }//
-        this.setFrameIdx(last);
+            this.execute(tasks);
+        }
     }
 
     /**
@@ -96,52 +233,36 @@ public final class BidirectionalNetBase extends RecurrentNetBase {
      */
     @Override
     final public void computeGradient() {
+        this.checkBackward();
         //
         final int last = this.frameidx;
         //
-        // from last to first layer.
+        // sequential computation from last to first layer.
         //
-        for (int l = this.structure.layers.length - 1; l >= 0; l--) {
-            //
-            if (l == this.structure.inputlayer) continue;
-            final Layer layer = this.structure.layers[l];
-            //
-            // regular or reversed layer? 
-            //
-            if (layer.tag == LayerTag.REGULAR) {
-                this.setFrameIdx(last);
-                for (int t = last; t >= 0; t--) {
-                    //
-                    if (t < last) {
-                        this.copyGradOutput(
-                            this.frameidx + 1, this.frameidx, l
-                        );
-                    }
-                    this.computeLayerGradients(l);
-                    //
-                    this.decrFrameIdx();
-                }
-            } else {
-                this.setFrameIdx(0);
-                for (int t = 0; t <= last; t++) {
-                    //
-                    if (t > 0) {
-                        this.copyGradOutput(
-                            this.frameidx - 1, this.frameidx, l
-                        );
-                    }
-                    this.computeLayerGradients(l);
-                    //
-                    this.incrFrameIdx();
-                    
-                }
-
+        if (this.executor == null) {
+            for (int l = this.structure.layers.length - 1; l >= 0; l--) {
+                if (l == this.structure.inputlayer) continue;
+                this.computeLayerGradient(l, last);
             }
+            return;
         }
         //
-        this.setFrameIdx(last);
+        // stage-wise computation in reverse order.
+        //
+        final int[][] stages = this.stages();
+        for (int s = stages.length - 1; s >= 0; s--) {
+            final int[] stage = stages[s];
+            final Runnable[] tasks = new Runnable[stage.length];
+            for (int i = 0; i < stage.length; i++) {
+                final int l = stage[i];
+                tasks[i] = new Runnable() {
+                    @Override
+                    public void run() {
+                        BidirectionalNetBase.this.computeLayerGradient(l, last);
+                    }
+                };
+            }
+            this.execute(tasks);
+        }
     }
-
-
-    
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+/**
+ * This class provides constants and static methods for handling dense link
+ * blocks. A block describes a fully connected pair of cell ranges, where each
+ * cell of the destination range is linked with each cell of the source range
+ * by an individual weight. The weights of a block are given in row-major order
+ * within the weights vector, where each row belongs to one destination cell.
+ * Because the weight indices are assigned in dst-major order over all links,
+ * the rows of a block are not necessarily adjacent, which is why each block
+ * also carries a row stride (comparable to the leading dimension in BLAS).
+ * <br></br>
+ * A block consists of a 6-tuple (s,m,d,n,w,l) where s gives the first source
+ * cell, m gives the number of source cells, d gives the first destination cell,
+ * n gives the number of destination cells, w gives the weight index of the
+ * first weight and l gives the row stride. Analogous to links, all blocks of an 
+ * ANN are contained by a 1-dimensional int-array.
+ * <br></br>
+ * @see Link
+ * @author Sebastian Otte
+ */
+public final class Block {
+
+    /**
+     * Gives the index of the first source cell in a block tuple.
+     */
+    public static final int IDX_SRC = 0;
+    /**
+     * Gives the index of the number of source cells in a block tuple.
+     */
+    public static final int IDX_SRCNUM = 1;
+    /**
+     * Gives the index of the first destination cell in a block tuple.
+     */
+    public static final int IDX_DST = 2;
+    /**
+     * Gives the index of the number of destination cells in a block tuple.
+     */
+    public static final int IDX_DSTNUM = 3;
+    /**
+     * Gives the index of the first weight index in a block tuple.
+     */
+    public static final int IDX_WEIGHT = 4;
+    /**
+     * Gives the index of the row stride in a block tuple.
+     */
+    public static final int IDX_STRIDE = 5;
+    /**
+     * Just gives the number of parts of a block tuple (which is 6).
+     */
+    public static final int BLOCK_SIZE = 6;
+
+    //-------------------------------------------------------------------------
+    
+    /**
+     * Allocates a memory block for n blocks.
+     * @param blocks Number of blocks.
+     * @return Allocated memory block.
+     */
+    public static int[] alloc(final int blocks) {
+        return new int[blocks * BLOCK_SIZE];
+    }
+    
+    /**
+     * Copies a block from one array of blocks to another one.
+     * @param src Source array of blocks.
+     * @param srcoff Source block offset.
+     * @param dst Destination array of blocks.
+     * @param dstoff Destination block offset.
+     */
+    public static void copy(
+            final int[] src, 
+            final int srcoff, 
+            final int[] dst,
+            final int dstoff
+    ) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            dst[dstoff + i] = src[srcoff + i];
+        }
+    }
+    
+    /**
+     * Returns the number of links covered by a block.
+     * @param buffer Array of blocks.
+     * @param offset Block offset.
+     * @return Number of links.
+     */
+    public static int links(final int[] buffer, final int offset) {
+        return buffer[offset + IDX_SRCNUM] * buffer[offset + IDX_DSTNUM];
+    }
+
+    /**
+     * Builds a string for a given range of blocks. The resulting string contains
+     * one line per block.
+     * <br></br>
+     * @param blocks The blocks.
+     * @param off The offset of the blocks range.
+     * @param num The number of blocks.
+     * @return String representation of the block range.
+     */
+    public static String asString(final int[] blocks, final int off, final int num) {
+        StringBuilder out = new StringBuilder();
+        int idx = off;
+        for (int i = 0; i < num; i++) {
+            if (i > 0) {
+                out.append("\n");
+            }
+            out.append(
+                "(" + blocks[idx + IDX_SRC] + "," + blocks[idx + IDX_SRCNUM] + 
+                "," + blocks[idx + IDX_DST] + "," + blocks[idx + IDX_DSTNUM] + 
+                "," + blocks[idx + IDX_WEIGHT] + "," + blocks[idx + IDX_STRIDE] + ")"
+            );
+            idx += BLOCK_SIZE;
+        }
+        return out.toString();
+    }
+}
@@ -97,6 +97,113 @@ public final class CellArray implements Serializable {
      * The number of weights of all successor links.
      */
     public int succswnum;
+    /**
+     * The lower bound of the dense blocks from the predecessors of the cells
+     * in the CellArray (within NetStructure.blocks).
+     */
+    public int predblockslbd;
+    /**
+     * The number of dense blocks from the predecessors of the cells in the CellArray.
+     * If the structure is resolved (see NetStructure.resolved) this only counts 
+     * the blocks within the current time step.
+     */
+    public int predblocksnum;
+    /**
+     * The lower bound of the predecessor links which are not covered by a dense 
+     * block (within NetStructure.sparselinks).
+     */
+    public int predsparselbd;
+    /**
+     * The number of predecessor links which are not covered by a dense block.
+     * If the structure is resolved this only counts the links within the 
+     * current time step.
+     */
+    public int predsparsenum;
+    /**
+     * The lower bound of the recurrent dense blocks from the predecessors 
+     * of the cells (within NetStructure.blocks). These blocks refer to
+     * the previous time step.
+     */
+    public int predrecblockslbd;
+    /**
+     * The number of recurrent dense blocks from the predecessors of the cells.
+     */
+    public int predrecblocksnum;
+    /**
+     * The lower bound of the recurrent predecessor links which are not covered 
+     * by a dense block (within NetStructure.sparselinks).
+     */
+    public int predrecsparselbd;
+    /**
+     * The number of recurrent predecessor links which are not covered by a 
+     * dense block.
+     */
+    public int predrecsparsenum;
+    /**
+     * The lower bound of the dense blocks to the successors of the cells
+     * in the CellArray (within NetStructure.blocksrev).
+     */
+    public int succblockslbd;
+    /**
+     * The number of dense blocks to the successors of the cells in the CellArray.
+     * If the structure is resolved this only counts the blocks within the 
+     * current time step.
+     */
+    public int succblocksnum;
+    /**
+     * The lower bound of the successor links which are not covered by a dense 
+     * block (within NetStructure.sparselinksrev).
+     */
+    public int succsparselbd;
+    /**
+     * The number of successor links which are not covered by a dense block.
+     * If the structure is resolved this only counts the links within the 
+     * current time step.
+     */
+    public int succsparsenum;
+    /**
+     * The lower bound of the recurrent dense blocks to the successors of the 
+     * cells (within NetStructure.blocksrev). These blocks refer to the next
+     * time step.
+     */
+    public int succrecblockslbd;
+    /**
+     * The number of recurrent dense blocks to the successors of the cells.
+     */
+    public int succrecblocksnum;
+    /**
+     * The lower bound of the recurrent successor links which are not covered 
+     * by a dense block (within NetStructure.sparselinksrev).
+     */
+    public int succrecsparselbd;
+    /**
+     * The number of recurrent successor links which are not covered by a 
+     * dense block.
+     */
+    public int succrecsparsenum;
+    /**
+     * The offset of the row pointers of the predecessor links which are not 
+     * covered by a dense block (within NetStructure.rows). These rows contain
+     * the same links as the sparse links in the compressed sparse row layout
+     * (see Column). The value is -1 if the array is not integrated via rows, 
+     * which is the case for LASTID integration.
+     */
+    public int predrowslbd = -1;
+    /**
+     * The offset of the row pointers of the recurrent predecessor links which 
+     * are not covered by a dense block (within NetStructure.rows) or -1.
+     */
+    public int predrecrowslbd = -1;
+    /**
+     * The offset of the row pointers of the successor links which are not 
+     * covered by a dense block (within NetStructure.rowsrev) or -1.
+     */
+    public int succrowslbd = -1;
+    /**
+     * The offset of the row pointers of the recurrent successor links which 
+     * are not covered by a dense block (within NetStructure.rowsrev) or -1.
+     */
+    public int succrecrowslbd = -1;
     /**
      * Refers the parent layer. 
      */
@@ -137,6 +244,10 @@ public final class CellArray implements Serializable {
         w.append("succsubd     : " + this.succsubd + "\n");
         w.append("succsnum     : " + this.succsnum + "\n");
         w.append("succswnum    : " + this.succswnum + "\n");
+        w.append("predblocksnum: " + this.predblocksnum + "\n");
+        w.append("succblocksnum: " + this.succblocksnum + "\n");
+        w.append("predrecblocks: " + this.predrecblocksnum + "\n");
+        w.append("succrecblocks: " + this.succrecblocksnum + "\n");
         w.append("layer        : " + this.layer + "\n");
         w.append("compidx      : " + this.compidx + "\n");
         w.append("ilctag       : " + this.ilctag + "\n");
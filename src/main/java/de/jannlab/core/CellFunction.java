@@ -18,6 +18,8 @@
 
 package de.jannlab.core;
 
+import de.jannlab.math.MathTools;
+
 /**
  * This class contains static methods for computing the activations and 
  * derivations for serveral types of activation functions. These are unary functions
@@ -53,11 +55,75 @@ public final class CellFunction {
     public static final int TANHDX        = 10;
     /** Multiplicative invert function (1/x). */
     public static final int INVERT        = 11;
+    //
+    /** 
+     * The system property for selecting the function kernels. The value 
+     * "scalar" selects the reference kernels, which use Math.tanh. Otherwise
+     * the fast kernels are used, which compute tanh via the intrinsic exp
+     * function (see MathTools.expTanh) with a relative error less than 1e-14. 
+     */
+    public static final String KERNELS_PROPERTY = "jannlab.kernels";
+    /** 
+     * Is true if the fast kernels are used. The kernels are picked
+     * once at startup (see KERNELS_PROPERTY). 
+     */
+    public static final boolean FAST_KERNELS = fastKernels();
+    //
+    /** Approximation mode: exact functions. */
+    public static final int EXACT         = 0;
+    /** 
+     * Approximation mode: lookup table of the sigmoid function with linear 
+     * interpolation (step 1/128 in [-16, 16]). All other functions are derived
+     * from the sigmoid. The maximum absolute error is 4e-6 (see LUT_ERROR). 
+     */
+    public static final int LUT           = 1;
+    /** 
+     * Approximation mode: rational (Pade) approximation of tanh with clipping
+     * at |x| = 5. All other functions are derived from tanh. The maximum 
+     * absolute error is 3e-4 (see RATIONAL_ERROR).
+     */
+    public static final int RATIONAL      = 2;
+    /** 
+     * Approximation mode: sigmoid based on the exp approximation of 
+     * Schraudolph (see MathTools.fastExp). All other functions are derived
+     * from the sigmoid. The maximum absolute error is 5e-2 
+     * (see SCHRAUDOLPH_ERROR).
+     */
+    public static final int SCHRAUDOLPH   = 3;
+    /** Maximum absolute error of LUT for all functions. */
+    public static final double LUT_ERROR         = 4e-6;
+    /** Maximum absolute error of RATIONAL for all functions. */
+    public static final double RATIONAL_ERROR    = 3e-4;
+    /** Maximum absolute error of SCHRAUDOLPH for all functions. */
+    public static final double SCHRAUDOLPH_ERROR = 5e-2;
+    /** 
+     * The ids of approximated functions are given by 
+     * function + (mode * APPROX_STRIDE) (see approximate).
+     */
+    public static final int APPROX_STRIDE = 16;
+    //
+    private static final double LUT_RANGE = 16.0;
+    private static final double LUT_SCALE = 128.0;
+    private static final double[] LUT_TABLE = lutTable();
+    //
+    private static final double RATIONAL_CLIP = 5.0;
+    private static final double SCHRAUDOLPH_CLIP = 30.0;
 
     // ------------------------------------------------------------------------
     // Unary functions.
     // ------------------------------------------------------------------------
     
+    /**
+     * Determines the kernels at startup.
+     */
+    private static boolean fastKernels() {
+        try {
+            return !"scalar".equals(System.getProperty(KERNELS_PROPERTY));
+        } catch (SecurityException e) {
+            return true;
+        }
+    }
+    
     /**
      * This is just a exp-wrapper method. In this method
      * the exp-function can be replaced by a fast approx. version of exp.
@@ -152,6 +218,10 @@ public final class CellFunction {
         ));
         */
         //
+        // Math.tanh is not an intrinsic and about ten times 
+        // slower than the exp based version.
+        //
+        if (FAST_KERNELS) return MathTools.expTanh(value);
         return Math.tanh(value);
     }
     /**
@@ -165,6 +235,344 @@ public final class CellFunction {
         return 1.0 - (tanh * tanh);
     }
     
+    // ------------------------------------------------------------------------
+    // Approximated functions.
+    // ------------------------------------------------------------------------
+    
+    /**
+     * Returns the id of the given function approximated by the given mode.
+     * Only the sigmoid and tanh functions and their derivations can be 
+     * approximated, all other functions are returned unchanged. The mode 
+     * EXACT returns the exact version of the function.
+     * <br></br>
+     * @param function The function id.
+     * @param mode The approximation mode (EXACT, LUT, RATIONAL, SCHRAUDOLPH).
+     * @return The id of the approximated function.
+     */
+    public static int approximate(final int function, final int mode) {
+        final int base = function % APPROX_STRIDE;
+        if ((base < SIGMOID) || (base > TANHDX)) return function;
+        //
+        return base + (mode * APPROX_STRIDE);
+    }
+    
+    /**
+     * Returns the approximation mode of the given function id.
+     */
+    public static int mode(final int function) {
+        return function / APPROX_STRIDE;
+    }
+    
+    /**
+     * Returns the documented maximum absolute error of the given 
+     * approximation mode.
+     */
+    public static double maxError(final int mode) {
+        switch (mode) {
+            case LUT:         return LUT_ERROR;
+            case RATIONAL:    return RATIONAL_ERROR;
+            case SCHRAUDOLPH: return SCHRAUDOLPH_ERROR;
+            default:          return 0.0;
+        }
+    }
+    
+    /**
+     * Computes the lookup table of the sigmoid function.
+     */
+    private static double[] lutTable() {
+        final int size = (int)(2.0 * LUT_RANGE * LUT_SCALE) + 1;
+        final double[] table = new double[size];
+        for (int i = 0; i < size; i++) {
+            table[i] = 1.0 / (1.0 + Math.exp(-((i / LUT_SCALE) - LUT_RANGE)));
+        }
+        return table;
+    }
+    
+    /**
+     * Computes the sigmoid function via lookup table and linear interpolation.
+     * <br></br>
+     * @param value Argument of the function.
+     * @return The function result.
+     */
+    public static double sigmoidLUT(final double value) {
+        if (value >= LUT_RANGE) return 1.0;
+        if (value > -LUT_RANGE) {
+            final double pos = (value + LUT_RANGE) * LUT_SCALE;
+            final int i      = (int)pos;
+            final double y0  = LUT_TABLE[i];
+            return y0 + ((pos - i) * (LUT_TABLE[i + 1] - y0));
+        }
+        return (value != value)?(value):(0.0);
+    }
+    
+    /**
+     * Computes the tanh function via the rational (Pade) approximation 
+     * of degree (7, 6).
+     * <br></br>
+     * @param value Argument of the function.
+     * @return The function result.
+     */
+    public static double tanhRational(final double value) {
+        if (value >= RATIONAL_CLIP) return 1.0;
+        if (value <= -RATIONAL_CLIP) return -1.0;
+        //
+        final double x2 = value * value;
+        final double p  = 135135.0 + x2 * (17325.0 + x2 * (378.0 + x2));
+        final double q  = 135135.0 + x2 * (62370.0 + x2 * (3150.0 + x2 * 28.0));
+        return (value * p) / q;
+    }
+    
+    /**
+     * Computes the sigmoid function based on the exp approximation
+     * of Schraudolph (see MathTools.fastExp).
+     * <br></br>
+     * @param value Argument of the function.
+     * @return The function result.
+     */
+    public static double sigmoidSchraudolph(final double value) {
+        if (value >= SCHRAUDOLPH_CLIP) return 1.0;
+        if (value <= -SCHRAUDOLPH_CLIP) return 0.0;
+        return 1.0 / (1.0 + MathTools.fastExp(-value));
+    }
+    
+    /**
+     * Computes the approximated sigmoid function for the given mode.
+     */
+    private static double sigmoid(final double value, final int mode) {
+        switch (mode) {
+            case LUT:         return sigmoidLUT(value);
+            case RATIONAL:    return 0.5 + (0.5 * tanhRational(0.5 * value));
+            case SCHRAUDOLPH: return sigmoidSchraudolph(value);
+            default:          return sigmoid(value);
+        }
+    }
+    
+    /**
+     * Computes the approximated tanh function for the given mode.
+     */
+    private static double tanh(final double value, final int mode) {
+        switch (mode) {
+            case LUT:         return (2.0 * sigmoidLUT(2.0 * value)) - 1.0;
+            case RATIONAL:    return tanhRational(value);
+            case SCHRAUDOLPH: return (2.0 * sigmoidSchraudolph(2.0 * value)) - 1.0;
+            default:          return tanh(value);
+        }
+    }
+    
+    /**
+     * Computes an approximated function given by its id (see approximate).
+     * The derivations are computed from the approximated sigmoid or tanh
+     * function, thus no further exp function is evaluated. 
+     * <br></br>
+     * @param value Argument of the function.
+     * @param function The id of the approximated function.
+     * @return The function result.
+     */
+    public static double approx(final double value, final int function) {
+        final int mode = function / APPROX_STRIDE;
+        //
+        switch (function % APPROX_STRIDE) {
+            case SIGMOID: {
+                return sigmoid(value, mode);
+            }
+            case SIGMOIDDX: {
+                final double sig = sigmoid(value, mode);
+                return sig * (1.0 - sig);
+            }
+            case SIGMOID1: {
+                return (2.0 * sigmoid(value, mode)) - 1.0;
+            }
+            case SIGMOID1DX: {
+                final double sig = sigmoid(value, mode);
+                return 2.0 * (sig * (1.0 - sig));
+            }
+            case SIGMOID2: {
+                return (4.0 * sigmoid(value, mode)) - 2.0;
+            }
+            case SIGMOID2DX: {
+                final double sig = sigmoid(value, mode);
+                return 4.0 * (sig * (1.0 - sig));
+            }
+            case TANH: {
+                return tanh(value, mode);
+            }
+            case TANHDX: {
+                final double tanh = tanh(value, mode);
+                return 1.0 - (tanh * tanh);
+            }
+            default:
+                return value;
+        }
+    }
+    
+    /**
+     * Applies an approximated function given by its id (see approximate)
+     * on a given memory block. The results are equal to approx, but the 
+     * base function (sigmoid or tanh) and the derived function are computed 
+     * in separate loops without dispatching per value.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     * @param function The id of the approximated function.
+     */
+    public static void approx(
+            final double[] data,
+            final int dataoffset,
+            final double[] result,
+            final int resultoffset,
+            final int size,
+            final int function
+    ) {
+        final int mode = function / APPROX_STRIDE;
+        final int base = function % APPROX_STRIDE;
+        final int end  = resultoffset + size;
+        //
+        // compute base function.
+        //
+        if ((base == TANH) || (base == TANHDX)) {
+            tanh(data, dataoffset, result, resultoffset, size, mode);
+        } else {
+            sigmoid(data, dataoffset, result, resultoffset, size, mode);
+        }
+        //
+        // compute derived function.
+        //
+        switch (base) {
+            case SIGMOIDDX:
+                for (int i = resultoffset; i < end; i++) {
+                    final double sig = result[i];
+                    result[i] = sig * (1.0 - sig);
+                }
+                break;
+            case SIGMOID1:
+                for (int i = resultoffset; i < end; i++) {
+                    result[i] = (2.0 * result[i]) - 1.0;
+                }
+                break;
+            case SIGMOID1DX:
+                for (int i = resultoffset; i < end; i++) {
+                    final double sig = result[i];
+                    result[i] = 2.0 * (sig * (1.0 - sig));
+                }
+                break;
+            case SIGMOID2:
+                for (int i = resultoffset; i < end; i++) {
+                    result[i] = (4.0 * result[i]) - 2.0;
+                }
+                break;
+            case SIGMOID2DX:
+                for (int i = resultoffset; i < end; i++) {
+                    final double sig = result[i];
+                    result[i] = 4.0 * (sig * (1.0 - sig));
+                }
+                break;
+            case TANHDX:
+                for (int i = resultoffset; i < end; i++) {
+                    final double tanh = result[i];
+                    result[i] = 1.0 - (tanh * tanh);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Applies the approximated sigmoid function of the given mode on a
+     * given memory block.
+     */
+    private static void sigmoid(
+            final double[] data,
+            final int dataoffset,
+            final double[] result,
+            final int resultoffset,
+            final int size,
+            final int mode
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        switch (mode) {
+            case LUT:
+                for (int i = 0; i < size; i++) {
+                    result[o2++] = sigmoidLUT(data[o1++]);
+                }
+                break;
+            case RATIONAL:
+                for (int i = 0; i < size; i++) {
+                    result[o2++] = 0.5 + (0.5 * tanhRational(0.5 * data[o1++]));
+                }
+                break;
+            case SCHRAUDOLPH:
+                for (int i = 0; i < size; i++) {
+                    result[o2++] = sigmoidSchraudolph(data[o1++]);
+                }
+                break;
+            default:
+                sigmoid(data, dataoffset, result, resultoffset, size);
+                break;
+        }
+    }
+    
+    /**
+     * Applies the approximated tanh function of the given mode on a
+     * given memory block.
+     */
+    private static void tanh(
+            final double[] data,
+            final int dataoffset,
+            final double[] result,
+            final int resultoffset,
+            final int size,
+            final int mode
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        switch (mode) {
+            case LUT:
+                for (int i = 0; i < size; i++) {
+                    result[o2++] = (2.0 * sigmoidLUT(2.0 * data[o1++])) - 1.0;
+                }
+                break;
+            case RATIONAL:
+                for (int i = 0; i < size; i++) {
+                    result[o2++] = tanhRational(data[o1++]);
+                }
+                break;
+            case SCHRAUDOLPH:
+                for (int i = 0; i < size; i++) {
+                    result[o2++] = (2.0 * sigmoidSchraudolph(2.0 * data[o1++])) - 1.0;
+                }
+                break;
+            default:
+                tanh(data, dataoffset, result, resultoffset, size);
+                break;
+        }
+    }
+    
+    /**
+     * Single precision version of approx.
+     */
+    public static void approx(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size,
+            final int function
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)approx(data[o1++], function);
+        }
+    }
+    
     // ------------------------------------------------------------------------
     // Functions for cell ranges.
     // ------------------------------------------------------------------------
@@ -461,6 +869,10 @@ public final class CellFunction {
             final int size,
             final int function
     ) {
+        if (function >= APPROX_STRIDE) {
+            approx(data, dataoffset, result, resultoffset, size, function);
+            return;
+        }
         //
         // Note: Is has been tested, that in Java a "short" switch block is MUCH!
         // faster than any other decision mechanism such as polymorphic
@@ -530,4 +942,370 @@ public final class CellFunction {
         }
     }
     
+    // ------------------------------------------------------------------------
+    // Single precision functions for cell ranges. The function values are 
+    // computed in double precision and stored as float.
+    // ------------------------------------------------------------------------
+    
+    /**
+     * Single precision version of id.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void id(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            final float value = data[o1++];
+            result[o2++] = value; 
+        }
+    }
+    
+    /**
+     * Single precision version of invert.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void invert(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            final float value = data[o1++];
+            result[o2++] = (value == 0.0f)?(0.0f):(1.0f / value);
+        }
+    }
+    
+    /**
+     * Single precision version of constOne.
+     * <br></br>
+     * @param data Is not relevant here.
+     * @param dataoffset Is not relevant here.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void constOne(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = 1.0f;
+        }
+    }
+    
+    /**
+     * Single precision version of sigmoid.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void sigmoid(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            final float sig = (float)sigmoid(data[o1++]);
+            result[o2++] = sig;
+        }
+    }
+    
+    /**
+     * Single precision version of sigmoidDx.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void sigmoidDx(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)sigmoidDx(data[o1++]);
+        }
+    }
+    
+    /**
+     * Single precision version of sigmoid2.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void sigmoid2(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            final float sig = (float)sigmoid2(data[o1++]);
+            result[o2++] = sig;
+        }
+    }
+    
+    /**
+     * Single precision version of sigmoid2Dx.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void sigmoid2Dx(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)sigmoid2Dx(data[o1++]);
+        }
+    }
+    
+    /**
+     * Single precision version of sigmoid1.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void sigmoid1(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            final float sig = (float)sigmoid1(data[o1++]);
+            result[o2++] = sig;
+        }
+    }
+    
+    /**
+     * Single precision version of sigmoid1Dx.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void sigmoid1Dx(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)sigmoid1Dx(data[o1++]);
+        }
+    }
+    
+    /**
+     * Single precision version of tanh.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void tanh(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)tanh(data[o1++]);
+        }
+    }
+    
+    /**
+     * Single precision version of tanhDx.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     */
+    public static void tanhDx(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)tanhDx(data[o1++]);
+        }
+    }
+    
+    /**
+     * Single precision version of perform.
+     * <br></br>
+     * @param data Refers the source array containing the function arguments.
+     * @param dataoffset Gives the lower bound for the argument values.
+     * @param result Refers the destination array where the function results will be stored in.
+     * @param resultoffset Give the lower bound for the result values.
+     * @param size Gives the number of arguments.
+     * @param function Determines the specific activation function.
+     */
+    public static void perform(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size,
+            final int function
+    ) {
+        if (function >= APPROX_STRIDE) {
+            approx(data, dataoffset, result, resultoffset, size, function);
+            return;
+        }
+        //
+        // Note: Is has been tested, that in Java a "short" switch block is MUCH!
+        // faster than any other decision mechanism such as polymorphic
+        // approaches like the strategy pattern.
+        //
+        switch (function) {
+            case CellFunction.ID:
+                id(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.CONST_ONE:
+                constOne(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.SIGMOID:
+                sigmoid(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.SIGMOIDDX:
+                sigmoidDx(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.SIGMOID1:
+                sigmoid1(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.SIGMOID1DX:
+                sigmoid1Dx(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.SIGMOID2:
+                sigmoid2(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.SIGMOID2DX:
+                sigmoid2Dx(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.TANH:
+                tanh(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.TANHDX:
+                tanhDx(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            case CellFunction.INVERT:
+                invert(
+                    data, dataoffset, result, resultoffset, size
+                );
+                break;
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    // ------------------------------------------------------------------------
+
 }
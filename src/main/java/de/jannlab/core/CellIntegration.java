@@ -205,6 +205,1092 @@ public final class CellIntegration {
         }
     }
 
+    /**
+     * This method accumulates the weighted values of the given links without
+     * cleaning the destination cells before.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     */
+    public static void accumulate(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC]; 
+            final int cj = links[link + Link.IDX_DST];
+            final int ij = links[link + Link.IDX_WEIGHT];
+            //
+            dst[cj] += (src[ci] * weights[ij]);
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * This method accumulates the matrix-vector products of the given dense 
+     * blocks, i.e., for each block dst[d + r] += sum_c w[r][c] * src[s + c]. 
+     * The rows are processed in packages of four, so that each loaded source 
+     * value is used four times.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block according 
+     * the this current context.
+     * @param blocksnum Gives the number of blocks according to the current context. 
+     * @see Block
+     */
+    public static void dense(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum
+    ) {
+        int block = blocksoff;
+        //
+        for (int b = 0; b < blocksnum; b++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            int r = 0;
+            //
+            for (; r + 3 < dn; r += 4) {
+                final int w0 = wi + (r * ld);
+                final int w1 = w0 + ld;
+                final int w2 = w1 + ld;
+                final int w3 = w2 + ld;
+                //
+                double s0 = 0.0;
+                double s1 = 0.0;
+                double s2 = 0.0;
+                double s3 = 0.0;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final double xi = src[si + c];
+                    s0 += weights[w0 + c] * xi;
+                    s1 += weights[w1 + c] * xi;
+                    s2 += weights[w2 + c] * xi;
+                    s3 += weights[w3 + c] * xi;
+                }
+                //
+                final int j = dj + r;
+                dst[j]     += s0;
+                dst[j + 1] += s1;
+                dst[j + 2] += s2;
+                dst[j + 3] += s3;
+            }
+            //
+            // remaining rows.
+            //
+            for (; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                double s0 = 0.0;
+                for (int c = 0; c < sn; c++) {
+                    s0 += weights[w0 + c] * src[si + c];
+                }
+                dst[dj + r] += s0;
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * This method accumulates the transposed matrix-vector products of the given 
+     * dense blocks, i.e., for each block dst[s + c] += sum_r w[r][c] * src[d + r].
+     * Note that here src refers to the destination side of the blocks and
+     * dst to the source side, which is the case in the backward pass. The rows
+     * are processed in packages of four.
+     * <br></br>
+     * @param src Refers the source data array (destination side of the blocks).
+     * @param dst Refers the destination data array (source side of the blocks).
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block according 
+     * the this current context.
+     * @param blocksnum Gives the number of blocks according to the current context. 
+     * @see Block
+     */
+    public static void denseRev(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum
+    ) {
+        int block = blocksoff;
+        //
+        for (int b = 0; b < blocksnum; b++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            int r = 0;
+            //
+            for (; r + 3 < dn; r += 4) {
+                final int w0 = wi + (r * ld);
+                final int w1 = w0 + ld;
+                final int w2 = w1 + ld;
+                final int w3 = w2 + ld;
+                //
+                final int j = dj + r;
+                final double d0 = src[j];
+                final double d1 = src[j + 1];
+                final double d2 = src[j + 2];
+                final double d3 = src[j + 3];
+                //
+                for (int c = 0; c < sn; c++) {
+                    dst[si + c] += (
+                        (weights[w0 + c] * d0) + (weights[w1 + c] * d1) +
+                        (weights[w2 + c] * d2) + (weights[w3 + c] * d3)
+                    );
+                }
+            }
+            //
+            // remaining rows.
+            //
+            for (; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final double d0 = src[dj + r];
+                for (int c = 0; c < sn; c++) {
+                    dst[si + c] += weights[w0 + c] * d0;
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * This method computes the weighted sum for the given arguments, where the
+     * links are partitioned in dense blocks and the remaining sparse links.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     */
+    public static void sum(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final boolean reverse
+    ) {
+        //
+        // clean cell inputs.
+        //
+        int end = (cellsoff + cellsnum);
+        for (int i = cellsoff; i < end; i++) {
+            dst[i] = 0.0;
+        }
+        //
+        // dense part first, then the remaining links.
+        //
+        if (reverse) {
+            denseRev(src, dst, weights, blocks, blocksoff, blocksnum);
+        } else {
+            dense(src, dst, weights, blocks, blocksoff, blocksnum);
+        }
+        accumulate(src, dst, weights, links, linksoff, linksnum);
+    }
+
+    // ------------------------------------------------------------------------
+    // Batched integration functions. Here the data arrays contain the values
+    // of batch samples per cell, i.e., the value of cell c for the batch sample
+    // b is given at index (c * batch) + b. Thus, for each link the inner loop
+    // runs over batch contiguous values.
+    // ------------------------------------------------------------------------
+    
+    /**
+     * This method computes the weighted sum for the given arguments for 
+     * all samples of a batch.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void sum(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        if (linksnum == 0) return;
+        //
+        // clean cell inputs.
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        for (int i = cellsoff * batch; i < end; i++) {
+            dst[i] = 0.0;
+        }
+        //
+        accumulate(src, dst, weights, links, linksoff, linksnum, batch);
+    }
+    
+    /**
+     * This method accumulates the weighted values of the given links without
+     * cleaning the destination cells before for all samples of a batch.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulate(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            final double wij = weights[links[link + Link.IDX_WEIGHT]];
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] += (src[ci + b] * wij);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * This method copies the value of the last source cell of all predecessor cells for
+     * each destination cell for all samples of a batch. 
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void lastID(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] = src[ci + b];
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * This method computes product for the given arguments for all samples 
+     * of a batch.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void mult(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        if (linksnum == 0) return;
+        //
+        // clean cell inputs.
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        for (int i = cellsoff * batch; i < end; i++) {
+            dst[i] = 1.0;
+        }
+        //
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            final double wij = weights[links[link + Link.IDX_WEIGHT]];
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] *= (src[ci + b] * wij);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Batched version of dense. For each block and each weight the products
+     * are accumulated over all samples of the batch.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void dense(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final int j  = (dj + r) * batch;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final double wij = weights[w0 + c];
+                    final int i = (si + c) * batch;
+                    //
+                    for (int b = 0; b < batch; b++) {
+                        dst[j + b] += wij * src[i + b];
+                    }
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Batched version of denseRev.
+     * <br></br>
+     * @param src Refers the source data array (destination side of the blocks).
+     * @param dst Refers the destination data array (source side of the blocks).
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void denseRev(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final int j  = (dj + r) * batch;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final double wij = weights[w0 + c];
+                    final int i = (si + c) * batch;
+                    //
+                    for (int b = 0; b < batch; b++) {
+                        dst[i + b] += wij * src[j + b];
+                    }
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Batched version of the weighted sum over dense blocks and sparse links.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void sum(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final boolean reverse,
+            final int batch
+    ) {
+        if (batch == 1) {
+            sum(
+                src, dst, cellsoff, cellsnum, weights, blocks, blocksoff, 
+                blocksnum, links, linksoff, linksnum, reverse
+            );
+            return;
+        }
+        //
+        // clean cell inputs.
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        for (int i = cellsoff * batch; i < end; i++) {
+            dst[i] = 0.0;
+        }
+        //
+        if (reverse) {
+            denseRev(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        } else {
+            dense(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        }
+        accumulate(src, dst, weights, links, linksoff, linksnum, batch);
+    }
+    
+    /**
+     * This methods applies the a integration given by an index for the given 
+     * arguments for all samples of a batch. For a batch size of 1 the regular 
+     * integration functions are used.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param integration Determines the specific integration function.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void perform(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int integration,
+            final int batch
+    ) {
+        if (batch == 1) {
+            perform(
+                src, dst, cellsoff, cellsnum, weights, 
+                links, linksoff, linksnum, integration
+            );
+            return;
+        }
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                sum(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                mult(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                break;
+                //
+            case CellIntegration.LASTID:
+                lastID(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    /**
+     * This method multiplies the weighted values of the given links into
+     * the destination cells without initializing them before for all 
+     * samples of a batch.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void multiply(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            final double wij = weights[links[link + Link.IDX_WEIGHT]];
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] *= (src[ci + b] * wij);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * This method accumulates the weighted values of the given dense blocks
+     * and sparse links without cleaning the destination cells before.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulate(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final boolean reverse,
+            final int batch
+    ) {
+        if (batch == 1) {
+            if (reverse) {
+                denseRev(src, dst, weights, blocks, blocksoff, blocksnum);
+            } else {
+                dense(src, dst, weights, blocks, blocksoff, blocksnum);
+            }
+            accumulate(src, dst, weights, links, linksoff, linksnum);
+            return;
+        }
+        if (reverse) {
+            denseRev(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        } else {
+            dense(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        }
+        accumulate(src, dst, weights, links, linksoff, linksnum, batch);
+    }
+    
+    /**
+     * This methods applies the integration given by an index, where the
+     * links are separated into links within the current time step and 
+     * recurrent links. The recurrent blocks and links read their source 
+     * values from prev, which is the data array of the adjacent time step. 
+     * Thus, the recurrent values need not to be copied into the current
+     * data array. For LASTID integration each destination cell must be 
+     * the destination of at most one of the given links.
+     * <br></br>
+     * @param src Refers the source data array (current time step).
+     * @param prev Refers the source data array of the adjacent time step.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param recblocksoff Gives the offset of the first recurrent block.
+     * @param recblocksnum Gives the number of recurrent blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reclinksoff Gives the offset of the first recurrent sparse link.
+     * @param reclinksnum Gives the number of recurrent sparse links.
+     * @param integration Determines the specific integration function.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void perform(
+            final double[] src,
+            final double[] prev,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int recblocksoff,
+            final int recblocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int reclinksoff,
+            final int reclinksnum,
+            final int integration,
+            final boolean reverse,
+            final int batch
+    ) {
+        if ((blocksnum + recblocksnum + linksnum + reclinksnum) == 0) return;
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 0.0;
+                }
+                accumulate(
+                    src, dst, weights, blocks, blocksoff, blocksnum,
+                    links, linksoff, linksnum, reverse, batch
+                );
+                accumulate(
+                    prev, dst, weights, blocks, recblocksoff, recblocksnum,
+                    links, reclinksoff, reclinksnum, reverse, batch
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 1.0;
+                }
+                multiply(src, dst, weights, links, linksoff, linksnum, batch);
+                multiply(prev, dst, weights, links, reclinksoff, reclinksnum, batch);
+                break;
+                //
+            case CellIntegration.LASTID:
+                lastID(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                lastID(
+                    prev, dst, cellsoff, cellsnum, 
+                    weights, links, reclinksoff, reclinksnum, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    /**
+     * This method accumulates the weighted values of the given compressed 
+     * sparse rows (see Column) without cleaning the destination cells before. 
+     * The sum of each destination cell is accumulated in a register and
+     * stored once, where the links of a cell are processed in the same 
+     * order as by accumulate.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param rows Refers the row pointers.
+     * @param rowsoff Gives the offset of the row pointers of the destination range.
+     * @param columns Refers the columns.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulateRows(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] rows,
+            final int rowsoff,
+            final int[] columns,
+            final int batch
+    ) {
+        for (int k = 0; k < cellsnum; k++) {
+            final int lbd = rows[rowsoff + k];
+            final int ubd = rows[rowsoff + k + 1];
+            if (lbd == ubd) continue;
+            //
+            final int cj = (cellsoff + k) * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                double sum = dst[cj + b];
+                for (int c = lbd; c < ubd; c += Column.COLUMN_SIZE) {
+                    sum += (
+                        src[(columns[c + Column.IDX_SRC] * batch) + b] * 
+                        weights[columns[c + Column.IDX_WEIGHT]]
+                    );
+                }
+                dst[cj + b] = sum;
+            }
+        }
+    }
+    
+    /**
+     * This method multiplies the weighted values of the given compressed 
+     * sparse rows (see Column) onto the destination cells. The product of 
+     * each destination cell is computed in a register and stored once.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param rows Refers the row pointers.
+     * @param rowsoff Gives the offset of the row pointers of the destination range.
+     * @param columns Refers the columns.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void multiplyRows(
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] rows,
+            final int rowsoff,
+            final int[] columns,
+            final int batch
+    ) {
+        for (int k = 0; k < cellsnum; k++) {
+            final int lbd = rows[rowsoff + k];
+            final int ubd = rows[rowsoff + k + 1];
+            if (lbd == ubd) continue;
+            //
+            final int cj = (cellsoff + k) * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                double prod = dst[cj + b];
+                for (int c = lbd; c < ubd; c += Column.COLUMN_SIZE) {
+                    prod *= (
+                        src[(columns[c + Column.IDX_SRC] * batch) + b] * 
+                        weights[columns[c + Column.IDX_WEIGHT]]
+                    );
+                }
+                dst[cj + b] = prod;
+            }
+        }
+    }
+    
+    /**
+     * This methods applies the integration given by an index, where the
+     * sparse links are given in the compressed sparse row layout (see Column).
+     * Apart from that, this method is equivalent to the perform method for 
+     * resolved structures with sparse links. Only SUM and MULT integration
+     * are supported.
+     * <br></br>
+     * @param src Refers the source data array (current time step).
+     * @param prev Refers the source data array of the adjacent time step.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param recblocksoff Gives the offset of the first recurrent block.
+     * @param recblocksnum Gives the number of recurrent blocks.
+     * @param rows Refers the row pointers.
+     * @param columns Refers the columns.
+     * @param rowsoff Gives the offset of the row pointers.
+     * @param recrowsoff Gives the offset of the recurrent row pointers.
+     * @param integration Determines the specific integration function.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void perform(
+            final double[] src,
+            final double[] prev,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int recblocksoff,
+            final int recblocksnum,
+            final int[] rows,
+            final int[] columns,
+            final int rowsoff,
+            final int recrowsoff,
+            final int integration,
+            final boolean reverse,
+            final int batch
+    ) {
+        if (
+            ((blocksnum + recblocksnum) == 0) &&
+            (rows[rowsoff] == rows[rowsoff + cellsnum]) &&
+            (rows[recrowsoff] == rows[recrowsoff + cellsnum])
+        ) return;
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 0.0;
+                }
+                accumulate(
+                    src, dst, weights, blocks, blocksoff, blocksnum,
+                    null, 0, 0, reverse, batch
+                );
+                accumulateRows(
+                    src, dst, cellsoff, cellsnum, weights, rows, rowsoff, columns, batch
+                );
+                accumulate(
+                    prev, dst, weights, blocks, recblocksoff, recblocksnum,
+                    null, 0, 0, reverse, batch
+                );
+                accumulateRows(
+                    prev, dst, cellsoff, cellsnum, weights, rows, recrowsoff, columns, batch
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 1.0;
+                }
+                multiplyRows(
+                    src, dst, cellsoff, cellsnum, weights, rows, rowsoff, columns, batch
+                );
+                multiplyRows(
+                    prev, dst, cellsoff, cellsnum, weights, rows, recrowsoff, columns, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    /**
+     * This method accumulates the weight gradients of the given blocks and
+     * links, i.e., for each weighted link the product of the delta of the
+     * destination cell and the value of the source cell is added to the 
+     * gradient of the link weight. For batches these products are summed 
+     * over the samples first. Links with weight index 0 are skipped.
+     * <br></br>
+     * @param src Refers the source data array (activations).
+     * @param deltas Refers the deltas of the destination cells.
+     * @param gradients Refers the gradients vector (indexed like the weights).
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link.
+     * @param linksnum Gives the number of links.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void gradients(
+            final double[] src,
+            final double[] deltas,
+            final double[] gradients,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                //
+                if (batch == 1) {
+                    final double dk = deltas[dj + r];
+                    for (int c = 0; c < sn; c++) {
+                        gradients[w0 + c] += (dk * src[si + c]);
+                    }
+                    continue;
+                }
+                //
+                final int dk = (dj + r) * batch;
+                for (int c = 0; c < sn; c++) {
+                    final int xj = (si + c) * batch;
+                    double dw = 0.0;
+                    for (int b = 0; b < batch; b++) {
+                        dw += (deltas[dk + b] * src[xj + b]);
+                    }
+                    gradients[w0 + c] += dw;
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+        //
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ij = links[link + Link.IDX_WEIGHT];
+            //
+            if (ij > 0) {
+                final int ci = links[link + Link.IDX_SRC] * batch;
+                final int cj = links[link + Link.IDX_DST] * batch;
+                //
+                double dw = 0.0;
+                for (int b = 0; b < batch; b++) {
+                    dw += (deltas[cj + b] * src[ci + b]);
+                }
+                gradients[ij] += dw;
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    // ------------------------------------------------------------------------
+
     /**
      * This methods applies the a integration given by an index for the given arguments.
      * The methods uses a switch block to map to the specific integration function.
@@ -221,11 +1307,1049 @@ public final class CellIntegration {
      * @param integration Determines the specific integration function.
      */
     public static void perform(
-            final double[] src,
-            final double[] dst,
+            final double[] src,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int integration
+    ) {
+        //
+        // Note: Is has been tested, that in Java a "short" switch block is much
+        // faster than any other decision mechanism such as polymorphic
+        // approaches like the strategy pattern.
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                sum(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                mult(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum
+                );
+                break;
+                //
+            case CellIntegration.LASTID:
+                lastID(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    // ------------------------------------------------------------------------
+    // Population integration functions. Here the batch samples are computed
+    // with different weight vectors (population mode), i.e., the weights vector
+    // contains the weight w for the batch sample b at index (w * batch) + b.
+    // Thus, for each link the inner loop runs over batch contiguous values 
+    // and batch contiguous weights.
+    // ------------------------------------------------------------------------
+    
+    /**
+     * Population version of dense.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the interleaved weights vectors.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void densePopulation(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final int j  = (dj + r) * batch;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final int wij = (w0 + c) * batch;
+                    final int i   = (si + c) * batch;
+                    //
+                    for (int b = 0; b < batch; b++) {
+                        dst[j + b] += weights[wij + b] * src[i + b];
+                    }
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Population version of accumulate.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the interleaved weights vectors.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulatePopulation(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci  = links[link + Link.IDX_SRC] * batch; 
+            final int cj  = links[link + Link.IDX_DST] * batch;
+            final int wij = links[link + Link.IDX_WEIGHT] * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] += (src[ci + b] * weights[wij + b]);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Population version of multiply.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the interleaved weights vectors.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void multiplyPopulation(
+            final double[] src,
+            final double[] dst,
+            final double[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci  = links[link + Link.IDX_SRC] * batch; 
+            final int cj  = links[link + Link.IDX_DST] * batch;
+            final int wij = links[link + Link.IDX_WEIGHT] * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] *= (src[ci + b] * weights[wij + b]);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Population version of perform with separated recurrent blocks and 
+     * links (forward pass only). If the recurrent parts are empty, prev 
+     * is not accessed and may be null. Note that LASTID integration does 
+     * not depend on the weights.
+     * <br></br>
+     * @param src Refers the source data array (current time step).
+     * @param prev Refers the source data array of the adjacent time step.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the interleaved weights vectors.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param recblocksoff Gives the offset of the first recurrent block.
+     * @param recblocksnum Gives the number of recurrent blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reclinksoff Gives the offset of the first recurrent sparse link.
+     * @param reclinksnum Gives the number of recurrent sparse links.
+     * @param integration Determines the specific integration function.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void performPopulation(
+            final double[] src,
+            final double[] prev,
+            final double[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final double[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int recblocksoff,
+            final int recblocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int reclinksoff,
+            final int reclinksnum,
+            final int integration,
+            final int batch
+    ) {
+        if ((blocksnum + recblocksnum + linksnum + reclinksnum) == 0) return;
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 0.0;
+                }
+                densePopulation(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+                accumulatePopulation(src, dst, weights, links, linksoff, linksnum, batch);
+                densePopulation(prev, dst, weights, blocks, recblocksoff, recblocksnum, batch);
+                accumulatePopulation(prev, dst, weights, links, reclinksoff, reclinksnum, batch);
+                break;
+                //
+            case CellIntegration.MULT:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 1.0;
+                }
+                multiplyPopulation(src, dst, weights, links, linksoff, linksnum, batch);
+                multiplyPopulation(prev, dst, weights, links, reclinksoff, reclinksnum, batch);
+                break;
+                //
+            case CellIntegration.LASTID:
+                lastID(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                lastID(
+                    prev, dst, cellsoff, cellsnum, 
+                    weights, links, reclinksoff, reclinksnum, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    // ------------------------------------------------------------------------
+    // Single precision integration functions. These methods are equivalent to
+    // the double precision methods above, but operate on float data arrays 
+    // and float weights.
+    // ------------------------------------------------------------------------
+    
+    /**
+     * Single precision version of sum.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     */
+    public static void sum(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum
+    ) {
+        if (linksnum == 0) return;
+        //
+        int link = linksoff;
+        //
+        // clean cell inputs.
+        //
+        int end = (cellsoff + cellsnum);
+        for (int i = cellsoff; i < end; i++) {
+            dst[i] = 0.0f;
+        }   
+        //
+        // compute weighted sum over all links.
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC]; 
+            final int cj = links[link + Link.IDX_DST];
+            final int ij = links[link + Link.IDX_WEIGHT];
+            ///
+            final float xi  = src[ci];
+            final float wij = weights[ij];
+            //
+            dst[cj] += (xi * wij);
+            //
+            // next link.
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of lastID.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     */
+    public static void lastID(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum
+    ) {
+        if (linksnum == 0) return;
+        //
+        int link = linksoff;
+        //
+        // compute weighted sum over all links.
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC]; 
+            final int cj = links[link + Link.IDX_DST];
+            ///
+            final float xi = src[ci];
+            //
+            dst[cj] = xi;
+            //
+            // next link.
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of mult.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     */
+    public static void mult(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum
+    ) {
+        if (linksnum == 0) return;
+        //
+        int link = linksoff;
+        //
+        // clean cell inputs.
+        //
+        int end = (cellsoff + cellsnum);
+        for (int i = cellsoff; i < end; i++) {
+            dst[i] = 1.0f;
+        }   
+        //
+        // compute weighted sum over all links.
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC]; 
+            final int cj = links[link + Link.IDX_DST];
+            final int ij = links[link + Link.IDX_WEIGHT];
+            //
+            final float xi  = src[ci];
+            final float wij = weights[ij];
+            //
+            dst[cj] *= (xi * wij);
+            //
+            // next link.
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of accumulate.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     */
+    public static void accumulate(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC]; 
+            final int cj = links[link + Link.IDX_DST];
+            final int ij = links[link + Link.IDX_WEIGHT];
+            //
+            dst[cj] += (src[ci] * weights[ij]);
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of dense.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block according 
+     * the this current context.
+     * @param blocksnum Gives the number of blocks according to the current context. 
+     * @see Block
+     */
+    public static void dense(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum
+    ) {
+        int block = blocksoff;
+        //
+        for (int b = 0; b < blocksnum; b++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            int r = 0;
+            //
+            for (; r + 3 < dn; r += 4) {
+                final int w0 = wi + (r * ld);
+                final int w1 = w0 + ld;
+                final int w2 = w1 + ld;
+                final int w3 = w2 + ld;
+                //
+                double s0 = 0.0;
+                double s1 = 0.0;
+                double s2 = 0.0;
+                double s3 = 0.0;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final float xi = src[si + c];
+                    s0 += weights[w0 + c] * xi;
+                    s1 += weights[w1 + c] * xi;
+                    s2 += weights[w2 + c] * xi;
+                    s3 += weights[w3 + c] * xi;
+                }
+                //
+                final int j = dj + r;
+                dst[j]     += s0;
+                dst[j + 1] += s1;
+                dst[j + 2] += s2;
+                dst[j + 3] += s3;
+            }
+            //
+            // remaining rows.
+            //
+            for (; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                double s0 = 0.0;
+                for (int c = 0; c < sn; c++) {
+                    s0 += weights[w0 + c] * src[si + c];
+                }
+                dst[dj + r] += s0;
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of denseRev.
+     * <br></br>
+     * @param src Refers the source data array (destination side of the blocks).
+     * @param dst Refers the destination data array (source side of the blocks).
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block according 
+     * the this current context.
+     * @param blocksnum Gives the number of blocks according to the current context. 
+     * @see Block
+     */
+    public static void denseRev(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum
+    ) {
+        int block = blocksoff;
+        //
+        for (int b = 0; b < blocksnum; b++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            int r = 0;
+            //
+            for (; r + 3 < dn; r += 4) {
+                final int w0 = wi + (r * ld);
+                final int w1 = w0 + ld;
+                final int w2 = w1 + ld;
+                final int w3 = w2 + ld;
+                //
+                final int j = dj + r;
+                final float d0 = src[j];
+                final float d1 = src[j + 1];
+                final float d2 = src[j + 2];
+                final float d3 = src[j + 3];
+                //
+                for (int c = 0; c < sn; c++) {
+                    dst[si + c] += (
+                        (weights[w0 + c] * d0) + (weights[w1 + c] * d1) +
+                        (weights[w2 + c] * d2) + (weights[w3 + c] * d3)
+                    );
+                }
+            }
+            //
+            // remaining rows.
+            //
+            for (; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final float d0 = src[dj + r];
+                for (int c = 0; c < sn; c++) {
+                    dst[si + c] += weights[w0 + c] * d0;
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of sum.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     */
+    public static void sum(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final boolean reverse
+    ) {
+        //
+        // clean cell inputs.
+        //
+        int end = (cellsoff + cellsnum);
+        for (int i = cellsoff; i < end; i++) {
+            dst[i] = 0.0f;
+        }
+        //
+        // dense part first, then the remaining links.
+        //
+        if (reverse) {
+            denseRev(src, dst, weights, blocks, blocksoff, blocksnum);
+        } else {
+            dense(src, dst, weights, blocks, blocksoff, blocksnum);
+        }
+        accumulate(src, dst, weights, links, linksoff, linksnum);
+    }
+    
+    /**
+     * Single precision version of sum.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void sum(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        if (linksnum == 0) return;
+        //
+        // clean cell inputs.
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        for (int i = cellsoff * batch; i < end; i++) {
+            dst[i] = 0.0f;
+        }
+        //
+        accumulate(src, dst, weights, links, linksoff, linksnum, batch);
+    }
+    
+    /**
+     * Single precision version of accumulate.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulate(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            final float wij = weights[links[link + Link.IDX_WEIGHT]];
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] += (src[ci + b] * wij);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of lastID.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void lastID(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] = src[ci + b];
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of mult.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void mult(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        if (linksnum == 0) return;
+        //
+        // clean cell inputs.
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        for (int i = cellsoff * batch; i < end; i++) {
+            dst[i] = 1.0f;
+        }
+        //
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            final float wij = weights[links[link + Link.IDX_WEIGHT]];
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] *= (src[ci + b] * wij);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of dense.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void dense(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final int j  = (dj + r) * batch;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final float wij = weights[w0 + c];
+                    final int i = (si + c) * batch;
+                    //
+                    for (int b = 0; b < batch; b++) {
+                        dst[j + b] += wij * src[i + b];
+                    }
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of denseRev.
+     * <br></br>
+     * @param src Refers the source data array (destination side of the blocks).
+     * @param dst Refers the destination data array (source side of the blocks).
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void denseRev(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final int j  = (dj + r) * batch;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final float wij = weights[w0 + c];
+                    final int i = (si + c) * batch;
+                    //
+                    for (int b = 0; b < batch; b++) {
+                        dst[i + b] += wij * src[j + b];
+                    }
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of sum.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void sum(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final boolean reverse,
+            final int batch
+    ) {
+        if (batch == 1) {
+            sum(
+                src, dst, cellsoff, cellsnum, weights, blocks, blocksoff, 
+                blocksnum, links, linksoff, linksnum, reverse
+            );
+            return;
+        }
+        //
+        // clean cell inputs.
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        for (int i = cellsoff * batch; i < end; i++) {
+            dst[i] = 0.0f;
+        }
+        //
+        if (reverse) {
+            denseRev(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        } else {
+            dense(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        }
+        accumulate(src, dst, weights, links, linksoff, linksnum, batch);
+    }
+    
+    /**
+     * Single precision version of perform.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param integration Determines the specific integration function.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void perform(
+            final float[] src,
+            final float[] dst,
             final int cellsoff,
             final int cellsnum,
-            final double[] weights,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int integration,
+            final int batch
+    ) {
+        if (batch == 1) {
+            perform(
+                src, dst, cellsoff, cellsnum, weights, 
+                links, linksoff, linksnum, integration
+            );
+            return;
+        }
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                sum(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                mult(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                break;
+                //
+            case CellIntegration.LASTID:
+                lastID(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    /**
+     * Single precision version of perform.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param integration Determines the specific integration function.
+     */
+    public static void perform(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
             final int[] links,
             final int linksoff,
             final int linksnum,
@@ -266,5 +2390,422 @@ public final class CellIntegration {
         }
     }
     
+    /**
+     * Single precision version of multiply.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param links Refers the links vector.
+     * @param linksoff Gives the offset of the first link according 
+     * the this current context.
+     * @param linksnum Gives the number of links according to the current context. 
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void multiply(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ci = links[link + Link.IDX_SRC] * batch; 
+            final int cj = links[link + Link.IDX_DST] * batch;
+            final float wij = weights[links[link + Link.IDX_WEIGHT]];
+            //
+            for (int b = 0; b < batch; b++) {
+                dst[cj + b] *= (src[ci + b] * wij);
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+    
+    /**
+     * Single precision version of accumulate.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulate(
+            final float[] src,
+            final float[] dst,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final boolean reverse,
+            final int batch
+    ) {
+        if (batch == 1) {
+            if (reverse) {
+                denseRev(src, dst, weights, blocks, blocksoff, blocksnum);
+            } else {
+                dense(src, dst, weights, blocks, blocksoff, blocksnum);
+            }
+            accumulate(src, dst, weights, links, linksoff, linksnum);
+            return;
+        }
+        if (reverse) {
+            denseRev(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        } else {
+            dense(src, dst, weights, blocks, blocksoff, blocksnum, batch);
+        }
+        accumulate(src, dst, weights, links, linksoff, linksnum, batch);
+    }
+    
+    /**
+     * Single precision version of perform.
+     * <br></br>
+     * @param src Refers the source data array (current time step).
+     * @param prev Refers the source data array of the adjacent time step.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param recblocksoff Gives the offset of the first recurrent block.
+     * @param recblocksnum Gives the number of recurrent blocks.
+     * @param links Refers the sparse links vector.
+     * @param linksoff Gives the offset of the first sparse link.
+     * @param linksnum Gives the number of sparse links.
+     * @param reclinksoff Gives the offset of the first recurrent sparse link.
+     * @param reclinksnum Gives the number of recurrent sparse links.
+     * @param integration Determines the specific integration function.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void perform(
+            final float[] src,
+            final float[] prev,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int recblocksoff,
+            final int recblocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int reclinksoff,
+            final int reclinksnum,
+            final int integration,
+            final boolean reverse,
+            final int batch
+    ) {
+        if ((blocksnum + recblocksnum + linksnum + reclinksnum) == 0) return;
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 0.0f;
+                }
+                accumulate(
+                    src, dst, weights, blocks, blocksoff, blocksnum,
+                    links, linksoff, linksnum, reverse, batch
+                );
+                accumulate(
+                    prev, dst, weights, blocks, recblocksoff, recblocksnum,
+                    links, reclinksoff, reclinksnum, reverse, batch
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 1.0f;
+                }
+                multiply(src, dst, weights, links, linksoff, linksnum, batch);
+                multiply(prev, dst, weights, links, reclinksoff, reclinksnum, batch);
+                break;
+                //
+            case CellIntegration.LASTID:
+                lastID(
+                    src, dst, cellsoff, cellsnum, 
+                    weights, links, linksoff, linksnum, batch
+                );
+                lastID(
+                    prev, dst, cellsoff, cellsnum, 
+                    weights, links, reclinksoff, reclinksnum, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    // ------------------------------------------------------------------------
+
+    /**
+     * Single precision version of accumulateRows.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param rows Refers the row pointers.
+     * @param rowsoff Gives the offset of the row pointers of the destination range.
+     * @param columns Refers the columns.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void accumulateRows(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] rows,
+            final int rowsoff,
+            final int[] columns,
+            final int batch
+    ) {
+        for (int k = 0; k < cellsnum; k++) {
+            final int lbd = rows[rowsoff + k];
+            final int ubd = rows[rowsoff + k + 1];
+            if (lbd == ubd) continue;
+            //
+            final int cj = (cellsoff + k) * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                float sum = dst[cj + b];
+                for (int c = lbd; c < ubd; c += Column.COLUMN_SIZE) {
+                    sum += (
+                        src[(columns[c + Column.IDX_SRC] * batch) + b] * 
+                        weights[columns[c + Column.IDX_WEIGHT]]
+                    );
+                }
+                dst[cj + b] = sum;
+            }
+        }
+    }
+    
+    /**
+     * Single precision version of multiplyRows.
+     * <br></br>
+     * @param src Refers the source data array.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param rows Refers the row pointers.
+     * @param rowsoff Gives the offset of the row pointers of the destination range.
+     * @param columns Refers the columns.
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void multiplyRows(
+            final float[] src,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] rows,
+            final int rowsoff,
+            final int[] columns,
+            final int batch
+    ) {
+        for (int k = 0; k < cellsnum; k++) {
+            final int lbd = rows[rowsoff + k];
+            final int ubd = rows[rowsoff + k + 1];
+            if (lbd == ubd) continue;
+            //
+            final int cj = (cellsoff + k) * batch;
+            //
+            for (int b = 0; b < batch; b++) {
+                float prod = dst[cj + b];
+                for (int c = lbd; c < ubd; c += Column.COLUMN_SIZE) {
+                    prod *= (
+                        src[(columns[c + Column.IDX_SRC] * batch) + b] * 
+                        weights[columns[c + Column.IDX_WEIGHT]]
+                    );
+                }
+                dst[cj + b] = prod;
+            }
+        }
+    }
+    
+    /**
+     * Single precision version of perform with compressed sparse rows.
+     * <br></br>
+     * @param src Refers the source data array (current time step).
+     * @param prev Refers the source data array of the adjacent time step.
+     * @param dst Refers the destination data array.
+     * @param cellsoff Refers the lower bound of the destination range.
+     * @param cellsnum Refers the size of the destination range.
+     * @param weights Refers the weights vector.
+     * @param blocks Refers the blocks vector.
+     * @param blocksoff Gives the offset of the first block.
+     * @param blocksnum Gives the number of blocks.
+     * @param recblocksoff Gives the offset of the first recurrent block.
+     * @param recblocksnum Gives the number of recurrent blocks.
+     * @param rows Refers the row pointers.
+     * @param columns Refers the columns.
+     * @param rowsoff Gives the offset of the row pointers.
+     * @param recrowsoff Gives the offset of the recurrent row pointers.
+     * @param integration Determines the specific integration function.
+     * @param reverse If true, the blocks are applied transposed (backward pass).
+     * @param batch Gives the number of samples per cell.
+     */
+    public static void perform(
+            final float[] src,
+            final float[] prev,
+            final float[] dst,
+            final int cellsoff,
+            final int cellsnum,
+            final float[] weights,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int recblocksoff,
+            final int recblocksnum,
+            final int[] rows,
+            final int[] columns,
+            final int rowsoff,
+            final int recrowsoff,
+            final int integration,
+            final boolean reverse,
+            final int batch
+    ) {
+        if (
+            ((blocksnum + recblocksnum) == 0) &&
+            (rows[rowsoff] == rows[rowsoff + cellsnum]) &&
+            (rows[recrowsoff] == rows[recrowsoff + cellsnum])
+        ) return;
+        //
+        final int end = (cellsoff + cellsnum) * batch;
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 0.0f;
+                }
+                accumulate(
+                    src, dst, weights, blocks, blocksoff, blocksnum,
+                    null, 0, 0, reverse, batch
+                );
+                accumulateRows(
+                    src, dst, cellsoff, cellsnum, weights, rows, rowsoff, columns, batch
+                );
+                accumulate(
+                    prev, dst, weights, blocks, recblocksoff, recblocksnum,
+                    null, 0, 0, reverse, batch
+                );
+                accumulateRows(
+                    prev, dst, cellsoff, cellsnum, weights, rows, recrowsoff, columns, batch
+                );
+                break;
+                //
+            case CellIntegration.MULT:
+                for (int i = cellsoff * batch; i < end; i++) {
+                    dst[i] = 1.0f;
+                }
+                multiplyRows(
+                    src, dst, cellsoff, cellsnum, weights, rows, rowsoff, columns, batch
+                );
+                multiplyRows(
+                    prev, dst, cellsoff, cellsnum, weights, rows, recrowsoff, columns, batch
+                );
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+    
+    /**
+     * Single precision version of gradients. The gradients are
+     * accumulated in double precision.
+     */
+    public static void gradients(
+            final float[] src,
+            final float[] deltas,
+            final double[] gradients,
+            final int[] blocks,
+            final int blocksoff,
+            final int blocksnum,
+            final int[] links,
+            final int linksoff,
+            final int linksnum,
+            final int batch
+    ) {
+        int block = blocksoff;
+        //
+        for (int k = 0; k < blocksnum; k++) {
+            //
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            for (int r = 0; r < dn; r++) {
+                final int w0 = wi + (r * ld);
+                final int dk = (dj + r) * batch;
+                //
+                for (int c = 0; c < sn; c++) {
+                    final int xj = (si + c) * batch;
+                    double dw = 0.0;
+                    for (int b = 0; b < batch; b++) {
+                        dw += (deltas[dk + b] * src[xj + b]);
+                    }
+                    gradients[w0 + c] += dw;
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+        //
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            //
+            final int ij = links[link + Link.IDX_WEIGHT];
+            //
+            if (ij > 0) {
+                final int ci = links[link + Link.IDX_SRC] * batch;
+                final int cj = links[link + Link.IDX_DST] * batch;
+                //
+                double dw = 0.0;
+                for (int b = 0; b < batch; b++) {
+                    dw += (deltas[cj + b] * src[ci + b]);
+                }
+                gradients[ij] += dw;
+            }
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
     
 }
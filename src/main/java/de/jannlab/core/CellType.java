@@ -202,6 +202,43 @@ public final class CellType implements Serializable {
         this.linear         = linear;
     }
     
+    /**
+     * Returns a version of this cell type with approximated activation
+     * functions (see CellFunction.approximate). The integration functions
+     * are not changed. If no function of the cell type can be approximated,
+     * the cell type itself is returned.
+     * <br></br>
+     * @param mode The approximation mode (see CellFunction.LUT, 
+     * CellFunction.RATIONAL, CellFunction.SCHRAUDOLPH or CellFunction.EXACT).
+     * @return The approximated cell type.
+     */
+    public CellType approximate(final int mode) {
+        final int act = CellFunction.approximate(this.activation, mode);
+        final int rev = CellFunction.approximate(this.revactivation, mode);
+        //
+        if ((act == this.activation) && (rev == this.revactivation)) return this;
+        //
+        final int base = this.name.indexOf('~');
+        final String name = (base < 0)?(this.name):(this.name.substring(0, base));
+        //
+        return new CellType(
+            this.integration, act, this.revintegration, rev,
+            name + suffix(mode), this.perceptron, this.linear
+        );
+    }
+    
+    /**
+     * Returns the name suffix of the given approximation mode.
+     */
+    private static String suffix(final int mode) {
+        switch (mode) {
+            case CellFunction.LUT:         return "~lut";
+            case CellFunction.RATIONAL:    return "~rational";
+            case CellFunction.SCHRAUDOLPH: return "~schraudolph";
+            default:                       return "";
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+/**
+ * This class provides constants and static methods for handling links in 
+ * the compressed sparse row (CSR) layout. Here, the links of a range of 
+ * destination cells are grouped by their destination cells (rows). For each
+ * row only the source cell and the weight index of the links are stored as
+ * columns, thus the destination index is not repeated for each link. 
+ * <br></br>
+ * A column consists of a 2-tuple (s,w) where s gives the source cell and w 
+ * gives the weight index. The row bounds of a range of n destination cells are
+ * given by n + 1 entries within a row pointer array, where the columns of the
+ * k-th cell are given by the column offsets from rows[r + k] (inclusive) to 
+ * rows[r + k + 1] (exclusive). Analogous to links, all columns of an ANN are
+ * contained by a 1-dimensional int-array. Note that the rows are stored in
+ * addition to the link triples of a network structure (see NetStructure.rows),
+ * so they speed up the integration but do not reduce the index memory.
+ * <br></br>
+ * @see Link
+ * @author Sebastian Otte
+ */
+public final class Column {
+
+    /**
+     * Gives the index of the source cell in a column tuple.
+     */
+    public static final int IDX_SRC = 0;
+    /**
+     * Gives the index of the weight index in a column tuple.
+     */
+    public static final int IDX_WEIGHT = 1;
+    /**
+     * Just gives the number of parts of a column tuple (which is 2).
+     */
+    public static final int COLUMN_SIZE = 2;
+
+    //-------------------------------------------------------------------------
+    
+    /**
+     * Returns the number of columns (links) of the given range of rows.
+     * @param rows The row pointers.
+     * @param rowsoff The offset of the first row.
+     * @param rowsnum The number of rows.
+     * @return Number of columns.
+     */
+    public static int columns(final int[] rows, final int rowsoff, final int rowsnum) {
+        return (rows[rowsoff + rowsnum] - rows[rowsoff]) / COLUMN_SIZE;
+    }
+
+    /**
+     * Builds a string for a given range of rows. The resulting string contains
+     * one line per row, starting with the destination cell.
+     * <br></br>
+     * @param rows The row pointers.
+     * @param columns The columns.
+     * @param rowsoff The offset of the first row.
+     * @param cellsoff The first destination cell.
+     * @param cellsnum The number of destination cells (rows).
+     * @return String representation of the rows.
+     */
+    public static String asString(
+            final int[] rows, 
+            final int[] columns,
+            final int rowsoff,
+            final int cellsoff,
+            final int cellsnum
+    ) {
+        StringBuilder out = new StringBuilder();
+        for (int k = 0; k < cellsnum; k++) {
+            if (k > 0) {
+                out.append("\n");
+            }
+            out.append((cellsoff + k) + ":");
+            for (int c = rows[rowsoff + k]; c < rows[rowsoff + k + 1]; c += COLUMN_SIZE) {
+                out.append(
+                    " (" + columns[c + IDX_SRC] + "," + columns[c + IDX_WEIGHT] + ")"
+                );
+            }
+        }
+        return out.toString();
+    }
+}
@@ -64,6 +64,7 @@ public final class FeedForwardNetBase extends NetBase {
      */
     @Override
     final public void computeGradient() {
+        this.checkBackward();
         //
         // from last to first layer.
         //
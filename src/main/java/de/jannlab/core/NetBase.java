@@ -20,11 +20,16 @@ package de.jannlab.core;
 
 import java.io.Serializable;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import de.jannlab.Net;
 import de.jannlab.data.ReadPort;
 import de.jannlab.data.WritePort;
+import de.jannlab.exception.JANNLabException;
 import de.jannlab.misc.DoubleTools;
+import de.jannlab.misc.FloatTools;
 import de.jannlab.misc.ObjectCopy;
 import de.jannlab.tools.Debug;
 
@@ -64,6 +69,50 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      * considered as an inner state during the computation process.
      */
     protected int frameidx = 0;
+    /**
+     * Gives the current batch index of the network. All input, output
+     * and target operations refer to the batch sample given by this index.
+     */
+    protected int batchidx = 0;
+    /**
+     * Gives the number of previous time steps which are still available
+     * within the frame ring in streaming mode. 
+     */
+    protected int history = 0;
+    /**
+     * Provides the executor for parallel computation. If null, the
+     * network computes sequentially.
+     */
+    protected transient ExecutorService executor = null;
+    /**
+     * Gives the default value of the parallel threshold.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+    /**
+     * Gives the minimum work (links times batch size) of the arrays of one
+     * computation index for parallel computation. Values less than 1 refer
+     * to the default value.
+     */
+    protected int parallelthreshold = DEFAULT_PARALLEL_THRESHOLD;
+    /**
+     * Marks the threads which are currently performing a task of
+     * parallel computation. Within these threads all further tasks are 
+     * performed sequentially, which avoids that the workers of a bounded
+     * executor block each other.
+     */
+    private static final ThreadLocal<Boolean> WORKER = new ThreadLocal<Boolean>();
+    /**
+     * Provides the compiled kernel for computing the layers. If null, the 
+     * layers are computed by the generic integration and activation 
+     * functions (see NetCompiler).
+     */
+    protected transient NetKernel kernel = null;
+    /**
+     * Provides the gradient sink into which the weight gradients are 
+     * accumulated during the backward pass. If null, no weight gradients 
+     * are computed.
+     */
+    protected transient double[] gradientsink = null;
     /**
      * Provides a read port to the output data of this network. This port 
      * targets to the range of output cells in the output buffer 
@@ -83,167 +132,1219 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     private WritePort targetport = null;
     /**
-     * This methods computes the activation (also integration) of a single 
-     * layer given by idx, based on the current frameidx. The method 
-     * ensures that the activations of all arrays of the layer are computed 
-     * in correct time order, which has been defined during generating the network.
+     * This methods computes the activation (also integration) of a single 
+     * layer given by idx, based on the current frameidx. The method 
+     * ensures that the activations of all arrays of the layer are computed 
+     * in correct time order, which has been defined during generating the network.
+     * <br></br>
+     * @param idx Gives a layer index.
+     */
+    protected void computeLayerActivations(final int idx) {
+        this.computeLayerActivations(idx, this.frameidx);
+    }
+    
+    /**
+     * This methods computes the activation of a single layer given by idx,
+     * based on the current frameidx. If the structure is resolved (see 
+     * NetStructure.resolved), the recurrent links read their source values 
+     * directly from the given previous frame. Otherwise, the recurrent 
+     * values must have been copied into the current frame before.
+     * <br></br>
+     * @param idx Gives a layer index.
+     * @param prevframe Gives the frame index of the previous time step. 
+     */
+    protected void computeLayerActivations(final int idx, final int prevframe) {
+        this.computeLayerActivations(idx, this.frameidx, prevframe);
+    }
+    
+    /**
+     * This methods computes the activation of a single layer given by idx
+     * for the given frame, which is independent from the current frameidx. 
+     * Thus, different layers can be computed concurrently, as long as they 
+     * do not depend on each other.
+     * <br></br>
+     * @param idx Gives a layer index.
+     * @param frame Gives the frame index of the computed time step.
+     * @param prevframe Gives the frame index of the previous time step. 
+     */
+    protected void computeLayerActivations(
+        final int idx, final int frame, final int prevframe
+    ) {
+        if (this.isKernel()) {
+            this.kernel.forward(
+                idx, this.data.input[frame], this.data.output[frame],
+                this.data.output[prevframe], this.data.weights
+            );
+            return;
+        }
+        final Layer layer = this.structure.layers[idx];
+        //
+        // respect shifted computation indices.
+        //
+        for (int c = 0; c < layer.compwidth; c++) {
+            //
+            final int lbd = layer.complbds[c];
+            final int ubd = layer.compubds[c];
+            //
+            // the arrays of one computation index are independent,
+            // so they can be computed in parallel.
+            //
+            if (this.isParallel(lbd, ubd, false)) {
+                this.computeArraysParallel(lbd, ubd, frame, prevframe, false);
+                continue;
+            }
+            //
+            // integration.
+            //
+            for (int a = lbd; a <= ubd; a++) {
+                this.integrateArray(a, frame, prevframe);
+            }
+            //
+            // activation.
+            //
+            for (int a = lbd; a <= ubd; a++) {
+                this.activateArray(a, frame);
+            }
+        }
+    }
+    
+    /**
+     * This methods computes the gradient (reverse integration and derivative 
+     * activation)for a single layer given by idx, based on the current frameidx. 
+     * The method ensures that gradient of the arrays of the layer are computed
+     * in correct (reverse) time order, which has been defined during generating
+     * the network.
+     * <br></br>
+     * @param idx Gives a layer index.
+     */
+    protected void computeLayerGradients(final int idx) {
+        this.computeLayerGradients(idx, this.frameidx);
+    }
+    
+    /**
+     * This methods computes the gradient of a single layer given by idx,
+     * based on the current frameidx. If the structure is resolved (see 
+     * NetStructure.resolved), the recurrent links read their gradients 
+     * directly from the given next frame. Otherwise, the recurrent 
+     * gradients must have been copied into the current frame before.
+     * <br></br>
+     * @param idx Gives a layer index.
+     * @param nextframe Gives the frame index of the next time step. 
+     */
+    protected void computeLayerGradients(final int idx, final int nextframe) {
+        this.computeLayerGradients(idx, this.frameidx, nextframe);
+    }
+    
+    /**
+     * This methods computes the gradient of a single layer given by idx
+     * for the given frame, which is independent from the current frameidx
+     * (see computeLayerActivations).
+     * <br></br>
+     * @param idx Gives a layer index.
+     * @param frame Gives the frame index of the computed time step.
+     * @param nextframe Gives the frame index of the next time step. 
+     */
+    protected void computeLayerGradients(
+        final int idx, final int frame, final int nextframe
+    ) {
+        if (this.isKernel()) {
+            this.kernel.backward(
+                idx, this.data.input[frame], this.data.gradinput[frame],
+                this.data.gradoutput[frame], this.data.gradoutput[nextframe],
+                this.data.weights
+            );
+            if (this.gradientsink != null) {
+                final Layer layer = this.structure.layers[idx];
+                for (int c = 0; c < layer.compwidth; c++) {
+                    this.accumulateGradients(
+                        layer.complbds[c], layer.compubds[c], frame
+                    );
+                }
+            }
+            return;
+        }
+        final Layer layer = this.structure.layers[idx];
+        //
+        // respect shifted computation indices.
+        //
+        for (int c = layer.compwidth - 1; c >= 0; c--) {
+            //
+            final int lbd = layer.complbds[c];
+            final int ubd = layer.compubds[c];
+            //
+            if (this.isParallel(lbd, ubd, true)) {
+                this.computeArraysParallel(lbd, ubd, frame, nextframe, true);
+            } else {
+                //
+                // reverse integration.
+                //
+                for (int a = ubd; a >= lbd; a--) {
+                    this.revIntegrateArray(a, frame, nextframe);
+                }
+                //
+                // activation derivation.
+                //
+                for (int a = lbd; a <= ubd; a++) {
+                    this.derivateArray(a, frame);
+                }
+            }
+            //
+            // the deltas of the arrays are final now.
+            //
+            if (this.gradientsink != null) {
+                this.accumulateGradients(lbd, ubd, frame);
+            }
+        }
+    }
+    
+    /**
+     * Determines whether the arrays in the given range are computed in 
+     * parallel, which is the case if an executor is given, the range contains
+     * more than one array and the number of link operations exceeds the 
+     * parallel threshold.
+     * <br></br>
+     * @param lbd The first array.
+     * @param ubd The last array (inclusive).
+     * @param rev Backward pass?
+     * @return True for parallel computation.
+     */
+    private boolean isParallel(final int lbd, final int ubd, final boolean rev) {
+        if ((this.executor == null) || (lbd >= ubd)) return false;
+        //
+        long work = 0;
+        for (int a = lbd; a <= ubd; a++) {
+            final CellArray array = this.structure.arrays[a];
+            work += (rev)?(array.succsnum):(array.predsnum);
+        }
+        work *= this.data.batchsize;
+        return (work >= this.getParallelThreshold());
+    }
+    
+    /**
+     * Computes the arrays of the given range in parallel. The arrays are
+     * distributed into chunks of approximately equal work. As in sequential 
+     * computation, all arrays are integrated before the activation functions 
+     * (or derivations) are applied.
+     * <br></br>
+     * @param lbd The first array.
+     * @param ubd The last array (inclusive).
+     * @param frame Gives the frame index of the computed time step.
+     * @param other Gives the frame index of the previous (forward) or the 
+     * next (backward) time step.
+     * @param rev Backward pass?
+     */
+    private void computeArraysParallel(
+        final int lbd, final int ubd, 
+        final int frame, final int other, final boolean rev
+    ) {
+        final int[][] chunks = this.chunks(lbd, ubd, rev);
+        //
+        final Runnable[] integrations = new Runnable[chunks.length];
+        final Runnable[] activations  = new Runnable[chunks.length];
+        //
+        for (int i = 0; i < chunks.length; i++) {
+            final int[] chunk = chunks[i];
+            integrations[i] = new ArrayTask(this, chunk, frame, other, rev, true);
+            activations[i]  = new ArrayTask(this, chunk, frame, other, rev, false);
+        }
+        this.execute(integrations);
+        this.execute(activations);
+    }
+    
+    /**
+     * Distributes the arrays of the given range into chunks of approximately
+     * equal work (number of links). The number of chunks is bounded by the 
+     * number of available processors.
+     * <br></br>
+     * @param lbd The first array.
+     * @param ubd The last array (inclusive).
+     * @param rev Backward pass?
+     * @return The array indices grouped by chunks.
+     */
+    private int[][] chunks(final int lbd, final int ubd, final boolean rev) {
+        final int num = (ubd - lbd) + 1;
+        final int n   = Math.min(num, Runtime.getRuntime().availableProcessors());
+        //
+        final long[] work  = new long[n];
+        final int[] size   = new int[n];
+        final int[] target = new int[num];
+        //
+        // greedy: each array is assigned to the chunk with the least work.
+        //
+        for (int a = lbd; a <= ubd; a++) {
+            final CellArray array = this.structure.arrays[a];
+            int min = 0;
+            for (int i = 1; i < n; i++) {
+                if (work[i] < work[min]) min = i;
+            }
+            work[min] += 1 + ((rev)?(array.succsnum):(array.predsnum));
+            size[min]++;
+            target[a - lbd] = min;
+        }
+        //
+        final int[][] result = new int[n][];
+        for (int i = 0; i < n; i++) {
+            result[i] = new int[size[i]];
+            size[i]   = 0;
+        }
+        for (int a = lbd; a <= ubd; a++) {
+            final int i = target[a - lbd];
+            result[i][size[i]++] = a;
+        }
+        return result;
+    }
+    
+    /**
+     * Computes the integration of a single array for the given frame.
+     * <br></br>
+     * @param a The array index.
+     * @param frame Gives the frame index of the computed time step.
+     * @param prevframe Gives the frame index of the previous time step. 
+     */
+    private void integrateArray(final int a, final int frame, final int prevframe) {
+        final CellArray array = this.structure.arrays[a];
+        final int batch       = this.data.batchsize;
+        //
+        if (this.data.single) {
+            this.integrateArraySingle(array, frame, prevframe);
+            return;
+        }
+        if (this.data.popweights != null) {
+            this.integrateArrayPopulation(array, frame, prevframe);
+            return;
+        }
+        if (this.structure.resolved && (array.predrowslbd >= 0)) {
+            CellIntegration.perform(
+                this.data.output[frame], this.data.output[prevframe],
+                this.data.input[frame], 
+                array.cellslbd, array.cellsnum,
+                this.data.weights, 
+                this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                array.predrecblockslbd, array.predrecblocksnum,
+                this.structure.rows, this.structure.columns,
+                array.predrowslbd, array.predrecrowslbd,
+                array.celltype.integration, false, batch
+            );
+            return;
+        }
+        if (this.structure.resolved) {
+            CellIntegration.perform(
+                this.data.output[frame], this.data.output[prevframe],
+                this.data.input[frame], 
+                array.cellslbd, array.cellsnum,
+                this.data.weights, 
+                this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                array.predrecblockslbd, array.predrecblocksnum,
+                this.structure.sparselinks,
+                array.predsparselbd, array.predsparsenum,
+                array.predrecsparselbd, array.predrecsparsenum,
+                array.celltype.integration, false, batch
+            );
+            return;
+        }
+        //
+        // fully connected array pairs are integrated
+        // via the dense blocks.
+        //
+        if (array.predblocksnum > 0) {
+            CellIntegration.sum(
+                this.data.output[frame], this.data.input[frame], 
+                array.cellslbd, array.cellsnum,
+                this.data.weights, 
+                this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                this.structure.sparselinks,
+                array.predsparselbd, array.predsparsenum,
+                false, batch
+            );
+            return;
+        }
+        CellIntegration.perform(
+            this.data.output[frame], this.data.input[frame], 
+            array.cellslbd, array.cellsnum,
+            this.data.weights, this.structure.links,
+            array.predslbd, array.predsnum,
+            array.celltype.integration, batch
+        );
+    }
+    
+    /**
+     * Population version of integrateArray, where each batch sample is
+     * integrated with its own weight vector (see writePopulationWeights).
+     * The compressed sparse rows are not used here, because the sparse 
+     * links provide the same ranges.
+     */
+    private void integrateArrayPopulation(
+        final CellArray array, final int frame, final int prevframe
+    ) {
+        final int batch        = this.data.batchsize;
+        final double[] input   = this.data.input[frame];
+        final double[] output  = this.data.output[frame];
+        final double[] weights = this.data.popweights;
+        //
+        if (this.structure.resolved) {
+            CellIntegration.performPopulation(
+                output, this.data.output[prevframe], input,
+                array.cellslbd, array.cellsnum,
+                weights, this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                array.predrecblockslbd, array.predrecblocksnum,
+                this.structure.sparselinks,
+                array.predsparselbd, array.predsparsenum,
+                array.predrecsparselbd, array.predrecsparsenum,
+                array.celltype.integration, batch
+            );
+            return;
+        }
+        if (array.predblocksnum > 0) {
+            CellIntegration.performPopulation(
+                output, null, input,
+                array.cellslbd, array.cellsnum,
+                weights, this.structure.blocks,
+                array.predblockslbd, array.predblocksnum, 0, 0,
+                this.structure.sparselinks,
+                array.predsparselbd, array.predsparsenum, 0, 0,
+                CellIntegration.SUM, batch
+            );
+            return;
+        }
+        CellIntegration.performPopulation(
+            output, null, input,
+            array.cellslbd, array.cellsnum,
+            weights, null, 0, 0, 0, 0,
+            this.structure.links,
+            array.predslbd, array.predsnum, 0, 0,
+            array.celltype.integration, batch
+        );
+    }
+    
+    /**
+     * Single precision version of integrateArray.
+     */
+    private void integrateArraySingle(
+        final CellArray array, final int frame, final int prevframe
+    ) {
+        final int batch       = this.data.batchsize;
+        final float[] input   = this.data.sinput[frame];
+        final float[] output  = this.data.soutput[frame];
+        final float[] weights = this.data.sweights;
+        //
+        if (this.structure.resolved && (array.predrowslbd >= 0)) {
+            CellIntegration.perform(
+                output, this.data.soutput[prevframe], input, 
+                array.cellslbd, array.cellsnum,
+                weights, this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                array.predrecblockslbd, array.predrecblocksnum,
+                this.structure.rows, this.structure.columns,
+                array.predrowslbd, array.predrecrowslbd,
+                array.celltype.integration, false, batch
+            );
+            return;
+        }
+        if (this.structure.resolved) {
+            CellIntegration.perform(
+                output, this.data.soutput[prevframe], input, 
+                array.cellslbd, array.cellsnum,
+                weights, this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                array.predrecblockslbd, array.predrecblocksnum,
+                this.structure.sparselinks,
+                array.predsparselbd, array.predsparsenum,
+                array.predrecsparselbd, array.predrecsparsenum,
+                array.celltype.integration, false, batch
+            );
+            return;
+        }
+        if (array.predblocksnum > 0) {
+            CellIntegration.sum(
+                output, input, array.cellslbd, array.cellsnum,
+                weights, this.structure.blocks,
+                array.predblockslbd, array.predblocksnum,
+                this.structure.sparselinks,
+                array.predsparselbd, array.predsparsenum,
+                false, batch
+            );
+            return;
+        }
+        CellIntegration.perform(
+            output, input, array.cellslbd, array.cellsnum,
+            weights, this.structure.links,
+            array.predslbd, array.predsnum,
+            array.celltype.integration, batch
+        );
+    }
+    
+    /**
+     * Applies the activation function of a single array for the given frame.
+     * <br></br>
+     * @param a The array index.
+     * @param frame Gives the frame index of the computed time step.
+     */
+    private void activateArray(final int a, final int frame) {
+        final CellArray array = this.structure.arrays[a];
+        final int batch       = this.data.batchsize;
+        //
+        if (this.data.single) {
+            CellFunction.perform(
+                this.data.sinput[frame], array.cellslbd * batch,
+                this.data.soutput[frame], array.cellslbd * batch,
+                array.cellsnum * batch, array.celltype.activation
+            );
+            return;
+        }
+        CellFunction.perform(
+            this.data.input[frame], array.cellslbd * batch,
+            this.data.output[frame], array.cellslbd * batch,
+            array.cellsnum * batch, array.celltype.activation
+        );
+    }
+    
+    /**
+     * Computes the reverse integration of a single array for the given frame.
+     * <br></br>
+     * @param a The array index.
+     * @param frame Gives the frame index of the computed time step.
+     * @param nextframe Gives the frame index of the next time step. 
+     */
+    private void revIntegrateArray(final int a, final int frame, final int nextframe) {
+        final CellArray array = this.structure.arrays[a];
+        final int batch       = this.data.batchsize;
+        //
+        if (this.data.single) {
+            this.revIntegrateArraySingle(array, frame, nextframe);
+            return;
+        }
+        if (this.structure.resolved && (array.succrowslbd >= 0)) {
+            CellIntegration.perform(
+                this.data.gradoutput[frame], 
+                this.data.gradoutput[nextframe], 
+                this.data.gradinput[frame], 
+                array.cellslbd, array.cellsnum,
+                this.data.weights, 
+                this.structure.blocksrev,
+                array.succblockslbd, array.succblocksnum,
+                array.succrecblockslbd, array.succrecblocksnum,
+                this.structure.rowsrev, this.structure.columnsrev,
+                array.succrowslbd, array.succrecrowslbd,
+                array.celltype.revintegration, true, batch
+            );
+            return;
+        }
+        if (this.structure.resolved) {
+            CellIntegration.perform(
+                this.data.gradoutput[frame], 
+                this.data.gradoutput[nextframe], 
+                this.data.gradinput[frame], 
+                array.cellslbd, array.cellsnum,
+                this.data.weights, 
+                this.structure.blocksrev,
+                array.succblockslbd, array.succblocksnum,
+                array.succrecblockslbd, array.succrecblocksnum,
+                this.structure.sparselinksrev,
+                array.succsparselbd, array.succsparsenum,
+                array.succrecsparselbd, array.succrecsparsenum,
+                array.celltype.revintegration, true, batch
+            );
+            return;
+        }
+        if (array.succblocksnum > 0) {
+            CellIntegration.sum(
+                this.data.gradoutput[frame], 
+                this.data.gradinput[frame], 
+                array.cellslbd, array.cellsnum,
+                this.data.weights, 
+                this.structure.blocksrev,
+                array.succblockslbd, array.succblocksnum,
+                this.structure.sparselinksrev,
+                array.succsparselbd, array.succsparsenum,
+                true, batch
+            );
+            return;
+        }
+        CellIntegration.perform(
+            this.data.gradoutput[frame], 
+            this.data.gradinput[frame], 
+            array.cellslbd, array.cellsnum,
+            this.data.weights, this.structure.linksrev,
+            array.succslbd, array.succsnum,
+            array.celltype.revintegration, batch
+        );
+    }
+    
+    /**
+     * Single precision version of revIntegrateArray.
+     */
+    private void revIntegrateArraySingle(
+        final CellArray array, final int frame, final int nextframe
+    ) {
+        final int batch          = this.data.batchsize;
+        final float[] gradinput  = this.data.sgradinput[frame];
+        final float[] gradoutput = this.data.sgradoutput[frame];
+        final float[] weights    = this.data.sweights;
+        //
+        if (this.structure.resolved && (array.succrowslbd >= 0)) {
+            CellIntegration.perform(
+                gradoutput, this.data.sgradoutput[nextframe], gradinput, 
+                array.cellslbd, array.cellsnum,
+                weights, this.structure.blocksrev,
+                array.succblockslbd, array.succblocksnum,
+                array.succrecblockslbd, array.succrecblocksnum,
+                this.structure.rowsrev, this.structure.columnsrev,
+                array.succrowslbd, array.succrecrowslbd,
+                array.celltype.revintegration, true, batch
+            );
+            return;
+        }
+        if (this.structure.resolved) {
+            CellIntegration.perform(
+                gradoutput, this.data.sgradoutput[nextframe], gradinput, 
+                array.cellslbd, array.cellsnum,
+                weights, this.structure.blocksrev,
+                array.succblockslbd, array.succblocksnum,
+                array.succrecblockslbd, array.succrecblocksnum,
+                this.structure.sparselinksrev,
+                array.succsparselbd, array.succsparsenum,
+                array.succrecsparselbd, array.succrecsparsenum,
+                array.celltype.revintegration, true, batch
+            );
+            return;
+        }
+        if (array.succblocksnum > 0) {
+            CellIntegration.sum(
+                gradoutput, gradinput, array.cellslbd, array.cellsnum,
+                weights, this.structure.blocksrev,
+                array.succblockslbd, array.succblocksnum,
+                this.structure.sparselinksrev,
+                array.succsparselbd, array.succsparsenum,
+                true, batch
+            );
+            return;
+        }
+        CellIntegration.perform(
+            gradoutput, gradinput, array.cellslbd, array.cellsnum,
+            weights, this.structure.linksrev,
+            array.succslbd, array.succsnum,
+            array.celltype.revintegration, batch
+        );
+    }
+    
+    /**
+     * Applies the derivation of the activation function of a single array
+     * for the given frame and multiplies it with the reverse integration.
+     * <br></br>
+     * @param a The array index.
+     * @param frame Gives the frame index of the computed time step.
+     */
+    private void derivateArray(final int a, final int frame) {
+        final CellArray array = this.structure.arrays[a];
+        final int batch       = this.data.batchsize;
+        final int off         = array.cellslbd * batch;
+        final int size        = array.cellsnum * batch;
+        //
+        // compute f'(input) first and then store
+        // multiplication with reverse integration.
+        //
+        if (this.data.single) {
+            CellFunction.perform(
+                this.data.sinput[frame], off, 
+                this.data.sgradoutput[frame], off,
+                size, array.celltype.revactivation
+            );
+            FloatTools.mul(
+                this.data.sgradinput[frame], off, 
+                this.data.sgradoutput[frame], off,
+                this.data.sgradoutput[frame], off, size
+            );
+            return;
+        }
+        CellFunction.perform(
+            this.data.input[frame], off, 
+            this.data.gradoutput[frame], off,
+            size, array.celltype.revactivation
+        );
+        DoubleTools.mul(
+            this.data.gradinput[frame], off, 
+            this.data.gradoutput[frame], off,
+            this.data.gradoutput[frame], off, size
+        );
+    }
+    
+    /**
+     * Accumulates the weight gradients of the incoming links of the given 
+     * arrays for the given frame into the gradient sink. The deltas of the 
+     * arrays must have been computed before. As within the common gradient
+     * descent, all links (including recurrent links) refer to the 
+     * activations of the given frame.
+     * <br></br>
+     * @param lbd The first array.
+     * @param ubd The last array (inclusive).
+     * @param frame Gives the frame index of the computed time step.
+     */
+    private void accumulateGradients(final int lbd, final int ubd, final int frame) {
+        final int batch     = this.data.batchsize;
+        final double[] sink = this.gradientsink;
+        final int[] blocks  = this.structure.blocks;
+        final int[] sparse  = this.structure.sparselinks;
+        //
+        for (int a = lbd; a <= ubd; a++) {
+            final CellArray array = this.structure.arrays[a];
+            //
+            if (this.data.single) {
+                final float[] output = this.data.soutput[frame];
+                final float[] deltas = this.data.sgradoutput[frame];
+                //
+                if (this.structure.resolved) {
+                    CellIntegration.gradients(
+                        output, deltas, sink, 
+                        blocks, array.predblockslbd, array.predblocksnum,
+                        sparse, array.predsparselbd, array.predsparsenum, batch
+                    );
+                    CellIntegration.gradients(
+                        output, deltas, sink, 
+                        blocks, array.predrecblockslbd, array.predrecblocksnum,
+                        sparse, array.predrecsparselbd, array.predrecsparsenum, batch
+                    );
+                } else if (array.predblocksnum > 0) {
+                    CellIntegration.gradients(
+                        output, deltas, sink, 
+                        blocks, array.predblockslbd, array.predblocksnum,
+                        sparse, array.predsparselbd, array.predsparsenum, batch
+                    );
+                } else {
+                    CellIntegration.gradients(
+                        output, deltas, sink, blocks, 0, 0,
+                        this.structure.links, 
+                        array.predslbd, array.predsnum, batch
+                    );
+                }
+                continue;
+            }
+            //
+            final double[] output = this.data.output[frame];
+            final double[] deltas = this.data.gradoutput[frame];
+            //
+            if (this.structure.resolved) {
+                CellIntegration.gradients(
+                    output, deltas, sink, 
+                    blocks, array.predblockslbd, array.predblocksnum,
+                    sparse, array.predsparselbd, array.predsparsenum, batch
+                );
+                CellIntegration.gradients(
+                    output, deltas, sink, 
+                    blocks, array.predrecblockslbd, array.predrecblocksnum,
+                    sparse, array.predrecsparselbd, array.predrecsparsenum, batch
+                );
+            } else if (array.predblocksnum > 0) {
+                CellIntegration.gradients(
+                    output, deltas, sink, 
+                    blocks, array.predblockslbd, array.predblocksnum,
+                    sparse, array.predsparselbd, array.predsparsenum, batch
+                );
+            } else {
+                CellIntegration.gradients(
+                    output, deltas, sink, blocks, 0, 0,
+                    this.structure.links, 
+                    array.predslbd, array.predsnum, batch
+                );
+            }
+        }
+    }
+    
+    /**
+     * Clears the given range of frames by setting all cell values to zero.
+     * After that the constant assignments to data cells are restored.
+     * <br></br>
+     * @param from The first frame (inclusive).
+     * @param to The last frame (exclusive).
+     */
+    private void clearFrames(final int from, final int to) {
+        final int batch = this.data.batchsize;
+        final int size  = this.structure.cellsnum * batch;
+        //
+        for (int f = from; f < to; f++) {
+            if (this.data.single) {
+                FloatTools.fill(this.data.sinput[f], 0, size, 0.0f);
+                FloatTools.fill(this.data.soutput[f], 0, size, 0.0f);
+                if (!this.data.frozen) {
+                    FloatTools.fill(this.data.sgradinput[f], 0, size, 0.0f);
+                    FloatTools.fill(this.data.sgradoutput[f], 0, size, 0.0f);
+                }
+                //
+                for (int i = 0; i < this.data.asgns.length; i++) {
+                    FloatTools.fill(
+                        this.data.soutput[f], this.data.asgns[i] * batch, 
+                        batch, (float)this.data.asgnsv[i]
+                    );
+                }
+            } else {
+                DoubleTools.fill(this.data.input[f], 0, size, 0.0);
+                DoubleTools.fill(this.data.output[f], 0, size, 0.0);
+                if (!this.data.frozen) {
+                    DoubleTools.fill(this.data.gradinput[f], 0, size, 0.0);
+                    DoubleTools.fill(this.data.gradoutput[f], 0, size, 0.0);
+                }
+                //
+                // perform assignments.
+                //
+                for (int i = 0; i < this.data.asgns.length; i++) {
+                    DoubleTools.fill(
+                        this.data.output[f], this.data.asgns[i] * batch, 
+                        batch, this.data.asgnsv[i]
+                    );
+                }
+            }
+        }
+    }
+    
+    /**
+     * Clears the data buffer by setting all cell values to zero.
+     * After that the constant assignments to data cells are restored.
+     * Only the frames which have been touched since the last reset are
+     * cleared, because all other frames are still in the cleared state.
+     */
+    private void clearData() {
+        this.clearFrames(
+            0, Math.min(this.data.dirtyframes, this.getFrameCapacity())
+        );
+        this.data.dirtyframes = 0;
+    }
+    
+    /**
+     * Marks all frames up to the current frame index as touched.
+     */
+    private void touch() {
+        if (this.frameidx >= this.data.dirtyframes) {
+            this.data.dirtyframes = this.frameidx + 1;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFrameCapacity() {
+        if (this.data.single) return this.data.sinput.length;
+        return this.data.input.length;
+    }
+    
+    /**
+     * Grows a given buffer to the given number of frames. The first
+     * keep frames of the given buffer are reused.
+     */
+    private static double[][] grow(
+        final double[][] buffer, final int capacity, 
+        final int keep, final int size
+    ) {
+        final double[][] result = new double[capacity][];
+        for (int f = 0; f < capacity; f++) {
+            result[f] = (f < keep)?(buffer[f]):(new double[size]);
+        }
+        return result;
+    }
+    
+    /**
+     * Grows a given single precision buffer to the given number of frames. 
+     * The first keep frames of the given buffer are reused.
+     */
+    private static float[][] grow(
+        final float[][] buffer, final int capacity, 
+        final int keep, final int size
+    ) {
+        final float[][] result = new float[capacity][];
+        for (int f = 0; f < capacity; f++) {
+            result[f] = (f < keep)?(buffer[f]):(new float[size]);
+        }
+        return result;
+    }
+    
+    /**
+     * Allocates data buffers for the given number of frames using the 
+     * current batch size. If realloc is false the already allocated frames 
+     * are kept, otherwise all frames are reallocated. 
+     * <br></br>
+     * @param capacity The new number of allocated frames.
+     * @param realloc Reallocate all frames?
+     */
+    private void allocateFrames(final int capacity, final boolean realloc) {
+        final int size = this.structure.cellsnum * this.data.batchsize;
+        final int keep = realloc?(0):(Math.min(capacity, this.getFrameCapacity()));
+        //
+        if (this.data.single) {
+            this.data.sinput      = grow(this.data.sinput, capacity, keep, size);
+            this.data.soutput     = grow(this.data.soutput, capacity, keep, size);
+            if (!this.data.frozen) {
+                this.data.sgradinput  = grow(this.data.sgradinput, capacity, keep, size);
+                this.data.sgradoutput = grow(this.data.sgradoutput, capacity, keep, size);
+            }
+        } else {
+            this.data.input      = grow(this.data.input, capacity, keep, size);
+            this.data.output     = grow(this.data.output, capacity, keep, size);
+            if (!this.data.frozen) {
+                this.data.gradinput  = grow(this.data.gradinput, capacity, keep, size);
+                this.data.gradoutput = grow(this.data.gradoutput, capacity, keep, size);
+            }
+        }
+        //
+        // restore assigments in the new frames.
+        //
+        this.clearFrames(keep, capacity);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rebuffer(final int frames) {
+        this.rebuffer(frames, this.data.batchsize);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rebuffer(final int frames, final int batchsize) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("frame width must be at least 1.");
+        }
+        if (batchsize < 1) {
+            throw new IllegalArgumentException("batch size must be at least 1.");
+        }
+        this.data.streaming = false;
+        //
+        // the allocated frames are only reallocated if the batch size
+        // changes. otherwise the buffers only grow.
+        //
+        if (batchsize != this.data.batchsize) {
+            this.data.batchsize  = batchsize;
+            this.data.popweights = null;
+            this.allocateFrames(frames, true);
+        } else if (frames > this.getFrameCapacity()) {
+            this.allocateFrames(frames, false);
+        }
+        this.data.framewidth = frames;
+        this.batchidx        = 0;
+        //
+        // this will restore assigments.
+        //
+        this.reset();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void ensureFrameWidth(final int frames) {
+        if (frames <= this.data.framewidth) return;
+        //
+        final int capacity = this.getFrameCapacity();
+        //
+        if (frames > capacity) {
+            this.allocateFrames(Math.max(frames, capacity + (capacity >> 1)), false);
+        }
+        this.data.framewidth = frames;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setExecutor(final ExecutorService executor) {
+        this.executor = executor;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExecutorService getExecutor() {
+        return this.executor;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setGradientSink(final double[] sink) {
+        this.gradientsink = sink;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double[] getGradientSink() {
+        return this.gradientsink;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setParallelThreshold(final int threshold) {
+        this.parallelthreshold = threshold;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getParallelThreshold() {
+        if (this.parallelthreshold < 1) return DEFAULT_PARALLEL_THRESHOLD;
+        return this.parallelthreshold;
+    }
+    
+    /**
+     * Wraps the given task, so that it is marked as worker while running.
+     */
+    private static Runnable worker(final Runnable task) {
+        return new Worker(task);
+    }
+
+    /**
+     * Task that integrates (or activates) a chunk of arrays. This is a named
+     * nested class on purpose: anonymous classes are numbered in declaration
+     * order, and the serialized ports of this class have to keep their names
+     * (NetBase$1 to NetBase$3) for nets stored by former versions.
+     */
+    private static final class ArrayTask implements Runnable {
+        private final NetBase net;
+        private final int[]   chunk;
+        private final int     frame;
+        private final int     other;
+        private final boolean rev;
+        private final boolean integrate;
+
+        ArrayTask(
+            final NetBase net, final int[] chunk,
+            final int frame, final int other,
+            final boolean rev, final boolean integrate
+        ) {
+            this.net       = net;
+            this.chunk     = chunk;
+            this.frame     = frame;
+            this.other     = other;
+            this.rev       = rev;
+            this.integrate = integrate;
+        }
+
+        @Override
+        public void run() {
+            for (int a : this.chunk) {
+                if (this.integrate) {
+                    if (this.rev) {
+                        this.net.revIntegrateArray(a, this.frame, this.other);
+                    } else {
+                        this.net.integrateArray(a, this.frame, this.other);
+                    }
+                } else {
+                    if (this.rev) {
+                        this.net.derivateArray(a, this.frame);
+                    } else {
+                        this.net.activateArray(a, this.frame);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Task wrapper, which marks the running thread as worker (see ArrayTask
+     * for why this is not an anonymous class).
+     */
+    private static final class Worker implements Runnable {
+        private final Runnable task;
+
+        Worker(final Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            WORKER.set(Boolean.TRUE);
+            try {
+                this.task.run();
+            } finally {
+                WORKER.remove();
+            }
+        }
+    }
+
+    /**
+     * Performs the given tasks concurrently using the executor and waits
+     * until all tasks are finished. The first task is performed by the 
+     * calling thread. Without executor, or if the calling thread is already
+     * performing a task, the tasks are performed sequentially.
      * <br></br>
-     * @param idx Gives a layer index.
+     * @param tasks The tasks.
      */
-    protected void computeLayerActivations(final int idx) {
-        final Layer layer = this.structure.layers[idx];
+    protected void execute(final Runnable[] tasks) {
+        if (
+            (this.executor == null) || (tasks.length < 2) || 
+            (WORKER.get() != null)
+        ) {
+            for (Runnable task : tasks) task.run();
+            return;
+        }
+        final Future<?>[] futures = new Future<?>[tasks.length];
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = this.executor.submit(worker(tasks[i]));
+        }
+        worker(tasks[0]).run();
         //
-        // respect shifted computation indices.
+        // join.
         //
-        for (int c = 0; c < layer.compwidth; c++) {
-            //
-            final int lbd = layer.complbds[c];
-            final int ubd = layer.compubds[c];
-            //
-            // integration.
-            //
-            for (int a = lbd; a <= ubd; a++) {
-                final CellArray array = this.structure.arrays[a];
-                //
-                CellIntegration.perform(
-                    this.data.output[this.frameidx], this.data.input[this.frameidx], 
-                    array.cellslbd, array.cellsnum,
-                    this.data.weights, this.structure.links,
-                    array.predslbd, array.predsnum,
-                    array.celltype.integration
-                );
-            }
-            //
-            // activation.
-            //
-            for (int a = lbd; a <= ubd; a++) {
-                final CellArray array = this.structure.arrays[a];
-                //
-                CellFunction.perform(
-                    this.data.input[this.frameidx], array.cellslbd,
-                    this.data.output[this.frameidx], array.cellslbd,
-                    array.cellsnum, array.celltype.activation
-                );
+        try {
+            for (int i = 1; i < tasks.length; i++) {
+                futures[i].get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JANNLabException("parallel computation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new JANNLabException("parallel computation failed.", e.getCause());
         }
     }
     
     /**
-     * This methods computes the gradient (reverse integration and derivative 
-     * activation)for a single layer given by idx, based on the current frameidx. 
-     * The method ensures that gradient of the arrays of the layer are computed
-     * in correct (reverse) time order, which has been defined during generating
-     * the network.
-     * <br></br>
-     * @param idx Gives a layer index.
+     * Throws an UnsupportedOperationException if the network is frozen, 
+     * because frozen networks provide no gradient buffers. These buffers
+     * are also used for the target values.
      */
-    protected void computeLayerGradients(final int idx) {
-        final Layer layer = this.structure.layers[idx];
-        //
-        // respect shifted computation indices.
-        //
-        for (int c = layer.compwidth - 1; c >= 0; c--) {
-            //
-            final int lbd = layer.complbds[c];
-            final int ubd = layer.compubds[c];
+    protected void checkGradients() {
+        if (this.data.frozen) {
+            throw new UnsupportedOperationException(
+                "inference-only network does not support targets and gradients."
+            );
+        }
+    }
+    
+    /**
+     * Throws an UnsupportedOperationException if the gradient cannot be
+     * computed, i.e., if the network is frozen (see checkGradients) or if
+     * it is in population mode.
+     */
+    protected void checkBackward() {
+        this.checkGradients();
+        if (this.data.popweights != null) {
+            throw new UnsupportedOperationException(
+                "population mode does not support gradients."
+            );
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Net freeze() {
+        try {
             //
-            // reverse integration, which is always SUM.
+            // instance copy with inference-only structure and data.
             //
-            for (int a = ubd; a >= lbd; a--) {
-                /*
-                // # DEBUG #
-                if (a == 6) {
-                    System.out.println("STOP");
-                }
-                // #
-                */
-                final CellArray array = this.structure.arrays[a];
-                //
-                CellIntegration.perform(
-                    this.data.gradoutput[this.frameidx], 
-                    this.data.gradinput[this.frameidx], 
-                    array.cellslbd, array.cellsnum,
-                    this.data.weights, this.structure.linksrev,
-                    array.succslbd, array.succsnum,
-                    array.celltype.revintegration
-                );
-            }
+            NetBase copy = (NetBase)this.clone();
             //
-            // activation derivation.
+            copy.structure = this.structure.frozenCopy();
+            copy.data      = this.data.frozenCopy();
+            copy.gradientsink = null;
+            copy.setupPorts();
             //
-            for (int a = lbd; a <= ubd; a++) {
-                /*
-                // # DEBUG #
-                if (a == 6) {
-                    System.out.println("STOP");
-                }
-                // #
-                */
-                final CellArray array = this.structure.arrays[a];
-                //
-                // compute f'(input) first and then store
-                // multiplication with reverse integration.
-                //
-                CellFunction.perform(
-                    this.data.input[this.frameidx], array.cellslbd, 
-                    this.data.gradoutput[this.frameidx], array.cellslbd,
-                    array.cellsnum, array.celltype.revactivation
-                );
-                //
-                DoubleTools.mul(
-                    this.data.gradinput[this.frameidx], array.cellslbd, 
-                    this.data.gradoutput[this.frameidx], array.cellslbd,
-                    this.data.gradoutput[this.frameidx], array.cellslbd, 
-                    array.cellsnum
-                );
-            }
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            return null;
         }
     }
     
     /**
-     * Clears the entire data buffer by setting all cell values to zero.
-     * After that the constant assignments to data cells are restored.
-     * This method effects all particular buffers over all time steps. 
+     * {@inheritDoc}
      */
-    private void clearData() {
-        final int size = this.structure.cellsnum;
+    @Override
+    final public boolean isFrozen() {
+        return this.data.frozen;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Net compile() {
+        final NetBase copy = (NetBase)this.sharedCopy();
         //
-        // setting all values to zero. Maybe it would be faster
-        // just to reallocate the data and drop the previous.
+        // the kernels only support double precision.
         //
-        for (int f = 0; f < this.data.framewidth; f++) {
-            DoubleTools.fill(this.data.input[f], 0, size, 0.0);
-            DoubleTools.fill(this.data.output[f], 0, size, 0.0);
-            DoubleTools.fill(this.data.gradinput[f], 0, size, 0.0);
-            DoubleTools.fill(this.data.gradoutput[f], 0, size, 0.0);
+        if (!this.data.single) {
+            copy.kernel = NetCompiler.compile(this.structure);
+        }
+        return copy;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    final public boolean isCompiled() {
+        return (this.kernel != null);
+    }
+    
+    /**
+     * Returns true if the layers are computed by the compiled kernel.
+     */
+    private boolean isKernel() {
+        return (
+            (this.kernel != null) && (this.data.batchsize == 1) &&
+            (this.data.popweights == null)
+        );
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stream(final int frames) {
+        if (
+            this.structure.recurrent && 
+            (this.structure.offline || this.structure.bidirectional)
+        ) {
+            throw new UnsupportedOperationException(
+                "streaming requires an online computing network."
+            );
         }
+        if (frames < 2) {
+            throw new IllegalArgumentException("streaming requires at least 2 frames.");
+        }
+        this.rebuffer(frames);
         //
-        // perform assignments.
+        // the ring has a constant size, so surplus frames are released.
         //
-        for (int t = 0; t < this.data.framewidth; t++) {
-            for (int i = 0; i < this.data.asgns.length; i++) {
-                final int idx = this.data.asgns[i];
-                this.data.output[t][idx] = this.data.asgnsv[i]; 
-            }
+        if (this.getFrameCapacity() > frames) {
+            this.allocateFrames(frames, false);
         }
+        this.data.streaming = true;
     }
     
     /**
      * {@inheritDoc}
      */
     @Override
-    public void rebuffer(final int frames) {
-        final int size = this.structure.cellsnum;
-        //
-        this.data.input      = new double[frames][size];
-        this.data.output     = new double[frames][size];
-        this.data.gradinput  = new double[frames][size];
-        this.data.gradoutput = new double[frames][size];
-        this.data.framewidth     = frames;
-        //
-        // this will restore assigments.
-        //
-        this.reset();
+    public boolean isStreaming() {
+        return this.data.streaming;
+    }
+    
+    /**
+     * Returns the frame index of the previous time step. If there is no 
+     * previous time step, the current frame index is returned. In streaming
+     * mode the previous frame is determined within the frame ring.
+     * <br></br>
+     * @return The frame index of the previous time step.
+     */
+    protected int prevFrameIdx() {
+        if (this.data.streaming) {
+            if (this.history == 0) return this.frameidx;
+            return (this.frameidx + this.data.framewidth - 1) % this.data.framewidth;
+        }
+        return (this.frameidx > 0)?(this.frameidx - 1):(this.frameidx);
     }
     
     /**
@@ -280,8 +1381,13 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
             }
         };
         //
-        // setup target port.
+        // setup target port, which is not available for 
+        // inference-only networks.
         //
+        if (this.data.frozen) {
+            this.targetport = null;
+            return;
+        }
         this.targetport = new WritePort() {
             private static final long serialVersionUID = 3258515325902331582L;
             @Override
@@ -300,10 +1406,20 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void incrFrameIdx() {
+        if (this.data.streaming) {
+            //
+            // move forward within the ring.
+            //
+            this.frameidx = (this.frameidx + 1) % this.data.framewidth;
+            if (this.history < (this.data.framewidth - 1)) this.history++;
+            this.touch();
+            return;
+        }
         this.frameidx++;
         if (this.frameidx >= this.data.framewidth) {
             this.frameidx--;
         }
+        this.touch();
     }
     
     /**
@@ -318,6 +1434,7 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
         } else {
             this.frameidx = idx;
         }
+        this.touch();
     }
     
     /**
@@ -325,6 +1442,16 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void decrFrameIdx() {
+        if (this.data.streaming) {
+            //
+            // move backward within the ring, but only over the 
+            // time steps that are still available.
+            //
+            if (this.history == 0) return;
+            this.history--;
+            this.frameidx = (this.frameidx + this.data.framewidth - 1) % this.data.framewidth;
+            return;
+        }
         if (this.frameidx <= 0) return;
         this.frameidx--;
     }
@@ -342,6 +1469,7 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
             // deep copy only data and re-setup ports.
             //
             copy.data = this.data.sharedCopy();
+            copy.gradientsink = null;
             copy.setupPorts();
             //
             return copy;
@@ -378,6 +1506,36 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
         this.reset();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBatchSize() {
+        return this.data.batchsize;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBatchIdx(final int idx) {
+        if (idx < 0) { 
+            this.batchidx = 0; 
+        } else if (idx >= this.data.batchsize) {
+            this.batchidx = this.data.batchsize - 1;
+        } else {
+            this.batchidx = idx;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBatchIdx() {
+        return this.batchidx;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -406,6 +1564,7 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public WritePort targetPort() {
+        this.checkGradients();
         return this.targetport;
     }
     /**
@@ -422,7 +1581,10 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
     @Override
     public void reset() {
         this.frameidx = 0;
+        this.batchidx = 0;
+        this.history  = 0;
         this.clearData();
+        this.touch();
     }
     
     /**
@@ -436,6 +1598,7 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      * {@inheritDoc}
      */
     public double[] getGradOutputBuffer(final int frameidx) {
+        if (this.data.frozen) return null;
         return this.data.gradoutput[frameidx];
     }
 
@@ -443,9 +1606,41 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      * {@inheritDoc}
      */
     public double[] getGradInputBuffer(final int frameidx) {
+        if (this.data.frozen) return null;
         return this.data.gradinput[frameidx];
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    public float[] getOutputBufferSingle(final int frameidx) {
+        return this.data.soutput[frameidx];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public float[] getGradOutputBufferSingle(final int frameidx) {
+        if (this.data.frozen) return null;
+        return this.data.sgradoutput[frameidx];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public float[] getGradInputBufferSingle(final int frameidx) {
+        if (this.data.frozen) return null;
+        return this.data.sgradinput[frameidx];
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    final public boolean isSinglePrecision() {
+        return this.data.single;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -523,6 +1718,43 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public double error() {
+        this.checkGradients();
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            final int off = (this.structure.outcellslbd * batch) + this.batchidx;
+            //
+            FloatTools.sub(
+                this.data.sgradinput[this.frameidx], off, batch,
+                this.data.soutput[this.frameidx], off, batch,
+                this.data.sgradinput[this.frameidx], off, batch,
+                this.structure.outcellsnum
+            );
+            final double err = FloatTools.squareSum(
+                this.data.sgradinput[this.frameidx], off,
+                this.structure.outcellsnum, batch
+            );
+            return err / ((double)this.structure.outcellsnum);
+        }
+        if (batch > 1) {
+            //
+            // the values of the current batch sample are 
+            // strided by the batch size.
+            //
+            final int off = (this.structure.outcellslbd * batch) + this.batchidx;
+            //
+            DoubleTools.sub(
+                this.data.gradinput[this.frameidx], off, batch,
+                this.data.output[this.frameidx], off, batch,
+                this.data.gradinput[this.frameidx], off, batch,
+                this.structure.outcellsnum
+            );
+            final double err = DoubleTools.squareSum(
+                this.data.gradinput[this.frameidx], off,
+                this.structure.outcellsnum, batch
+            );
+            return err / ((double)this.structure.outcellsnum);
+        }
         //
         // compute difference of the expected data
         // and output of the output layer. store result 
@@ -570,10 +1802,25 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
         int size   = this.data.weightsnum;
         int offset = 1;
         //
+        if (this.data.weights == null) {
+            //
+            // single precision without master copy. we generate
+            // the random values in double precision anyway to obtain 
+            // the same initialization in both modes.
+            //
+            final double[] values = new double[size + offset];
+            DoubleTools.fill(
+                values, offset, size, rnd, 
+                RANDOM_WEIGHT_LBD, RANDOM_WEIGHT_UBD
+            );
+            FloatTools.copy(values, offset, this.data.sweights, offset, size);
+            return;
+        }
         DoubleTools.fill(
             this.data.weights, offset, size, rnd, 
             RANDOM_WEIGHT_LBD, RANDOM_WEIGHT_UBD
         );
+        this.syncWeights();
     }
     
     /**
@@ -581,24 +1828,118 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public double[] getWeights() {
+        if (this.data.weights == null) {
+            //
+            // single precision without master copy. from now on
+            // the net holds a master copy.
+            //
+            this.data.weights = FloatTools.toDouble(this.data.sweights);
+        }
         return this.data.weights;
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void syncWeights() {
+        if (!this.data.single || (this.data.weights == null)) return;
+        FloatTools.copy(
+            this.data.weights, 1, this.data.sweights, 1, this.data.weightsnum
+        );
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public void writeWeights(final double[] data, final int offset) {
+        if (this.data.single) {
+            FloatTools.copy(
+                data,  offset, this.data.sweights, 1, this.data.weightsnum
+            );
+            if (this.data.weights == null) return;
+        }
         DoubleTools.copy(
             data,  offset, this.data.weights, 1, this.data.weightsnum
         );
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePopulationWeights(
+        final double[] data, final int offset, final int num
+    ) {
+        if (this.data.single) {
+            throw new UnsupportedOperationException(
+                "population mode does not support single precision."
+            );
+        }
+        final int batch = this.data.batchsize;
+        if ((num < 1) || (num > batch)) {
+            throw new IllegalArgumentException(
+                "number of weight vectors must be between 1 and the batch size."
+            );
+        }
+        final int weightsnum = this.data.weightsnum;
+        final int size       = (weightsnum + 1) * batch;
+        //
+        if (
+            (this.data.popweights == null) || 
+            (this.data.popweights.length != size)
+        ) {
+            this.data.popweights = new double[size];
+        }
+        final double[] weights = this.data.popweights;
+        //
+        // the weight vectors are transposed into the batch samples. 
+        // remaining samples are computed with the regular weights.
+        //
+        for (int b = 0; b < batch; b++) {
+            weights[b] = 1.0;
+            if (b < num) {
+                DoubleTools.copy(
+                    data, offset + (b * weightsnum), 1,
+                    weights, batch + b, batch, weightsnum
+                );
+            } else {
+                DoubleTools.copy(
+                    this.data.weights, 1, 1,
+                    weights, batch + b, batch, weightsnum
+                );
+            }
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clearPopulationWeights() {
+        this.data.popweights = null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isPopulation() {
+        return (this.data.popweights != null);
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public void readWeights(final double[] data, final int offset) {
+        if (this.data.weights == null) {
+            FloatTools.copy(
+                this.data.sweights, 1, data,  offset, this.data.weightsnum
+            );
+            return;
+        }
         DoubleTools.copy(
             this.data.weights, 1, data,  offset, this.data.weightsnum
         );
@@ -641,6 +1982,24 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void input(final double[] data, final int offset) {
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            FloatTools.copy(
+                data, offset, 1, this.data.soutput[this.frameidx], 
+                (this.structure.incellslbd * batch) + this.batchidx, batch,
+                this.structure.incellsnum
+            );
+            return;
+        }
+        if (batch > 1) {
+            DoubleTools.copy(
+                data, offset, 1, this.data.output[this.frameidx], 
+                (this.structure.incellslbd * batch) + this.batchidx, batch,
+                this.structure.incellsnum
+            );
+            return;
+        }
         //
         // copy given data into current output buffer.
         //
@@ -656,6 +2015,26 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void input(final double[] data, final int offset, final int[] selection) {
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            final float[] buffer = this.data.soutput[this.frameidx];
+            final int off = (this.structure.incellslbd * batch) + this.batchidx;
+            //
+            for (int i = 0; i < selection.length; i++) {
+                buffer[off + (i * batch)] = (float)data[offset + selection[i]];
+            }
+            return;
+        }
+        if (batch > 1) {
+            final double[] buffer = this.data.output[this.frameidx];
+            final int off = (this.structure.incellslbd * batch) + this.batchidx;
+            //
+            for (int i = 0; i < selection.length; i++) {
+                buffer[off + (i * batch)] = data[offset + selection[i]];
+            }
+            return;
+        }
         //
         // copy given data into current output buffer, respecting only
         // the indices determined in selection.
@@ -671,6 +2050,24 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void output(final double[] data, final int offset) {
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            FloatTools.copy(
+                this.data.soutput[this.frameidx], 
+                (this.structure.outcellslbd * batch) + this.batchidx, batch,
+                data, offset, 1, this.structure.outcellsnum
+            );
+            return;
+        }
+        if (batch > 1) {
+            DoubleTools.copy(
+                this.data.output[this.frameidx], 
+                (this.structure.outcellslbd * batch) + this.batchidx, batch,
+                data, offset, 1, this.structure.outcellsnum
+            );
+            return;
+        }
         //
         // copy values from the current output buffer in the given data array.
         //
@@ -685,6 +2082,26 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void output(final double[] data, final int offset, final int[] selection) {
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            final float[] buffer = this.data.soutput[this.frameidx];
+            final int off = (this.structure.outcellslbd * batch) + this.batchidx;
+            //
+            for (int i = 0; i < selection.length; i++) {
+                data[offset + selection[i]] = buffer[off + (i * batch)];
+            }
+            return;
+        }
+        if (batch > 1) {
+            final double[] buffer = this.data.output[this.frameidx];
+            final int off = (this.structure.outcellslbd * batch) + this.batchidx;
+            //
+            for (int i = 0; i < selection.length; i++) {
+                data[offset + selection[i]] = buffer[off + (i * batch)];
+            }
+            return;
+        }
         //
         // copy values from the current output buffer in the given data array,
         // respecting only the indices determined in selection.
@@ -700,6 +2117,25 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void target(final double[] data, final int offset) {
+        this.checkGradients();
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            FloatTools.copy(
+                data, offset, 1, this.data.sgradinput[this.frameidx], 
+                (this.structure.outcellslbd * batch) + this.batchidx, batch,
+                this.structure.outcellsnum
+            );
+            return;
+        }
+        if (batch > 1) {
+            DoubleTools.copy(
+                data, offset, 1, this.data.gradinput[this.frameidx], 
+                (this.structure.outcellslbd * batch) + this.batchidx, batch,
+                this.structure.outcellsnum
+            );
+            return;
+        }
         //
         // write expected data in output layer (gradinput).
         //
@@ -715,6 +2151,27 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
      */
     @Override
     public void target(final double[] data, final int offset, final int[] selection) {
+        this.checkGradients();
+        final int batch = this.data.batchsize;
+        //
+        if (this.data.single) {
+            final float[] buffer = this.data.sgradinput[this.frameidx];
+            final int off = (this.structure.outcellslbd * batch) + this.batchidx;
+            //
+            for (int i = 0; i < selection.length; i++) {
+                buffer[off + (i * batch)] = (float)data[offset + selection[i]];
+            }
+            return;
+        }
+        if (batch > 1) {
+            final double[] buffer = this.data.gradinput[this.frameidx];
+            final int off = (this.structure.outcellslbd * batch) + this.batchidx;
+            //
+            for (int i = 0; i < selection.length; i++) {
+                buffer[off + (i * batch)] = data[offset + selection[i]];
+            }
+            return;
+        }
         //
         // write expected data in output layer (gradinput), respecting only
         // the indices determined in selection.
@@ -759,9 +2216,22 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
             //
             // for all cells.
             //
-            for (int j = 0; j < this.structure.cellsnum; j++) {
+            final int size = this.structure.cellsnum * this.data.batchsize;
+            //
+            if (this.data.single) {
+                for (int j = 0; j < size; j++) {
+                    if (!check(this.data.sinput[f][j]))      return false;
+                    if (!check(this.data.soutput[f][j]))     return false;
+                    if (this.data.frozen) continue;
+                    if (!check(this.data.sgradinput[f][j]))  return false;
+                    if (!check(this.data.sgradoutput[f][j])) return false;
+                }
+                continue;
+            }
+            for (int j = 0; j < size; j++) {
                 if (!check(this.data.input[f][j]))      return false;
                 if (!check(this.data.output[f][j]))     return false;
+                if (this.data.frozen) continue;
                 if (!check(this.data.gradinput[f][j]))  return false;
                 if (!check(this.data.gradoutput[f][j])) return false;
             }
@@ -770,7 +2240,11 @@ public abstract class NetBase implements Net, Serializable, Cloneable {
         // for all weights.
         //
         for (int i = 0; i < this.data.weightsnum; i++) {
-            if (!check(this.data.weights[i])) return false;
+            if (this.data.single) {
+                if (!check(this.data.sweights[i])) return false;
+            } else {
+                if (!check(this.data.weights[i])) return false;
+            }
         }
         return true;
     }
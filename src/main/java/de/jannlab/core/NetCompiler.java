@@ -0,0 +1,793 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+
+/**
+ * The NetCompiler translates a network structure into a specialized
+ * NetKernel class. The generated class contains straight-line code for
+ * each layer, where all cell indices, weight indices and activation
+ * functions are constants, so the JIT does not need to interpret the
+ * links or to dispatch the integration and activation functions. Only
+ * large dense blocks (see UNROLL_LIMIT) are emitted as loops with
+ * constant bounds.
+ * <br></br>
+ * The kernel is generated as Java source, compiled in memory with the
+ * system Java compiler and loaded by a private class loader. The generated
+ * code performs exactly the same floating point operations in the same
+ * order as the interpreted computation, thus the results are identical.
+ * <br></br>
+ * Only resolved structures (see NetStructure.resolved) can be compiled. If
+ * the structure cannot be compiled, or if no system Java compiler is
+ * available (e.g., on a plain JRE), compile returns null and the network
+ * is computed as usual. The reason, e.g., the diagnostics of the Java 
+ * compiler, is then given by getLastError.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class NetCompiler {
+    /**
+     * Dense blocks with more weights are emitted as loops.
+     */
+    public static final int UNROLL_LIMIT    = 64;
+    /**
+     * The maximum number of array accesses per generated method, which
+     * keeps the bytecode of the methods below the size limit of the JIT
+     * for huge methods (8000 bytes).
+     */
+    public static final int METHOD_LIMIT    = 1000;
+    /**
+     * The maximum number of statements per kernel. Larger networks
+     * are not compiled.
+     */
+    public static final int STATEMENT_LIMIT = 65536;
+    //
+    private static final String PACKAGE  = "de.jannlab.core";
+    private static final String FUNCTION = "de.jannlab.core.CellFunction.";
+    //
+    private static final AtomicInteger COUNTER = new AtomicInteger(0);
+    /**
+     * The reason of the last failed compilation of each thread.
+     */
+    private static final ThreadLocal<String> ERROR = new ThreadLocal<String>();
+
+    /**
+     * A source file in memory.
+     */
+    private static final class Source extends SimpleJavaFileObject {
+        private final String code;
+        //
+        Source(final String name, final String code) {
+            super(
+                URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension),
+                Kind.SOURCE
+            );
+            this.code = code;
+        }
+        //
+        @Override
+        public CharSequence getCharContent(final boolean ignore) {
+            return this.code;
+        }
+    }
+
+    /**
+     * A class file in memory.
+     */
+    private static final class Binary extends SimpleJavaFileObject {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        //
+        Binary(final String name) {
+            super(
+                URI.create("mem:///" + name.replace('.', '/') + Kind.CLASS.extension),
+                Kind.CLASS
+            );
+        }
+        //
+        @Override
+        public OutputStream openOutputStream() {
+            return this.bytes;
+        }
+    }
+
+    /**
+     * Loads the compiled classes from memory.
+     */
+    private static final class Loader extends ClassLoader {
+        private final Map<String, Binary> classes;
+        //
+        Loader(final ClassLoader parent, final Map<String, Binary> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+        //
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            final Binary binary = this.classes.get(name);
+            if (binary == null) throw new ClassNotFoundException(name);
+            //
+            final byte[] data = binary.bytes.toByteArray();
+            return this.defineClass(name, data, 0, data.length);
+        }
+    }
+
+    /**
+     * Compiles the given structure into a NetKernel.
+     * <br></br>
+     * @param structure The network structure.
+     * @return The kernel or null if the structure cannot be compiled 
+     * (see getLastError).
+     */
+    public static NetKernel compile(final NetStructure structure) {
+        ERROR.remove();
+        if (!structure.resolved) {
+            return fail("the structure is not resolved.");
+        }
+        //
+        final String name = "CompiledNetKernel" + COUNTER.incrementAndGet();
+        final String code = generate(structure, name);
+        if (code == null) {
+            return fail("the structure exceeds the statement limit.");
+        }
+        //
+        try {
+            return load(PACKAGE + "." + name, code);
+        } catch (
+            IOException | URISyntaxException | ReflectiveOperationException e
+        ) {
+            return fail(e.toString());
+        }
+    }
+    
+    /**
+     * Returns the reason why the last call of compile by the current 
+     * thread returned null, or null if it was successful.
+     * <br></br>
+     * @return The reason as string or null.
+     */
+    public static String getLastError() {
+        return ERROR.get();
+    }
+    
+    /**
+     * Records the reason of a failed compilation and returns null.
+     */
+    private static NetKernel fail(final String reason) {
+        ERROR.set(reason);
+        return null;
+    }
+
+    /**
+     * Compiles the given source code in memory and returns
+     * an instance of the class given by name.
+     */
+    private static NetKernel load(
+        final String name, final String code
+    ) throws IOException, URISyntaxException, ReflectiveOperationException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return fail("no system Java compiler available.");
+        }
+        //
+        final Map<String, Binary> classes = new HashMap<String, Binary>();
+        final StandardJavaFileManager files = compiler.getStandardFileManager(
+            null, null, null
+        );
+        final ForwardingJavaFileManager<StandardJavaFileManager> manager = (
+            new ForwardingJavaFileManager<StandardJavaFileManager>(files) {
+                @Override
+                public JavaFileObject getJavaFileForOutput(
+                    final Location location,
+                    final String classname,
+                    final Kind kind,
+                    final FileObject sibling
+                ) {
+                    final Binary binary = new Binary(classname);
+                    classes.put(classname, binary);
+                    return binary;
+                }
+            }
+        );
+        //
+        // the generated code refers to the core package, which
+        // is not necessarily part of the system class path.
+        //
+        String classpath = System.getProperty("java.class.path");
+        final CodeSource source = NetKernel.class.getProtectionDomain().getCodeSource();
+        if (source != null) {
+            classpath = (
+                new File(source.getLocation().toURI()).getPath() +
+                File.pathSeparator + classpath
+            );
+        }
+        final List<String> options = new ArrayList<String>();
+        options.add("-classpath");
+        options.add(classpath);
+        options.add("-g:none");
+        options.add("-nowarn");
+        //
+        final DiagnosticCollector<JavaFileObject> diagnostics = (
+            new DiagnosticCollector<JavaFileObject>()
+        );
+        final Boolean success = compiler.getTask(
+            null, manager, diagnostics, options, null,
+            Collections.singletonList(new Source(name, code))
+        ).call();
+        manager.close();
+        //
+        if ((success == null) || !success.booleanValue()) {
+            final StringBuilder out = new StringBuilder();
+            out.append("compilation of " + name + " failed:");
+            for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+                out.append("\n" + d.toString());
+            }
+            return fail(out.toString());
+        }
+        //
+        final Loader loader = new Loader(NetKernel.class.getClassLoader(), classes);
+        return (NetKernel)loader.loadClass(name).getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Generates the source code of the kernel class for the given structure.
+     * <br></br>
+     * @param structure The network structure.
+     * @param name The simple name of the generated class.
+     * @return The source code or null if the structure is too large.
+     */
+    public static String generate(final NetStructure structure, final String name) {
+        final int layersnum  = structure.layers.length;
+        final boolean revert = (structure.sparselinksrev != null);
+        //
+        final List<List<String>> forward  = new ArrayList<List<String>>();
+        final List<List<String>> backward = new ArrayList<List<String>>();
+        int statements = 0;
+        //
+        for (int l = 0; l < layersnum; l++) {
+            final List<String> fcode = new ArrayList<String>();
+            final List<String> bcode = new ArrayList<String>();
+            forwardLayer(fcode, structure, structure.layers[l]);
+            if (revert) backwardLayer(bcode, structure, structure.layers[l]);
+            forward.add(fcode);
+            backward.add(bcode);
+            statements += fcode.size() + bcode.size();
+            if (statements > STATEMENT_LIMIT) return null;
+        }
+        //
+        final StringBuilder out = new StringBuilder();
+        out.append("package ").append(PACKAGE).append(";\n\n");
+        out.append("public final class ").append(name);
+        out.append(" implements ").append(PACKAGE).append(".NetKernel {\n");
+        //
+        // forward dispatch.
+        //
+        out.append("    public void forward(final int layer, final double[] x, ");
+        out.append("final double[] o, final double[] p, final double[] w) {\n");
+        out.append("        switch (layer) {\n");
+        for (int l = 0; l < layersnum; l++) {
+            out.append("            case ").append(l).append(":\n");
+            final int parts = parts(forward.get(l)).size();
+            for (int i = 0; i < parts; i++) {
+                out.append("                f").append(l).append("_").append(i);
+                out.append("(x, o, p, w);\n");
+            }
+            out.append("                break;\n");
+        }
+        out.append("            default:\n");
+        out.append("                break;\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        //
+        // backward dispatch.
+        //
+        out.append("    public void backward(final int layer, final double[] x, ");
+        out.append("final double[] gi, final double[] go, final double[] n, final double[] w) {\n");
+        if (!revert) {
+            out.append("        throw new UnsupportedOperationException();\n");
+            out.append("    }\n");
+        } else {
+            out.append("        switch (layer) {\n");
+            for (int l = 0; l < layersnum; l++) {
+                out.append("            case ").append(l).append(":\n");
+                final int parts = parts(backward.get(l)).size();
+                for (int i = 0; i < parts; i++) {
+                    out.append("                b").append(l).append("_").append(i);
+                    out.append("(x, gi, go, n, w);\n");
+                }
+                out.append("                break;\n");
+            }
+            out.append("            default:\n");
+            out.append("                break;\n");
+            out.append("        }\n");
+            out.append("    }\n");
+        }
+        //
+        // the straight-line methods.
+        //
+        for (int l = 0; l < layersnum; l++) {
+            methods(
+                out, forward.get(l), "f" + l + "_",
+                "final double[] x, final double[] o, final double[] p, final double[] w"
+            );
+            methods(
+                out, backward.get(l), "b" + l + "_",
+                "final double[] x, final double[] gi, final double[] go, " +
+                "final double[] n, final double[] w"
+            );
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    /**
+     * Returns the number of array accesses of the given statement, 
+     * which approximates its bytecode size.
+     */
+    private static int cost(final String statement) {
+        int cost = 0;
+        for (int i = 0; i < statement.length(); i++) {
+            if (statement.charAt(i) == '[') cost++;
+        }
+        return cost;
+    }
+
+    /**
+     * Splits the given statements into parts with at most METHOD_LIMIT
+     * array accesses (at least one statement per part).
+     * <br></br>
+     * @return The upper bounds (exclusive) of the parts.
+     */
+    private static List<Integer> parts(final List<String> code) {
+        final List<Integer> result = new ArrayList<Integer>();
+        int cost = 0;
+        //
+        for (int i = 0; i < code.size(); i++) {
+            final int c = cost(code.get(i));
+            if ((i > 0) && ((cost + c) > METHOD_LIMIT)) {
+                result.add(i);
+                cost = 0;
+            }
+            cost += c;
+        }
+        if (code.size() > 0) result.add(code.size());
+        return result;
+    }
+
+    /**
+     * Emits the given statements as methods (see parts).
+     */
+    private static void methods(
+        final StringBuilder out,
+        final List<String> code,
+        final String prefix,
+        final String params
+    ) {
+        final List<Integer> parts = parts(code);
+        int begin = 0;
+        //
+        for (int i = 0; i < parts.size(); i++) {
+            out.append("    private static void ").append(prefix).append(i);
+            out.append("(").append(params).append(") {\n");
+            final int end = parts.get(i);
+            for (int j = begin; j < end; j++) {
+                out.append("        ").append(code.get(j)).append("\n");
+            }
+            out.append("    }\n");
+            begin = end;
+        }
+    }
+
+    /**
+     * Generates the forward pass of a layer (see NetBase.computeLayerActivations).
+     */
+    private static void forwardLayer(
+        final List<String> code, final NetStructure structure, final Layer layer
+    ) {
+        for (int c = 0; c < layer.compwidth; c++) {
+            final int lbd = layer.complbds[c];
+            final int ubd = layer.compubds[c];
+            //
+            // integration.
+            //
+            for (int a = lbd; a <= ubd; a++) {
+                final CellArray array = structure.arrays[a];
+                integrate(
+                    code, "o", "p", "x",
+                    array.cellslbd, array.cellsnum,
+                    structure.blocks,
+                    array.predblockslbd, array.predblocksnum,
+                    array.predrecblockslbd, array.predrecblocksnum,
+                    structure.sparselinks,
+                    array.predsparselbd, array.predsparsenum,
+                    array.predrecsparselbd, array.predrecsparsenum,
+                    array.celltype.integration, false
+                );
+            }
+            //
+            // activation.
+            //
+            for (int a = lbd; a <= ubd; a++) {
+                final CellArray array = structure.arrays[a];
+                final int end = array.cellslbd + array.cellsnum;
+                for (int i = array.cellslbd; i < end; i++) {
+                    final String value = function(
+                        array.celltype.activation, "x[" + i + "]"
+                    );
+                    if (value == null) continue;
+                    code.add("o[" + i + "] = " + value + ";");
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the backward pass of a layer (see NetBase.computeLayerGradients).
+     */
+    private static void backwardLayer(
+        final List<String> code, final NetStructure structure, final Layer layer
+    ) {
+        for (int c = layer.compwidth - 1; c >= 0; c--) {
+            final int lbd = layer.complbds[c];
+            final int ubd = layer.compubds[c];
+            //
+            // reverse integration.
+            //
+            for (int a = ubd; a >= lbd; a--) {
+                final CellArray array = structure.arrays[a];
+                integrate(
+                    code, "go", "n", "gi",
+                    array.cellslbd, array.cellsnum,
+                    structure.blocksrev,
+                    array.succblockslbd, array.succblocksnum,
+                    array.succrecblockslbd, array.succrecblocksnum,
+                    structure.sparselinksrev,
+                    array.succsparselbd, array.succsparsenum,
+                    array.succrecsparselbd, array.succrecsparsenum,
+                    array.celltype.revintegration, true
+                );
+            }
+            //
+            // activation derivation multiplied with reverse integration.
+            //
+            for (int a = lbd; a <= ubd; a++) {
+                final CellArray array = structure.arrays[a];
+                final int end = array.cellslbd + array.cellsnum;
+                for (int i = array.cellslbd; i < end; i++) {
+                    String value = function(
+                        array.celltype.revactivation, "x[" + i + "]"
+                    );
+                    if (value == null) value = "go[" + i + "]";
+                    code.add("go[" + i + "] = gi[" + i + "] * " + value + ";");
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the expression of the given cell function applied on the given
+     * argument or null for CellFunction.NONE (see CellFunction.perform).
+     */
+    private static String function(final int function, final String arg) {
+        if (function >= CellFunction.APPROX_STRIDE) {
+            return FUNCTION + "approx(" + arg + ", " + function + ")";
+        }
+        switch (function) {
+            case CellFunction.ID:
+                return arg;
+            case CellFunction.CONST_ONE:
+                return "1.0";
+            case CellFunction.SIGMOID:
+                return FUNCTION + "sigmoid(" + arg + ")";
+            case CellFunction.SIGMOIDDX:
+                return FUNCTION + "sigmoidDx(" + arg + ")";
+            case CellFunction.SIGMOID1:
+                return FUNCTION + "sigmoid1(" + arg + ")";
+            case CellFunction.SIGMOID1DX:
+                return FUNCTION + "sigmoid1Dx(" + arg + ")";
+            case CellFunction.SIGMOID2:
+                return FUNCTION + "sigmoid2(" + arg + ")";
+            case CellFunction.SIGMOID2DX:
+                return FUNCTION + "sigmoid2Dx(" + arg + ")";
+            case CellFunction.TANH:
+                return FUNCTION + "tanh(" + arg + ")";
+            case CellFunction.TANHDX:
+                return FUNCTION + "tanhDx(" + arg + ")";
+            case CellFunction.INVERT:
+                return "((" + arg + " == 0.0)?(0.0):(1.0 / " + arg + "))";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Generates the integration of a single array in the same way as
+     * the resolved CellIntegration.perform with batch size 1.
+     */
+    private static void integrate(
+        final List<String> code,
+        final String src,
+        final String prev,
+        final String dst,
+        final int cellsoff,
+        final int cellsnum,
+        final int[] blocks,
+        final int blocksoff,
+        final int blocksnum,
+        final int recblocksoff,
+        final int recblocksnum,
+        final int[] links,
+        final int linksoff,
+        final int linksnum,
+        final int reclinksoff,
+        final int reclinksnum,
+        final int integration,
+        final boolean reverse
+    ) {
+        if ((blocksnum + recblocksnum + linksnum + reclinksnum) == 0) return;
+        //
+        final int end = cellsoff + cellsnum;
+        //
+        switch (integration) {
+            case CellIntegration.SUM:
+                for (int i = cellsoff; i < end; i++) {
+                    code.add(dst + "[" + i + "] = 0.0;");
+                }
+                dense(code, src, dst, blocks, blocksoff, blocksnum, reverse);
+                links(code, src, dst, links, linksoff, linksnum, " += ", " * ");
+                dense(code, prev, dst, blocks, recblocksoff, recblocksnum, reverse);
+                links(code, prev, dst, links, reclinksoff, reclinksnum, " += ", " * ");
+                break;
+                //
+            case CellIntegration.MULT:
+                for (int i = cellsoff; i < end; i++) {
+                    code.add(dst + "[" + i + "] = 1.0;");
+                }
+                links(code, src, dst, links, linksoff, linksnum, " *= ", " * ");
+                links(code, prev, dst, links, reclinksoff, reclinksnum, " *= ", " * ");
+                break;
+                //
+            case CellIntegration.LASTID:
+                links(code, src, dst, links, linksoff, linksnum, " = ", null);
+                links(code, prev, dst, links, reclinksoff, reclinksnum, " = ", null);
+                break;
+                //
+            default:
+                //
+                // none.
+                //
+                break;
+        }
+    }
+
+    /**
+     * Generates the given sparse links with the given assignment operator.
+     * If op is null the source values are assigned without weights.
+     */
+    private static void links(
+        final List<String> code,
+        final String src,
+        final String dst,
+        final int[] links,
+        final int linksoff,
+        final int linksnum,
+        final String assign,
+        final String op
+    ) {
+        int link = linksoff;
+        //
+        for (int i = 0; i < linksnum; i++) {
+            final int ci = links[link + Link.IDX_SRC];
+            final int cj = links[link + Link.IDX_DST];
+            final int ij = links[link + Link.IDX_WEIGHT];
+            //
+            final StringBuilder line = new StringBuilder();
+            line.append(dst).append("[").append(cj).append("]").append(assign);
+            if (op == null) {
+                line.append(src).append("[").append(ci).append("];");
+            } else {
+                line.append("(").append(src).append("[").append(ci).append("]");
+                line.append(op).append("w[").append(ij).append("]);");
+            }
+            code.add(line.toString());
+            //
+            link += Link.LINK_SIZE;
+        }
+    }
+
+    /**
+     * Generates the given dense blocks (see CellIntegration.dense and
+     * CellIntegration.denseRev). Small blocks are unrolled completely.
+     */
+    private static void dense(
+        final List<String> code,
+        final String src,
+        final String dst,
+        final int[] blocks,
+        final int blocksoff,
+        final int blocksnum,
+        final boolean reverse
+    ) {
+        int block = blocksoff;
+        //
+        for (int b = 0; b < blocksnum; b++) {
+            final int si = blocks[block + Block.IDX_SRC];
+            final int sn = blocks[block + Block.IDX_SRCNUM];
+            final int dj = blocks[block + Block.IDX_DST];
+            final int dn = blocks[block + Block.IDX_DSTNUM];
+            final int wi = blocks[block + Block.IDX_WEIGHT];
+            final int ld = blocks[block + Block.IDX_STRIDE];
+            //
+            if ((sn * dn) > UNROLL_LIMIT) {
+                if (reverse) {
+                    code.add(denseRevLoop(src, dst, si, sn, dj, dn, wi, ld));
+                } else {
+                    code.add(denseLoop(src, dst, si, sn, dj, dn, wi, ld));
+                }
+            } else if (reverse) {
+                int r = 0;
+                //
+                // rows in packages of four.
+                //
+                for (; r + 3 < dn; r += 4) {
+                    final int w0 = wi + (r * ld);
+                    final int j  = dj + r;
+                    for (int c = 0; c < sn; c++) {
+                        final StringBuilder line = new StringBuilder();
+                        line.append(dst).append("[").append(si + c).append("] += ");
+                        for (int k = 0; k < 4; k++) {
+                            if (k > 0) line.append(" + ");
+                            line.append("(w[").append(w0 + (k * ld) + c).append("] * ");
+                            line.append(src).append("[").append(j + k).append("])");
+                        }
+                        line.append(";");
+                        code.add(line.toString());
+                    }
+                }
+                //
+                // remaining rows.
+                //
+                for (; r < dn; r++) {
+                    final int w0 = wi + (r * ld);
+                    for (int c = 0; c < sn; c++) {
+                        code.add(
+                            dst + "[" + (si + c) + "] += w[" + (w0 + c) + "] * " +
+                            src + "[" + (dj + r) + "];"
+                        );
+                    }
+                }
+            } else {
+                for (int r = 0; r < dn; r++) {
+                    final int w0 = wi + (r * ld);
+                    final StringBuilder line = new StringBuilder();
+                    line.append(dst).append("[").append(dj + r).append("] += 0.0");
+                    for (int c = 0; c < sn; c++) {
+                        line.append(" + w[").append(w0 + c).append("] * ");
+                        line.append(src).append("[").append(si + c).append("]");
+                    }
+                    line.append(";");
+                    code.add(line.toString());
+                }
+            }
+            //
+            block += Block.BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * Generates a loop with constant bounds for a large block
+     * (see CellIntegration.dense).
+     */
+    private static String denseLoop(
+        final String src, final String dst,
+        final int si, final int sn, final int dj,
+        final int dn, final int wi, final int ld
+    ) {
+        return (
+            "{ int r = 0; " +
+            "for (; r + 3 < " + dn + "; r += 4) { " +
+                "final int k = " + wi + " + (r * " + ld + "); " +
+                "double s0 = 0.0; double s1 = 0.0; double s2 = 0.0; double s3 = 0.0; " +
+                "for (int c = 0; c < " + sn + "; c++) { " +
+                    "final double xi = " + src + "[" + si + " + c]; " +
+                    "s0 += w[k + c] * xi; " +
+                    "s1 += w[k + " + ld + " + c] * xi; " +
+                    "s2 += w[k + " + (2 * ld) + " + c] * xi; " +
+                    "s3 += w[k + " + (3 * ld) + " + c] * xi; " +
+                "} " +
+                "final int j = " + dj + " + r; " +
+                dst + "[j] += s0; " + dst + "[j + 1] += s1; " +
+                dst + "[j + 2] += s2; " + dst + "[j + 3] += s3; " +
+            "} " +
+            "for (; r < " + dn + "; r++) { " +
+                "final int k = " + wi + " + (r * " + ld + "); " +
+                "double s0 = 0.0; " +
+                "for (int c = 0; c < " + sn + "; c++) { " +
+                    "s0 += w[k + c] * " + src + "[" + si + " + c]; " +
+                "} " +
+                dst + "[" + dj + " + r] += s0; " +
+            "} }"
+        );
+    }
+
+    /**
+     * Generates a loop with constant bounds for a large block
+     * (see CellIntegration.denseRev).
+     */
+    private static String denseRevLoop(
+        final String src, final String dst,
+        final int si, final int sn, final int dj,
+        final int dn, final int wi, final int ld
+    ) {
+        return (
+            "{ int r = 0; " +
+            "for (; r + 3 < " + dn + "; r += 4) { " +
+                "final int k = " + wi + " + (r * " + ld + "); " +
+                "final int j = " + dj + " + r; " +
+                "final double d0 = " + src + "[j]; " +
+                "final double d1 = " + src + "[j + 1]; " +
+                "final double d2 = " + src + "[j + 2]; " +
+                "final double d3 = " + src + "[j + 3]; " +
+                "for (int c = 0; c < " + sn + "; c++) { " +
+                    dst + "[" + si + " + c] += " +
+                    "(w[k + c] * d0) + (w[k + " + ld + " + c] * d1) + " +
+                    "(w[k + " + (2 * ld) + " + c] * d2) + " +
+                    "(w[k + " + (3 * ld) + " + c] * d3); " +
+                "} " +
+            "} " +
+            "for (; r < " + dn + "; r++) { " +
+                "final int k = " + wi + " + (r * " + ld + "); " +
+                "final double d0 = " + src + "[" + dj + " + r]; " +
+                "for (int c = 0; c < " + sn + "; c++) { " +
+                    dst + "[" + si + " + c] += w[k + c] * d0; " +
+                "} " +
+            "} }"
+        );
+    }
+
+    /**
+     * This class is not intended to be instantiated.
+     */
+    private NetCompiler() {
+    }
+}
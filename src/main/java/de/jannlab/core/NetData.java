@@ -20,6 +20,8 @@ package de.jannlab.core;
 
 import java.io.Serializable;
 
+import de.jannlab.misc.DoubleTools;
+import de.jannlab.misc.FloatTools;
 import de.jannlab.misc.ObjectCopy;
 
 /**
@@ -50,6 +52,36 @@ public final class NetData implements Serializable {
      * deviations and also the "back-flowing" error are stored here. 
      */
     public double[][] gradoutput;
+    /**
+     * determines whether the network computes in single precision. in
+     * this case the float buffers sinput, soutput, sgradinput and sgradoutput
+     * as well as the float weights sweights are used instead of the double 
+     * buffers, which are null then.
+     */
+    public boolean single = false;
+    /**
+     * provides the single precision input buffer.
+     */
+    public float[][] sinput;
+    /**
+     * provides the single precision output buffer.
+     */
+    public float[][] soutput;
+    /**
+     * provides the single precision grad. input buffer.
+     */
+    public float[][] sgradinput;
+    /**
+     * provides the single precision grad. output buffer.
+     */
+    public float[][] sgradoutput;
+    /**
+     * provides the single precision weights, which are used for computation
+     * in single precision mode. if the double weights vector is also given, 
+     * it serves as master copy (e.g. for training) and sweights is 
+     * derived from it.
+     */
+    public float[] sweights;
     /**
      * determines the frame width, which is the first dimension of the
      * data buffers. MLPs or trained RNNs only need a frame width of 1.
@@ -58,7 +90,35 @@ public final class NetData implements Serializable {
      */
     public int framewidth;
     /**
-     * provides the vector of weigts. note that the first value of the vector
+     * gives the number of leading frames which have been touched since the
+     * last reset. only these frames need to be cleared on the next reset. the
+     * allocated frames (the capacity) may exceed the frame width.
+     */
+    public int dirtyframes;
+    /**
+     * determines the number of samples which are processed simultaneously 
+     * (the batch size). the values of all samples are stored interleaved, i.e., 
+     * the value of cell c for the batch sample b is given at index 
+     * (c * batchsize) + b. thus each data buffer has the size 
+     * cellsnum * batchsize. for regular computation the batch size is 1.
+     */
+    public int batchsize = 1;
+    /**
+     * indicates the streaming mode. in streaming mode the frames are used
+     * as a ring, i.e., the frame index wraps around instead of being bounded 
+     * by the frame width, which allows for an unbounded number of time steps 
+     * with constant memory.
+     */
+    public boolean streaming = false;
+    /**
+     * indicates an inference-only (frozen) data record. frozen data records 
+     * provide no gradient buffers, i.e., gradinput and gradoutput (or 
+     * sgradinput and sgradoutput respectively) are null.
+     */
+    public boolean frozen = false;
+    /**
+     * provides the vector of weigts. in single precision mode this vector 
+     * is optional (master copy) and may be null. note that the first value of the vector
      * is generally 1.0. this is founded in some runtime peformance improvements
      * concerning non weighted links.
      */
@@ -67,6 +127,14 @@ public final class NetData implements Serializable {
      * Gives the number of weights exclusive the constant 1.0 weight.
      */
     public int weightsnum;
+    /**
+     * provides the weight vectors of the population mode or null. in
+     * population mode each batch sample is computed with its own weight
+     * vector, where the weight w of the batch sample b is given at index
+     * (w * batchsize) + b. thus, the first batchsize values are 1.0. the
+     * weights vector itself is not used for the forward pass then.
+     */
+    public double[] popweights;
     /**
      * Stores the indices to the cells used for constant value assignments. 
      */
@@ -91,22 +159,80 @@ public final class NetData implements Serializable {
         //
         // copy.
         //
-        copy.input      = ObjectCopy.copy(this.input);         
-        copy.output     = ObjectCopy.copy(this.output);
-        copy.gradinput  = ObjectCopy.copy(this.gradinput);
-        copy.gradoutput = ObjectCopy.copy(this.gradoutput);
+        copy.input       = DoubleTools.duplicate(this.input);         
+        copy.output      = DoubleTools.duplicate(this.output);
+        copy.gradinput   = DoubleTools.duplicate(this.gradinput);
+        copy.gradoutput  = DoubleTools.duplicate(this.gradoutput);
+        copy.sinput      = FloatTools.duplicate(this.sinput);         
+        copy.soutput     = FloatTools.duplicate(this.soutput);
+        copy.sgradinput  = FloatTools.duplicate(this.sgradinput);
+        copy.sgradoutput = FloatTools.duplicate(this.sgradoutput);
+        copy.single      = this.single;
         copy.framewidth = this.framewidth;
+        copy.batchsize  = this.batchsize;
+        copy.dirtyframes = this.dirtyframes;
+        copy.streaming   = this.streaming;
+        copy.frozen      = this.frozen;
         //
         // share.
         //
         copy.weights    = this.weights;
+        copy.sweights   = this.sweights;
         copy.weightsnum = this.weightsnum;
+        copy.popweights = this.popweights;
         copy.asgns      = this.asgns;
         copy.asgnsv     = this.asgnsv;
         //
         return copy;
     }
     
+    /**
+     * This method returns a frozen (inference-only) copy of the current data 
+     * record. The activation buffers and the weights are duplicated, while 
+     * the gradient buffers are omitted. The assignments are shared.
+     * <br></br>
+     * @return Frozen copy of this data record.
+     */
+    public NetData frozenCopy() {
+        NetData copy = new NetData();
+        //
+        // copy.
+        //
+        copy.input       = DoubleTools.duplicate(this.input);         
+        copy.output      = DoubleTools.duplicate(this.output);
+        copy.sinput      = FloatTools.duplicate(this.sinput);         
+        copy.soutput     = FloatTools.duplicate(this.soutput);
+        copy.weights     = ObjectCopy.copy(this.weights);
+        copy.sweights    = ObjectCopy.copy(this.sweights);
+        copy.popweights  = ObjectCopy.copy(this.popweights);
+        copy.single      = this.single;
+        copy.framewidth  = this.framewidth;
+        copy.batchsize   = this.batchsize;
+        copy.dirtyframes = this.dirtyframes;
+        copy.streaming   = this.streaming;
+        copy.frozen      = true;
+        //
+        // share.
+        //
+        copy.weightsnum = this.weightsnum;
+        copy.asgns      = this.asgns;
+        copy.asgnsv     = this.asgnsv;
+        //
+        return copy;
+    }
+    
+    /**
+     * Ensures a valid batch size and a valid number of touched frames for 
+     * data records that have been serialized without these values.
+     * <br></br>
+     * @return This data record.
+     */
+    private Object readResolve() {
+        if (this.batchsize < 1) this.batchsize = 1;
+        if (this.dirtyframes < 1) this.dirtyframes = this.framewidth;
+        return this;
+    }
+    
     /**
      * Makes a complete "real" copy of the current data record including the weight vectors.
      * No data is shared between the copy and original instance.
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+/**
+ * A NetKernel computes the layers of a specific network structure for a
+ * single frame. Kernels are generated by the NetCompiler, where all cell
+ * indices, weight indices and functions are constants. A kernel replaces
+ * computeLayerActivations and computeLayerGradients of NetBase, i.e.,
+ * it works on double precision and batch size 1 only.
+ * <br></br>
+ * @see NetCompiler
+ * @author Sebastian Otte
+ */
+public interface NetKernel {
+    /**
+     * Computes the activations of the given layer.
+     * <br></br>
+     * @param layer Gives a layer index.
+     * @param input The input (net input) buffer of the frame.
+     * @param output The output buffer of the frame.
+     * @param prev The output buffer of the previous frame.
+     * @param weights The weights vector.
+     */
+    public void forward(
+        final int layer,
+        final double[] input,
+        final double[] output,
+        final double[] prev,
+        final double[] weights
+    );
+    /**
+     * Computes the gradients of the given layer.
+     * <br></br>
+     * @param layer Gives a layer index.
+     * @param input The input (net input) buffer of the frame.
+     * @param gradinput The gradient input buffer of the frame.
+     * @param gradoutput The gradient output buffer of the frame.
+     * @param next The gradient output buffer of the next frame.
+     * @param weights The weights vector.
+     */
+    public void backward(
+        final int layer,
+        final double[] input,
+        final double[] gradinput,
+        final double[] gradoutput,
+        final double[] next,
+        final double[] weights
+    );
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import de.jannlab.Net;
+import de.jannlab.misc.FloatTools;
+
+
+/**
+ * A NetPool provides multiple instances of the same network for concurrent
+ * computation, e.g., for serving one model with all cores. All instances are
+ * shared copies of a prototype network, i.e., they share the structure and
+ * the weights, but each instance has its own data buffers. The instances can
+ * be borrowed and released explicitly or be acquired as thread-local instances.
+ * A Net instance itself is not thread-safe, so each instance must only be
+ * used by one thread at the same time.
+ * <br></br>
+ * The weights of the pool can be swapped atomically while the instances are
+ * in use. A swap never modifies the weights an instance is currently computing
+ * with. Instead, the instances are rebound to the new weights the next time
+ * they are borrowed or acquired (see local).
+ * <br></br>
+ * The pool keeps track of the borrowed instances, thus only instances which 
+ * were borrowed from this pool can be released, and each of them only once.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class NetPool {
+    /**
+     * An immutable set of weights for a specific version of the pool.
+     */
+    private static final class Weights {
+        final double[] weights;
+        final float[] sweights;
+        final int version;
+        //
+        Weights(final double[] weights, final float[] sweights, final int version) {
+            this.weights  = weights;
+            this.sweights = sweights;
+            this.version  = version;
+        }
+    }
+    //
+    private final NetBase prototype;
+    private volatile Weights current;
+    private final ConcurrentLinkedQueue<NetBase> idle = new ConcurrentLinkedQueue<NetBase>();
+    private final ThreadLocal<NetBase> locals = new ThreadLocal<NetBase>();
+    /**
+     * The borrowed instances, which have not been released yet (by identity).
+     */
+    private final Set<NetBase> borrowed = Collections.synchronizedSet(
+        Collections.newSetFromMap(new IdentityHashMap<NetBase, Boolean>())
+    );
+
+    /**
+     * Creates a NetPool for the given network with the given number
+     * of pre-built instances. The pool uses a private shared copy of the
+     * given network as prototype, thus the instances initially share the 
+     * weights with the given network until the first swap.
+     * <br></br>
+     * @param net The network.
+     * @param size The number of pre-built instances.
+     */
+    public NetPool(final Net net, final int size) {
+        this.prototype = (NetBase)net.sharedCopy();
+        this.current   = new Weights(
+            this.prototype.data.weights, this.prototype.data.sweights, 0
+        );
+        //
+        for (int i = 0; i < size; i++) {
+            this.idle.add(this.create());
+        }
+    }
+
+    /**
+     * Creates a new pooled instance with the current weights. The data
+     * buffers are copied without serialization (see NetData.sharedCopy).
+     */
+    private NetBase create() {
+        final NetBase net = (NetBase)this.prototype.sharedCopy();
+        this.update(net);
+        net.reset();
+        return net;
+    }
+
+    /**
+     * Rebinds the given instance to the current weights. This
+     * is only allowed while the instance is not in use.
+     */
+    private void update(final NetBase net) {
+        final Weights w = this.current;
+        net.data.weights  = w.weights;
+        net.data.sweights = w.sweights;
+    }
+
+    /**
+     * Borrows an instance from the pool. If there is no idle instance,
+     * a new instance is created. The instance is reset and uses the
+     * current weights of the pool. It must be returned by release.
+     * <br></br>
+     * @return A network instance for exclusive use by the caller.
+     */
+    public Net borrow() {
+        NetBase net = this.idle.poll();
+        if (net == null) {
+            net = this.create();
+        } else {
+            this.update(net);
+            net.reset();
+        }
+        this.borrowed.add(net);
+        return net;
+    }
+
+    /**
+     * Returns a borrowed instance into the pool. The instance must not
+     * be used by the caller afterwards.
+     * <br></br>
+     * @param net A network instance returned by borrow of this pool.
+     * @throws IllegalArgumentException If the instance was not borrowed
+     * from this pool or has already been released.
+     */
+    public void release(final Net net) {
+        if (!this.borrowed.remove(net)) {
+            throw new IllegalArgumentException(
+                "instance was not borrowed from this pool or is already released."
+            );
+        }
+        this.idle.add((NetBase)net);
+    }
+
+    /**
+     * Returns the instance which belongs to the calling thread. The instance
+     * is created on the first call per thread. On each call the instance is
+     * rebound to the current weights if they have been swapped. Note that
+     * the instance is not reset by this method.
+     * <br></br>
+     * @return The thread-local network instance.
+     */
+    public Net local() {
+        NetBase net = this.locals.get();
+        if (net == null) {
+            net = this.create();
+            this.locals.set(net);
+        } else {
+            this.update(net);
+        }
+        return net;
+    }
+
+    /**
+     * Swaps the weights of all instances atomically. The given weights are
+     * copied into a new weight vector, so instances which are currently in
+     * use keep computing with the previous weights until they are borrowed
+     * or acquired again.
+     * <br></br>
+     * @param data The new weights (without the constant first weight).
+     * @param offset Gives an offset of the weights within the data array.
+     */
+    public synchronized void swapWeights(final double[] data, final int offset) {
+        final int num     = this.prototype.data.weightsnum;
+        final Weights old = this.current;
+        //
+        final double[] weights = new double[num + 1];
+        weights[0] = 1.0;
+        System.arraycopy(data, offset, weights, 1, num);
+        //
+        if (!this.prototype.data.single) {
+            this.current = new Weights(weights, null, old.version + 1);
+            return;
+        }
+        //
+        // in single precision mode the double weights are only kept,
+        // if the prototype has a master copy.
+        //
+        this.current = new Weights(
+            (old.weights != null)?(weights):(null), 
+            FloatTools.toFloat(weights), old.version + 1
+        );
+    }
+
+    /**
+     * Swaps the weights of all instances atomically (see swapWeights) using
+     * the current weights of the given network, which must have the same
+     * structure.
+     * <br></br>
+     * @param net The network providing the new weights.
+     */
+    public void swapWeights(final Net net) {
+        final double[] data = new double[net.getWeightsNum()];
+        net.readWeights(data, 0);
+        this.swapWeights(data, 0);
+    }
+
+    /**
+     * Returns the current weights version, which is increased by each swap.
+     */
+    public int getVersion() {
+        return this.current.version;
+    }
+
+    /**
+     * Returns the number of idle instances.
+     */
+    public int getIdle() {
+        return this.idle.size();
+    }
+}
@@ -21,6 +21,8 @@ package de.jannlab.core;
 import java.io.Serializable;
 import java.io.StringWriter;
 
+import de.jannlab.misc.ObjectCopy;
+
 import static de.jannlab.tools.Debug.*;
 
 /**
@@ -122,7 +124,9 @@ public final class NetStructure implements Serializable {
     /**
      * provides all links of the network in src major order, where
      * this src and dst values are additionally swapped. so we can say
-     * that linksrev contains the inverted links.
+     * that linksrev contains the inverted links. the inverted links
+     * are only required for the backward pass, so they are null in
+     * inference-only structures (see frozenCopy).
      */
     public int[] linksrev;
     /**
@@ -135,8 +139,87 @@ public final class NetStructure implements Serializable {
      * less than the number of links.
      */
     public int weightsnum;
+    /**
+     * provides all dense link blocks of the network grouped by their
+     * destination arrays. this blocks are used in forward computation.
+     * @see Block
+     */
+    public int[] blocks;
+    /**
+     * provides the same blocks as blocks but grouped by their source
+     * arrays. this blocks are used (transposed) in backward computation.
+     */
+    public int[] blocksrev;
+    /**
+     * gives the number of dense link blocks in this network.
+     */
+    public int blocksnum;
+    /**
+     * provides all links of the network in dst major order, which are
+     * not covered by a dense block.
+     */
+    public int[] sparselinks;
+    /**
+     * provides all inverted links of the network in src major order, which
+     * are not covered by a dense block.
+     */
+    public int[] sparselinksrev;
+    /**
+     * provides the row pointers of the sparse links in the compressed
+     * sparse row layout (see Column and CellArray.predrowslbd). the rows
+     * are an additional layout for the forward integration of SUM and MULT
+     * arrays. the link triples (links and sparselinks) are still kept,
+     * because the weight gradients, the population mode, the NetCompiler
+     * and the unresolved computation use them, i.e., memory is traded for
+     * speed here and the index memory grows by the rows and columns.
+     */
+    public int[] rows;
+    /**
+     * provides the columns of the sparse links in the compressed
+     * sparse row layout.
+     */
+    public int[] columns;
+    /**
+     * provides the row pointers of the inverted sparse links in the
+     * compressed sparse row layout (see CellArray.succrowslbd). as for
+     * rows, the inverted link triples (linksrev and sparselinksrev) are 
+     * kept in addition.
+     */
+    public int[] rowsrev;
+    /**
+     * provides the columns of the inverted sparse links in the compressed
+     * sparse row layout.
+     */
+    public int[] columnsrev;
+    /**
+     * indicates whether the blocks and sparse links of each array are
+     * separated into a part within the current time step and a recurrent 
+     * part, which refers to the adjacent time step. if true, the recurrent
+     * values are read directly from the adjacent frame, otherwise they
+     * are copied into the current frame before computation.
+     */
+    public boolean resolved;
     //
     
+    /**
+     * Returns a copy of this structure for inference-only networks. The 
+     * tables used for the backward pass (linksrev, blocksrev,
+     * sparselinksrev, rowsrev and columnsrev) are omitted.
+     * <br></br>
+     * @return Inference-only copy of this structure.
+     */
+    public NetStructure frozenCopy() {
+        final NetStructure copy = ObjectCopy.copy(this);
+        //
+        copy.linksrev       = null;
+        copy.blocksrev      = null;
+        copy.sparselinksrev = null;
+        copy.rowsrev        = null;
+        copy.columnsrev     = null;
+        //
+        return copy;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -191,11 +274,23 @@ public final class NetStructure implements Serializable {
         w.append("}\n");
         w.append("\n");
         //
-        w.append("linksrev : {\n");
-        w.append(indent(Link.asString(this.linksrev, 0, this.linksnum, 10)));
-        w.append("\n");
-        w.append("}\n");
-        w.append("\n");
+        if (this.linksrev != null) {
+            w.append("linksrev : {\n");
+            w.append(indent(Link.asString(this.linksrev, 0, this.linksnum, 10)));
+            w.append("\n");
+            w.append("}\n");
+            w.append("\n");
+        }
+        //
+        if (this.blocksnum > 0) {
+            w.append("blocksnum : " + this.blocksnum + "\n");
+            w.append("\n");
+            w.append("blocks : {\n");
+            w.append(indent(Block.asString(this.blocks, 0, this.blocksnum)));
+            w.append("\n");
+            w.append("}\n");
+            w.append("\n");
+        }
         //
         return w.toString();
     }
@@ -56,14 +56,16 @@ public final class OfflineRecurrentNetBase extends RecurrentNetBase {
         //
         for (int t = 0; t <= last; t++) {
             //
-            if (t > 0) {
+            final int prev = (t > 0)?(this.frameidx - 1):(this.frameidx);
+            //
+            if (!this.structure.resolved && (t > 0)) {
                 this.copyOutput(this.frameidx - 1, this.frameidx);
             }
             //
             // from first to last layer.
             //
             for (int l = 0; l < this.structure.layers.length; l++) {
-                this.computeLayerActivations(l);
+                this.computeLayerActivations(l, prev);
             }
             //
             if (t < last) this.incrFrameIdx();
@@ -75,19 +77,22 @@ public final class OfflineRecurrentNetBase extends RecurrentNetBase {
      */
     @Override
     final public void computeGradient() {
+        this.checkBackward();
         //
         final int last = this.frameidx;
         //
         for (int t = last; t >= 0; t--) {
             //
-            if (t < last) {
+            final int next = (t < last)?(this.frameidx + 1):(this.frameidx);
+            //
+            if (!this.structure.resolved && (t < last)) {
                 this.copyGradOutput(this.frameidx + 1, this.frameidx);
             }
             //
             // from last to first layer.
             //
             for (int l = this.structure.layers.length - 1; l >= 0; l--) {
-                this.computeLayerGradients(l);
+                this.computeLayerGradients(l, next);
             }
             //
             if (t > 0) this.decrFrameIdx();
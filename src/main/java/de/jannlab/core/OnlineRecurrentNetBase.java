@@ -48,15 +48,20 @@ public final class OnlineRecurrentNetBase extends RecurrentNetBase {
      */
     @Override
     final public void compute() {
-                //
-        if (this.frameidx > 0) {
-            this.copyOutput(this.frameidx - 1, this.frameidx);
+        //
+        // the recurrent values are either read directly from the 
+        // previous frame or copied into the current frame.
+        //
+        final int prev = this.prevFrameIdx();
+        //
+        if (!this.structure.resolved && (prev != this.frameidx)) {
+            this.copyOutput(prev, this.frameidx);
         }
         //
         // from first to last layer.
         //
         for (int l = 0; l < this.structure.layers.length; l++) {
-            this.computeLayerActivations(l);
+            this.computeLayerActivations(l, prev);
         }
     }
     
@@ -65,15 +70,24 @@ public final class OnlineRecurrentNetBase extends RecurrentNetBase {
      */
     @Override
     final public void computeGradient() {
+        this.checkBackward();
+        if (this.data.streaming) {
+            throw new UnsupportedOperationException(
+                "gradient computation is not supported in streaming mode."
+            );
+        }
+        //
+        final boolean hasnext = (this.frameidx < (this.data.framewidth - 1));
+        final int next        = (hasnext)?(this.frameidx + 1):(this.frameidx);
         //
-        if (this.frameidx < (this.data.framewidth - 1)) {
+        if (!this.structure.resolved && hasnext) {
             this.copyGradOutput(this.frameidx + 1, this.frameidx);
         }
         //
         // from last to first layer.
         //
         for (int l = this.structure.layers.length - 1; l >= 0; l--) {
-            this.computeLayerGradients(l);
+            this.computeLayerGradients(l, next);
         }
     }
 }
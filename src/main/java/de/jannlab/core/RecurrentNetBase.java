@@ -19,6 +19,7 @@
 package de.jannlab.core;
 
 import de.jannlab.misc.DoubleTools;
+import de.jannlab.misc.FloatTools;
 
 /**
  * This is an abstract inter class for other recurrent network types.
@@ -34,6 +35,32 @@ public abstract class RecurrentNetBase extends NetBase {
         super(structure, data);
     }
 
+    /**
+     * Copies the cell values of the given array from source time to destination 
+     * time within the given buffer. Depending on the precision mode either 
+     * the double buffer or the float buffer is used.
+     * <br></br>
+     * @param buffer Double buffer.
+     * @param sbuffer Single precision buffer.
+     * @param source Source time index.
+     * @param dest Destination time index.
+     * @param a The cell array.
+     */
+    private void copyCells(
+        final double[][] buffer, final float[][] sbuffer,
+        final int source, final int dest, final CellArray a
+    ) {
+        final int batch = this.data.batchsize;
+        final int off   = a.cellslbd * batch;
+        final int size  = a.cellsnum * batch;
+        //
+        if (this.data.single) {
+            FloatTools.copy(sbuffer[source], off, sbuffer[dest], off, size);
+        } else {
+            DoubleTools.copy(buffer[source], off, buffer[dest], off, size);
+        }
+    }
+    
     /**
      * Copies output values from source time to destination time.
      * <br></br>
@@ -46,9 +73,8 @@ public abstract class RecurrentNetBase extends NetBase {
         //
         for (CellArray a : this.structure.arrays) {
             if (a.celltype != CellType.VALUE) {
-                DoubleTools.copy(
-                    this.data.output[source], a.cellslbd,
-                    this.data.output[dest], a.cellslbd, a.cellsnum
+                this.copyCells(
+                    this.data.output, this.data.soutput, source, dest, a
                 );
                 /** /
                 DoubleTools.copy(
@@ -79,9 +105,8 @@ public abstract class RecurrentNetBase extends NetBase {
             final CellArray a = this.structure.arrays[i];
             //
             if (a.celltype != CellType.VALUE) {
-                DoubleTools.copy(
-                    this.data.output[source], a.cellslbd,
-                    this.data.output[dest], a.cellslbd, a.cellsnum
+                this.copyCells(
+                    this.data.output, this.data.soutput, source, dest, a
                 );
                 /** /
                 DoubleTools.copy(
@@ -108,9 +133,8 @@ public abstract class RecurrentNetBase extends NetBase {
                 (a.celltype != CellType.VALUE) && 
                 (a.layer != this.structure.outputlayer)
             ) {
-                DoubleTools.copy(
-                    this.data.gradoutput[source], a.cellslbd,
-                    this.data.gradoutput[dest], a.cellslbd, a.cellsnum
+                this.copyCells(
+                    this.data.gradoutput, this.data.sgradoutput, source, dest, a
                 );
                 /*
                 DoubleTools.copy(
@@ -144,9 +168,8 @@ public abstract class RecurrentNetBase extends NetBase {
                 (a.celltype != CellType.VALUE) && 
                 (a.layer != this.structure.outputlayer)
             ) {
-                DoubleTools.copy(
-                    this.data.gradoutput[source], a.cellslbd,
-                    this.data.gradoutput[dest], a.cellslbd, a.cellsnum
+                this.copyCells(
+                    this.data.gradoutput, this.data.sgradoutput, source, dest, a
                 );
                 /*
                 DoubleTools.copy(
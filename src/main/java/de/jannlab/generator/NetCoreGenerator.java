@@ -20,14 +20,19 @@ package de.jannlab.generator;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import de.jannlab.Net;
 import de.jannlab.core.BidirectionalNetBase;
+import de.jannlab.core.Block;
 import de.jannlab.core.CellArray;
+import de.jannlab.core.CellFunction;
+import de.jannlab.core.CellIntegration;
 import de.jannlab.core.CellType;
+import de.jannlab.core.Column;
 import de.jannlab.core.FeedForwardNetBase;
 import de.jannlab.core.Layer;
 import de.jannlab.core.LayerTag;
@@ -59,6 +64,11 @@ public class NetCoreGenerator implements NetGenerator {
      * Default frame width.
      */
     private static final int DEFAULT_FRAMES = 1;
+    /**
+     * Minimum number of links, which a fully connected array pair
+     * must have to be computed as dense block.
+     */
+    private static final int DENSE_BLOCK_MIN_LINKS = 16;
     /**
      * A data buffer for links.
      */
@@ -152,6 +162,26 @@ public class NetCoreGenerator implements NetGenerator {
      * Computes the network offline?
      */
     private boolean offline = false;
+    /**
+     * Detect dense link blocks?
+     */
+    private boolean denseblocks = true;
+    /**
+     * Computes the network in single precision?
+     */
+    private boolean single = false;
+    /**
+     * Keep a double precision master copy of the weights?
+     */
+    private boolean master = true;
+    /**
+     * Generate an inference-only (frozen) network?
+     */
+    private boolean frozen = false;
+    /**
+     * The approximation mode of the activation functions.
+     */
+    private int approximation = CellFunction.EXACT;
     
     /**
      * Create an instance of NetCoreGenerator.
@@ -195,6 +225,10 @@ public class NetCoreGenerator implements NetGenerator {
         //
         this.ilctag    = CellArray.ILC_BOTH;
         //
+        this.denseblocks = true;
+        this.single      = false;
+        this.master      = true;
+        //
         this.assigns.clear();
     }
 
@@ -305,6 +339,10 @@ public class NetCoreGenerator implements NetGenerator {
         for (int i = 0; i < arrays.length; i++) {
             final CellArray a = this.arrays.get(i);
             //
+            if (this.approximation != CellFunction.EXACT) {
+                a.celltype = a.celltype.approximate(this.approximation);
+            }
+            //
             for (int j = a.cellslbd; j <= a.cellsubd; j++) {
                 a.indeg  += this.indeg[j];
                 a.outdeg += this.outdeg[j];
@@ -408,6 +446,494 @@ public class NetCoreGenerator implements NetGenerator {
         this.structure.arraysnum = arrays.length;
     }
     
+    /**
+     * Searches the predecessor links of the given array for dense blocks, i.e., 
+     * for source ranges (within one source array) which are linked with all cells 
+     * of the array by consecutive weights. Found blocks are added to the given list 
+     * and their links are marked as covered.
+     * <br></br>
+     * @param a The destination array.
+     * @param blocks List of the found blocks.
+     * @param covered Contains the (source, destination) pairs of the links 
+     * which are covered by a block.
+     */
+    private void findBlocks(
+        final CellArray a, final List<int[]> blocks, final Set<Long> covered
+    ) {
+        final int[] links = this.structure.links;
+        final int rows    = a.cellsnum;
+        final int end     = a.predslbd + (a.predsnum * Link.LINK_SIZE);
+        //
+        // determine the link range of each row (destination cell).
+        //
+        final int[] rowlbd = new int[rows + 1];
+        int link = a.predslbd;
+        for (int r = 0; r < rows; r++) {
+            rowlbd[r] = link;
+            while ((link < end) && (links[link + Link.IDX_DST] == (a.cellslbd + r))) {
+                link += Link.LINK_SIZE;
+            }
+        }
+        rowlbd[rows] = end;
+        final int[] cursor = rowlbd.clone();
+        //
+        // each run of consecutive sources with consecutive weights within 
+        // the first row is a block candidate.
+        //
+        int k = rowlbd[0];
+        while (k < rowlbd[1]) {
+            final int s0 = links[k + Link.IDX_SRC];
+            final int w0 = links[k + Link.IDX_WEIGHT];
+            int n = 1;
+            //
+            if (w0 > 0) {
+                int next = k + Link.LINK_SIZE;
+                while (
+                    (next < rowlbd[1]) &&
+                    (links[next + Link.IDX_SRC] == (s0 + n)) &&
+                    (links[next + Link.IDX_WEIGHT] == (w0 + n)) &&
+                    (this.arraymap[s0 + n] == this.arraymap[s0])
+                ) {
+                    n++;
+                    next += Link.LINK_SIZE;
+                }
+            }
+            k += (n * Link.LINK_SIZE);
+            //
+            if ((w0 <= 0) || (n < 2) || ((n * rows) < DENSE_BLOCK_MIN_LINKS)) continue;
+            //
+            // all other rows must contain the same run with a constant 
+            // weight stride.
+            //
+            int     ld = n;
+            boolean ok = true;
+            //
+            for (int r = 1; (r < rows) && ok; r++) {
+                int c = cursor[r];
+                while ((c < rowlbd[r + 1]) && (links[c + Link.IDX_SRC] < s0)) {
+                    c += Link.LINK_SIZE;
+                }
+                cursor[r] = c;
+                //
+                if (((c + (n * Link.LINK_SIZE)) > rowlbd[r + 1])) {
+                    ok = false;
+                    break;
+                }
+                final int wr = links[c + Link.IDX_WEIGHT];
+                if (r == 1) ld = wr - w0;
+                //
+                if ((ld < n) || (wr != (w0 + (r * ld)))) {
+                    ok = false;
+                    break;
+                }
+                for (int i = 0; i < n; i++) {
+                    final int l = c + (i * Link.LINK_SIZE);
+                    if (
+                        (links[l + Link.IDX_SRC] != (s0 + i)) ||
+                        (links[l + Link.IDX_WEIGHT] != (wr + i))
+                    ) {
+                        ok = false;
+                        break;
+                    }
+                }
+            }
+            if (!ok) continue;
+            //
+            // store block and mark its links.
+            //
+            final int[] block = Block.alloc(1);
+            block[Block.IDX_SRC]    = s0;
+            block[Block.IDX_SRCNUM] = n;
+            block[Block.IDX_DST]    = a.cellslbd;
+            block[Block.IDX_DSTNUM] = rows;
+            block[Block.IDX_WEIGHT] = w0;
+            block[Block.IDX_STRIDE] = ld;
+            blocks.add(block);
+            //
+            for (int r = 0; r < rows; r++) {
+                for (int i = 0; i < n; i++) {
+                    covered.add(pair(s0 + i, a.cellslbd + r));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Builds a key for a (source, destination) pair of cells. 
+     */
+    private static long pair(final int src, final int dst) {
+        return (((long)src) << 32) | (((long)dst) & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Determines whether a link from the cell src to the cell dst reads
+     * the value of src from the previous time step, i.e., src is computed 
+     * after dst within one time step (or within the same computation index). 
+     * Links from non-computing cells always refer to the current time step.
+     * In bidirectional networks each layer is computed over all time steps 
+     * at once, so only links within a layer can be recurrent.
+     * <br></br>
+     * @param src The source cell.
+     * @param dst The destination cell.
+     * @return True if the link refers to the previous time step.
+     */
+    private boolean isRecurrentLink(final int src, final int dst) {
+        final CellArray s = this.structure.arrays[this.arraymap[src]];
+        final CellArray d = this.structure.arrays[this.arraymap[dst]];
+        //
+        if ((s.compidx < 0) || (d.compidx < 0)) return false;
+        if (s.layer == d.layer) return (s.compidx >= d.compidx);
+        if (this.structure.bidirectional) return false;
+        return (s.layer > d.layer);
+    }
+    
+    /**
+     * Determines whether a link from the cell src to the cell dst reads
+     * the gradient of dst from the next time step within the backward pass.
+     * This is the case for recurrent links, except for links into the output
+     * layer, whose gradients are never transferred between time steps.
+     * <br></br>
+     * @param src The source cell.
+     * @param dst The destination cell.
+     * @return True if the link refers to the next time step.
+     */
+    private boolean isRecurrentRevLink(final int src, final int dst) {
+        if (this.layermap[dst] == this.outputlayer) return false;
+        return this.isRecurrentLink(src, dst);
+    }
+    
+    /**
+     * Collects the links of the given range which are not covered by a block,
+     * separated into links within the current time step (first) and recurrent 
+     * links (second). For LASTID integration only the last link of each 
+     * destination cell is relevant, so the others are skipped, which makes the 
+     * result independent of the order of both parts.
+     * <br></br>
+     * @param links Array of links.
+     * @param lbd Offset of the first link.
+     * @param num Number of links.
+     * @param rev Are the links reverted (linksrev)?
+     * @param lastid Keep only the last link of each destination cell?
+     * @param covered Contains the (source, destination) pairs of the links 
+     * which are covered by a block or null.
+     * @param result The list of the collected links.
+     * @return The number of collected links which are not recurrent.
+     */
+    private int collectSparseLinks(
+        final int[] links, final int lbd, final int num, 
+        final boolean rev, final boolean lastid,
+        final Set<Long> covered, final List<int[]> result
+    ) {
+        final List<int[]> recurrent = new ArrayList<int[]>();
+        //
+        // for LASTID integration only the last link of each 
+        // destination cell is kept.
+        //
+        final boolean[] skip = new boolean[num];
+        if (lastid) {
+            final Set<Integer> seen = new HashSet<Integer>();
+            for (int i = num - 1; i >= 0; i--) {
+                final int ld = links[lbd + (i * Link.LINK_SIZE) + Link.IDX_DST];
+                skip[i] = !seen.add(ld);
+            }
+        }
+        int ctr  = 0;
+        int link = lbd;
+        //
+        for (int i = 0; i < num; i++) {
+            final int ls = links[link + Link.IDX_SRC];
+            final int ld = links[link + Link.IDX_DST];
+            //
+            // restore original direction.
+            //
+            final int src = (rev)?(ld):(ls);
+            final int dst = (rev)?(ls):(ld);
+            //
+            if (
+                !skip[i] && 
+                ((covered == null) || !covered.contains(pair(src, dst)))
+            ) {
+                final int[] l = Link.link(ls, ld, links[link + Link.IDX_WEIGHT]);
+                //
+                final boolean recurrentlink = (rev)?(
+                    this.isRecurrentRevLink(src, dst)
+                ):(
+                    this.isRecurrentLink(src, dst)
+                );
+                if (recurrentlink) {
+                    recurrent.add(l);
+                } else {
+                    result.add(l);
+                    ctr++;
+                }
+            }
+            link += Link.LINK_SIZE;
+        }
+        result.addAll(recurrent);
+        return ctr;
+    }
+    
+    /**
+     * Flattens a list of n-tuples into one int-array.
+     */
+    private static int[] flatten(final List<int[]> tuples, final int size) {
+        final int[] result = new int[tuples.size() * size];
+        int idx = 0;
+        for (int[] tuple : tuples) {
+            for (int i = 0; i < size; i++) {
+                result[idx++] = tuple[i];
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Separates the given blocks into blocks within the current time step 
+     * (first) and recurrent blocks (second) and appends them to result.
+     * <br></br>
+     * @param blocks The blocks.
+     * @param rev Are the blocks used in the backward pass?
+     * @param result The list of all blocks.
+     * @return The number of blocks which are not recurrent.
+     */
+    private int appendBlocks(
+        final List<int[]> blocks, final boolean rev, final List<int[]> result
+    ) {
+        final List<int[]> recurrent = new ArrayList<int[]>();
+        int ctr = 0;
+        //
+        for (int[] block : blocks) {
+            final int src = block[Block.IDX_SRC];
+            final int dst = block[Block.IDX_DST];
+            //
+            final boolean recurrentblock = (rev)?(
+                this.isRecurrentRevLink(src, dst)
+            ):(
+                this.isRecurrentLink(src, dst)
+            );
+            if (recurrentblock) {
+                recurrent.add(block);
+            } else {
+                result.add(block);
+                ctr++;
+            }
+        }
+        result.addAll(recurrent);
+        return ctr;
+    }
+    
+    /**
+     * Sets up the integration links of all arrays for both directions.
+     * Fully connected array pairs are detected and stored as dense blocks. 
+     * The links which are not covered by a block remain in separated sparse
+     * link arrays. Furthermore, the blocks and links of each array are 
+     * separated into a part within the current time step and a part which 
+     * refers to the adjacent time step (recurrent links). Thus, the recurrent
+     * values can be read directly from the adjacent frame and there is no
+     * need to copy the activations between the frames.
+     */
+    private void setupBlocks() {
+        //
+        final CellArray[] arrays = this.structure.arrays;
+        final Set<Long> covered  = new HashSet<Long>();
+        //
+        final List<int[]> blocks  = new ArrayList<int[]>();
+        final List<int[]> found   = new ArrayList<int[]>();
+        //
+        // forward: blocks are grouped by destination array.
+        //
+        for (int i = 0; i < arrays.length; i++) {
+            final CellArray a = arrays[i];
+            final int before  = blocks.size();
+            //
+            found.clear();
+            if (
+                this.denseblocks && (a.cellsnum > 0) && (a.predsnum > 0) &&
+                (a.celltype.integration == CellIntegration.SUM)
+            ) {
+                this.findBlocks(a, found, covered);
+            }
+            final int current  = this.appendBlocks(found, false, blocks);
+            a.predblockslbd    = before * Block.BLOCK_SIZE;
+            a.predblocksnum    = current;
+            a.predrecblockslbd = (before + current) * Block.BLOCK_SIZE;
+            a.predrecblocksnum = found.size() - current;
+        }
+        //
+        // backward: the same blocks grouped by source array, but only 
+        // for arrays which are reverse integrated by sum.
+        //
+        final List<int[]> blocksrev = new ArrayList<int[]>();
+        for (int i = 0; i < arrays.length; i++) {
+            final CellArray a = arrays[i];
+            final int before  = blocksrev.size();
+            //
+            found.clear();
+            if (a.celltype.revintegration == CellIntegration.SUM) {
+                for (int[] block : blocks) {
+                    if (this.arraymap[block[Block.IDX_SRC]] == i) {
+                        found.add(block);
+                    }
+                }
+            }
+            final int current  = this.appendBlocks(found, true, blocksrev);
+            a.succblockslbd    = before * Block.BLOCK_SIZE;
+            a.succblocksnum    = current;
+            a.succrecblockslbd = (before + current) * Block.BLOCK_SIZE;
+            a.succrecblocksnum = found.size() - current;
+        }
+        //
+        // collect the remaining links.
+        //
+        final List<int[]> sparse    = new ArrayList<int[]>();
+        final List<int[]> sparserev = new ArrayList<int[]>();
+        //
+        for (int i = 0; i < arrays.length; i++) {
+            final CellArray a = arrays[i];
+            //
+            int before = sparse.size();
+            a.predsparselbd = before * Link.LINK_SIZE;
+            a.predsparsenum = this.collectSparseLinks(
+                this.structure.links, a.predslbd, a.predsnum, false, 
+                (a.celltype.integration == CellIntegration.LASTID), 
+                covered, sparse
+            );
+            a.predrecsparselbd = (before + a.predsparsenum) * Link.LINK_SIZE;
+            a.predrecsparsenum = sparse.size() - before - a.predsparsenum;
+            //
+            // the covered links are only skipped in the backward pass
+            // if the array is reverse integrated by the blocks.
+            //
+            before = sparserev.size();
+            a.succsparselbd = before * Link.LINK_SIZE;
+            a.succsparsenum = this.collectSparseLinks(
+                this.structure.linksrev, a.succslbd, a.succsnum, true,
+                (a.celltype.revintegration == CellIntegration.LASTID), 
+                (a.celltype.revintegration == CellIntegration.SUM)?(covered):(null), 
+                sparserev
+            );
+            a.succrecsparselbd = (before + a.succsparsenum) * Link.LINK_SIZE;
+            a.succrecsparsenum = sparserev.size() - before - a.succsparsenum;
+        }
+        //
+        // compressed sparse rows of the remaining links for all
+        // arrays which are integrated by sum or product. the rows are
+        // built in addition to the sparse link triples, which are
+        // still needed (e.g., for the weight gradients).
+        //
+        final List<int[]> rows       = new ArrayList<int[]>();
+        final List<int[]> columns    = new ArrayList<int[]>();
+        final List<int[]> rowsrev    = new ArrayList<int[]>();
+        final List<int[]> columnsrev = new ArrayList<int[]>();
+        //
+        for (int i = 0; i < arrays.length; i++) {
+            final CellArray a = arrays[i];
+            //
+            a.predrowslbd    = -1;
+            a.predrecrowslbd = -1;
+            a.succrowslbd    = -1;
+            a.succrecrowslbd = -1;
+            //
+            if (isAccumulating(a.celltype.integration)) {
+                a.predrowslbd = appendRows(
+                    sparse, a.predsparselbd, a.predsparsenum, 
+                    a.cellslbd, a.cellsnum, rows, columns
+                );
+                a.predrecrowslbd = appendRows(
+                    sparse, a.predrecsparselbd, a.predrecsparsenum, 
+                    a.cellslbd, a.cellsnum, rows, columns
+                );
+            }
+            if (isAccumulating(a.celltype.revintegration)) {
+                a.succrowslbd = appendRows(
+                    sparserev, a.succsparselbd, a.succsparsenum, 
+                    a.cellslbd, a.cellsnum, rowsrev, columnsrev
+                );
+                a.succrecrowslbd = appendRows(
+                    sparserev, a.succrecsparselbd, a.succrecsparsenum, 
+                    a.cellslbd, a.cellsnum, rowsrev, columnsrev
+                );
+            }
+        }
+        //
+        this.structure.blocks         = flatten(blocks, Block.BLOCK_SIZE);
+        this.structure.blocksrev      = flatten(blocksrev, Block.BLOCK_SIZE);
+        this.structure.blocksnum      = blocks.size();
+        this.structure.sparselinks    = flatten(sparse, Link.LINK_SIZE);
+        this.structure.sparselinksrev = flatten(sparserev, Link.LINK_SIZE);
+        this.structure.rows           = flatten(rows, 1);
+        this.structure.columns        = flatten(columns, Column.COLUMN_SIZE);
+        this.structure.rowsrev        = flatten(rowsrev, 1);
+        this.structure.columnsrev     = flatten(columnsrev, Column.COLUMN_SIZE);
+        this.structure.resolved       = true;
+    }
+    
+    /**
+     * Returns true if the given integration function accumulates the
+     * links of a cell (sum or product), which is done via rows.
+     */
+    private static boolean isAccumulating(final int integration) {
+        return (
+            (integration == CellIntegration.SUM) ||
+            (integration == CellIntegration.MULT)
+        );
+    }
+    
+    /**
+     * Appends the given sparse links of a range of destination cells in
+     * the compressed sparse row layout (see Column). The links of each 
+     * destination cell keep their order, thus the accumulation of each cell 
+     * is performed in the same order as with the sparse links.
+     * <br></br>
+     * @param links The list of the sparse links.
+     * @param lbd The offset of the first link (int offset).
+     * @param num The number of links.
+     * @param cellsoff The first destination cell.
+     * @param cellsnum The number of destination cells.
+     * @param rows The list of row pointers.
+     * @param columns The list of columns.
+     * @return The offset of the row pointers of the destination cells.
+     */
+    private static int appendRows(
+        final List<int[]> links, final int lbd, final int num,
+        final int cellsoff, final int cellsnum,
+        final List<int[]> rows, final List<int[]> columns
+    ) {
+        final int offset = rows.size();
+        final int first  = lbd / Link.LINK_SIZE;
+        //
+        // count the links per row.
+        //
+        final int[] start = new int[cellsnum + 1];
+        for (int i = 0; i < num; i++) {
+            final int[] link = links.get(first + i);
+            start[(link[Link.IDX_DST] - cellsoff) + 1]++;
+        }
+        for (int k = 0; k < cellsnum; k++) {
+            start[k + 1] += start[k];
+        }
+        //
+        // distribute the links stable into the rows.
+        //
+        final int[][] sorted = new int[num][];
+        final int[] pos      = start.clone();
+        for (int i = 0; i < num; i++) {
+            final int[] link = links.get(first + i);
+            sorted[pos[link[Link.IDX_DST] - cellsoff]++] = new int[]{
+                link[Link.IDX_SRC], link[Link.IDX_WEIGHT]
+            };
+        }
+        //
+        final int base = columns.size();
+        for (int k = 0; k <= cellsnum; k++) {
+            rows.add(new int[]{(base + start[k]) * Column.COLUMN_SIZE});
+        }
+        for (int i = 0; i < num; i++) {
+            columns.add(sorted[i]);
+        }
+        return offset;
+    }
+    
     /**
      * Setup up cell to X maps.
      */
@@ -585,10 +1111,27 @@ public class NetCoreGenerator implements NetGenerator {
         if (fn < 0) fn = 1;
         if (!this.structure.recurrent) fn = 1;
         //
-        this.data.input      = new double[fn][cells];
-        this.data.output     = new double[fn][cells];
-        this.data.gradinput  = new double[fn][cells];
-        this.data.gradoutput = new double[fn][cells];
+        //
+        // frozen nets have no gradient buffers.
+        //
+        this.data.frozen = this.frozen;
+        //
+        if (this.single) {
+            this.data.single      = true;
+            this.data.sinput      = new float[fn][cells];
+            this.data.soutput     = new float[fn][cells];
+            if (!this.frozen) {
+                this.data.sgradinput  = new float[fn][cells];
+                this.data.sgradoutput = new float[fn][cells];
+            }
+        } else {
+            this.data.input      = new double[fn][cells];
+            this.data.output     = new double[fn][cells];
+            if (!this.frozen) {
+                this.data.gradinput  = new double[fn][cells];
+                this.data.gradoutput = new double[fn][cells];
+            }
+        }
         //
         // build assignments arrays.
         //
@@ -607,12 +1150,20 @@ public class NetCoreGenerator implements NetGenerator {
         }
         //
         this.data.weightsnum = this.structure.weightsnum;
-        this.data.weights    = new double[this.data.weightsnum + 1];
         this.data.framewidth     = fn;
+        this.data.dirtyframes    = fn;
         //
-        // always set first weight to 1.0.
+        // always set first weight to 1.0. in single precision mode
+        // the double weights are only kept as master copy if requested.
         //
-        this.data.weights[0] = 1.0;
+        if (this.single) {
+            this.data.sweights    = new float[this.data.weightsnum + 1];
+            this.data.sweights[0] = 1.0f;
+        }
+        if (!this.single || this.master) {
+            this.data.weights    = new double[this.data.weightsnum + 1];
+            this.data.weights[0] = 1.0;
+        }
     }
     
     /**
@@ -658,6 +1209,23 @@ public class NetCoreGenerator implements NetGenerator {
         //
         this.setupLayers();
         //
+        // setup blocks:
+        //      - detect fully connected array pairs,
+        //      - separate the remaining sparse links,
+        //      - separate recurrent blocks and links.
+        //
+        this.setupBlocks();
+        //
+        // the reverted tables are only required for the backward pass.
+        //
+        if (this.frozen) {
+            this.structure.linksrev       = null;
+            this.structure.blocksrev      = null;
+            this.structure.sparselinksrev = null;
+            this.structure.rowsrev        = null;
+            this.structure.columnsrev     = null;
+        }
+        //
         /*
         if (DEBUG) {
             System.out.println("NetStructure : {");
@@ -712,6 +1280,57 @@ public class NetCoreGenerator implements NetGenerator {
         this.offline = true;
     }
 
+    /**
+     * Enables or disables the detection of dense link blocks. If enabled (default)
+     * fully connected array pairs are computed by matrix-vector kernels instead
+     * of being integrated link by link.
+     * <br></br>
+     * @param value True for using dense blocks.
+     */
+    public void useDenseBlocks(final boolean value) {
+        this.denseblocks = value;
+    }
+
+    /**
+     * Determines whether the generated net computes in single precision (float)
+     * or in double precision (default). Single precision halves the memory of 
+     * the data buffers and the weights. For training it is recommended to 
+     * keep a double precision master copy of the weights, on which the weight 
+     * updates are performed. A net without master copy creates it on demand
+     * (see Net.getWeights).
+     * <br></br>
+     * @param value True for single precision.
+     * @param master True for keeping a double precision master copy of the weights.
+     */
+    public void useSinglePrecision(final boolean value, final boolean master) {
+        this.single = value;
+        this.master = master;
+    }
+
+    /**
+     * Determines whether the generated net is inference-only (frozen). A frozen
+     * net allocates no gradient buffers and omits the reverted links, thus it
+     * can only compute the forward pass (see Net.freeze).
+     * <br></br>
+     * @param value True for an inference-only net.
+     */
+    public void useInferenceOnly(final boolean value) {
+        this.frozen = value;
+    }
+    
+    /**
+     * Determines the approximation mode of the activation functions of all
+     * cells of the generated net (see CellType.approximate). Single cell types
+     * can also be approximated individually, which is only overridden by the
+     * modes other than CellFunction.EXACT.
+     * <br></br>
+     * @param mode The approximation mode (see CellFunction.LUT, 
+     * CellFunction.RATIONAL, CellFunction.SCHRAUDOLPH or CellFunction.EXACT).
+     */
+    public void useApproximation(final int mode) {
+        this.approximation = mode;
+    }
+
     //-------------------------------------------------------------------------
     // CELL METHODS
     //-------------------------------------------------------------------------
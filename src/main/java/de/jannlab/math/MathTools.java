@@ -109,6 +109,36 @@ public class MathTools {
         final double neg = fastExp(-value);
         return (pos - neg) / (pos + neg);
     }
+
+    /**
+     * Computes the tanh function based on the (intrinsic) exponential
+     * function, which is much faster than Math.tanh. In contrast to
+     * fastTanh, this is not an approximation: the relative error is less
+     * than 1e-14. Small arguments are computed by the Taylor series
+     * to avoid cancellation.
+     * <br></br>
+     * @param value The argument of the tanh function.
+     * @return tanh(x).
+     */
+    public static double expTanh(final double value) {
+        final double abs = Math.abs(value);
+        //
+        if (abs < 0.0625) {
+            final double x2 = value * value;
+            return value * (1.0 + x2 * (
+                -1.0 / 3.0 + x2 * (
+                    2.0 / 15.0 + x2 * (
+                        -17.0 / 315.0 + x2 * (62.0 / 2835.0)
+                    )
+                )
+            ));
+        }
+        if (abs > 20.0) return (value > 0.0)?(1.0):(-1.0);
+        //
+        final double e = Math.exp(-2.0 * abs);
+        final double t = (1.0 - e) / (1.0 + e);
+        return (value > 0.0)?(t):(-t);
+    }
     
     /**
      * Return the index of the biggest values in an array of doubles.
@@ -115,6 +115,241 @@ public class MatrixTools {
         return out.toString();
     }
     
+    /**
+     * Computes the eigen decomposition A = V diag(d) V^T of the symmetric 
+     * n x n matrix A by Householder tridiagonalization and the implicit QL 
+     * method. The eigenvectors are stored in the columns of V, the 
+     * eigenvalues in d (unsorted). A is not modified, but it may be V. 
+     * The array e is a working buffer of n values, thus the decomposition
+     * does not allocate memory.
+     * <br></br>
+     * @param A The symmetric matrix (row-major).
+     * @param n The number of rows and columns.
+     * @param V The matrix for the eigenvectors (row-major).
+     * @param d The array for the eigenvalues.
+     * @param e A working buffer of n values.
+     */
+    public static void eigenSymmetric(
+        final double[] A,
+        final int n,
+        final double[] V,
+        final double[] d,
+        final double[] e
+    ) {
+        if (A != V) {
+            DoubleTools.copy(A, 0, V, 0, n * n);
+        }
+        tridiagonalize(V, n, d, e);
+        diagonalize(V, n, d, e);
+    }
     
+    /**
+     * Symmetric Householder reduction to tridiagonal form. On return,
+     * d contains the diagonal, e the subdiagonal (e[0] is 0.0) and V the
+     * accumulated transformations.
+     */
+    private static void tridiagonalize(
+        final double[] V,
+        final int n,
+        final double[] d,
+        final double[] e
+    ) {
+        for (int j = 0; j < n; j++) {
+            d[j] = V[idx(n - 1, j, n)];
+        }
+        //
+        for (int i = n - 1; i > 0; i--) {
+            //
+            // scale to avoid under/overflow.
+            //
+            double scale = 0.0;
+            double h     = 0.0;
+            for (int k = 0; k < i; k++) {
+                scale += Math.abs(d[k]);
+            }
+            if (scale == 0.0) {
+                e[i] = d[i - 1];
+                for (int j = 0; j < i; j++) {
+                    d[j] = V[idx(i - 1, j, n)];
+                    V[idx(i, j, n)] = 0.0;
+                    V[idx(j, i, n)] = 0.0;
+                }
+            } else {
+                //
+                // generate householder vector.
+                //
+                for (int k = 0; k < i; k++) {
+                    d[k] /= scale;
+                    h += d[k] * d[k];
+                }
+                double f = d[i - 1];
+                double g = Math.sqrt(h);
+                if (f > 0.0) g = -g;
+                e[i]     = scale * g;
+                h        = h - (f * g);
+                d[i - 1] = f - g;
+                for (int j = 0; j < i; j++) {
+                    e[j] = 0.0;
+                }
+                //
+                // apply similarity transformation to remaining columns.
+                //
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    V[idx(j, i, n)] = f;
+                    g = e[j] + (V[idx(j, j, n)] * f);
+                    for (int k = j + 1; k <= i - 1; k++) {
+                        g    += V[idx(k, j, n)] * d[k];
+                        e[k] += V[idx(k, j, n)] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0.0;
+                for (int j = 0; j < i; j++) {
+                    e[j] /= h;
+                    f += e[j] * d[j];
+                }
+                final double hh = f / (h + h);
+                for (int j = 0; j < i; j++) {
+                    e[j] -= hh * d[j];
+                }
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    g = e[j];
+                    for (int k = j; k <= i - 1; k++) {
+                        V[idx(k, j, n)] -= ((f * e[k]) + (g * d[k]));
+                    }
+                    d[j] = V[idx(i - 1, j, n)];
+                    V[idx(i, j, n)] = 0.0;
+                }
+            }
+            d[i] = h;
+        }
+        //
+        // accumulate transformations.
+        //
+        for (int i = 0; i < n - 1; i++) {
+            V[idx(n - 1, i, n)] = V[idx(i, i, n)];
+            V[idx(i, i, n)] = 1.0;
+            final double h = d[i + 1];
+            if (h != 0.0) {
+                for (int k = 0; k <= i; k++) {
+                    d[k] = V[idx(k, i + 1, n)] / h;
+                }
+                for (int j = 0; j <= i; j++) {
+                    double g = 0.0;
+                    for (int k = 0; k <= i; k++) {
+                        g += V[idx(k, i + 1, n)] * V[idx(k, j, n)];
+                    }
+                    for (int k = 0; k <= i; k++) {
+                        V[idx(k, j, n)] -= g * d[k];
+                    }
+                }
+            }
+            for (int k = 0; k <= i; k++) {
+                V[idx(k, i + 1, n)] = 0.0;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            d[j] = V[idx(n - 1, j, n)];
+            V[idx(n - 1, j, n)] = 0.0;
+        }
+        V[idx(n - 1, n - 1, n)] = 1.0;
+        e[0] = 0.0;
+    }
     
+    /**
+     * Symmetric tridiagonal QL algorithm. On return, d contains the 
+     * eigenvalues and V the eigenvectors (columns).
+     */
+    private static void diagonalize(
+        final double[] V,
+        final int n,
+        final double[] d,
+        final double[] e
+    ) {
+        for (int i = 1; i < n; i++) {
+            e[i - 1] = e[i];
+        }
+        e[n - 1] = 0.0;
+        //
+        double f    = 0.0;
+        double tst1 = 0.0;
+        final double eps = Math.ulp(1.0);
+        //
+        for (int l = 0; l < n; l++) {
+            //
+            // find small subdiagonal element.
+            //
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1) {
+                if (Math.abs(e[m]) <= eps * tst1) break;
+                m++;
+            }
+            //
+            // if m == l, d[l] is already an eigenvalue, 
+            // otherwise iterate.
+            //
+            if (m > l) {
+                do {
+                    //
+                    // compute implicit shift.
+                    //
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0 * e[l]);
+                    double r = Math.hypot(p, 1.0);
+                    if (p < 0) r = -r;
+                    d[l]     = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    final double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+                    //
+                    // implicit QL transformation.
+                    //
+                    p = d[m];
+                    double c  = 1.0;
+                    double c2 = c;
+                    double c3 = c;
+                    final double el1 = e[l + 1];
+                    double s  = 0.0;
+                    double s2 = 0.0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g  = c * e[i];
+                        h  = c * p;
+                        r  = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = (c * d[i]) - (s * g);
+                        d[i + 1] = h + (s * ((c * g) + (s * d[i])));
+                        //
+                        // accumulate transformation.
+                        //
+                        for (int k = 0; k < n; k++) {
+                            final int ki = idx(k, i, n);
+                            h = V[ki + 1];
+                            V[ki + 1] = (s * V[ki]) + (c * h);
+                            V[ki]     = (c * V[ki]) - (s * h);
+                        }
+                    }
+                    p    = (-s) * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                    //
+                    // check for convergence.
+                    //
+                } while (Math.abs(e[l]) > eps * tst1);
+            }
+            d[l] = d[l] + f;
+            e[l] = 0.0;
+        }
+    }
 }
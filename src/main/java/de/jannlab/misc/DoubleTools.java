@@ -31,6 +31,22 @@ import java.util.Random;
  */
 public final class DoubleTools {
 
+    /**
+     * Duplicates a given two-dimensional array row by row without
+     * using serialization.
+     * <br></br>
+     * @param data The source array (may be null).
+     * @return A copy of data or null, if data is null.
+     */
+    public static double[][] duplicate(final double[][] data) {
+        if (data == null) return null;
+        final double[][] result = new double[data.length][];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = (data[i] == null)?(null):(data[i].clone());
+        }
+        return result;
+    }
+
     public static void copy(
             final double[] data,
             final int dataoffset,
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.misc;
+
+/**
+ * This class provides some methods for handling arrays
+ * of floats. It also contains conversion methods between
+ * float and double arrays.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class FloatTools {
+
+    public static void copy(
+            final float[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = data[o1++];
+        }
+    }
+    
+    public static void copy(
+            final double[] data,
+            final int dataoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = (float)data[o1++];
+        }
+    }
+    
+    public static void copy(
+            final float[] data,
+            final int dataoffset,
+            final double[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2++] = data[o1++];
+        }
+    }
+    
+    public static void copy(
+            final double[] data,
+            final int dataoffset,
+            final int datastep,
+            final float[] result,
+            final int resultoffset,
+            final int resultstep,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2] = (float)data[o1];
+            o1 += datastep;
+            o2 += resultstep;
+        }
+    }
+    
+    public static void copy(
+            final float[] data,
+            final int dataoffset,
+            final int datastep,
+            final double[] result,
+            final int resultoffset,
+            final int resultstep,
+            final int size
+    ) {
+        int o1 = dataoffset;
+        int o2 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o2] = data[o1];
+            o1 += datastep;
+            o2 += resultstep;
+        }
+    }
+    
+    public static void fill(
+            final float[] result,
+            final int resultoffset,
+            final int size,
+            final float value
+    ) {
+        int o = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o++] = value;
+        }
+    }
+    
+    public static double squareSum(
+            final float[] data,
+            final int offset,
+            final int size,
+            final int step
+    ) {
+        int o = offset;
+        //
+        double value = 0.0;
+        //
+        for (int i = 0; i < size; i++) {
+            final double x = data[o];
+            value += (x * x);
+            o += step;
+        }
+        //
+        return value;
+    }
+    
+    public static void sub(
+            final float[] first,
+            final int firstoffset,
+            final int firststep,
+            final float[] second,
+            final int secondoffset,
+            final int secondstep,
+            final float[] result,
+            final int resultoffset,
+            final int resultstep,
+            final int size
+    ) {
+        int o1 = firstoffset;
+        int o2 = secondoffset;
+        int o3 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o3] = first[o1] - second[o2];
+            o1 += firststep;
+            o2 += secondstep;
+            o3 += resultstep;
+        }
+    }
+    
+    public static void mul(
+            final float[] first,
+            final int firstoffset,
+            final float[] second,
+            final int secondoffset,
+            final float[] result,
+            final int resultoffset,
+            final int size
+    ) {
+        int o1 = firstoffset;
+        int o2 = secondoffset;
+        int o3 = resultoffset;
+        //
+        for (int i = 0; i < size; i++) {
+            result[o3++] = first[o1++] * second[o2++];
+        }
+    }
+    
+    /**
+     * Duplicates a given two-dimensional array row by row without
+     * using serialization.
+     * <br></br>
+     * @param data The source array (may be null).
+     * @return A copy of data or null, if data is null.
+     */
+    public static float[][] duplicate(final float[][] data) {
+        if (data == null) return null;
+        final float[][] result = new float[data.length][];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = (data[i] == null)?(null):(data[i].clone());
+        }
+        return result;
+    }
+    
+    /**
+     * Converts a given double array into a float array.
+     * <br></br>
+     * @param data The source array.
+     * @return A float array containing the values of data.
+     */
+    public static float[] toFloat(final double[] data) {
+        final float[] result = new float[data.length];
+        copy(data, 0, result, 0, data.length);
+        return result;
+    }
+    
+    /**
+     * Converts a given float array into a double array.
+     * <br></br>
+     * @param data The source array.
+     * @return A double array containing the values of data.
+     */
+    public static double[] toDouble(final float[] data) {
+        final double[] result = new double[data.length];
+        copy(data, 0, result, 0, data.length);
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization;
+
+/**
+ * An objective which can stop the evaluation as soon as the value is 
+ * known to reach a given bound, e.g., when the partial sum of non-negative
+ * sample errors exceeds the fitness of the parent vector in DE. If the value
+ * is lower than the bound, the result must be exactly the value of compute,
+ * otherwise any value greater than or equal to the bound may be returned.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public interface BoundedObjective extends Objective {
+    public double compute(
+        final double[] args, final int offset, final double bound
+    );
+}
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization;
+
+/**
+ * An objective which can evaluate several argument vectors at once, e.g.,
+ * all trial vectors of a DE generation. The argument vectors are stored
+ * consecutively (arity values each), starting at offset. The value of 
+ * the vector i is written into results[resultsoffset + i].
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public interface PopulationObjective extends Objective {
+    public void compute(
+        final double[] args, final int offset, final int num,
+        final double[] results, final int resultsoffset
+    );
+}
@@ -0,0 +1,870 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.cmaes;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.jannlab.math.MatrixTools;
+import de.jannlab.misc.DoubleTools;
+import de.jannlab.optimization.Objective;
+import de.jannlab.optimization.ObjectiveFactory;
+import de.jannlab.optimization.OptimizerBase;
+import de.jannlab.optimization.PopulationObjective;
+import de.jannlab.optimization.exception.NoObjective;
+import de.jannlab.optimization.exception.OptimizerException;
+
+/**
+ * This class implements the Covariance Matrix Adaptation Evolution Strategy
+ * (CMA-ES) with weighted recombination, cumulative step size adaptation and
+ * rank-one and rank-mu updates of the covariance matrix. Each iteration
+ * samples and evaluates one generation of lambda individuals.
+ * <br></br>
+ * The covariance matrix, its eigenvectors and the generation are flat
+ * row-major arrays (see MatrixTools.idx), which are allocated in initialize,
+ * thus the iterations do not allocate memory. The eigen decomposition is
+ * only updated every few generations, such that its cost is amortized. In
+ * separable mode only the diagonal of the covariance matrix is adapted
+ * (sep-CMA-ES) with increased learning rates, which needs linear time and
+ * memory per individual and is suitable for high-dimensional problems,
+ * e.g., the weights of neural networks.
+ * <br></br>
+ * The sampling and the evaluation of a generation can be distributed to
+ * several threads (see setThreads and setObjectiveFactory). If the
+ * objective is a PopulationObjective, the individuals of a generation
+ * (or of the range of a thread) are evaluated at once.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class CMAEvolutionStrategy extends OptimizerBase<CMAEvolutionStrategy> {
+
+    public static final String KEY_LAMBDA    = "lambda";
+    public static final String KEY_SIGMA     = "sigma";
+    public static final String KEY_SEPARABLE = "separable";
+    public static final String KEY_INITLBD   = "initlbd";
+    public static final String KEY_INITUBD   = "initubd";
+    public static final String KEY_TOLX      = "tolx";
+    public static final String KEY_THREADS   = "threads";
+
+    public static final int     DEFAULT_LAMBDA    = 0;
+    public static final double  DEFAULT_SIGMA     = 0.5;
+    public static final boolean DEFAULT_SEPARABLE = false;
+    public static final double  DEFAULT_INITLBD   = -1.0;
+    public static final double  DEFAULT_INITUBD   = 1.0;
+    public static final double  DEFAULT_TOLX      = 1.0e-12;
+    public static final int     DEFAULT_THREADS   = 1;
+
+    //
+    // settings.
+    //
+    private int      lambda;
+    private double   sigma0;
+    private boolean  separable;
+    private double   initlbd;
+    private double   initubd;
+    private double   tolx;
+    private double[] x0;
+    private Random   rnd;
+    //
+    // strategy parameters.
+    //
+    private int      n;
+    private int      popsize;
+    private int      mu;
+    private double[] weights;
+    private double   mueff;
+    private double   cc;
+    private double   cs;
+    private double   c1;
+    private double   cmu;
+    private double   damps;
+    private double   chiN;
+    private int      eigengap;
+    //
+    // state.
+    //
+    private double[] mean;
+    private double[] oldmean;
+    private double   sigma;
+    private double[] pc;
+    private double[] ps;
+    private double[] C;
+    private double[] B;
+    private double[] BD;
+    private double[] D;
+    private double[] eigenwork;
+    private double[] zmean;
+    private double[] ymean;
+    private int      generation;
+    private int      eigeneval;
+    private int      evaluations;
+    //
+    // generation.
+    //
+    private double[] arz;
+    private double[] ary;
+    private double[] arx;
+    private double[] fitness;
+    private int[]    index;
+    //
+    // best solution so far.
+    //
+    private double[] best;
+    private double   best_f;
+    //
+    // workers.
+    //
+    private int              threads;
+    private ObjectiveFactory factory;
+    private Random[]         rnds;
+    private Objective[]      objectives;
+    private Runnable[]       tasks;
+    private ExecutorService  executor;
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append(super.toString());
+        //
+        out.append(KEY_LAMBDA + ": " + this.lambda + "\n");
+        out.append(KEY_SIGMA + ": " + this.sigma0 + "\n");
+        out.append(KEY_SEPARABLE + ": " + this.separable + "\n");
+        out.append(KEY_INITLBD + ": " + this.initlbd + "\n");
+        out.append(KEY_INITUBD + ": " + this.initubd + "\n");
+        out.append(KEY_TOLX + ": " + this.tolx + "\n");
+        out.append(KEY_THREADS + ": " + this.threads + "\n");
+        //
+        return out.toString();
+    }
+
+    public CMAEvolutionStrategy() {
+        //
+        this.lambda    = DEFAULT_LAMBDA;
+        this.sigma0    = DEFAULT_SIGMA;
+        this.separable = DEFAULT_SEPARABLE;
+        this.initlbd   = DEFAULT_INITLBD;
+        this.initubd   = DEFAULT_INITUBD;
+        this.tolx      = DEFAULT_TOLX;
+        this.threads   = DEFAULT_THREADS;
+        //
+        this.rnd = new Random(System.currentTimeMillis());
+        //
+        this.best_f = Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public boolean requiresGradient() {
+        return false;
+    }
+
+    @Override
+    public double getBestError() {
+        return this.best_f;
+    }
+
+    public int getLambda() {
+        return this.lambda;
+    }
+
+    /**
+     * Sets the number of individuals per generation (must be set before
+     * initialize). A value less than 2 selects the default
+     * 4 + floor(3 ln(n)), where n is the number of parameters.
+     */
+    public void setLambda(final int lambda) {
+        this.lambda = lambda;
+    }
+
+    public double getInitialSigma() {
+        return this.sigma0;
+    }
+
+    /**
+     * Sets the initial step size, which is used by the next reset.
+     */
+    public void setInitialSigma(final double sigma) {
+        this.sigma0 = sigma;
+    }
+
+    /**
+     * Returns the current step size.
+     */
+    public double getSigma() {
+        return this.sigma;
+    }
+
+    public boolean getSeparable() {
+        return this.separable;
+    }
+
+    /**
+     * Sets if only the diagonal of the covariance matrix is adapted
+     * (must be set before initialize).
+     */
+    public void setSeparable(final boolean separable) {
+        this.separable = separable;
+    }
+
+    public double getInitUbd() {
+        return this.initubd;
+    }
+
+    public void setInitUbd(final double initubd) {
+        this.initubd = initubd;
+    }
+
+    public double getInitLbd() {
+        return this.initlbd;
+    }
+
+    public void setInitLbd(final double initlbd) {
+        this.initlbd = initlbd;
+    }
+
+    public double getTolX() {
+        return this.tolx;
+    }
+
+    /**
+     * Sets the tolerance of the search distribution. The optimization
+     * stops (aborts) when the largest standard deviation falls below it.
+     */
+    public void setTolX(final double tolx) {
+        this.tolx = tolx;
+    }
+
+    public void setRnd(final Random rnd) {
+        this.rnd = rnd;
+    }
+
+    public Random getRnd() {
+        return this.rnd;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Sets the number of threads for sampling and evaluation (must be set
+     * before initialize). Each thread samples and evaluates a contiguous
+     * range of the generation with its own random stream, which is derived
+     * from rnd on reset. Thus, the results are deterministic for a fixed
+     * seed and number of threads. Without an objective factory the
+     * objective must be thread-safe.
+     */
+    public void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public ObjectiveFactory getObjectiveFactory() {
+        return this.factory;
+    }
+
+    /**
+     * Sets a factory which creates an own objective for each thread
+     * (must be set before initialize). The objective of the optimizer
+     * is also created by the factory.
+     */
+    public void setObjectiveFactory(final ObjectiveFactory factory) {
+        this.factory = factory;
+        if (factory != null) {
+            this.updateObjective(factory.createObjective());
+        }
+    }
+
+    /**
+     * Returns the number of objective evaluations since the last reset.
+     */
+    public int getEvaluations() {
+        return this.evaluations;
+    }
+
+    /**
+     * Sets the mean of the initial search distribution, which is used by
+     * the next reset (or initialize) instead of a random initialization.
+     * The number of parameters must already be set.
+     * <br></br>
+     * @param source The initial mean.
+     * @param offset The offset of the initial mean.
+     */
+    public void setInitialSolution(final double[] source, final int offset) {
+        if (source == null) {
+            this.x0 = null;
+            return;
+        }
+        this.x0 = new double[this.getParameters()];
+        DoubleTools.copy(source, offset, this.x0, 0, this.x0.length);
+    }
+
+    /**
+     * Copies the mean of the current search distribution into target.
+     */
+    public void copyMean(final double[] target, final int offset) {
+        DoubleTools.copy(this.mean, 0, target, offset, this.n);
+    }
+
+    @Override
+    protected CMAEvolutionStrategy iterativeMethodMe() {
+        return this;
+    }
+
+    /**
+     * Returns the objective of the given worker.
+     */
+    private Objective workerObjective(final int w) {
+        final Objective obj = this.objectives[w];
+        return (obj != null)?(obj):(this.getObjective());
+    }
+
+    /**
+     * Performs the tasks concurrently and waits until all tasks are
+     * finished. The first task is performed by the calling thread. The
+     * executor is created on demand and shut down after iterate.
+     */
+    private void execute(final Runnable[] tasks) {
+        if (this.executor == null) {
+            this.executor = Executors.newFixedThreadPool(
+                tasks.length - 1, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable task) {
+                        final Thread thread = new Thread(task);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+            );
+        }
+        final Future<?>[] futures = new Future<?>[tasks.length];
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = this.executor.submit(tasks[i]);
+        }
+        tasks[0].run();
+        //
+        // join.
+        //
+        try {
+            for (int i = 1; i < tasks.length; i++) {
+                futures[i].get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimizerException("parallel evaluation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new OptimizerException("parallel evaluation failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Shuts the executor down.
+     */
+    private void release() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        this.executor = null;
+    }
+
+    @Override
+    public double iterate(final int iterations, final double targeterror) {
+        try {
+            return super.iterate(iterations, targeterror);
+        } finally {
+            this.release();
+        }
+    }
+
+    @Override
+    protected void iterativeMethodInitialize() {
+        final int n = this.getParameters();
+        this.n = n;
+        //
+        // selection and recombination.
+        //
+        this.popsize = (this.lambda > 1)?(this.lambda):(
+            4 + (int)Math.floor(3.0 * Math.log(n))
+        );
+        this.mu      = this.popsize / 2;
+        this.weights = MatrixTools.allocate(this.mu);
+        //
+        double sum = 0.0;
+        for (int i = 0; i < this.mu; i++) {
+            this.weights[i] = Math.log(this.mu + 0.5) - Math.log(i + 1);
+            sum += this.weights[i];
+        }
+        double sumsq = 0.0;
+        for (int i = 0; i < this.mu; i++) {
+            this.weights[i] /= sum;
+            sumsq += this.weights[i] * this.weights[i];
+        }
+        this.mueff = 1.0 / sumsq;
+        //
+        // adaptation.
+        //
+        final double dn = (double)n;
+        this.cc  = (4.0 + (this.mueff / dn)) / (dn + 4.0 + (2.0 * this.mueff / dn));
+        this.cs  = (this.mueff + 2.0) / (dn + this.mueff + 5.0);
+        this.c1  = 2.0 / (((dn + 1.3) * (dn + 1.3)) + this.mueff);
+        this.cmu = Math.min(
+            1.0 - this.c1,
+            2.0 * (this.mueff - 2.0 + (1.0 / this.mueff)) /
+            (((dn + 2.0) * (dn + 2.0)) + this.mueff)
+        );
+        if (this.separable) {
+            //
+            // the diagonal can be learned faster.
+            //
+            this.c1  = this.c1 * (dn + 2.0) / 3.0;
+            this.cmu = Math.min(1.0 - this.c1, this.cmu * (dn + 2.0) / 3.0);
+        }
+        this.damps = 1.0 + this.cs + (2.0 * Math.max(
+            0.0, Math.sqrt((this.mueff - 1.0) / (dn + 1.0)) - 1.0
+        ));
+        this.chiN = Math.sqrt(dn) * (
+            1.0 - (1.0 / (4.0 * dn)) + (1.0 / (21.0 * dn * dn))
+        );
+        this.eigengap = Math.max(
+            1, (int)(this.popsize / ((this.c1 + this.cmu) * dn * 10.0))
+        );
+        //
+        // state.
+        //
+        this.mean    = MatrixTools.allocate(n);
+        this.oldmean = MatrixTools.allocate(n);
+        this.pc      = MatrixTools.allocate(n);
+        this.ps      = MatrixTools.allocate(n);
+        this.D       = MatrixTools.allocate(n);
+        this.zmean   = MatrixTools.allocate(n);
+        this.ymean   = MatrixTools.allocate(n);
+        this.best    = MatrixTools.allocate(n);
+        //
+        if (this.separable) {
+            //
+            // the diagonal of the covariance matrix.
+            //
+            this.C         = MatrixTools.allocate(n);
+            this.B         = null;
+            this.BD        = null;
+            this.eigenwork = null;
+        } else {
+            this.C         = MatrixTools.allocate(n, n);
+            this.B         = MatrixTools.allocate(n, n);
+            this.BD        = MatrixTools.allocate(n, n);
+            this.eigenwork = MatrixTools.allocate(n);
+        }
+        //
+        // generation.
+        //
+        this.arz     = MatrixTools.allocate(this.popsize, n);
+        this.ary     = MatrixTools.allocate(this.popsize, n);
+        this.arx     = MatrixTools.allocate(this.popsize, n);
+        this.fitness = MatrixTools.allocate(this.popsize);
+        this.index   = new int[this.popsize];
+        //
+        // each worker samples and evaluates a contiguous range
+        // of the generation with its own random stream.
+        //
+        this.release();
+        final int workers = Math.min(this.threads, this.popsize);
+        this.rnds       = new Random[workers];
+        this.objectives = new Objective[workers];
+        this.tasks      = new Runnable[workers];
+        //
+        for (int w = 0; w < workers; w++) {
+            final int idx = w;
+            final int lbd = (this.popsize * w) / workers;
+            final int ubd = (this.popsize * (w + 1)) / workers;
+            //
+            this.rnds[w] = new Random();
+            if ((w > 0) && (this.factory != null)) {
+                this.objectives[w] = this.factory.createObjective();
+            }
+            this.tasks[w] = new Runnable() {
+                @Override
+                public void run() {
+                    final CMAEvolutionStrategy self = CMAEvolutionStrategy.this;
+                    self.sampleRange(lbd, ubd, self.rnds[idx]);
+                    self.evaluateRange(lbd, ubd, self.workerObjective(idx));
+                }
+            };
+        }
+    }
+
+    @Override
+    protected void iterativeMethodReset() {
+        final Objective obj = this.getObjective();
+        if (obj == null) throw new NoObjective();
+        //
+        final int n = this.n;
+        //
+        // initial distribution.
+        //
+        if (this.x0 != null) {
+            DoubleTools.copy(this.x0, 0, this.mean, 0, n);
+        } else {
+            DoubleTools.fill(
+                this.mean, 0, n, this.rnd, this.initlbd, this.initubd
+            );
+        }
+        this.sigma = this.sigma0;
+        for (int i = 0; i < n; i++) {
+            this.pc[i] = 0.0;
+            this.ps[i] = 0.0;
+            this.D[i]  = 1.0;
+        }
+        if (this.separable) {
+            for (int i = 0; i < n; i++) {
+                this.C[i] = 1.0;
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    final double v = (i == j)?(1.0):(0.0);
+                    this.C[MatrixTools.idx(i, j, n)]  = v;
+                    this.B[MatrixTools.idx(i, j, n)]  = v;
+                    this.BD[MatrixTools.idx(i, j, n)] = v;
+                }
+            }
+        }
+        this.generation = 0;
+        this.eigeneval  = 0;
+        //
+        // the random streams of the workers are derived from rnd.
+        //
+        if (this.rnds.length > 1) {
+            for (int w = 0; w < this.rnds.length; w++) {
+                this.rnds[w].setSeed(this.rnd.nextLong());
+            }
+        }
+        //
+        // the initial mean is the best solution so far.
+        //
+        DoubleTools.copy(this.mean, 0, this.best, 0, n);
+        this.best_f      = obj.compute(this.best, 0);
+        this.evaluations = 1;
+        //
+        this.updateError(this.best_f);
+    }
+
+    /**
+     * Samples the individuals lbd (inclusive) to ubd (exclusive) of the
+     * generation: x = mean + sigma * y with y = B * D * z and z ~ N(0, I).
+     */
+    private void sampleRange(final int lbd, final int ubd, final Random rnd) {
+        final int n = this.n;
+        final double[] arz = this.arz;
+        final double[] ary = this.ary;
+        final double[] arx = this.arx;
+        //
+        for (int k = lbd; k < ubd; k++) {
+            final int off = MatrixTools.idx(k, 0, n);
+            //
+            for (int i = 0; i < n; i++) {
+                arz[off + i] = rnd.nextGaussian();
+            }
+            if (this.separable) {
+                for (int i = 0; i < n; i++) {
+                    ary[off + i] = this.D[i] * arz[off + i];
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    final int row = MatrixTools.idx(i, 0, n);
+                    double sum = 0.0;
+                    for (int j = 0; j < n; j++) {
+                        sum += this.BD[row + j] * arz[off + j];
+                    }
+                    ary[off + i] = sum;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                arx[off + i] = this.mean[i] + (this.sigma * ary[off + i]);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the individuals lbd (inclusive) to ubd (exclusive) of the
+     * generation. NaN values are treated as +inf.
+     */
+    private void evaluateRange(
+        final int lbd, final int ubd, final Objective obj
+    ) {
+        if (obj instanceof PopulationObjective) {
+            ((PopulationObjective)obj).compute(
+                this.arx, MatrixTools.idx(lbd, 0, this.n), ubd - lbd,
+                this.fitness, lbd
+            );
+        } else {
+            for (int k = lbd; k < ubd; k++) {
+                this.fitness[k] = obj.compute(
+                    this.arx, MatrixTools.idx(k, 0, this.n)
+                );
+            }
+        }
+        for (int k = lbd; k < ubd; k++) {
+            if (Double.isNaN(this.fitness[k])) {
+                this.fitness[k] = Double.POSITIVE_INFINITY;
+            }
+        }
+    }
+
+    /**
+     * Sorts the indices of the generation by fitness (stable).
+     */
+    private void sortIndices() {
+        final int[] index      = this.index;
+        final double[] fitness = this.fitness;
+        //
+        for (int k = 0; k < this.popsize; k++) {
+            final double f = fitness[k];
+            int j = k - 1;
+            while ((j >= 0) && (fitness[index[j]] > f)) {
+                index[j + 1] = index[j];
+                j--;
+            }
+            index[j + 1] = k;
+        }
+    }
+
+    /**
+     * Updates the eigen decomposition C = B * diag(D^2) * B^T
+     * and the sampling matrix BD.
+     */
+    private void updateEigenSystem() {
+        final int n = this.n;
+        //
+        MatrixTools.eigenSymmetric(this.C, n, this.B, this.D, this.eigenwork);
+        //
+        // numerically negative eigenvalues are clamped.
+        //
+        for (int i = 0; i < n; i++) {
+            this.D[i] = Math.sqrt(Math.max(this.D[i], 0.0));
+        }
+        for (int i = 0; i < n; i++) {
+            final int row = MatrixTools.idx(i, 0, n);
+            for (int j = 0; j < n; j++) {
+                this.BD[row + j] = this.B[row + j] * this.D[j];
+            }
+        }
+        this.eigeneval = this.generation;
+    }
+
+    /**
+     * In separable mode the step size and the diagonal of the covariance
+     * matrix can drift apart on non-separable problems, because only their
+     * product matters. Thus, they are rescaled (without changing the search
+     * distribution) if the largest standard deviation of C leaves a fixed
+     * range. The evolution path pc lives in the scale of C, whereas ps
+     * is normalized.
+     */
+    private void rescale() {
+        final int n = this.n;
+        //
+        double dmax = 0.0;
+        for (int i = 0; i < n; i++) {
+            dmax = Math.max(dmax, this.D[i]);
+        }
+        if (!(dmax > 0.0) || ((dmax < 1.0e5) && (dmax > 1.0e-5))) return;
+        //
+        for (int i = 0; i < n; i++) {
+            this.C[i]  /= (dmax * dmax);
+            this.D[i]  /= dmax;
+            this.pc[i] /= dmax;
+        }
+        this.sigma *= dmax;
+    }
+
+    @Override
+    protected double iterativeMethodPerformIteration() {
+        final int n        = this.n;
+        final int mu       = this.mu;
+        final double[] w   = this.weights;
+        final double[] ary = this.ary;
+        final double[] arz = this.arz;
+        //
+        // sample and evaluate the generation.
+        //
+        if (this.tasks.length > 1) {
+            this.execute(this.tasks);
+        } else {
+            this.sampleRange(0, this.popsize, this.rnd);
+            this.evaluateRange(0, this.popsize, this.getObjective());
+        }
+        this.evaluations += this.popsize;
+        this.sortIndices();
+        //
+        // check for new best.
+        //
+        final int first = this.index[0];
+        if (this.fitness[first] < this.best_f) {
+            this.best_f = this.fitness[first];
+            DoubleTools.copy(
+                this.arx, MatrixTools.idx(first, 0, n), this.best, 0, n
+            );
+        }
+        //
+        // recombination of the mu best individuals.
+        //
+        DoubleTools.copy(this.mean, 0, this.oldmean, 0, n);
+        for (int i = 0; i < n; i++) {
+            this.ymean[i] = 0.0;
+            this.zmean[i] = 0.0;
+        }
+        for (int k = 0; k < mu; k++) {
+            final int off   = MatrixTools.idx(this.index[k], 0, n);
+            final double wk = w[k];
+            for (int i = 0; i < n; i++) {
+                this.ymean[i] += wk * ary[off + i];
+                this.zmean[i] += wk * arz[off + i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            this.mean[i] = this.oldmean[i] + (this.sigma * this.ymean[i]);
+        }
+        //
+        // cumulation of the conjugate evolution path:
+        // ps = (1 - cs) * ps + sqrt(cs * (2 - cs) * mueff) * B * zmean.
+        //
+        final double csn = Math.sqrt(this.cs * (2.0 - this.cs) * this.mueff);
+        double psnorm    = 0.0;
+        //
+        for (int i = 0; i < n; i++) {
+            double bz = this.zmean[i];
+            if (!this.separable) {
+                final int row = MatrixTools.idx(i, 0, n);
+                bz = 0.0;
+                for (int j = 0; j < n; j++) {
+                    bz += this.B[row + j] * this.zmean[j];
+                }
+            }
+            this.ps[i] = ((1.0 - this.cs) * this.ps[i]) + (csn * bz);
+            psnorm += this.ps[i] * this.ps[i];
+        }
+        psnorm = Math.sqrt(psnorm);
+        //
+        // cumulation of the evolution path, which is stalled
+        // if the step size increases rapidly.
+        //
+        final double hsiglimit = (1.4 + (2.0 / (n + 1.0))) * this.chiN;
+        final double hsignorm  = psnorm / Math.sqrt(
+            1.0 - Math.pow(1.0 - this.cs, 2.0 * (this.generation + 1))
+        );
+        final boolean hsig = (hsignorm < hsiglimit);
+        final double ccn   = Math.sqrt(this.cc * (2.0 - this.cc) * this.mueff);
+        //
+        for (int i = 0; i < n; i++) {
+            this.pc[i] = ((1.0 - this.cc) * this.pc[i]) + (
+                (hsig)?(ccn * this.ymean[i]):(0.0)
+            );
+        }
+        //
+        // rank-one and rank-mu update of the covariance matrix.
+        //
+        final double delta = (hsig)?(0.0):(this.cc * (2.0 - this.cc));
+        final double decay = 1.0 - this.c1 - this.cmu + (this.c1 * delta);
+        //
+        if (this.separable) {
+            for (int i = 0; i < n; i++) {
+                this.C[i] = (decay * this.C[i]) + (
+                    this.c1 * this.pc[i] * this.pc[i]
+                );
+            }
+            for (int k = 0; k < mu; k++) {
+                final int off   = MatrixTools.idx(this.index[k], 0, n);
+                final double wk = this.cmu * w[k];
+                for (int i = 0; i < n; i++) {
+                    this.C[i] += wk * ary[off + i] * ary[off + i];
+                }
+            }
+        } else {
+            //
+            // only the upper triangle is updated.
+            //
+            for (int i = 0; i < n; i++) {
+                final int row    = MatrixTools.idx(i, 0, n);
+                final double pci = this.c1 * this.pc[i];
+                for (int j = i; j < n; j++) {
+                    this.C[row + j] = (decay * this.C[row + j]) + (
+                        pci * this.pc[j]
+                    );
+                }
+            }
+            for (int k = 0; k < mu; k++) {
+                final int off   = MatrixTools.idx(this.index[k], 0, n);
+                final double wk = this.cmu * w[k];
+                for (int i = 0; i < n; i++) {
+                    final int row   = MatrixTools.idx(i, 0, n);
+                    final double yi = wk * ary[off + i];
+                    for (int j = i; j < n; j++) {
+                        this.C[row + j] += yi * ary[off + j];
+                    }
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < i; j++) {
+                    this.C[MatrixTools.idx(i, j, n)] = this.C[MatrixTools.idx(j, i, n)];
+                }
+            }
+        }
+        //
+        // step size adaptation.
+        //
+        this.sigma *= Math.exp(
+            (this.cs / this.damps) * ((psnorm / this.chiN) - 1.0)
+        );
+        this.generation++;
+        //
+        // the eigen decomposition is updated lazily.
+        //
+        if (this.separable) {
+            for (int i = 0; i < n; i++) {
+                this.D[i] = Math.sqrt(this.C[i]);
+            }
+            this.rescale();
+        } else if ((this.generation - this.eigeneval) >= this.eigengap) {
+            this.updateEigenSystem();
+        }
+        //
+        // stop if the distribution has collapsed.
+        //
+        double dmax = 0.0;
+        for (int i = 0; i < n; i++) {
+            dmax = Math.max(dmax, this.D[i]);
+        }
+        if ((this.sigma * dmax) < this.tolx) {
+            this.abort();
+        }
+        return this.best_f;
+    }
+
+    @Override
+    public void copyBestSolution(
+        final double[] target,
+        final int offset) {
+        //
+        DoubleTools.copy(
+            this.best, 0, target, offset, this.n
+        );
+    }
+}
@@ -0,0 +1,720 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.diffevo;
+
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.jannlab.math.MatrixTools;
+import de.jannlab.misc.DoubleTools;
+import de.jannlab.optimization.Objective;
+import de.jannlab.optimization.ObjectiveFactory;
+import de.jannlab.optimization.OptimizerBase;
+import de.jannlab.optimization.exception.NoObjective;
+import de.jannlab.optimization.exception.OptimizerException;
+
+/**
+ * This class implements an asynchronous steady-state variant of 
+ * Differential Evolution. There are no generations: each worker thread
+ * repeatedly claims a target individual, builds a trial vector from the 
+ * current population (mutation and crossover as in DifferentialEvolution), 
+ * evaluates it and replaces the target in place, if the trial is better. 
+ * Thus, a slow fitness evaluation (e.g., of long sequences) only delays 
+ * its own worker.
+ * <br></br>
+ * A claimed target is only written by its worker. The donor vectors
+ * are copied into per-thread buffers under the lock of the respective
+ * individual, which is also held while an individual is replaced, so no
+ * worker reads a partially replaced vector. An iteration corresponds to
+ * popsize trial evaluations (one generation), but the workers keep 
+ * running across iterations until iterate returns. The results depend 
+ * on the scheduling of the threads and are therefore not deterministic.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class AsyncDifferentialEvolution 
+    extends OptimizerBase<AsyncDifferentialEvolution> {
+    
+    public static final String KEY_POPSIZE  = DifferentialEvolution.KEY_POPSIZE;
+    public static final String KEY_CR       = DifferentialEvolution.KEY_CR;
+    public static final String KEY_F        = DifferentialEvolution.KEY_F;
+    public static final String KEY_F2       = DifferentialEvolution.KEY_F2;
+    public static final String KEY_MUTATION = DifferentialEvolution.KEY_MUTATION;
+    public static final String KEY_INITLBD  = DifferentialEvolution.KEY_INITLBD;
+    public static final String KEY_INITUBD  = DifferentialEvolution.KEY_INITUBD;
+    public static final String KEY_THREADS  = DifferentialEvolution.KEY_THREADS;
+    
+    public static final int      DEFAULT_POPSIZE  = DifferentialEvolution.DEFAULT_POPSIZE;
+    public static final double   DEFAULT_CR       = DifferentialEvolution.DEFAULT_CR;
+    public static final double   DEFAULT_F        = DifferentialEvolution.DEFAULT_F;
+    public static final double   DEFAULT_F2       = DifferentialEvolution.DEFAULT_F2;
+    public static final Mutation DEFAULT_MUTATION = DifferentialEvolution.DEFAULT_MUTATION;
+    public static final double   DEFAULT_INITLBD  = DifferentialEvolution.DEFAULT_INITLBD;
+    public static final double   DEFAULT_INITUBD  = DifferentialEvolution.DEFAULT_INITUBD;
+    /**
+     * Maximum number of donor vectors of a mutation.
+     */
+    private static final int DONORS = 5;
+    
+    private double[] population;
+    private double[] fitness;
+    private Object[] locks;
+    
+    private volatile double best_f;
+    private volatile int    best;
+    private final Object    bestlock = new Object();
+    
+    private int      popsize;
+    private double   CR;
+    private double   F;
+    private double   F2;
+    private Mutation mutation;
+    private double   initlbd;
+    private double   initubd;
+
+    private Random   rnd;
+    
+    private int              threads;
+    private ObjectiveFactory factory;
+    private double[][]       accus;
+    private double[][]       donors;
+    private Random[]         rnds;
+    private Objective[]      objectives;
+    
+    private ExecutorService    executor;
+    private Future<?>[]        futures;
+    private volatile boolean   running;
+    private boolean            iterating;
+    private AtomicIntegerArray claimed;
+    private final AtomicLong   next        = new AtomicLong();
+    private final AtomicLong   evaluations = new AtomicLong();
+    private final Semaphore    completed   = new Semaphore(0);
+    private final AtomicReference<Throwable> failure = (
+        new AtomicReference<Throwable>()
+    );
+    
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append(super.toString());
+        //
+        out.append(KEY_POPSIZE + ": " + this.popsize + "\n");
+        out.append(KEY_CR + ": " + this.CR + "\n");
+        out.append(KEY_F + ": " + this.F + "\n");
+        out.append(KEY_F2 + ": " + this.F2 + "\n");
+        out.append(
+            KEY_MUTATION + ": " + this.mutation.name() + "\n"
+        );
+        out.append(KEY_INITLBD + ": " + this.initlbd + "\n");
+        out.append(KEY_INITUBD + ": " + this.initubd + "\n");
+        out.append(KEY_THREADS + ": " + this.threads + "\n");
+        //
+        return out.toString();
+    }
+    
+    public AsyncDifferentialEvolution() {
+        //
+        this.popsize    = DEFAULT_POPSIZE;
+        this.CR         = DEFAULT_CR;
+        this.F          = DEFAULT_F;
+        this.F2         = DEFAULT_F2;
+        //
+        this.mutation = DEFAULT_MUTATION;
+        //
+        this.initlbd = DEFAULT_INITLBD;
+        this.initubd = DEFAULT_INITUBD;
+        //
+        this.threads = Runtime.getRuntime().availableProcessors();
+        //
+        this.rnd = new Random(System.currentTimeMillis());
+        //
+        this.best   = -1;
+        this.best_f = Double.POSITIVE_INFINITY;
+    }
+    
+    @Override
+    public boolean requiresGradient() {
+        return false;    
+    }
+    
+    @Override
+    public double getBestError() {
+        return this.best_f;
+    }
+    
+    public double getInitUbd() {
+        return this.initubd;
+    }
+    
+    public void setInitUbd(final double initubd) {
+        this.initubd = initubd;
+    }
+    
+    public double getInitLbd() {
+        return this.initlbd;
+    }
+    
+    public void setInitLbd(final double initlbd) {
+        this.initlbd = initlbd;
+    }
+    
+    public Mutation getMutation() {
+        return this.mutation;
+    }
+    
+    public void setMutation(final Mutation mutation) {
+        this.mutation = mutation;
+    }
+    
+    public int getPopSize() {
+        return this.popsize;
+    }
+
+    public void setPopSize(final int popsize) {
+        this.popsize = popsize;
+    }
+
+    public double getCR() {
+        return this.CR;
+    }
+
+    public void setCR(final double CR) {
+        this.CR = CR;
+    }
+
+    public double getF() {
+        return this.F;
+    }
+
+    public void setF(final double F) {
+        this.F = F;
+    }
+
+    public double getF2() {
+        return this.F2;
+    }
+
+    public void setF2(final double F2) {
+        this.F2 = F2;
+    }
+
+    public void setRnd(final Random rnd) {
+        this.rnd = rnd;
+    }
+    
+    public Random getRnd() {
+        return this.rnd;
+    }
+    
+    public int getThreads() {
+        return this.threads;
+    }
+    
+    /**
+     * Sets the number of worker threads (must be set before initialize).
+     * At most popsize workers are used. Without an objective factory 
+     * the objective must be thread-safe.
+     */
+    public void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    
+    public ObjectiveFactory getObjectiveFactory() {
+        return this.factory;
+    }
+    
+    /**
+     * Sets a factory which creates an own objective for each worker 
+     * (must be set before initialize). The objective of the optimizer 
+     * is also created by the factory.
+     */
+    public void setObjectiveFactory(final ObjectiveFactory factory) {
+        this.factory = factory;
+        if (factory != null) {
+            this.updateObjective(factory.createObjective());
+        }
+    }
+    
+    /**
+     * Returns the number of fitness evaluations since the last reset.
+     */
+    public long getEvaluations() {
+        return this.evaluations.get();
+    }
+    
+    @Override
+    protected AsyncDifferentialEvolution iterativeMethodMe() {
+        return this;
+    }
+
+    final private int offset(final int idx) {
+        return this.getParameters() * idx;
+    }
+    
+    /**
+     * Returns the number of workers.
+     */
+    private int workers() {
+        return Math.max(1, Math.min(this.threads, this.popsize));
+    }
+    
+    @Override
+    protected void iterativeMethodInitialize() {
+        final int n = this.getParameters();
+        final int w = this.workers();
+        //
+        this.population = MatrixTools.allocate(this.popsize, n);
+        this.fitness    = MatrixTools.allocate(this.popsize);
+        this.locks      = new Object[this.popsize];
+        this.claimed    = new AtomicIntegerArray(this.popsize);
+        //
+        for (int i = 0; i < this.popsize; i++) {
+            this.fitness[i] = Double.POSITIVE_INFINITY;
+            this.locks[i]   = new Object();
+        }
+        //
+        // each worker has its own trial buffer, donor buffer,
+        // random stream and objective.
+        //
+        this.accus      = new double[w][];
+        this.donors     = new double[w][];
+        this.rnds       = new Random[w];
+        this.objectives = new Objective[w];
+        //
+        for (int i = 0; i < w; i++) {
+            this.accus[i]  = MatrixTools.allocate(n);
+            this.donors[i] = MatrixTools.allocate(DONORS, n);
+            this.rnds[i]   = new Random();
+            if ((i > 0) && (this.factory != null)) {
+                this.objectives[i] = this.factory.createObjective();
+            }
+        }
+    }
+    
+    /**
+     * Returns the objective of the given worker.
+     */
+    private Objective workerObjective(final int w) {
+        final Objective obj = this.objectives[w];
+        return (obj != null)?(obj):(this.getObjective());
+    }
+    
+    private void initializePopulation() {
+        //
+        if (this.getObjective() == null) throw new NoObjective();
+        //
+        // value initialization.
+        //
+        DoubleTools.fill(
+            this.population, 0, this.population.length,
+            this.rnd, this.initlbd, this.initubd
+        );
+        //
+        // the random streams of the workers are derived from rnd.
+        //
+        for (int w = 0; w < this.rnds.length; w++) {
+            this.rnds[w].setSeed(this.rnd.nextLong());
+        }
+        //
+        // evaluate fitness values for each individual. the 
+        // workers pull the individuals one after another.
+        //
+        final int[] ctr = new int[1];
+        final Runnable[] tasks = new Runnable[this.workers()];
+        for (int w = 0; w < tasks.length; w++) {
+            final int idx = w;
+            tasks[w] = new Runnable() {
+                @Override
+                public void run() {
+                    final AsyncDifferentialEvolution self = AsyncDifferentialEvolution.this;
+                    final Objective obj = self.workerObjective(idx);
+                    while (true) {
+                        final int i;
+                        synchronized (ctr) {
+                            i = ctr[0]++;
+                        }
+                        if (i >= self.popsize) break;
+                        self.fitness[i] = obj.compute(
+                            self.population, self.offset(i)
+                        );
+                    }
+                }
+            };
+        }
+        this.execute(tasks);
+        this.release();
+        //
+        int    lbest   = -1;
+        double lbest_f = Double.POSITIVE_INFINITY;
+        //
+        for (int i = 0; i < this.popsize; i++) {
+            final double f = this.fitness[i];
+            if (f < lbest_f) {
+                lbest   = i;
+                lbest_f = f;
+            }
+        }
+        //
+        this.best   = lbest;
+        this.best_f = lbest_f;
+        this.evaluations.set(this.popsize);
+        //
+        this.updateError(lbest_f);
+    }
+    
+    @Override
+    protected void iterativeMethodReset() {
+        this.initializePopulation();
+    }
+    
+    /**
+     * Performs the given tasks concurrently and waits until all tasks are
+     * finished. The first task is performed by the calling thread.
+     */
+    private void execute(final Runnable[] tasks) {
+        if (tasks.length > 1) {
+            this.executor = Executors.newFixedThreadPool(
+                tasks.length - 1, DAEMON
+            );
+        }
+        final Future<?>[] futures = new Future<?>[tasks.length];
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = this.executor.submit(tasks[i]);
+        }
+        tasks[0].run();
+        //
+        for (int i = 1; i < tasks.length; i++) {
+            join(futures[i]);
+        }
+    }
+    
+    /**
+     * Creates daemon threads.
+     */
+    private static final ThreadFactory DAEMON = new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+    
+    /**
+     * Waits for the given task.
+     */
+    private static void join(final Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimizerException("parallel evaluation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new OptimizerException("parallel evaluation failed.", e.getCause());
+        }
+    }
+    
+    /**
+     * Shuts the executor down.
+     */
+    private void release() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        this.executor = null;
+    }
+    
+    /**
+     * Claims the next free target individual.
+     */
+    private int claim() {
+        while (true) {
+            final int i = (int)(this.next.getAndIncrement() % this.popsize);
+            if (this.claimed.compareAndSet(i, 0, 1)) return i;
+        }
+    }
+    
+    /**
+     * Copies the individual i into the given buffer at the given offset.
+     */
+    private void read(final int i, final double[] target, final int offset) {
+        synchronized (this.locks[i]) {
+            DoubleTools.copy(
+                this.population, this.offset(i), 
+                target, offset, this.getParameters()
+            );
+        }
+    }
+    
+    /**
+     * Copies randomly chosen donors into the given buffer. If best is
+     * true, the first donor is the current best individual.
+     */
+    private void readDonors(
+        final Random rnd, final double[] donors, 
+        final boolean best, final int num
+    ) {
+        final int n = this.getParameters();
+        int k = 0;
+        if (best) {
+            this.read(this.best, donors, 0);
+            k++;
+        }
+        for (; k < num; k++) {
+            this.read(rnd.nextInt(this.popsize), donors, k * n);
+        }
+    }
+    
+    /**
+     * Creates the mutation vector for the target i in accu from
+     * the donors in the same way as DifferentialEvolution.
+     */
+    private void mutate(
+        final int i, final Random rnd, 
+        final double[] accu, final double[] donors
+    ) {
+        final int n      = this.getParameters();
+        final double F   = this.F;
+        final double F2  = this.F2;
+        //
+        switch (this.mutation) {
+            case RAND_ONE: {
+                this.readDonors(rnd, donors, false, 3);
+                for (int j = 0; j < n; j++) {
+                    accu[j] = donors[j] + (
+                        F * (donors[n + j] - donors[(2 * n) + j])
+                    );
+                }
+                break;
+            }
+            case BEST_ONE: {
+                this.readDonors(rnd, donors, true, 3);
+                for (int j = 0; j < n; j++) {
+                    accu[j] = donors[j] + (
+                        F * (donors[n + j] - donors[(2 * n) + j])
+                    );
+                }
+                break;
+            }
+            case RAND_TWO: {
+                this.readDonors(rnd, donors, false, 5);
+                for (int j = 0; j < n; j++) {
+                    accu[j] = donors[j] + (
+                        F * (donors[n + j] - donors[(2 * n) + j])
+                    ) + (
+                        F2 * (donors[(3 * n) + j] - donors[(4 * n) + j])
+                    );
+                }
+                break;
+            }
+            case BEST_TWO: {
+                this.readDonors(rnd, donors, true, 5);
+                for (int j = 0; j < n; j++) {
+                    accu[j] = donors[j] + (
+                        F * (
+                            donors[n + j] + donors[(2 * n) + j] -
+                            donors[(3 * n) + j] - donors[(4 * n) + j]
+                        )
+                    );
+                }
+                break;
+            }
+            case RAND2BEST_ONE: {
+                //
+                // the target is only written by this worker.
+                //
+                this.readDonors(rnd, donors, true, 4);
+                final int offset_i = this.offset(i);
+                for (int j = 0; j < n; j++) {
+                    accu[j] = this.population[offset_i + j] + (
+                        F * (donors[j] - donors[n + j])
+                    ) + (
+                        F2 * (donors[(2 * n) + j] - donors[(3 * n) + j])
+                    );
+                }
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Builds the crossover of the target i and the mutation vector in accu.
+     */
+    private void crossover(final int i, final Random rnd, final double[] accu) {
+        int orig_offset = this.offset(i);
+        final int n     = this.getParameters();
+        //
+        for (int j = 0; j < n; j++) {
+            final double r = rnd.nextDouble();
+            if (r >= this.CR) {
+                accu[j] = this.population[orig_offset];
+            }
+            orig_offset++;
+        }
+    }
+    
+    /**
+     * Evolves the target i: the trial vector replaces the target
+     * in place, if its fitness is better.
+     */
+    private void evolve(final int i, final int w) {
+        final Random rnd    = this.rnds[w];
+        final double[] accu = this.accus[w];
+        //
+        this.mutate(i, rnd, accu, this.donors[w]);
+        this.crossover(i, rnd, accu);
+        //
+        final double f_y = DifferentialEvolution.evaluate(
+            this.workerObjective(w), accu, 0, this.fitness[i]
+        );
+        this.evaluations.incrementAndGet();
+        //
+        if (f_y < this.fitness[i]) {
+            synchronized (this.locks[i]) {
+                DoubleTools.copy(
+                    accu, 0, this.population, this.offset(i), 
+                    this.getParameters()
+                );
+                this.fitness[i] = f_y;
+            }
+            synchronized (this.bestlock) {
+                if (f_y < this.best_f) {
+                    this.best_f = f_y;
+                    this.best   = i;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Starts the workers, which run until stop is called.
+     */
+    private void start() {
+        final int workers = this.workers();
+        //
+        this.completed.drainPermits();
+        this.failure.set(null);
+        this.running  = true;
+        this.executor = Executors.newFixedThreadPool(workers, DAEMON);
+        this.futures  = new Future<?>[workers];
+        //
+        for (int w = 0; w < workers; w++) {
+            final int idx = w;
+            this.futures[w] = this.executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    final AsyncDifferentialEvolution self = AsyncDifferentialEvolution.this;
+                    try {
+                        while (self.running) {
+                            final int i = self.claim();
+                            try {
+                                self.evolve(i, idx);
+                            } finally {
+                                self.claimed.set(i, 0);
+                            }
+                            self.completed.release();
+                        }
+                    } catch (Throwable e) {
+                        //
+                        // wake up the waiting iteration.
+                        //
+                        self.failure.compareAndSet(null, e);
+                        self.completed.release(self.popsize);
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Stops the workers and waits until they are finished.
+     */
+    private void stop() {
+        if (this.futures == null) return;
+        this.running = false;
+        try {
+            for (Future<?> future : this.futures) {
+                join(future);
+            }
+        } finally {
+            this.futures = null;
+            this.release();
+        }
+    }
+    
+    @Override
+    protected double iterativeMethodPerformIteration() {
+        if (this.futures == null) {
+            this.start();
+        }
+        try {
+            //
+            // an iteration corresponds to popsize evaluations.
+            //
+            this.completed.acquire(this.popsize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.stop();
+            throw new OptimizerException("asynchronous evolution interrupted.", e);
+        }
+        final Throwable t = this.failure.get();
+        if (t != null) {
+            this.stop();
+            throw new OptimizerException("asynchronous evolution failed.", t);
+        }
+        if (!this.iterating) {
+            this.stop();
+        }
+        return this.best_f;
+    }
+    
+    @Override
+    public double iterate(final int iterations, final double targeterror) {
+        this.iterating = true;
+        try {
+            super.iterate(iterations, targeterror);
+        } finally {
+            this.iterating = false;
+            this.stop();
+        }
+        //
+        // the workers may have improved the best individual
+        // after the last iteration.
+        //
+        this.updateError(this.best_f);
+        return this.best_f;
+    }
+    
+    @Override
+    public void copyBestSolution(
+        final double[] target, 
+        final int offset) {
+        //
+        this.read(this.best, target, offset);
+    }
+}
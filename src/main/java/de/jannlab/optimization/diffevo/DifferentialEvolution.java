@@ -19,15 +19,32 @@
 package de.jannlab.optimization.diffevo;
 
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import de.jannlab.math.MatrixTools;
 import de.jannlab.misc.DoubleTools;
+import de.jannlab.optimization.BoundedObjective;
 import de.jannlab.optimization.Objective;
+import de.jannlab.optimization.ObjectiveFactory;
 import de.jannlab.optimization.OptimizerBase;
+import de.jannlab.optimization.PopulationObjective;
 import de.jannlab.optimization.exception.NoObjective;
+import de.jannlab.optimization.exception.OptimizerException;
 
 /**
- * 
+ * This class implements Differential Evolution. The fitness evaluations 
+ * of a generation are independent, thus they can be distributed to 
+ * several threads (see setThreads and setObjectiveFactory). If the 
+ * objective is a PopulationObjective, the trial vectors of a generation
+ * (or of the range of a thread) are created first and evaluated at once.
+ * The population evaluation can be disabled (see setPopulationEvaluation),
+ * so that a BoundedObjective stops each trial evaluation at the fitness
+ * of its parent instead.
+ * <br></br>
  * @author Sebastian Otte
  */
 public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
@@ -39,6 +56,8 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
     public static final String KEY_MUTATION = "mutation";
     public static final String KEY_INITLBD  = "initlbd";
     public static final String KEY_INITUBD  = "initubd";
+    public static final String KEY_THREADS  = "threads";
+    public static final String KEY_POPEVAL  = "popeval";
     
     public static final int      DEFAULT_POPSIZE  = 100;
     public static final double   DEFAULT_CR       = 0.7;
@@ -47,11 +66,14 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
     public static final Mutation DEFAULT_MUTATION = Mutation.RAND_ONE;
     public static final double   DEFAULT_INITLBD  = -1.0;
     public static final double   DEFAULT_INITUBD  = 1.0;
+    public static final int      DEFAULT_THREADS  = 1;
+    public static final boolean  DEFAULT_POPEVAL  = true;
     
     private double[] population;
     private double[] buffer;
     private double[] accu;
     private double[] fitness;
+    private double[] trials;
     
     private double   best_f;
     private int      best;
@@ -66,6 +88,14 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
 
     private Random   rnd;
     
+    private int             threads;
+    private ObjectiveFactory factory;
+    private double[][]      accus;
+    private Random[]        rnds;
+    private Objective[]     objectives;
+    private ExecutorService executor;
+    private boolean         popeval;
+    
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
@@ -81,6 +111,8 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         );
         out.append(KEY_INITLBD + ": " + this.initlbd + "\n");
         out.append(KEY_INITUBD + ": " + this.initubd + "\n");
+        out.append(KEY_THREADS + ": " + this.threads + "\n");
+        out.append(KEY_POPEVAL + ": " + this.popeval + "\n");
         //
         return out.toString();
     }
@@ -97,6 +129,9 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         this.initlbd = DEFAULT_INITLBD;
         this.initubd = DEFAULT_INITUBD;
         //
+        this.threads = DEFAULT_THREADS;
+        this.popeval = DEFAULT_POPEVAL;
+        //
         this.rnd = new Random(System.currentTimeMillis());
         //
         this.best   = -1;
@@ -185,6 +220,127 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         return this.rnd;
     }
     
+    public int getThreads() {
+        return this.threads;
+    }
+    
+    /**
+     * Sets the number of threads for the fitness evaluations (must be set
+     * before initialize). Each thread evolves a contiguous range of the
+     * population with its own trial buffer and random stream, which are 
+     * derived from rnd on reset. Thus, the results are deterministic
+     * for a fixed seed and number of threads. Without an objective factory 
+     * the objective must be thread-safe.
+     */
+    public void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    
+    public boolean isPopulationEvaluation() {
+        return this.popeval;
+    }
+    
+    /**
+     * Enables or disables the population evaluation. If enabled (default) 
+     * and the objective is a PopulationObjective, the trial vectors are 
+     * evaluated at once. Otherwise, they are evaluated one by one, which 
+     * allows a BoundedObjective to stop the evaluation of a trial vector 
+     * at the fitness of its parent. Objectives which are both (such as 
+     * NetObjective) benefit from the latter when most trial vectors are 
+     * rejected.
+     */
+    public void setPopulationEvaluation(final boolean popeval) {
+        this.popeval = popeval;
+    }
+    
+    /**
+     * Returns true if the given objective is evaluated by populations.
+     */
+    private boolean population(final Objective obj) {
+        return this.popeval && (obj instanceof PopulationObjective);
+    }
+    
+    public ObjectiveFactory getObjectiveFactory() {
+        return this.factory;
+    }
+    
+    /**
+     * Sets a factory which creates an own objective for each thread 
+     * (must be set before initialize). The objective of the optimizer 
+     * is also created by the factory.
+     */
+    public void setObjectiveFactory(final ObjectiveFactory factory) {
+        this.factory = factory;
+        if (factory != null) {
+            this.updateObjective(factory.createObjective());
+        }
+    }
+    
+    /**
+     * Returns the objective of the given worker.
+     */
+    private Objective workerObjective(final int w) {
+        final Objective obj = this.objectives[w];
+        return (obj != null)?(obj):(this.getObjective());
+    }
+    
+    /**
+     * Performs the given tasks concurrently and waits until all tasks are
+     * finished. The first task is performed by the calling thread. The 
+     * executor is created on demand and shut down after iterate.
+     */
+    private void execute(final Runnable[] tasks) {
+        if (this.executor == null) {
+            this.executor = Executors.newFixedThreadPool(
+                tasks.length - 1, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable task) {
+                        final Thread thread = new Thread(task);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+            );
+        }
+        final Future<?>[] futures = new Future<?>[tasks.length];
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = this.executor.submit(tasks[i]);
+        }
+        tasks[0].run();
+        //
+        // join.
+        //
+        try {
+            for (int i = 1; i < tasks.length; i++) {
+                futures[i].get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimizerException("parallel evaluation interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new OptimizerException("parallel evaluation failed.", e.getCause());
+        }
+    }
+    
+    /**
+     * Shuts the executor down.
+     */
+    private void release() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        this.executor = null;
+    }
+    
+    @Override
+    public double iterate(final int iterations, final double targeterror) {
+        try {
+            return super.iterate(iterations, targeterror);
+        } finally {
+            this.release();
+        }
+    }
+    
     @Override
     protected DifferentialEvolution iterativeMethodMe() {
         return this;
@@ -223,6 +379,31 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         for (int i = 0; i < this.fitness.length; i++) {
             this.fitness[i] = Double.POSITIVE_INFINITY;
         }
+        //
+        // fitness values of the trial vectors for
+        // population objectives.
+        //
+        this.trials = MatrixTools.allocate(
+            this.popsize
+        );
+        //
+        // each worker has its own trial buffer, random stream
+        // and objective.
+        //
+        this.release();
+        if (this.threads > 1) {
+            this.accus      = new double[this.threads][];
+            this.rnds       = new Random[this.threads];
+            this.objectives = new Objective[this.threads];
+            //
+            for (int w = 0; w < this.threads; w++) {
+                this.accus[w] = MatrixTools.allocate(this.getParameters());
+                this.rnds[w]  = new Random();
+                if ((w > 0) && (this.factory != null)) {
+                    this.objectives[w] = this.factory.createObjective();
+                }
+            }
+        }
     }
     
     private void initializePopulation() {
@@ -237,24 +418,45 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
             this.rnd, this.initlbd, this.initubd
         );
         //
+        // the random streams of the workers are derived from rnd.
+        //
+        if (this.threads > 1) {
+            for (int w = 0; w < this.threads; w++) {
+                this.rnds[w].setSeed(this.rnd.nextLong());
+            }
+        }
+        //
         // evaluate fitness values for each individual.
         //
-        int offset = 0;
+        if (this.threads > 1) {
+            final Runnable[] tasks = new Runnable[this.threads];
+            for (int w = 0; w < this.threads; w++) {
+                final int idx = w;
+                final int lbd = (this.popsize * w) / this.threads;
+                final int ubd = (this.popsize * (w + 1)) / this.threads;
+                //
+                tasks[w] = new Runnable() {
+                    @Override
+                    public void run() {
+                        final DifferentialEvolution self = DifferentialEvolution.this;
+                        self.evaluateRange(lbd, ubd, self.workerObjective(idx));
+                    }
+                };
+            }
+            this.execute(tasks);
+        } else {
+            this.evaluateRange(0, this.popsize, obj);
+        }
         //
         int    lbest   = -1;
         double lbest_f = Double.POSITIVE_INFINITY;
         //
         for (int i = 0; i < this.popsize; i++) {
-            //
-            final double f = obj.compute(this.population, offset);
-            this.fitness[i] = f;
-            //
+            final double f = this.fitness[i];
             if (f < lbest_f) {
                 lbest   = i;
                 lbest_f = f;
             }
-            //
-            offset += this.getParameters();
         }
         //
         this.best   = lbest;
@@ -263,6 +465,25 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         this.updateError(lbest_f);
     }
     
+    /**
+     * Evaluates the fitness values of the individuals lbd (inclusive) 
+     * to ubd (exclusive).
+     */
+    private void evaluateRange(
+        final int lbd, final int ubd, final Objective obj
+    ) {
+        if (this.population(obj)) {
+            ((PopulationObjective)obj).compute(
+                this.population, this.offset(lbd), ubd - lbd,
+                this.fitness, lbd
+            );
+            return;
+        }
+        for (int i = lbd; i < ubd; i++) {
+            this.fitness[i] = obj.compute(this.population, this.offset(i));
+        }
+    }
+    
     @Override
     protected void iterativeMethodReset() {
         this.initializePopulation();
@@ -274,18 +495,20 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
     }
     
-    private int nextRandomIndex() {
-        return this.rnd.nextInt(this.popsize);
+    private int nextRandomIndex(final Random rnd) {
+        return rnd.nextInt(this.popsize);
     }
     
-    private void mutateRandOne(final int i) {
+    private void mutateRandOne(
+        final int i, final Random rnd, final double[] accu
+    ) {
         this.preventRandomIndex(i);
         //
         // pick three indices randomly.
         //
-        final int a = this.nextRandomIndex();
-        final int b = this.nextRandomIndex();
-        final int c = this.nextRandomIndex();
+        final int a = this.nextRandomIndex(rnd);
+        final int b = this.nextRandomIndex(rnd);
+        final int c = this.nextRandomIndex(rnd);
         //
         int offset_a = this.offset(a);
         int offset_b = this.offset(b);
@@ -295,7 +518,7 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
         for (int j = 0; j < n; j++) {
             //
-            this.accu[j] = (
+            accu[j] = (
                 this.population[offset_a] + 
                 (
                     this.F * (
@@ -311,15 +534,17 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         }
     }
 
-    private void mutateBestOne(final int i) {
+    private void mutateBestOne(
+        final int i, final Random rnd, final double[] accu
+    ) {
         this.preventRandomIndex(i);
         //
         // pick three indices randomly.
         //
         final int best = this.best;
         this.preventRandomIndex(best);
-        final int a = this.nextRandomIndex();
-        final int b = this.nextRandomIndex();
+        final int a = this.nextRandomIndex(rnd);
+        final int b = this.nextRandomIndex(rnd);
         //
         int offset_best = this.offset(best);
         int offset_a    = this.offset(a);
@@ -329,7 +554,7 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
         for (int j = 0; j < n; j++) {
             //
-            this.accu[j] = (
+            accu[j] = (
                 this.population[offset_best] + 
                 (
                     this.F * (
@@ -345,16 +570,18 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         }
     }
 
-    private void mutateRand2BestOne(final int i) {
+    private void mutateRand2BestOne(
+        final int i, final Random rnd, final double[] accu
+    ) {
         this.preventRandomIndex(i);
         //
         // pick three indices randomly.
         //
         final int best = this.best;
         this.preventRandomIndex(best);
-        final int a = this.nextRandomIndex();
-        final int b = this.nextRandomIndex();
-        final int c = this.nextRandomIndex();
+        final int a = this.nextRandomIndex(rnd);
+        final int b = this.nextRandomIndex(rnd);
+        final int c = this.nextRandomIndex(rnd);
         //
         int offset_i    = this.offset(i);
         int offset_best = this.offset(best);
@@ -366,7 +593,7 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
         for (int j = 0; j < n; j++) {
             //
-            this.accu[j] = (
+            accu[j] = (
                 this.population[offset_i] + (
                     this.F * (
                         this.population[offset_best] -
@@ -389,16 +616,18 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
     }
 
     
-    private void mutateRandTwo(final int i) {
+    private void mutateRandTwo(
+        final int i, final Random rnd, final double[] accu
+    ) {
         this.preventRandomIndex(i);
         //
         // pick three indices randomly.
         //
-        final int a = this.nextRandomIndex();
-        final int b = this.nextRandomIndex();
-        final int c = this.nextRandomIndex();
-        final int d = this.nextRandomIndex();
-        final int e = this.nextRandomIndex();
+        final int a = this.nextRandomIndex(rnd);
+        final int b = this.nextRandomIndex(rnd);
+        final int c = this.nextRandomIndex(rnd);
+        final int d = this.nextRandomIndex(rnd);
+        final int e = this.nextRandomIndex(rnd);
         //
         int offset_a = this.offset(a);
         int offset_b = this.offset(b);
@@ -410,7 +639,7 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
         for (int j = 0; j < n; j++) {
             //
-            this.accu[j] = (
+            accu[j] = (
                 this.population[offset_a] + (
                     this.F * (
                         this.population[offset_b] -
@@ -433,17 +662,19 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         
     }
 
-    private void mutateBestTwo(final int i) {
+    private void mutateBestTwo(
+        final int i, final Random rnd, final double[] accu
+    ) {
         this.preventRandomIndex(i);
         //
         // pick three indices randomly.
         //
         final int best = this.best;
         this.preventRandomIndex(best);
-        final int a = this.nextRandomIndex();
-        final int b = this.nextRandomIndex();
-        final int c = this.nextRandomIndex();
-        final int d = this.nextRandomIndex();
+        final int a = this.nextRandomIndex(rnd);
+        final int b = this.nextRandomIndex(rnd);
+        final int c = this.nextRandomIndex(rnd);
+        final int d = this.nextRandomIndex(rnd);
         //
         int offset_best = this.offset(best);
         int offset_a    = this.offset(a);
@@ -455,7 +686,7 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
         for (int j = 0; j < n; j++) {
             //
-            this.accu[j] = (
+            accu[j] = (
                 this.population[offset_best] + 
                 (
                     this.F * (
@@ -476,27 +707,31 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         
     }
     
-    private void mutate(final int i) {
+    private void mutate(
+        final int i, final Random rnd, final double[] accu
+    ) {
         switch (this.mutation) {
             case RAND_ONE:
-                this.mutateRandOne(i);
+                this.mutateRandOne(i, rnd, accu);
                 break;
             case BEST_ONE:
-                this.mutateBestOne(i);
+                this.mutateBestOne(i, rnd, accu);
                 break;
             case RAND_TWO:
-                this.mutateRandTwo(i);
+                this.mutateRandTwo(i, rnd, accu);
                 break;
             case BEST_TWO:
-                this.mutateBestTwo(i);
+                this.mutateBestTwo(i, rnd, accu);
                 break;
             case RAND2BEST_ONE:
-                this.mutateRand2BestOne(i);
+                this.mutateRand2BestOne(i, rnd, accu);
                 break;
         }
     }
         
-    private void crossover(final int i) {
+    private void crossover(
+        final int i, final Random rnd, final double[] accu
+    ) {
         //
         // building the crossover vector: the origin vector is given
         // through the population-buffer at offset(i). the mutation
@@ -508,11 +743,11 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         final int n = this.getParameters();
         //
         for (int j = 0; j < n; j++) {
-            final double r = this.rnd.nextDouble();
+            final double r = rnd.nextDouble();
             //
-            this.accu[accu_offset] = (
+            accu[accu_offset] = (
                 (r < this.CR)?
-                (this.accu[accu_offset]):
+                (accu[accu_offset]):
                 (this.population[orig_offset])
             );
             //
@@ -522,62 +757,151 @@ public class DifferentialEvolution extends OptimizerBase<DifferentialEvolution>{
         //
     }
     
+    /**
+     * Evolves the individual i: the trial vector is created by mutation 
+     * and crossover in the given accu and is selected for the next 
+     * generation (in this.buffer), if its fitness is better than the 
+     * fitness of the origin vector.
+     */
+    private void evolve(
+        final int i, final Random rnd, 
+        final double[] accu, final Objective obj
+    ) {
+        final int n      = this.getParameters();
+        final int offset = this.offset(i);
+        //
+        // first, create mutation vector based on the
+        // selected mutation strategy. the resulting
+        // vector is stored in accu at offset 0.
+        //
+        this.mutate(i, rnd, accu);
+        //
+        // crossover operation of the current individual
+        // and the mutation vector. the result is stored
+        // accu at offset 0.
+        //
+        this.crossover(i, rnd, accu);
+        //
+        // selection the new vector from accu is used
+        // in the next generation, if its fitness is better
+        // than the origin vector, which bounds the evaluation.
+        //
+        final double f_y = evaluate(obj, accu, 0, this.fitness[i]);
+        if (f_y < this.fitness[i]) {
+            //
+            // copy new vector and update fitness.
+            //
+            this.fitness[i] = f_y;
+            DoubleTools.copy(
+                accu, 0, this.buffer, offset, n
+            );                
+        } else {
+            //
+            // copy origin vector.
+            //
+            DoubleTools.copy(
+                this.population, offset, this.buffer, offset, n 
+            );                
+        }
+    }
+    
+    /**
+     * Evolves the individuals lbd (inclusive) to ubd (exclusive). For a
+     * population objective (and enabled population evaluation), all trial
+     * vectors of the range are created
+     * in this.buffer first, with the same random numbers as by evolve.
+     * Then they are evaluated at once and the rejected trial vectors are
+     * replaced by their origin vectors.
+     */
+    private void evolveRange(
+        final int lbd, final int ubd, final Random rnd, 
+        final double[] accu, final Objective obj
+    ) {
+        if (!this.population(obj)) {
+            for (int i = lbd; i < ubd; i++) {
+                this.evolve(i, rnd, accu, obj);
+            }
+            return;
+        }
+        final int n = this.getParameters();
+        //
+        for (int i = lbd; i < ubd; i++) {
+            this.mutate(i, rnd, accu);
+            this.crossover(i, rnd, accu);
+            DoubleTools.copy(accu, 0, this.buffer, this.offset(i), n);
+        }
+        ((PopulationObjective)obj).compute(
+            this.buffer, this.offset(lbd), ubd - lbd, this.trials, lbd
+        );
+        //
+        // selection.
+        //
+        for (int i = lbd; i < ubd; i++) {
+            if (this.trials[i] < this.fitness[i]) {
+                this.fitness[i] = this.trials[i];
+            } else {
+                DoubleTools.copy(
+                    this.population, this.offset(i), 
+                    this.buffer, this.offset(i), n
+                );
+            }
+        }
+    }
+    
+    /**
+     * Evaluates the given vector. A bounded objective may stop the 
+     * evaluation as soon as the value reaches the bound, i.e., when the
+     * trial vector is known to be rejected.
+     */
+    static double evaluate(
+        final Objective obj, final double[] args, 
+        final int offset, final double bound
+    ) {
+        if (obj instanceof BoundedObjective) {
+            return ((BoundedObjective)obj).compute(args, offset, bound);
+        }
+        return obj.compute(args, offset);
+    }
+    
     @Override
     protected double iterativeMethodPerformIteration() {
         final Objective obj = this.getObjective();
         //
-        int    lbest   = this.best;
-        double lbest_f = this.best_f;
-        int    offset  = 0;
+        // for all individuals in population...
         //
-        final int n = this.getParameters();
+        if (this.threads > 1) {
+            final Runnable[] tasks = new Runnable[this.threads];
+            for (int w = 0; w < this.threads; w++) {
+                final int idx = w;
+                final int lbd = (this.popsize * w) / this.threads;
+                final int ubd = (this.popsize * (w + 1)) / this.threads;
+                //
+                tasks[w] = new Runnable() {
+                    @Override
+                    public void run() {
+                        final DifferentialEvolution self = DifferentialEvolution.this;
+                        self.evolveRange(
+                            lbd, ubd, self.rnds[idx], self.accus[idx],
+                            self.workerObjective(idx)
+                        );
+                    }
+                };
+            }
+            this.execute(tasks);
+        } else {
+            this.evolveRange(0, this.popsize, this.rnd, this.accu, obj);
+        }
         //
-        // for all individuals in population...
+        // check for new best (in order of the individuals).
+        //
+        int    lbest   = this.best;
+        double lbest_f = this.best_f;
         //
         for (int i = 0; i < this.popsize; i++) {
-            //
-            // first, create mutation vector based on the
-            // selected mutation strategy. the resulting
-            // vector is stored in this.accu at offset 0.
-            //
-            this.mutate(i);
-            //
-            // crossover operation of the current individual
-            // and the mutation vector. the result is stored
-            // this.accu at offset 0.
-            //
-            this.crossover(i);
-            //
-            // selection the new vector from this.accu is used
-            // in the next generation, if its fitness is better
-            // than the origin vector.
-            //
-            final double f_y = obj.compute(this.accu, 0);
-            if (f_y < this.fitness[i]) {
-                //
-                // copy new vector and update fitness.
-                //
-                this.fitness[i] = f_y;
-                DoubleTools.copy(
-                    this.accu, 0, this.buffer, offset, n
-                );                
-                //
-                // check for new best.
-                //
-                if (f_y < lbest_f) {
-                    lbest_f = f_y;
-                    lbest   = i;
-                }
-            } else {
-                //
-                // copy origin vector.
-                //
-                DoubleTools.copy(
-                    this.population, offset, this.buffer, offset, n 
-                );                
+            if (this.fitness[i] < lbest_f) {
+                lbest_f = this.fitness[i];
+                lbest   = i;
             }
-            //
-            offset += n;
         }
         //
         // copy new generation.
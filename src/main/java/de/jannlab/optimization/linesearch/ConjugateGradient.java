@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.linesearch;
+
+/**
+ * This class implements the nonlinear conjugate gradient method with the
+ * Polak-Ribiere+ update. The method restarts with the steepest descent
+ * after the given number of iterations, or if successive gradients are 
+ * far from orthogonal (Powell's criterion). Besides the direction, 
+ * no additional state is stored per parameter.
+ * <br></br>
+ * References:
+ * <br></br>
+ * Nocedal, Jorge; Wright, Stephen J.: Numerical Optimization. 
+ * Springer (2006), Chapter 5.2.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class ConjugateGradient extends LineSearchOptimizer<ConjugateGradient> {
+    
+    public static final String KEY_RESTART = "restart";
+    
+    public static final int    DEFAULT_RESTART = 0;
+    public static final double DEFAULT_C2      = 0.1;
+    /**
+     * Threshold of Powell's restart criterion.
+     */
+    private static final double ORTHOGONALITY = 0.2;
+    
+    private double beta;
+    private double laststep;
+    private double lastdg;
+    private int    steps;
+    private int    restartint;
+    
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append(super.toString());
+        //
+        out.append(KEY_RESTART + ": " + this.restartint + "\n");
+        //
+        return out.toString();
+    }
+    
+    public ConjugateGradient() {
+        super(DEFAULT_C2);
+        this.restartint = DEFAULT_RESTART;
+    }
+    
+    public int getRestartInterval() {
+        return this.restartint;
+    }
+    
+    /**
+     * Sets the number of iterations after which the method restarts 
+     * (values < 1 => number of parameters).
+     */
+    public void setRestartInterval(final int restartint) {
+        this.restartint = restartint;
+    }
+    
+    @Override
+    protected ConjugateGradient iterativeMethodMe() {
+        return this;
+    }
+    
+    @Override
+    protected void lineSearchInitialize() {
+        //
+    }
+    
+    @Override
+    protected void restart() {
+        this.beta  = 0.0;
+        this.steps = 0;
+    }
+    
+    @Override
+    protected double initialStep(final double dg, final boolean restarted) {
+        if ((this.getIteration() > 0) && (this.laststep > 0.0)) {
+            //
+            // assume the same first order change as in the last iteration.
+            //
+            return this.laststep * (this.lastdg / dg);
+        }
+        return super.initialStep(dg, true);
+    }
+    
+    @Override
+    protected void computeDirection() {
+        final int n      = this.getParameters();
+        final double[] d = this.d;
+        final double[] g = this.g;
+        final double b   = (this.steps == 0)?(0.0):(this.beta);
+        //
+        for (int i = 0; i < n; i++) {
+            d[i] = (b * d[i]) - g[i];
+        }
+    }
+    
+    @Override
+    protected void update(final double step) {
+        final int n       = this.getParameters();
+        final double[] g  = this.g;
+        final double[] gt = this.gt;
+        //
+        this.laststep = step;
+        this.lastdg   = dot(this.d, g, n);
+        //
+        double gg   = 0.0;
+        double gtgt = 0.0;
+        double gtg  = 0.0;
+        for (int i = 0; i < n; i++) {
+            gg   += g[i] * g[i];
+            gtgt += gt[i] * gt[i];
+            gtg  += gt[i] * g[i];
+        }
+        //
+        final int interval = (this.restartint < 1)?(n):(this.restartint);
+        this.steps++;
+        //
+        if (
+            (this.steps >= interval) || 
+            (Math.abs(gtg) >= (ORTHOGONALITY * gtgt))
+        ) {
+            this.restart();
+            return;
+        }
+        this.beta = Math.max(0.0, (gtgt - gtg) / gg);
+    }
+}
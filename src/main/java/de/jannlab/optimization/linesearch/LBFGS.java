@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.linesearch;
+
+/**
+ * This class implements the limited memory BFGS method (L-BFGS). The
+ * search direction is computed by the two-loop recursion from the last
+ * m solution and gradient differences, which are stored in flat ring 
+ * buffers of m * parameters values. Pairs violating the curvature 
+ * condition are skipped, thus the approximated inverse Hessian stays 
+ * positive definite.
+ * <br></br>
+ * References:
+ * <br></br>
+ * Liu, Dong C.; Nocedal, Jorge: On the limited memory BFGS method for
+ * large scale optimization. Mathematical Programming 45 (1989).
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class LBFGS extends LineSearchOptimizer<LBFGS> {
+    
+    public static final String KEY_MEMORY = "memory";
+    
+    public static final int    DEFAULT_MEMORY = 10;
+    public static final double DEFAULT_C2     = 0.9;
+    /**
+     * Minimal ratio of s * y to y * y for accepting a pair.
+     */
+    private static final double EPSILON = 1.0e-10;
+    
+    private double[] s;
+    private double[] y;
+    private double[] rho;
+    private double[] alpha;
+    
+    private int      memory;
+    private int      head;
+    private int      count;
+    
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append(super.toString());
+        //
+        out.append(KEY_MEMORY + ": " + this.memory + "\n");
+        //
+        return out.toString();
+    }
+    
+    public LBFGS() {
+        super(DEFAULT_C2);
+        this.memory = DEFAULT_MEMORY;
+    }
+    
+    public int getMemory() {
+        return this.memory;
+    }
+    
+    /**
+     * Sets the number of stored pairs (must be set before initialize).
+     */
+    public void setMemory(final int memory) {
+        this.memory = Math.max(1, memory);
+    }
+    
+    @Override
+    protected LBFGS iterativeMethodMe() {
+        return this;
+    }
+    
+    @Override
+    protected void lineSearchInitialize() {
+        final int n = this.getParameters();
+        //
+        this.s     = new double[this.memory * n];
+        this.y     = new double[this.memory * n];
+        this.rho   = new double[this.memory];
+        this.alpha = new double[this.memory];
+    }
+    
+    @Override
+    protected void restart() {
+        this.head  = 0;
+        this.count = 0;
+    }
+    
+    @Override
+    protected double initialStep(final double dg, final boolean restarted) {
+        if (this.count == 0) {
+            return super.initialStep(dg, true);
+        }
+        return super.initialStep(dg, restarted);
+    }
+    
+    @Override
+    protected void computeDirection() {
+        final int n         = this.getParameters();
+        final int m         = this.memory;
+        final double[] d    = this.d;
+        final double[] g    = this.g;
+        final double[] s    = this.s;
+        final double[] y    = this.y;
+        final double[] rho  = this.rho;
+        final double[] alpha = this.alpha;
+        //
+        for (int i = 0; i < n; i++) {
+            d[i] = -g[i];
+        }
+        if (this.count == 0) return;
+        //
+        // first loop from the newest to the oldest pair.
+        //
+        int k = this.head;
+        for (int j = 0; j < this.count; j++) {
+            k = (k == 0)?(m - 1):(k - 1);
+            final int off = k * n;
+            //
+            double sd = 0.0;
+            for (int i = 0; i < n; i++) {
+                sd += s[off + i] * d[i];
+            }
+            final double a = rho[k] * sd;
+            alpha[k] = a;
+            for (int i = 0; i < n; i++) {
+                d[i] -= a * y[off + i];
+            }
+        }
+        //
+        // scaling of the initial hessian by the newest pair.
+        //
+        final int newest = (this.head == 0)?(m - 1):(this.head - 1);
+        final int noff   = newest * n;
+        double yy = 0.0;
+        for (int i = 0; i < n; i++) {
+            yy += y[noff + i] * y[noff + i];
+        }
+        final double gamma = 1.0 / (rho[newest] * yy);
+        for (int i = 0; i < n; i++) {
+            d[i] *= gamma;
+        }
+        //
+        // second loop from the oldest to the newest pair (k is the oldest).
+        //
+        for (int j = 0; j < this.count; j++) {
+            final int off = k * n;
+            //
+            double yd = 0.0;
+            for (int i = 0; i < n; i++) {
+                yd += y[off + i] * d[i];
+            }
+            final double b = alpha[k] - (rho[k] * yd);
+            for (int i = 0; i < n; i++) {
+                d[i] += b * s[off + i];
+            }
+            k = (k == (m - 1))?(0):(k + 1);
+        }
+    }
+    
+    @Override
+    protected void update(final double step) {
+        final int n      = this.getParameters();
+        final int off    = this.head * n;
+        final double[] s = this.s;
+        final double[] y = this.y;
+        //
+        double sy = 0.0;
+        double yy = 0.0;
+        for (int i = 0; i < n; i++) {
+            final double si = this.xt[i] - this.x[i];
+            final double yi = this.gt[i] - this.g[i];
+            s[off + i] = si;
+            y[off + i] = yi;
+            sy += si * yi;
+            yy += yi * yi;
+        }
+        //
+        // the pair is only kept if it satisfies the curvature condition.
+        //
+        if (sy > (EPSILON * yy)) {
+            this.rho[this.head] = 1.0 / sy;
+            this.head  = (this.head + 1) % this.memory;
+            this.count = Math.min(this.count + 1, this.memory);
+        }
+    }
+}
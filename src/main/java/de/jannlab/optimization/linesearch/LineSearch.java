@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.linesearch;
+
+import de.jannlab.optimization.DifferentiableObjective;
+
+/**
+ * This class implements a line search which finds a step size satisfying
+ * the strong Wolfe conditions (Nocedal, Wright: Numerical Optimization, 
+ * Algorithm 3.5 and 3.6). The intervals are refined by safeguarded cubic
+ * interpolation. The trial points and their gradients are written into
+ * given buffers, so the search does not allocate memory.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+final class LineSearch {
+    /**
+     * Factor for the extrapolation of the step size.
+     */
+    private static final double EXTRAPOLATION = 2.0;
+    /**
+     * Minimal relative distance of an interpolated step 
+     * size to the interval bounds.
+     */
+    private static final double SAFEGUARD = 0.1;
+    //
+    private DifferentiableObjective objective;
+    private double[] x;
+    private double[] d;
+    private double[] xt;
+    private double[] gt;
+    private int      n;
+    //
+    private double   f0;
+    private double   dg0;
+    private double   c1;
+    private double   c2;
+    private int      maxevals;
+    private int      evals;
+    //
+    private double   step;
+    private double   value;
+    private double   slope;
+    
+    /**
+     * Returns the accepted step size.
+     */
+    public double getStep() {
+        return this.step;
+    }
+    
+    /**
+     * Returns the objective value of the accepted step size.
+     */
+    public double getValue() {
+        return this.value;
+    }
+    
+    /**
+     * Returns the number of evaluations of the last search.
+     */
+    public int getEvaluations() {
+        return this.evals;
+    }
+    
+    /**
+     * Evaluates the objective and its gradient at x + a * d, which are 
+     * stored in xt and gt. The objective value is stored in value and the
+     * directional derivative in slope.
+     */
+    private void evaluate(final double a) {
+        final double[] x  = this.x;
+        final double[] d  = this.d;
+        final double[] xt = this.xt;
+        final double[] gt = this.gt;
+        //
+        for (int i = 0; i < this.n; i++) {
+            xt[i] = x[i] + (a * d[i]);
+        }
+        this.value = this.objective.computeGradient(xt, 0, gt, 0);
+        //
+        double slope = 0.0;
+        for (int i = 0; i < this.n; i++) {
+            slope += gt[i] * d[i];
+        }
+        this.step  = a;
+        this.slope = slope;
+        this.evals++;
+    }
+    
+    /**
+     * Checks the sufficient decrease condition for the last evaluation.
+     */
+    private boolean armijo() {
+        return this.value <= (this.f0 + (this.c1 * this.step * this.dg0));
+    }
+    
+    /**
+     * Checks the strong curvature condition for the last evaluation.
+     */
+    private boolean curvature() {
+        return Math.abs(this.slope) <= (-this.c2 * this.dg0);
+    }
+    
+    /**
+     * Searches a step size along the descent direction d starting at x. 
+     * If the search succeeds, xt and gt contain the accepted point and its 
+     * gradient (see getStep and getValue). 
+     * <br></br>
+     * @param objective The objective.
+     * @param x The start point.
+     * @param f0 The objective value at x.
+     * @param dg0 The directional derivative at x (must be negative).
+     * @param d The search direction.
+     * @param xt Buffer for the trial points.
+     * @param gt Buffer for the gradients of the trial points.
+     * @param n The number of parameters.
+     * @param a0 The initial step size.
+     * @param c1 The constant of the sufficient decrease condition.
+     * @param c2 The constant of the curvature condition.
+     * @param maxevals The maximum number of evaluations.
+     * @return True if a step size with sufficient decrease was found.
+     */
+    public boolean search(
+        final DifferentiableObjective objective,
+        final double[] x, final double f0, final double dg0, final double[] d,
+        final double[] xt, final double[] gt, final int n,
+        final double a0, final double c1, final double c2, final int maxevals
+    ) {
+        this.objective = objective;
+        this.x         = x;
+        this.d         = d;
+        this.xt        = xt;
+        this.gt        = gt;
+        this.n         = n;
+        this.f0        = f0;
+        this.dg0       = dg0;
+        this.c1        = c1;
+        this.c2        = c2;
+        this.maxevals  = maxevals;
+        this.evals     = 0;
+        //
+        double aprev  = 0.0;
+        double fprev  = f0;
+        double dgprev = dg0;
+        double a      = a0;
+        //
+        // bracketing phase.
+        //
+        while (this.evals < this.maxevals) {
+            this.evaluate(a);
+            //
+            if (!this.armijo() || ((this.evals > 1) && (this.value >= fprev))) {
+                return this.zoom(
+                    aprev, fprev, dgprev, a, this.value, this.slope, false
+                );
+            }
+            if (this.curvature()) return true;
+            if (this.slope >= 0.0) {
+                return this.zoom(
+                    a, this.value, this.slope, aprev, fprev, dgprev, true
+                );
+            }
+            aprev  = a;
+            fprev  = this.value;
+            dgprev = this.slope;
+            a      = a * EXTRAPOLATION;
+        }
+        //
+        // the last point provides a sufficient decrease.
+        //
+        return true;
+    }
+    
+    /**
+     * Refines the interval [lo, hi] which contains a step size satisfying 
+     * the strong Wolfe conditions, where lo provides the lowest value.
+     * <br></br>
+     * @param current Is lo the point of the last evaluation?
+     * @return True if a step size with sufficient decrease was found.
+     */
+    private boolean zoom(
+        double lo, double flo, double dglo,
+        double hi, double fhi, double dghi,
+        boolean current
+    ) {
+        while (this.evals < this.maxevals) {
+            final double a = interpolate(lo, flo, dglo, hi, fhi, dghi);
+            this.evaluate(a);
+            //
+            if (!this.armijo() || (this.value >= flo)) {
+                hi      = a;
+                fhi     = this.value;
+                dghi    = this.slope;
+                current = false;
+            } else {
+                if (this.curvature()) return true;
+                if ((this.slope * (hi - lo)) >= 0.0) {
+                    hi   = lo;
+                    fhi  = flo;
+                    dghi = dglo;
+                }
+                lo      = a;
+                flo     = this.value;
+                dglo    = this.slope;
+                current = true;
+            }
+        }
+        //
+        // fall back to the lowest point, if it provides a sufficient
+        // decrease, which is the case for lo > 0.
+        //
+        if (lo <= 0.0) return false;
+        if (!current) this.evaluate(lo);
+        return true;
+    }
+    
+    /**
+     * Computes the minimizer of the cubic interpolation of two points and
+     * their derivatives. The result is safeguarded to lie inside the 
+     * interval, otherwise the bisection is returned.
+     */
+    private static double interpolate(
+        final double a1, final double f1, final double d1,
+        final double a2, final double f2, final double d2
+    ) {
+        final double lower = Math.min(a1, a2);
+        final double upper = Math.max(a1, a2);
+        final double width = upper - lower;
+        //
+        final double t1 = d1 + d2 - (3.0 * ((f1 - f2) / (a1 - a2)));
+        final double sq = (t1 * t1) - (d1 * d2);
+        //
+        double a = Double.NaN;
+        if (sq >= 0.0) {
+            final double t2 = Math.signum(a2 - a1) * Math.sqrt(sq);
+            a = a2 - ((a2 - a1) * ((d2 + t2 - t1) / (d2 - d1 + (2.0 * t2))));
+        }
+        if (
+            !(a >= (lower + (SAFEGUARD * width))) || 
+            !(a <= (upper - (SAFEGUARD * width)))
+        ) {
+            a = 0.5 * (a1 + a2);
+        }
+        return a;
+    }
+}
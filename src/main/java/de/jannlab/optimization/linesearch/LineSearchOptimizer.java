@@ -0,0 +1,393 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.linesearch;
+
+import java.util.Random;
+
+import de.jannlab.misc.DoubleTools;
+import de.jannlab.optimization.DifferentiableObjective;
+import de.jannlab.optimization.OptimizerBase;
+
+/**
+ * This class is the base class of gradient based optimizers, which 
+ * minimize the objective along a search direction in each iteration 
+ * (see LineSearch). The subclasses only compute the search directions. 
+ * The current solution, its gradient, the trial point and its gradient
+ * are flat arrays which are allocated in initialize, thus the iterations
+ * do not allocate memory. The objective must be differentiable.
+ * <br></br>
+ * The start point is either given by setInitialSolution or drawn uniformly
+ * from [initlbd, initubd]. The optimization stops (aborts) when the 
+ * gradient norm falls below the gradient tolerance or when no step 
+ * with sufficient decrease can be found, even along the steepest descent.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public abstract class LineSearchOptimizer<I extends LineSearchOptimizer<I>> 
+    extends OptimizerBase<I> {
+    
+    public static final String KEY_INITLBD   = "initlbd";
+    public static final String KEY_INITUBD   = "initubd";
+    public static final String KEY_GRADTOL   = "gradtol";
+    public static final String KEY_C1        = "c1";
+    public static final String KEY_C2        = "c2";
+    public static final String KEY_MAXEVALS  = "maxevals";
+    
+    public static final double DEFAULT_INITLBD  = -1.0;
+    public static final double DEFAULT_INITUBD  = 1.0;
+    public static final double DEFAULT_GRADTOL  = 1.0e-8;
+    public static final double DEFAULT_C1       = 1.0e-4;
+    public static final int    DEFAULT_MAXEVALS = 20;
+    
+    /**
+     * The current solution.
+     */
+    protected double[] x;
+    /**
+     * The gradient of the current solution.
+     */
+    protected double[] g;
+    /**
+     * The search direction.
+     */
+    protected double[] d;
+    /**
+     * The trial point of the line search.
+     */
+    protected double[] xt;
+    /**
+     * The gradient of the trial point.
+     */
+    protected double[] gt;
+    /**
+     * The objective value of the current solution.
+     */
+    protected double f;
+    
+    private double[]   x0;
+    private double     initlbd;
+    private double     initubd;
+    private double     gradtol;
+    private double     c1;
+    private double     c2;
+    private int        maxevals;
+    private int        evaluations;
+    private Random     rnd;
+    private LineSearch search;
+    
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append(super.toString());
+        //
+        out.append(KEY_INITLBD + ": " + this.initlbd + "\n");
+        out.append(KEY_INITUBD + ": " + this.initubd + "\n");
+        out.append(KEY_GRADTOL + ": " + this.gradtol + "\n");
+        out.append(KEY_C1 + ": " + this.c1 + "\n");
+        out.append(KEY_C2 + ": " + this.c2 + "\n");
+        out.append(KEY_MAXEVALS + ": " + this.maxevals + "\n");
+        //
+        return out.toString();
+    }
+    
+    /**
+     * Creates an instance of LineSearchOptimizer.
+     * <br></br>
+     * @param c2 The default constant of the curvature condition.
+     */
+    protected LineSearchOptimizer(final double c2) {
+        //
+        this.initlbd  = DEFAULT_INITLBD;
+        this.initubd  = DEFAULT_INITUBD;
+        this.gradtol  = DEFAULT_GRADTOL;
+        this.c1       = DEFAULT_C1;
+        this.c2       = c2;
+        this.maxevals = DEFAULT_MAXEVALS;
+        //
+        this.rnd    = new Random(System.currentTimeMillis());
+        this.search = new LineSearch();
+    }
+    
+    @Override
+    public boolean requiresGradient() {
+        return true;
+    }
+    
+    @Override
+    public double getBestError() {
+        return this.f;
+    }
+    
+    public double getInitUbd() {
+        return this.initubd;
+    }
+    
+    public void setInitUbd(final double initubd) {
+        this.initubd = initubd;
+    }
+    
+    public double getInitLbd() {
+        return this.initlbd;
+    }
+    
+    public void setInitLbd(final double initlbd) {
+        this.initlbd = initlbd;
+    }
+    
+    public double getGradientTolerance() {
+        return this.gradtol;
+    }
+    
+    public void setGradientTolerance(final double gradtol) {
+        this.gradtol = gradtol;
+    }
+    
+    public double getC1() {
+        return this.c1;
+    }
+    
+    /**
+     * Sets the constant of the sufficient decrease condition.
+     */
+    public void setC1(final double c1) {
+        this.c1 = c1;
+    }
+    
+    public double getC2() {
+        return this.c2;
+    }
+    
+    /**
+     * Sets the constant of the curvature condition (c1 < c2 < 1).
+     */
+    public void setC2(final double c2) {
+        this.c2 = c2;
+    }
+    
+    public int getMaxEvaluations() {
+        return this.maxevals;
+    }
+    
+    /**
+     * Sets the maximum number of evaluations per line search.
+     */
+    public void setMaxEvaluations(final int maxevals) {
+        this.maxevals = Math.max(1, maxevals);
+    }
+    
+    /**
+     * Returns the number of objective (and gradient) evaluations
+     * since the last reset.
+     */
+    public int getEvaluations() {
+        return this.evaluations;
+    }
+    
+    public void setRnd(final Random rnd) {
+        this.rnd = rnd;
+    }
+    
+    public Random getRnd() {
+        return this.rnd;
+    }
+    
+    /**
+     * Sets the start point, which is used by the next reset (or initialize)
+     * instead of a random initialization. The number of parameters
+     * must already be set.
+     * <br></br>
+     * @param source The start point.
+     * @param offset The offset of the start point.
+     */
+    public void setInitialSolution(final double[] source, final int offset) {
+        if (source == null) {
+            this.x0 = null;
+            return;
+        }
+        this.x0 = new double[this.getParameters()];
+        DoubleTools.copy(source, offset, this.x0, 0, this.x0.length);
+    }
+    
+    /**
+     * Allocates the state of the search direction.
+     */
+    protected abstract void lineSearchInitialize();
+    
+    /**
+     * Computes the search direction d for the current solution x 
+     * and its gradient g.
+     */
+    protected abstract void computeDirection();
+    
+    /**
+     * Updates the state of the search direction after a successful line 
+     * search. At this point, x and g contain the previous solution and its 
+     * gradient, whereas xt and gt contain the new solution and its gradient.
+     * <br></br>
+     * @param step The accepted step size.
+     */
+    protected abstract void update(final double step);
+    
+    /**
+     * Resets the state of the search direction, so that the next
+     * direction is the steepest descent.
+     */
+    protected abstract void restart();
+    
+    /**
+     * Returns the initial step size of the line search. The default
+     * is 1.0 or 1.0 / |g| for the steepest descent after a restart.
+     * <br></br>
+     * @param dg The directional derivative.
+     * @param restarted Is d the steepest descent after a restart?
+     */
+    protected double initialStep(final double dg, final boolean restarted) {
+        if (restarted) {
+            return Math.min(1.0, 1.0 / Math.sqrt(-dg));
+        }
+        return 1.0;
+    }
+    
+    /**
+     * Returns the dot product of the first n values of a and b.
+     */
+    protected static double dot(
+        final double[] a, final double[] b, final int n
+    ) {
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+    
+    @Override
+    protected void iterativeMethodInitialize() {
+        final int n = this.getParameters();
+        //
+        this.x  = new double[n];
+        this.g  = new double[n];
+        this.d  = new double[n];
+        this.xt = new double[n];
+        this.gt = new double[n];
+        //
+        this.lineSearchInitialize();
+    }
+    
+    @Override
+    protected void iterativeMethodReset() {
+        final DifferentiableObjective obj = (
+            (DifferentiableObjective)this.getObjective()
+        );
+        //
+        if (this.x0 != null) {
+            DoubleTools.copy(this.x0, 0, this.x, 0, this.x.length);
+        } else {
+            DoubleTools.fill(
+                this.x, 0, this.x.length, this.rnd, this.initlbd, this.initubd
+            );
+        }
+        this.f           = obj.computeGradient(this.x, 0, this.g, 0);
+        this.evaluations = 1;
+        this.restart();
+        //
+        this.updateError(this.f);
+    }
+    
+    /**
+     * Sets d to the steepest descent and returns the 
+     * directional derivative.
+     */
+    private double steepestDescent() {
+        final int n = this.getParameters();
+        for (int i = 0; i < n; i++) {
+            this.d[i] = -this.g[i];
+        }
+        return dot(this.d, this.g, n);
+    }
+    
+    @Override
+    protected double iterativeMethodPerformIteration() {
+        final DifferentiableObjective obj = (
+            (DifferentiableObjective)this.getObjective()
+        );
+        final int n = this.getParameters();
+        //
+        // compute search direction, which must be a descent direction.
+        //
+        this.computeDirection();
+        double dg = dot(this.d, this.g, n);
+        boolean restarted = false;
+        //
+        if (!(dg < 0.0)) {
+            this.restart();
+            dg        = this.steepestDescent();
+            restarted = true;
+        }
+        //
+        boolean success = false;
+        while (dg < 0.0) {
+            success = this.search.search(
+                obj, this.x, this.f, dg, this.d, this.xt, this.gt, n,
+                this.initialStep(dg, restarted), this.c1, this.c2, this.maxevals
+            );
+            this.evaluations += this.search.getEvaluations();
+            //
+            if (success || restarted) break;
+            //
+            // retry along the steepest descent.
+            //
+            this.restart();
+            dg        = this.steepestDescent();
+            restarted = true;
+        }
+        if (!success) {
+            this.abort();
+            return this.f;
+        }
+        //
+        this.update(this.search.getStep());
+        //
+        // the trial point becomes the current solution.
+        //
+        final double[] x = this.x;
+        final double[] g = this.g;
+        this.x  = this.xt;
+        this.g  = this.gt;
+        this.xt = x;
+        this.gt = g;
+        this.f  = this.search.getValue();
+        //
+        if (Math.sqrt(dot(this.g, this.g, n)) <= this.gradtol) {
+            this.abort();
+        }
+        return this.f;
+    }
+    
+    @Override
+    public void copyBestSolution(
+        final double[] target, 
+        final int offset) {
+        //
+        DoubleTools.copy(
+            this.x, 0, target, offset, this.getParameters()
+        );
+    }
+}
@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.tools;
+
+import java.util.Arrays;
+
+import de.jannlab.Net;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.optimization.BoundedObjective;
+import de.jannlab.optimization.DifferentiableObjective;
+import de.jannlab.optimization.Objective;
+import de.jannlab.optimization.ObjectiveFactory;
+import de.jannlab.optimization.PopulationObjective;
+
+/**
+ * This class provides the error of a net on a set of samples as a
+ * differentiable objective function of the weights, which allows to
+ * train nets with the optimizers of de.jannlab.optimization. The arguments
+ * of the objective are written into the net as weights (see writeWeights)
+ * and the objective value is the error as computed by NetTools.computeError.
+ * The bounded evaluation stops after the sample (or batch) for which the 
+ * partial error reaches the bound, which saves most of the passes for 
+ * rejected trial vectors (e.g., in DE).
+ * <br></br>
+ * Several argument vectors can be evaluated at once by a copy of the net in
+ * population mode (see Net.writePopulationWeights), where each batch index
+ * (lane) computes the samples with its own weight vector. Thus, the links 
+ * and the samples are processed once for all lanes. The copy is created on
+ * the first population evaluation. Note that the population evaluation is 
+ * not bounded and its results may differ from compute within rounding.
+ * The population mode only supports double precision, thus for nets in 
+ * single precision the argument vectors are evaluated one by one with 
+ * compute.
+ * <br></br>
+ * The gradient is computed by the backward pass of the net, which
+ * accumulates it into an internal gradient sink (see Net.setGradientSink).
+ * Note that the backward pass approximates the gradients of recurrent 
+ * weights (as for the trainers), thus the gradient is only exact for 
+ * feed-forward nets. All buffers are allocated at construction, thus
+ * the evaluations do not allocate memory.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class NetObjective implements 
+    DifferentiableObjective, BoundedObjective, PopulationObjective {
+    //
+    public static final int DEFAULT_LANES = 16;
+    /**
+     * The reference network.
+     */
+    private final Net net;
+    /**
+     * The set of samples.
+     */
+    private final SampleSet set;
+    /**
+     * Gives a feature selection (null => select all)
+     */
+    private final int[] features;
+    /**
+     * The sample indices ordered by target length.
+     */
+    private final int[] order;
+    /**
+     * The batches or null, if the net has a batch size of 1.
+     */
+    private final int[][] batches;
+    /**
+     * The gradient sink for the backward passes.
+     */
+    private final double[] sink;
+    /**
+     * Number of weights.
+     */
+    private final int weightsnum;
+    /**
+     * Number of weight vectors evaluated at once.
+     */
+    private int lanes = DEFAULT_LANES;
+    /**
+     * The copy of the net in population mode or null.
+     */
+    private Net popnet = null;
+    /**
+     * The errors of the lanes.
+     */
+    private double[] poperrors = null;
+    
+    /**
+     * Creates an instance of NetObjective.
+     * <br></br>
+     * @param net The reference network.
+     * @param set The set of samples.
+     */
+    public NetObjective(final Net net, final SampleSet set) {
+        this(net, set, null);
+    }
+    
+    /**
+     * Creates an instance of NetObjective for a selection of features.
+     * <br></br>
+     * @param net The reference network.
+     * @param set The set of samples.
+     * @param features A selection of features or null.
+     */
+    public NetObjective(
+        final Net net, final SampleSet set, final int[] features
+    ) {
+        this.net        = net;
+        this.set        = set;
+        this.features   = features;
+        this.weightsnum = net.getWeightsNum();
+        this.sink       = new double[this.weightsnum + 1];
+        //
+        // the samples are ordered by their target length (stable), so 
+        // the gradients only have to be scaled once for each length.
+        //
+        final int size    = set.size();
+        final long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (((long)set.get(i).getTargetLength()) << 32) | i;
+        }
+        Arrays.sort(keys);
+        this.order = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.order[i] = (int)(keys[i] & 0xFFFFFFFFL);
+        }
+        //
+        if (net.getBatchSize() > 1) {
+            this.batches = NetTools.batches(set, this.order, net.getBatchSize());
+        } else {
+            this.batches = null;
+        }
+        //
+        // recurrent nets need a frame for each time step of the
+        // longest sequence (the buffers grow only if necessary).
+        //
+        if (net.isRecurrent()) {
+            net.ensureFrameWidth(set.maxSequenceLength());
+        }
+    }
+    
+    /**
+     * Returns a factory which creates independent objectives for parallel 
+     * optimizers. Each objective uses its own deep copy of the given net.
+     * <br></br>
+     * @param net The reference network.
+     * @param set The set of samples.
+     * @param features A selection of features or null.
+     * @return The objective factory.
+     */
+    public static ObjectiveFactory factory(
+        final Net net, final SampleSet set, final int[] features
+    ) {
+        return new ObjectiveFactory() {
+            @Override
+            public Objective createObjective() {
+                return new NetObjective(net.copy(), set, features);
+            }
+        };
+    }
+    
+    /**
+     * Returns the reference network.
+     */
+    public Net getNet() {
+        return this.net;
+    }
+    
+    /**
+     * Returns the set of samples.
+     */
+    public SampleSet getSampleSet() {
+        return this.set;
+    }
+    
+    /**
+     * Returns the number of weight vectors evaluated at once.
+     */
+    public int getLanes() {
+        return this.lanes;
+    }
+    
+    /**
+     * Sets the number of weight vectors evaluated at once by the 
+     * population evaluation.
+     * <br></br>
+     * @param lanes Value as int.
+     */
+    public void setLanes(final int lanes) {
+        this.lanes  = Math.max(1, lanes);
+        this.popnet = null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int arity() {
+        return this.weightsnum;
+    }
+    
+    /**
+     * Returns the number of batches or samples.
+     */
+    private int units() {
+        return (this.batches != null)?(this.batches.length):(this.order.length);
+    }
+    
+    /**
+     * Returns the target length of the given batch or sample.
+     */
+    private int targetLength(final int j) {
+        final int idx = (this.batches != null)?(this.batches[j][0]):(this.order[j]);
+        return this.set.get(idx).getTargetLength();
+    }
+    
+    /**
+     * Computes the forward pass of the given batch or sample.
+     * <br></br>
+     * @param j The index of the batch or sample.
+     * @return The error of the batch or sample.
+     */
+    private double forward(final int j) {
+        this.net.reset();
+        if (this.batches != null) {
+            return NetTools.performBatchForward(
+                this.net, this.set, this.batches[j], this.features
+            );
+        }
+        final Sample sample = this.set.get(this.order[j]);
+        return NetTools.performForward(this.net, sample, this.features);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double compute(final double[] args, final int offset) {
+        this.net.writeWeights(args, offset);
+        //
+        double error = 0.0;
+        final int size = this.units();
+        for (int j = 0; j < size; j++) {
+            error += this.forward(j);
+        }
+        return error / ((double)this.set.size());
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double compute(
+        final double[] args, final int offset, final double bound
+    ) {
+        this.net.writeWeights(args, offset);
+        //
+        // the sample errors are non-negative, thus the 
+        // partial error is a lower bound of the error.
+        //
+        final double size = (double)this.set.size();
+        double error = 0.0;
+        final int units = this.units();
+        for (int j = 0; j < units; j++) {
+            error += this.forward(j);
+            if ((error / size) >= bound) break;
+        }
+        return error / size;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void compute(
+        final double[] args, final int offset, final int num,
+        final double[] results, final int resultsoffset
+    ) {
+        if (this.net.isSinglePrecision()) {
+            for (int k = 0; k < num; k++) {
+                results[resultsoffset + k] = this.compute(
+                    args, offset + (k * this.weightsnum)
+                );
+            }
+            return;
+        }
+        if (this.popnet == null) {
+            this.popnet = this.net.copy();
+            this.popnet.rebuffer(this.net.getFrameWidth(), this.lanes);
+            this.poperrors = new double[this.lanes];
+        }
+        final Net net         = this.popnet;
+        final double[] errors = this.poperrors;
+        final double size     = (double)this.set.size();
+        //
+        // the weight vectors are evaluated in chunks of lanes,
+        // the samples are computed in the same order as by compute.
+        //
+        for (int k = 0; k < num; k += this.lanes) {
+            final int m = Math.min(this.lanes, num - k);
+            net.writePopulationWeights(args, offset + (k * this.weightsnum), m);
+            //
+            for (int p = 0; p < errors.length; p++) {
+                errors[p] = 0.0;
+            }
+            for (int j = 0; j < this.order.length; j++) {
+                net.reset();
+                NetTools.performPopulationForward(
+                    net, this.set.get(this.order[j]), this.features, errors, 0
+                );
+            }
+            for (int p = 0; p < m; p++) {
+                results[resultsoffset + k + p] = errors[p] / size;
+            }
+        }
+    }
+    
+    /**
+     * Computes the objective value and writes its gradient with respect
+     * to the arguments into target.
+     * <br></br>
+     * @param args The arguments (weights).
+     * @param argsoffset The offset of the arguments.
+     * @param target The array for the gradient.
+     * @param targetoffset The offset of the gradient.
+     * @return The objective value.
+     */
+    @Override
+    public double computeGradient(
+        final double[] args, final int argsoffset,
+        final double[] target, final int targetoffset
+    ) {
+        final Net net       = this.net;
+        final double[] sink = this.sink;
+        final int n         = this.weightsnum;
+        //
+        net.writeWeights(args, argsoffset);
+        //
+        // the previous gradient sink of the net is restored afterwards.
+        //
+        final double[] prevsink = net.getGradientSink();
+        net.setGradientSink(sink);
+        //
+        for (int i = 0; i < n; i++) {
+            target[targetoffset + i] = 0.0;
+        }
+        for (int i = 1; i <= n; i++) {
+            sink[i] = 0.0;
+        }
+        //
+        // the sink contains the negative gradient of half the squared
+        // error sums, whereas the sample errors are divided by the number
+        // of output cells and by the target length. thus, the accumulated 
+        // values are scaled whenever the target length changes.
+        //
+        final double scale = -2.0 / (
+            ((double)this.set.size()) * ((double)net.getOutputCells())
+        );
+        final int size     = this.units();
+        double error       = 0.0;
+        int length         = 0;
+        //
+        try {
+            for (int j = 0; j < size; j++) {
+                final int tl = this.targetLength(j);
+                if ((tl != length) && (length > 0)) {
+                    flush(sink, target, targetoffset, n, scale / length);
+                }
+                length = tl;
+                error += this.forward(j);
+                NetTools.performBackward(net);
+            }
+            if (length > 0) {
+                flush(sink, target, targetoffset, n, scale / length);
+            }
+        } finally {
+            net.setGradientSink(prevsink);
+        }
+        return error / ((double)this.set.size());
+    }
+    
+    /**
+     * Adds the scaled sink values to the target and resets the sink.
+     */
+    private static void flush(
+        final double[] sink, final double[] target, final int targetoffset,
+        final int n, final double scale
+    ) {
+        int t = targetoffset;
+        for (int i = 1; i <= n; i++) {
+            target[t++] += scale * sink[i];
+            sink[i] = 0.0;
+        }
+    }
+}
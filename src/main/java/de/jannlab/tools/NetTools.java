@@ -18,6 +18,11 @@
 
 package de.jannlab.tools;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import de.jannlab.Net;
 import de.jannlab.data.Sample;
 import de.jannlab.data.SampleSet;
@@ -43,6 +48,22 @@ public final class NetTools  {
         //
         double error = 0.0; 
         //
+        // if the net provides a batch size greater than 1 the samples
+        // are computed batch-wise.
+        //
+        if (net.getBatchSize() > 1) {
+            final int[] order = new int[set.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            //
+            final int[][] batches = batches(set, order, net.getBatchSize());
+            //
+            for (int[] batch : batches) {
+                net.reset();
+                error += performBatchForward(net, set, batch, null);
+            }
+            return error / ((double)set.size());
+        }
+        //
         // perform forward pass for each sample.
         //
         for (Sample s : set) {
@@ -123,6 +144,10 @@ public final class NetTools  {
             net.setFrameIdx(last);
             //
         } else {
+            //
+            // offline computation requires a frame for each time step.
+            //
+            net.ensureFrameWidth(inputlength);
             //
             // on offline computation, we must feed the net with
             // inputs frame wise and let then the net perform the activation at
@@ -150,6 +175,250 @@ public final class NetTools  {
         return (error / ((double)targetlength));        
     }
   
+    /**
+     * Splits the given sample indices into batches of at most batchsize
+     * indices. All samples of a batch have the same input length and the same
+     * target length, so that they can be computed synchronously in time. 
+     * The order of the given indices is preserved within each batch.
+     * <br></br>
+     * @param set A set of samples.
+     * @param order The sample indices that are to split.
+     * @param batchsize The maximum number of samples per batch.
+     * @return The batches given as arrays of sample indices.
+     */
+    public static int[][] batches(
+            final SampleSet set,
+            final int[] order,
+            final int batchsize
+    ) {
+        //
+        // group indices by sequence lengths.
+        //
+        final Map<Long, List<Integer>> groups = new LinkedHashMap<Long, List<Integer>>();
+        //
+        for (int i = 0; i < order.length; i++) {
+            final Sample sample = set.get(order[i]);
+            final Long key = (
+                (((long)sample.getInputLength()) << 32) | 
+                ((long)sample.getTargetLength())
+            );
+            List<Integer> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(key, group);
+            }
+            group.add(order[i]);
+        }
+        //
+        // split groups into batches.
+        //
+        final List<int[]> result = new ArrayList<int[]>();
+        //
+        for (List<Integer> group : groups.values()) {
+            final int size = group.size();
+            for (int off = 0; off < size; off += batchsize) {
+                final int[] batch = new int[Math.min(batchsize, size - off)];
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = group.get(off + i);
+                }
+                result.add(batch);
+            }
+        }
+        return result.toArray(new int[result.size()][]);
+    }
+    
+    /**
+     * Computes the forward pass of a given net for a batch of samples at
+     * once. The samples are mapped into the batch indices 0 to batch.length - 1
+     * of the net. All samples of the batch must have the same input length and
+     * the same target length (see batches). Unused batch indices receive no error,
+     * thus they do not contribute to the gradient.
+     * Note that this method resets the frame index to zero before
+     * feeding the input into the net.
+     * <br></br>
+     * @param net A network instance.
+     * @param set A set of samples.
+     * @param batch The indices of the samples within the set.
+     * @param features A selection of features or null.
+     * @return The sum of the sample errors, each divided by the target length.
+     */
+    public static double performBatchForward(
+            final Net net,
+            final SampleSet set,
+            final int[] batch,
+            final int[] features
+    ) {
+        final int num = batch.length;
+        //
+        if (num > net.getBatchSize()) {
+            throw new IllegalArgumentException(
+                "number of samples exceeds the batch size of the net."
+            );
+        }
+        //
+        final Sample head         = set.get(batch[0]);
+        final int inputlength     = head.getInputLength();
+        final int targetlength    = head.getTargetLength();
+        final int last            = (inputlength - 1);
+        //
+        // reset time.
+        //
+        net.setFrameIdx(0);
+        //
+        double error = 0.0;
+        //
+        // choose computation paradigm.
+        //
+        if (net.isOnline()) {
+            //
+            // feed all samples for each time step and compute
+            // the activations of the entire batch at once.
+            //
+            for (int t = 0; t <= last; t++) {
+                for (int b = 0; b < num; b++) {
+                    net.setBatchIdx(b);
+                    if (features != null) {
+                        set.get(batch[b]).mapInput(net.inputPort(), t, features);
+                    } else {
+                        set.get(batch[b]).mapInput(net.inputPort(), t);
+                    }
+                }
+                net.compute();
+                if (t < last) net.incrFrameIdx();
+            }
+            //
+            // compute error.
+            //
+            final int first = Math.max(0, inputlength - targetlength);
+            int soff = targetlength - 1;
+            //
+            for (int t = last; t >= first; t--) {
+                for (int b = 0; b < num; b++) {
+                    net.setBatchIdx(b);
+                    set.get(batch[b]).mapTarget(net.targetPort(), soff);
+                    error += net.error();
+                }
+                soff--;
+                if (t > 0) net.decrFrameIdx();
+            }
+            net.setFrameIdx(last);
+            //
+        } else {
+            net.ensureFrameWidth(inputlength);
+            //
+            // feed all samples frame wise and let the net perform 
+            // the activation at once.
+            //
+            for (int t = 0; t <= last; t++) {
+                for (int b = 0; b < num; b++) {
+                    net.setBatchIdx(b);
+                    if (features != null) {
+                        set.get(batch[b]).mapInput(net.inputPort(), t, features);
+                    } else {
+                        set.get(batch[b]).mapInput(net.inputPort(), t);
+                    }
+                }
+                if (t < last) net.incrFrameIdx();
+            }
+            //
+            net.compute();
+            //
+            for (int b = 0; b < num; b++) {
+                net.setBatchIdx(b);
+                set.get(batch[b]).mapTarget(net.targetPort());
+                error += net.error();
+            }
+        }
+        net.setBatchIdx(0);
+        return (error / ((double)targetlength));        
+    }
+  
+    /**
+     * Computes the forward pass of a given net in population mode (see 
+     * Net.writePopulationWeights) for a single sample, which is fed into 
+     * all batch indices. Thus, each weight vector of the population is 
+     * evaluated on the same sample at once. The error of the batch index b, 
+     * divided by the target length, is added to errors[offset + b].
+     * Note that this method resets the frame index to zero before
+     * feeding the input into the net.
+     * <br></br>
+     * @param net A network instance in population mode.
+     * @param sample A sample.
+     * @param features A selection of features or null.
+     * @param errors The array for the errors (at least batch size values).
+     * @param offset The offset within the errors array.
+     */
+    public static void performPopulationForward(
+            final Net net,
+            final Sample sample,
+            final int[] features,
+            final double[] errors,
+            final int offset
+    ) {
+        final int num          = net.getBatchSize();
+        final int inputlength  = sample.getInputLength();
+        final int targetlength = sample.getTargetLength();
+        final int last         = (inputlength - 1);
+        //
+        // reset time.
+        //
+        net.setFrameIdx(0);
+        //
+        if (!net.isOnline()) {
+            net.ensureFrameWidth(inputlength);
+        }
+        //
+        // feed the sample into all batch indices.
+        //
+        for (int t = 0; t <= last; t++) {
+            for (int b = 0; b < num; b++) {
+                net.setBatchIdx(b);
+                if (features != null) {
+                    sample.mapInput(net.inputPort(), t, features);
+                } else {
+                    sample.mapInput(net.inputPort(), t);
+                }
+            }
+            if (net.isOnline()) net.compute();
+            if (t < last) net.incrFrameIdx();
+        }
+        //
+        // offline computation activates all frames at once.
+        //
+        if (!net.isOnline()) {
+            net.compute();
+            for (int b = 0; b < num; b++) {
+                net.setBatchIdx(b);
+                sample.mapTarget(net.targetPort());
+                errors[offset + b] += (net.error() / ((double)targetlength));
+            }
+            net.setBatchIdx(0);
+            return;
+        }
+        //
+        // compute the errors of each batch index in the same order 
+        // as performForward.
+        //
+        final int first = Math.max(0, inputlength - targetlength);
+        //
+        for (int b = 0; b < num; b++) {
+            net.setBatchIdx(b);
+            net.setFrameIdx(last);
+            //
+            double error = 0.0;
+            int soff     = targetlength - 1;
+            //
+            for (int t = last; t >= first; t--) {
+                sample.mapTarget(net.targetPort(), soff--);
+                error += net.error();
+                if (t > 0) net.decrFrameIdx();
+            }
+            errors[offset + b] += (error / ((double)targetlength));
+        }
+        net.setFrameIdx(last);
+        net.setBatchIdx(0);
+    }
+  
     /**
      * Computes the backward pass of a given network.
      * Note that this method resets the frame index to zero before
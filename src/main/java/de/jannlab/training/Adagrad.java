@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+/**
+ * This class implements the Adagrad optimizer, which divides the 
+ * gradient of each weight by the root of the sum of all its squared 
+ * gradients so far. Thus, frequently updated weights get smaller steps
+ * than rarely updated weights (e.g., weights of sparse inputs).
+ * <br></br>
+ * References:
+ * <br></br>
+ * Duchi, John; Hazan, Elad; Singer, Yoram: Adaptive Subgradient Methods 
+ * for Online Learning and Stochastic Optimization. In: Journal of Machine
+ * Learning Research 12 (2011), S. 2121-2159.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class Adagrad extends AdaptiveGradientDescent {
+    //
+    public static final double DEFAULT_MU      = 0.01;
+    public static final double DEFAULT_EPSILON = 1.0e-8;
+    /**
+     * Constant for numerical stability.
+     */
+    private double epsilon = DEFAULT_EPSILON;
+    /**
+     * The sums of the squared gradients.
+     */
+    private double[] v = null;
+    
+    /**
+     * Creates an instance of Adagrad.
+     */
+    public Adagrad() {
+        super(DEFAULT_MU);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append("epsilon            : " + this.epsilon + "\n");
+        //
+        return super.toString() + out.toString();
+    }
+    
+    /**
+     * Returns the constant for numerical stability.
+     * @return Value as double.
+     */
+    public final double getEpsilon() {
+        return this.epsilon;
+    }
+    /**
+     * Sets the constant for numerical stability.
+     * @param value Value as double.
+     */
+    public final void setEpsilon(final double value) {
+        this.epsilon = value;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setupState() {
+        this.v = new double[this.weights.length];
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void step(final double[] gradients) {
+        final double[] weights = this.weights;
+        final double[] v       = this.v;
+        final double mu        = this.mu;
+        final double eps       = this.epsilon;
+        //
+        for (int i = 1; i <= this.weightsnum; i++) {
+            final double g  = gradients[i];
+            final double vi = v[i] + (g * g);
+            v[i] = vi;
+            weights[i] += (mu * g) / (Math.sqrt(vi) + eps);
+            gradients[i] = 0.0;
+        }
+    }
+}
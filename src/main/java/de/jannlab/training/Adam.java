@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+/**
+ * This class implements the Adam optimizer (adaptive moment estimation),
+ * which keeps exponentially decaying averages of the gradients (first
+ * moment) and of the squared gradients (second moment) per weight. The
+ * weight update is given by the bias corrected first moment divided by 
+ * the square root of the bias corrected second moment.
+ * <br></br>
+ * References:
+ * <br></br>
+ * Kingma, Diederik P.; Ba, Jimmy: Adam: A Method for Stochastic 
+ * Optimization. In: International Conference on Learning 
+ * Representations (2015).
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class Adam extends AdaptiveGradientDescent {
+    //
+    public static final double DEFAULT_MU      = 0.001;
+    public static final double DEFAULT_BETA1   = 0.9;
+    public static final double DEFAULT_BETA2   = 0.999;
+    public static final double DEFAULT_EPSILON = 1.0e-8;
+    /**
+     * Decay rate of the first moment.
+     */
+    private double beta1 = DEFAULT_BETA1;
+    /**
+     * Decay rate of the second moment.
+     */
+    private double beta2 = DEFAULT_BETA2;
+    /**
+     * Constant for numerical stability.
+     */
+    private double epsilon = DEFAULT_EPSILON;
+    /**
+     * The first moments.
+     */
+    private double[] m = null;
+    /**
+     * The second moments.
+     */
+    private double[] v = null;
+    /**
+     * beta1^t for the bias correction.
+     */
+    private double beta1t = 1.0;
+    /**
+     * beta2^t for the bias correction.
+     */
+    private double beta2t = 1.0;
+    
+    /**
+     * Creates an instance of Adam.
+     */
+    public Adam() {
+        super(DEFAULT_MU);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append("beta1              : " + this.beta1 + "\n");
+        out.append("beta2              : " + this.beta2 + "\n");
+        out.append("epsilon            : " + this.epsilon + "\n");
+        //
+        return super.toString() + out.toString();
+    }
+    
+    /**
+     * Returns the decay rate of the first moment.
+     * @return Value as double.
+     */
+    public final double getBeta1() {
+        return this.beta1;
+    }
+    /**
+     * Sets the decay rate of the first moment.
+     * @param value Value as double.
+     */
+    public final void setBeta1(final double value) {
+        this.beta1 = value;
+    }
+    /**
+     * Returns the decay rate of the second moment.
+     * @return Value as double.
+     */
+    public final double getBeta2() {
+        return this.beta2;
+    }
+    /**
+     * Sets the decay rate of the second moment.
+     * @param value Value as double.
+     */
+    public final void setBeta2(final double value) {
+        this.beta2 = value;
+    }
+    /**
+     * Returns the constant for numerical stability.
+     * @return Value as double.
+     */
+    public final double getEpsilon() {
+        return this.epsilon;
+    }
+    /**
+     * Sets the constant for numerical stability.
+     * @param value Value as double.
+     */
+    public final void setEpsilon(final double value) {
+        this.epsilon = value;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setupState() {
+        this.m      = new double[this.weights.length];
+        this.v      = new double[this.weights.length];
+        this.beta1t = 1.0;
+        this.beta2t = 1.0;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void step(final double[] gradients) {
+        final double[] weights = this.weights;
+        final double[] m       = this.m;
+        final double[] v       = this.v;
+        final double b1        = this.beta1;
+        final double b2        = this.beta2;
+        final double eps       = this.epsilon;
+        //
+        this.beta1t *= b1;
+        this.beta2t *= b2;
+        //
+        // the bias corrections are merged into the step size and
+        // the epsilon: mu * m^ / (sqrt(v^) + eps).
+        //
+        final double c2   = Math.sqrt(1.0 - this.beta2t);
+        final double rate = (this.mu * c2) / (1.0 - this.beta1t);
+        final double epsc = eps * c2;
+        //
+        for (int i = 1; i <= this.weightsnum; i++) {
+            final double g  = gradients[i];
+            final double mi = (b1 * m[i]) + ((1.0 - b1) * g);
+            final double vi = (b2 * v[i]) + ((1.0 - b2) * (g * g));
+            m[i] = mi;
+            v[i] = vi;
+            weights[i] += (rate * mi) / (Math.sqrt(vi) + epsc);
+            gradients[i] = 0.0;
+        }
+    }
+}
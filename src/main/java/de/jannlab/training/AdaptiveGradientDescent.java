@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+import de.jannlab.data.SampleSet;
+import de.jannlab.misc.IntTools;
+import de.jannlab.tools.NetTools;
+
+/**
+ * This class is the base class of gradient descent trainers with adaptive
+ * per-weight learning rates (e.g., Adam, RMSProp or Adagrad). It performs
+ * the forward and backward passes of each epoch, whereas the subclasses 
+ * only implement the update step of the weights. The validation and the 
+ * early stopping are performed by the common epoch loop (see 
+ * NetTrainer.iterateEpochs). The per-weight states of the subclasses are flat
+ * arrays which are indexed like the weights vector (index 0 is unused).
+ * They are allocated once in init, so training does not allocate memory
+ * per step.
+ * <br></br>
+ * The gradients are accumulated by the net within the backward pass (see
+ * Net.setGradientSink). They are given in descent direction, i.e., adding
+ * a gradient to the weights reduces the error. In online mode the weights
+ * are updated after each sample (or batch, if the net provides a batch size
+ * greater than 1), in offline mode they are updated once per epoch with
+ * the summed gradients. In offline mode the gradients can be computed by
+ * several threads (see setThreads).
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public abstract class AdaptiveGradientDescent extends NetTrainer {
+    //
+    public static final int     DEFAULT_VLDINTERVAL     = 5;
+    public static final boolean DEFAULT_EARLYSTOP       = false;
+    public static final int     DEFAULT_EARLYSTOPCOUNT  = 10;
+    public static final double  DEFAULT_TARGETERROR     = 0.0;
+    public static final boolean DEFAULT_ONLINE          = true;
+    public static final boolean DEFAULT_PERMUTE         = true;
+    public static final int     DEFAULT_THREADS         = 1;
+    /**
+     * Containing the permutation of the trainset.
+     */
+    private int[] permutation = null;
+    /**
+     * Do online or offline sampling?
+     */
+    private boolean online = DEFAULT_ONLINE;
+    /**
+     * Learning rate.
+     */
+    protected double mu = 0.0;
+    /**
+     * Validation interval.
+     */
+    private int validint = DEFAULT_VLDINTERVAL;
+    /**
+     * Use early stopping?
+     */
+    private boolean earlystop = DEFAULT_EARLYSTOP;
+    /**
+     * Early stopping count.
+     */
+    private int earlystopcount = DEFAULT_EARLYSTOPCOUNT;
+    /**
+     * Permute training set?
+     */
+    private boolean permute = DEFAULT_PERMUTE;
+    /**
+     * Weights vector of the reference network.
+     */
+    protected double[] weights = null;
+    /**
+     * Number of weights of the reference network.
+     */
+    protected int weightsnum = 0;
+    /**
+     * The accumulated gradients (the gradient sink of the reference network).
+     */
+    private double[] gradients = null;
+    /**
+     * Number of threads for offline training.
+     */
+    private int threads = DEFAULT_THREADS;
+    /**
+     * The workers for parallel offline training.
+     */
+    private GradientWorkers workers = null;
+
+    /**
+     * Creates an instance of AdaptiveGradientDescent.
+     * <br></br>
+     * @param mu The default learning rate.
+     */
+    protected AdaptiveGradientDescent(final double mu) {
+        //
+        this.mu          = mu;
+        this.targeterror = DEFAULT_TARGETERROR;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        //
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append("permute            : " + this.permute + "\n");
+        out.append("online:            : " + this.online + "\n");
+        out.append("targeterror        : " + this.targeterror + "\n");
+        out.append("epochs             : " + this.epochs + "\n");
+        out.append("learningrate       : " + this.mu     + "\n");
+        out.append("validationinterval : " + this.validint + "\n");
+        out.append("earlystopping      : " + this.earlystop + "\n");
+        out.append("earlystoppingcount : " + this.earlystopcount +  "\n");
+        out.append("threads            : " + this.threads + "\n");
+        //
+        return super.toString() + out.toString();
+    }
+
+    /**
+     * Returns of the weights are updated online or offline.
+     */
+    public boolean getOnline() {
+        return this.online;
+    }
+    /**
+     * Sets if to update weights online or offline.
+     */
+    public void setOnline(final boolean value) {
+        this.online = value;
+    }
+    /**
+     * Returns if to permute the training set.
+     */
+    public boolean getPermute() {
+        return this.permute;
+    }
+    /**
+     * Sets if to permute the training set.
+     * @param value Value as boolean.
+     */
+    public void setPermute(final boolean value) {
+        this.permute = value;
+    }
+    /**
+     * Returns validation interval.
+     */
+    public int getValidationInterval() {
+        return this.validint;
+    }
+    /**
+     * Sets validation interval.
+     * @param value Value as int.
+     */
+    public void setValidationInterval(final int value) {
+        this.validint = Math.max(1, value);
+    }
+    /**
+     * Return if to use early stopping.
+     */
+    public boolean getEarlyStopping() {
+        return this.earlystop;
+    }
+    /**
+     * Sets if to use early stopping.
+     * @param value Value as boolean.
+     */
+    public void setEarlyStopping(final boolean value) {
+        this.earlystop = value;
+    }
+    /**
+     * Sets the number of misses before early stopping.
+     * @param value Value as int.
+     */
+    public void setEarlyStoppingCount(final int value) {
+        this.earlystopcount = value;
+    }
+    /**
+     * Returns the number of threads for offline training.
+     */
+    public final int getThreads() {
+        return this.threads;
+    }
+    /**
+     * Sets the number of threads for offline training. Each thread
+     * computes the gradients of a contiguous part of the epoch with its 
+     * own shared copy of the net. The gradients of the threads are summed
+     * by a tree reduction in fixed order, thus the training is reproducible
+     * for a fixed number of threads. Online training is not affected.
+     * <br></br>
+     * @param threads Value as int.
+     */
+    public final void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    /**
+     * Returns the learning rate.
+     */
+    public final double getLearningRate() {
+        return this.mu;
+    }
+    /**
+     * Sets the learning rate.
+     * @param mu Value as double.
+     */
+    public final void setLearningRate(final double mu) {
+        this.mu = mu;
+    }
+
+    /**
+     * Allocates and resets the per-weight states of the update rule.
+     * This method is called by init, when weights and weightsnum are
+     * already assigned.
+     */
+    protected abstract void setupState();
+
+    /**
+     * Performs the update step of the weights for the given gradients.
+     * The method must also reset the gradients (set them to 0.0) for
+     * the next step, which saves an extra pass over the weights. In offline
+     * mode, trainerror already contains the error of the current epoch,
+     * which corresponds to the weights before the step.
+     * <br></br>
+     * @param gradients The accumulated gradients in descent direction.
+     */
+    protected abstract void step(final double[] gradients);
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void init() {
+        super.init();
+        //
+        this.permutation = new int[this.trainset.size()];
+        for (int i = 0; i < this.permutation.length; i++) {
+            this.permutation[i] = i;
+        }
+        this.weights    = this.net.getWeights();
+        this.weightsnum = this.net.getWeightsNum();
+        this.gradients  = new double[this.weights.length];
+        //
+        // the gradients are accumulated by the net
+        // within the backward pass.
+        //
+        this.net.setGradientSink(this.gradients);
+        //
+        // recurrent nets need a frame for each time step of the
+        // longest sequence (the buffers grow only if necessary).
+        //
+        if (this.net.isRecurrent()) {
+            this.net.ensureFrameWidth(this.trainset.maxSequenceLength());
+        }
+        //
+        this.setupState();
+        //
+        // the workers are copied from the prepared net.
+        //
+        if (!this.online && (this.threads > 1)) {
+            this.releaseWorkers();
+            this.workers = new GradientWorkers(
+                this.net, this.gradients, this.threads, this.features
+            );
+        }
+        //
+        this.epoch           = 0;
+        this.validationerror = 0.0;
+        this.trainerror      = 0.0;
+        //
+    }
+
+    /**
+     * Releases the workers.
+     */
+    private void releaseWorkers() {
+        if (this.workers != null) {
+            this.workers.release();
+        }
+        this.workers = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void trainEpoch(final int epoch) {
+        final SampleSet tset = this.trainset;
+        final int tsetsize   = this.permutation.length;
+        //
+        double epocherror = 0.0;
+        if (this.permute) {
+            IntTools.shuffle(this.permutation, this.rnd);
+        }
+        //
+        // if the net provides a batch size greater than 1 the
+        // samples are computed batch-wise.
+        //
+        final int[][] batches = (this.net.getBatchSize() > 1)?(
+            NetTools.batches(tset, this.permutation, this.net.getBatchSize())
+        ):(null);
+        final int size = (batches != null)?(batches.length):(tsetsize);
+        //
+        if (this.online) {
+            //
+            // update weights after each sample or batch.
+            //
+            for (int j = 0; j < size; j++) {
+                epocherror += GradientWorkers.performRange(
+                    this.net, tset, this.permutation, batches,
+                    this.features, j, j + 1
+                );
+                this.step(this.gradients);
+                this.net.syncWeights();
+            }
+            this.trainerror = (epocherror / (double)tsetsize);
+        } else {
+            //
+            // the gradients of the epoch are computed in
+            // parallel, if configured.
+            //
+            if (this.workers == null) {
+                epocherror += GradientWorkers.performRange(
+                    this.net, tset, this.permutation, batches,
+                    this.features, 0, size
+                );
+            } else {
+                epocherror += this.workers.perform(
+                    tset, this.permutation, batches
+                );
+            }
+            this.trainerror = (epocherror / (double)tsetsize);
+            //
+            this.step(this.gradients);
+            this.net.syncWeights();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    synchronized
+    public void train() {
+        //
+        this.init();
+        //
+        this.notifyStarted();
+        //
+        try {
+            this.iterateEpochs(
+                this.validint, this.earlystop, this.earlystopcount
+            );
+        } finally {
+            //
+            // the workers and the gradient sink are released even if
+            // the training fails.
+            //
+            this.releaseWorkers();
+            this.net.setGradientSink(null);
+        }
+        //
+        this.notifyFinished();
+    }
+}
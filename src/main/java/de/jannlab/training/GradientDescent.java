@@ -18,10 +18,8 @@
 
 package de.jannlab.training;
 
-import de.jannlab.core.Link;
 import de.jannlab.data.Sample;
 import de.jannlab.data.SampleSet;
-import de.jannlab.misc.DoubleTools;
 import de.jannlab.misc.IntTools;
 import de.jannlab.tools.NetTools;
 
@@ -41,6 +39,7 @@ public final class GradientDescent extends NetTrainer {
     public static final double  DEFAULT_TARGETERROR     = 0.0;
     public static final boolean DEFAULT_ONLINE          = true;
     public static final boolean DEFAULT_PERMUTE         = true;
+    public static final int     DEFAULT_THREADS         = 1;
     /**
      * Containing the permutation of the trainset.
      */
@@ -86,17 +85,18 @@ public final class GradientDescent extends NetTrainer {
      */
     private double[] dweightslast = null;
     /**
-     *  The current weight differences.
+     *  The current weight differences, which are also used as the
+     *  gradient sink of the reference network.
      */
     private double[] dweights = null;
     /**
-     * The links of the reference network.
+     * Number of threads for offline training.
      */
-    private int[] links = null;
+    private int threads = DEFAULT_THREADS;
     /**
-     * The number of links.
+     * The workers for parallel offline training.
      */
-    private int  linksnum = 0;
+    private GradientWorkers workers = null;
     
     /*
     // # DEBUG #
@@ -139,6 +139,7 @@ public final class GradientDescent extends NetTrainer {
         out.append("validationinterval : " + this.validint + "\n");
         out.append("earlystopping      : " + this.earlystop + "\n");
         out.append("earlystoppingcount : " + this.earlystopcount +  "\n");
+        out.append("threads            : " + this.threads + "\n");
         //
         return super.toString() + out.toString();
     }
@@ -228,6 +229,26 @@ public final class GradientDescent extends NetTrainer {
     public final void setMomentum(final double alpha) {
         this.alpha = alpha;
     }
+    /**
+     * Returns the number of threads for offline training.
+     * @return Value as int.
+     */
+    public final int getThreads() {
+        return this.threads;
+    }
+    /**
+     * Sets the number of threads for offline training. Each thread
+     * computes a contiguous part of the permuted training set (or of its
+     * batches) with its own shared copy of the network. The weight
+     * differences of the threads are summed by a tree reduction in fixed 
+     * order, thus the training is reproducible for a fixed number of threads. 
+     * Due to the different order of summation, the results differ slightly 
+     * from the sequential training. Online training is always sequential.
+     * @param threads Value as int.
+     */
+    public final void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
    
     /**
      * {@inheritDoc}
@@ -245,8 +266,24 @@ public final class GradientDescent extends NetTrainer {
         this.dweightslast = new double[this.weights.length];
         //
         this.weightsnum = net.getWeightsNum();
-        this.links      = net.getLinks(); 
-        this.linksnum   = net.getLinksNum();
+        //
+        // the weight differences are accumulated by the net
+        // within the backward pass.
+        //
+        this.net.setGradientSink(this.dweights);
+        //
+        // recurrent nets need a frame for each time step of the
+        // longest sequence (the buffers grow only if necessary).
+        //
+        if (this.net.isRecurrent()) {
+            this.net.ensureFrameWidth(this.trainset.maxSequenceLength());
+        }
+        //
+        // the workers are copied from the prepared net.
+        //
+        if (!this.online && (this.threads > 1)) {
+            this.setupWorkers();
+        }
         //
         this.epoch           = 0;
         this.validationerror = 0.0;
@@ -269,47 +306,47 @@ public final class GradientDescent extends NetTrainer {
     }
     
     /**
-     * Accumulates the weight differences for the given frame index (time index) 
-     * and the current gradient results.
-     * @param frameidx Frame index (time index).
+     * Creates the workers for parallel offline training.
      */
-    private void accumulateWeightsDiffs(final int frameidx) {
-        //
-        // collect deltas * activations .
+    private void setupWorkers() {
+        this.releaseWorkers();
+        this.workers = new GradientWorkers(
+            this.net, this.dweights, this.threads, this.features
+        );
+    }
+    
+    /**
+     * Releases the workers.
+     */
+    private void releaseWorkers() {
+        if (this.workers != null) {
+            this.workers.release();
+        }
+        this.workers = null;
+    }
+    
+    /**
+     * Computes the forward and backward passes for all samples of the given
+     * set and accumulates the weight differences. If the net provides a batch 
+     * size greater than 1 the samples are computed batch-wise, where the 
+     * batches are built from the current permutation. With more than one 
+     * thread the epoch is distributed to the workers.
+     * <br></br>
+     * @param tset The training set.
+     * @return The sum of the sample errors.
+     */
+    private double performEpoch(final SampleSet tset) {
+        final int[][] batches = (this.net.getBatchSize() > 1)?(
+            NetTools.batches(tset, this.permutation, this.net.getBatchSize())
+        ):(null);
+        final int size = (batches != null)?(batches.length):(this.permutation.length);
         //
-        for (int t = 0; t <= frameidx; t++) {
-            //
-            final double[] outputs = this.net.getOutputBuffer(t);
-            final double[] deltas  = this.net.getGradOutputBuffer(t);
-            //
-            /*
-            // # DEBUG #
-            final double[] deltasin = net.getGradInputBuffer(t);
-            for (int i = 0; i < deltas.length; i++) {
-                this.deltasdbg[i] += Math.abs(deltas[i]);
-                this.deltasindbg[i] += Math.abs(deltasin[i]);
-            }
-            // #
-            */
-            int off = 0;
-            //
-            for (int i = 0; i < this.linksnum; i++) {
-                //
-                final int src  = this.links[off + Link.IDX_SRC];
-                final int dst  = this.links[off + Link.IDX_DST];
-                final int widx = this.links[off + Link.IDX_WEIGHT];
-                //
-                if (widx > 0) {
-                    final double dk = deltas[dst];
-                    final double xj = outputs[src];
-                    //                     
-                    final double dw = (dk * xj);
-                    this.dweights[widx] += (dw);
-                }
-                //
-                off += Link.LINK_SIZE;
-            }
+        if (this.workers == null) {
+            return GradientWorkers.performRange(
+                this.net, tset, this.permutation, batches, this.features, 0, size
+            );
         }
+        return this.workers.perform(tset, this.permutation, batches);
     }
     
     /**
@@ -343,145 +380,94 @@ public final class GradientDescent extends NetTrainer {
             // #
             */
         }
-        
+        this.net.syncWeights();
     }
     
     /**
      * {@inheritDoc}
      */
     @Override
-    synchronized
-    public void train() {
-        //
-        this.init();
-        //
-        this.notifyStarted();
-        //
-        // iterate epochs.
-        //
+    protected void trainEpoch(final int epoch) {
         final SampleSet tset = this.trainset;
         final int tsetsize   = this.permutation.length;
         //
-        int count           = 0;
-        int nbetterctr      = 0;
-        double[] minweights = this.net.getWeights().clone();
-        double minerror = Double.MAX_VALUE;
+        double epocherror = 0.0;
+        if (this.permute) {
+            IntTools.shuffle(this.permutation, this.rnd);
+        }
         //
-        for (int i = 0; i < this.epochs; i++) {
-            this.epoch = i;
-            //
-            double epocherror = 0.0;
-            if (this.permute) {
-                IntTools.shuffle(this.permutation, this.rnd);
-            }
+        // do online or offline gradient descent?
+        //
+        if (this.online) {
             //
-            // do online or offline gradient descent?
+            // for all patterns in trainset.
             //
-            if (this.online) {
+            for (int j = 0; j < tsetsize; j++) {
                 //
-                // for all patterns in trainset.
+                // determine permuted index and sample.
                 //
-                for (int j = 0; j < tsetsize; j++) {
-                    //
-                    // determine permuted index and sample.
-                    //
-                    final int idx = this.permutation[j];
-                    final Sample sample = tset.get(idx);
-                    //
-                    // compute forward pass.
-                    //
-                    this.net.reset();
-                    final double err = NetTools.performForward(
-                        this.net, sample, this.features
-                    );
-                    final int frameidx = this.net.getFrameIdx();
-                    //
-                    // compute backward pass.
-                    //
-                    NetTools.performBackward(this.net);
-                    //
-                    // compute weight differences and adjust weights.
-                    //
-                    this.resetWeightDiffs();
-                    this.accumulateWeightsDiffs(frameidx);
-                    this.computeWeightDiffs();
-                    this.adjustWeights();
-                    //
-                    epocherror += err;
-                }
-            } else {
+                final int idx = this.permutation[j];
+                final Sample sample = tset.get(idx);
                 //
-                // for all patterns in trainset.
+                // compute forward pass.
                 //
                 this.resetWeightDiffs();
-                for (int j = 0; j < tsetsize; j++) {
-                    //
-                    // determine permuted index and sample.
-                    //
-                    final int idx = this.permutation[j];
-                    final Sample sample = tset.get(idx);
-                    //
-                    // compute forward pass.
-                    //
-                    this.net.reset();
-                    final double err = NetTools.performForward(
-                        this.net, sample, this.features
-                    );
-                    final int frameidx = this.net.getFrameIdx();
-                    //
-                    // compute backward pass.
-                    //
-                    NetTools.performBackward(this.net);
-                    //
-                    // compute weight differences and adjust weights.
-                    //
-                    this.accumulateWeightsDiffs(frameidx);
-                    //
-                    epocherror += err;
-                }                    
+                this.net.reset();
+                final double err = NetTools.performForward(
+                    this.net, sample, this.features
+                );
+                //
+                // compute backward pass, which accumulates
+                // the weight differences.
+                //
+                NetTools.performBackward(this.net);
+                //
+                // compute weight differences and adjust weights.
+                //
                 this.computeWeightDiffs();
                 this.adjustWeights();
+                //
+                epocherror += err;
             }
+        } else {
             //
-            epocherror = (epocherror / (double)tsetsize);
-            this.trainerror = epocherror;
-            //
-            if ((this.trainset == this.validationset) || (this.validationset == null)) {
-                this.validationerror = this.trainerror;
-            } else {
-                if ((i % this.validint) == 0) {
-                    this.validationerror = NetTools.computeError(net, this.validationset); 
-                }
-            }
+            // for all patterns in trainset.
             //
-            if ((i % this.validint) == 0) {
-                if (this.validationerror < minerror) {
-                    minerror   = this.validationerror;
-                    minweights = this.weights.clone();
-                    nbetterctr = 0;
-                } else {
-                    nbetterctr++;
-                }
-            }
+            this.resetWeightDiffs();
             //
-            this.notifyEpoch();
+            // the samples are computed batch-wise and in
+            // parallel, if configured.
             //
-            // early stopping.
-            //
-            if (nbetterctr > this.earlystopcount) {
-                if (this.earlystop) break;
-            }
-            if (this.validationerror < this.targeterror) {
-                break;
-            }
-            count++;
+            epocherror += this.performEpoch(tset);
+            this.computeWeightDiffs();
+            this.adjustWeights();
         }
         //
-        // take best weights.
+        this.trainerror = (epocherror / (double)tsetsize);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    synchronized
+    public void train() {
+        //
+        this.init();
         //
-        if (count > 0) {
-            this.validationerror = minerror;
-            DoubleTools.copy(minweights, 1, this.weights, 1, this.weightsnum);
+        this.notifyStarted();
+        //
+        try {
+            this.iterateEpochs(
+                this.validint, this.earlystop, this.earlystopcount
+            );
+        } finally {
+            //
+            // the workers and the gradient sink are released even if
+            // the training fails.
+            //
+            this.releaseWorkers();
+            this.net.setGradientSink(null);
         }
         //
         this.notifyFinished();
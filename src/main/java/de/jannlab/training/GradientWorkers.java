@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import de.jannlab.Net;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.tools.NetTools;
+import de.jannlab.training.exception.NetTrainerException;
+
+/**
+ * This class computes the summed gradients of a training epoch with
+ * several worker threads (data parallelism). The first worker is the
+ * reference network, the others are shared copies of it, each with its own
+ * gradient sink. Each worker computes a contiguous range of the permuted
+ * training set (or of its batches). Afterwards, the gradients of the
+ * workers are summed into the gradient sink of the reference network by a
+ * binary tree reduction in fixed order, thus the results are reproducible
+ * for a fixed number of threads.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+final class GradientWorkers {
+    /**
+     * The worker networks.
+     */
+    private final Net[] workers;
+    /**
+     * The gradient sinks of the workers. The first one is the sink
+     * of the reference network.
+     */
+    private final double[][] sinks;
+    /**
+     * Number of weights.
+     */
+    private final int weightsnum;
+    /**
+     * Gives a feature selection (null => select all)
+     */
+    private final int[] features;
+    /**
+     * The executor of the worker threads.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Creates the workers for the given reference network, which must
+     * already be prepared for training (e.g., frame width).
+     * <br></br>
+     * @param net The reference network.
+     * @param sink The gradient sink of the reference network.
+     * @param threads The number of threads (at least 2).
+     * @param features A feature selection or null.
+     */
+    GradientWorkers(
+        final Net net, final double[] sink,
+        final int threads, final int[] features
+    ) {
+        this.workers    = new Net[threads];
+        this.sinks      = new double[threads][];
+        this.weightsnum = net.getWeightsNum();
+        this.features   = features;
+        //
+        this.workers[0] = net;
+        this.sinks[0]   = sink;
+        net.setGradientSink(sink);
+        //
+        for (int i = 1; i < threads; i++) {
+            final Net worker = net.sharedCopy();
+            //
+            // the workers already run in parallel.
+            //
+            worker.setExecutor(null);
+            this.sinks[i] = new double[sink.length];
+            worker.setGradientSink(this.sinks[i]);
+            this.workers[i] = worker;
+        }
+        this.executor = Executors.newFixedThreadPool(
+            threads - 1, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable task) {
+                    final Thread thread = new Thread(task);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            }
+        );
+    }
+
+    /**
+     * Shuts the executor down.
+     */
+    void release() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        this.executor = null;
+    }
+
+    /**
+     * Computes the forward and backward passes of the given net for a range
+     * of an epoch, which accumulates the gradients into the gradient sink
+     * of the net. If batches are given, the range refers to the batches,
+     * otherwise it refers to the given permutation.
+     * <br></br>
+     * @param net The computing net.
+     * @param tset The training set.
+     * @param permutation The permutation of the training set.
+     * @param batches The batches or null.
+     * @param features A feature selection or null.
+     * @param lbd The first batch or sample (inclusive).
+     * @param ubd The last batch or sample (exclusive).
+     * @return The sum of the sample errors.
+     */
+    static double performRange(
+        final Net net, final SampleSet tset,
+        final int[] permutation, final int[][] batches,
+        final int[] features, final int lbd, final int ubd
+    ) {
+        double error = 0.0;
+        //
+        for (int j = lbd; j < ubd; j++) {
+            //
+            // compute forward pass.
+            //
+            net.reset();
+            if (batches != null) {
+                error += NetTools.performBatchForward(
+                    net, tset, batches[j], features
+                );
+            } else {
+                final Sample sample = tset.get(permutation[j]);
+                error += NetTools.performForward(net, sample, features);
+            }
+            //
+            // compute backward pass, which accumulates
+            // the gradients.
+            //
+            NetTools.performBackward(net);
+        }
+        return error;
+    }
+
+    /**
+     * Computes the summed gradients of all samples of the given set and
+     * accumulates them into the gradient sink of the reference network,
+     * which must have been reset before.
+     * <br></br>
+     * @param tset The training set.
+     * @param permutation The permutation of the training set.
+     * @param batches The batches or null.
+     * @return The sum of the sample errors.
+     */
+    double perform(
+        final SampleSet tset, final int[] permutation, final int[][] batches
+    ) {
+        final int size = (batches != null)?(batches.length):(permutation.length);
+        //
+        // each worker computes a contiguous range.
+        //
+        final int n            = this.workers.length;
+        final double[] errors  = new double[n];
+        final Runnable[] tasks = new Runnable[n];
+        //
+        for (int w = 0; w < n; w++) {
+            final int idx = w;
+            final int lbd = (int)(((long)size * w) / n);
+            final int ubd = (int)(((long)size * (w + 1)) / n);
+            //
+            tasks[w] = new Runnable() {
+                @Override
+                public void run() {
+                    final GradientWorkers self = GradientWorkers.this;
+                    //
+                    // the first sink has already been reset.
+                    //
+                    if (idx > 0) {
+                        final double[] sink = self.sinks[idx];
+                        for (int i = 1; i <= self.weightsnum; i++) {
+                            sink[i] = 0.0;
+                        }
+                    }
+                    errors[idx] = performRange(
+                        self.workers[idx], tset, permutation, batches,
+                        self.features, lbd, ubd
+                    );
+                }
+            };
+        }
+        this.execute(tasks);
+        this.reduce();
+        //
+        double error = 0.0;
+        for (int w = 0; w < n; w++) {
+            error += errors[w];
+        }
+        return error;
+    }
+
+    /**
+     * Performs the given tasks concurrently using the executor and waits
+     * until all tasks are finished. The first task is performed by the
+     * calling thread.
+     * <br></br>
+     * @param tasks The tasks.
+     */
+    private void execute(final Runnable[] tasks) {
+        final Future<?>[] futures = new Future<?>[tasks.length];
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = this.executor.submit(tasks[i]);
+        }
+        tasks[0].run();
+        //
+        // join.
+        //
+        try {
+            for (int i = 1; i < tasks.length; i++) {
+                futures[i].get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetTrainerException("parallel training interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new NetTrainerException("parallel training failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Sums the gradients of all workers into the first sink by a binary
+     * tree reduction. The order of summation only depends on the number of
+     * workers. The weight vector is split into slices which are reduced
+     * concurrently.
+     */
+    private void reduce() {
+        final double[][] buffers = this.sinks;
+        final int n              = buffers.length;
+        final Runnable[] tasks   = new Runnable[n];
+        //
+        for (int s = 0; s < n; s++) {
+            final int lbd = 1 + (int)(((long)this.weightsnum * s) / n);
+            final int ubd = 1 + (int)(((long)this.weightsnum * (s + 1)) / n);
+            //
+            tasks[s] = new Runnable() {
+                @Override
+                public void run() {
+                    for (int step = 1; step < n; step <<= 1) {
+                        for (int i = 0; (i + step) < n; i += (step << 1)) {
+                            final double[] dst = buffers[i];
+                            final double[] src = buffers[i + step];
+                            for (int k = lbd; k < ubd; k++) {
+                                dst[k] += src[k];
+                            }
+                        }
+                    }
+                }
+            };
+        }
+        this.execute(tasks);
+    }
+}
@@ -0,0 +1,613 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jannlab.Net;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.misc.IntTools;
+import de.jannlab.tools.NetTools;
+import de.jannlab.training.exception.NetTrainerException;
+
+/**
+ * This class implements an asynchronous variant of online gradient descent
+ * (Hogwild). Several threads perform online gradient descent steps on their
+ * own shared copies of the reference network and write their weight
+ * differences directly into the shared weights vector without any locking.
+ * Concurrent updates of the same weight may overwrite each other, which
+ * is tolerable if the weight updates are sparse (e.g., for one-hot inputs),
+ * because then collisions are rare. Weights with a gradient of exactly 0.0
+ * are not written at all.
+ * <br></br>
+ * Optionally, a momentum can be used. The momentum buffers are striped,
+ * i.e., each thread uses one of several momentum buffers, which are shared
+ * by the threads of the same stripe. By default, each thread has its
+ * own buffer.
+ * <br></br>
+ * The trainer measures the throughput (samples per second) and the
+ * staleness of the updates, which is the number of updates performed by
+ * other threads between the forward pass of a sample and the update based
+ * on its gradient.
+ * <br></br>
+ * Note that the results are not reproducible, because they depend on the
+ * thread scheduling. For single precision networks the shared single
+ * precision weights are synchronized after each update.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class HogwildGradientDescent extends NetTrainer {
+    //
+    public static final double  DEFAULT_ALPHA           = 0.0;
+    public static final double  DEFAULT_MU              = 0.0001;
+    public static final int     DEFAULT_VLDINTERVAL     = 5;
+    public static final int     DEFAULT_EPOCHS          = 100;
+    public static final double  DEFAULT_TARGETERROR     = 0.0;
+    public static final boolean DEFAULT_PERMUTE         = true;
+    public static final int     DEFAULT_THREADS         =
+        Runtime.getRuntime().availableProcessors();
+    public static final int     DEFAULT_STRIPES         = 0;
+    /**
+     * Containing the permutation of the trainset.
+     */
+    private int[] permutation = null;
+    /**
+     * Learning rate.
+     */
+    private double mu = DEFAULT_MU;
+    /**
+     * Momentum factor.
+     */
+    private double alpha = DEFAULT_ALPHA;
+    /**
+     * Validation interval.
+     */
+    private int  validint = DEFAULT_VLDINTERVAL;
+    /**
+     * Permute training set?
+     */
+    private boolean permute = DEFAULT_PERMUTE;
+    /**
+     * Number of threads.
+     */
+    private int threads = DEFAULT_THREADS;
+    /**
+     * Number of momentum buffers (values less than 1 refer to one buffer
+     * per thread).
+     */
+    private int stripes = DEFAULT_STRIPES;
+    /**
+     * Weights vector of the reference network.
+     */
+    private double[] weights = null;
+    /**
+     * Number of weights of the reference network.
+     */
+    private int weightsnum = 0;
+    /**
+     * The worker networks. The first worker is the reference network,
+     * the others are shared copies of it.
+     */
+    private Net[] workers = null;
+    /**
+     * The gradient sinks of the workers.
+     */
+    private double[][] gradients = null;
+    /**
+     * The momentum buffers (null without momentum).
+     */
+    private double[][] momentums = null;
+    /**
+     * Counts the performed updates (the logical clock for the staleness).
+     */
+    private final AtomicLong clock = new AtomicLong();
+    /**
+     * The summed staleness of the last epoch per worker.
+     */
+    private long[] stalenesssum = null;
+    /**
+     * The maximum staleness of the last epoch per worker.
+     */
+    private long[] stalenessmax = null;
+    /**
+     * The number of updates of the last epoch per worker.
+     */
+    private long[] updates = null;
+    /**
+     * The mean staleness of the last epoch.
+     */
+    private double staleness = 0.0;
+    /**
+     * The maximum staleness of the last epoch.
+     */
+    private long maxstaleness = 0;
+    /**
+     * The throughput of the last epoch in samples per second.
+     */
+    private double throughput = 0.0;
+    /**
+     * The executor for the workers.
+     */
+    private ExecutorService executor = null;
+
+    /**
+     * Creates an instance of HogwildGradientDescent.
+     */
+    public HogwildGradientDescent() {
+        //
+        this.targeterror = DEFAULT_TARGETERROR;
+        this.epochs      = DEFAULT_EPOCHS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        //
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append("permute            : " + this.permute + "\n");
+        out.append("targeterror        : " + this.targeterror + "\n");
+        out.append("epochs             : " + this.epochs + "\n");
+        out.append("learningrate       : " + this.mu     + "\n");
+        out.append("momentum           : " + this.alpha  + "\n");
+        out.append("validationinterval : " + this.validint + "\n");
+        out.append("threads            : " + this.threads + "\n");
+        out.append("stripes            : " + this.stripes + "\n");
+        //
+        return super.toString() + out.toString();
+    }
+
+    /**
+     * Returns if to permute the training set.
+     */
+    public boolean getPermute() {
+        return this.permute;
+    }
+    /**
+     * Sets if to permute the training set.
+     * @param value Value as boolean.
+     */
+    public void setPermute(final boolean value) {
+        this.permute = value;
+    }
+    /**
+     * Returns validation interval.
+     */
+    public int getValidationInterval() {
+        return this.validint;
+    }
+    /**
+     * Sets validation interval.
+     * @param value Value as int.
+     */
+    public void setValidationInterval(final int value) {
+        this.validint = Math.max(1, value);
+    }
+    /**
+     * Returns the learning rate.
+     */
+    public final double getLearningRate() {
+        return this.mu;
+    }
+    /**
+     * Sets the learning rate.
+     * @param mu Value as double.
+     */
+    public final void setLearningRate(final double mu) {
+        this.mu = mu;
+    }
+    /**
+     * Return the momentum factor.
+     * @return Value as double.
+     */
+    public final double getMomentum() {
+        return this.alpha;
+    }
+    /**
+     * Sets the momentum factor. A factor of 0.0 (default) disables
+     * the momentum buffers.
+     * @param alpha Value as double.
+     */
+    public final void setMomentum(final double alpha) {
+        this.alpha = alpha;
+    }
+    /**
+     * Returns the number of threads.
+     * @return Value as int.
+     */
+    public final int getThreads() {
+        return this.threads;
+    }
+    /**
+     * Sets the number of threads (default is the number of processors).
+     * @param threads Value as int.
+     */
+    public final void setThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+    }
+    /**
+     * Returns the number of momentum buffers.
+     * @return Value as int.
+     */
+    public final int getStripes() {
+        return this.stripes;
+    }
+    /**
+     * Sets the number of momentum buffers. Thread i uses the buffer
+     * i mod stripes. A value less than 1 (default) gives each thread its
+     * own buffer.
+     * @param stripes Value as int.
+     */
+    public final void setStripes(final int stripes) {
+        this.stripes = stripes;
+    }
+    /**
+     * Returns the mean staleness of the updates of the last epoch, i.e.,
+     * the mean number of updates of other threads between the forward
+     * pass of a sample and the update based on it.
+     * @return Value as double.
+     */
+    public final double getStaleness() {
+        return this.staleness;
+    }
+    /**
+     * Returns the maximum staleness of the updates of the last epoch.
+     * @return Value as long.
+     */
+    public final long getMaxStaleness() {
+        return this.maxstaleness;
+    }
+    /**
+     * Returns the throughput of the last epoch in samples per second.
+     * @return Value as double.
+     */
+    public final double getThroughput() {
+        return this.throughput;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void init() {
+        super.init();
+        //
+        this.permutation = new int[this.trainset.size()];
+        for (int i = 0; i < this.permutation.length; i++) {
+            this.permutation[i] = i;
+        }
+        this.weights    = this.net.getWeights();
+        this.weightsnum = this.net.getWeightsNum();
+        //
+        // recurrent nets need a frame for each time step of the
+        // longest sequence (the buffers grow only if necessary).
+        //
+        if (this.net.isRecurrent()) {
+            this.net.ensureFrameWidth(this.trainset.maxSequenceLength());
+        }
+        //
+        this.setupWorkers();
+        //
+        this.epoch           = 0;
+        this.validationerror = 0.0;
+        this.trainerror      = 0.0;
+        this.staleness       = 0.0;
+        this.maxstaleness    = 0;
+        this.throughput      = 0.0;
+        //
+    }
+
+    /**
+     * Creates the worker networks, their gradient sinks, the momentum
+     * buffers and the executor.
+     */
+    private void setupWorkers() {
+        final int n = this.threads;
+        //
+        this.releaseWorkers();
+        //
+        this.workers   = new Net[n];
+        this.gradients = new double[n][];
+        //
+        for (int i = 0; i < n; i++) {
+            final Net worker = (i == 0)?(this.net):(this.net.sharedCopy());
+            //
+            // the workers already run in parallel.
+            //
+            if (i > 0) worker.setExecutor(null);
+            this.gradients[i] = new double[this.weights.length];
+            worker.setGradientSink(this.gradients[i]);
+            this.workers[i] = worker;
+        }
+        //
+        this.momentums = null;
+        if (this.alpha != 0.0) {
+            final int m = (this.stripes < 1)?(n):(Math.min(n, this.stripes));
+            this.momentums = new double[m][this.weights.length];
+        }
+        //
+        this.stalenesssum = new long[n];
+        this.stalenessmax = new long[n];
+        this.updates      = new long[n];
+        //
+        if (n > 1) {
+            this.executor = Executors.newFixedThreadPool(
+                n - 1, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable task) {
+                        final Thread thread = new Thread(task);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+            );
+        }
+    }
+
+    /**
+     * Releases the worker networks and shuts the executor down.
+     */
+    private void releaseWorkers() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        if (this.workers != null) {
+            this.net.setGradientSink(null);
+        }
+        this.executor  = null;
+        this.workers   = null;
+        this.gradients = null;
+        this.momentums = null;
+    }
+
+    /**
+     * Performs the given tasks concurrently using the executor and waits
+     * until all tasks are finished. The first task is performed by the
+     * calling thread.
+     * <br></br>
+     * @param tasks The tasks.
+     */
+    private void execute(final Runnable[] tasks) {
+        final Future<?>[] futures = new Future<?>[tasks.length];
+        for (int i = 1; i < tasks.length; i++) {
+            futures[i] = this.executor.submit(tasks[i]);
+        }
+        tasks[0].run();
+        //
+        // join.
+        //
+        try {
+            for (int i = 1; i < tasks.length; i++) {
+                futures[i].get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NetTrainerException("parallel training interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new NetTrainerException("parallel training failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Applies the accumulated gradient of a worker to the shared weights
+     * without locking and clears the gradient. Without momentum, only the
+     * weights with a non-zero gradient are written.
+     * <br></br>
+     * @param gradient The gradient of the worker.
+     * @param momentum The momentum buffer of the worker or null.
+     */
+    private void update(final double[] gradient, final double[] momentum) {
+        final double[] weights = this.weights;
+        final double mu        = this.mu;
+        //
+        if (momentum == null) {
+            for (int i = 1; i <= this.weightsnum; i++) {
+                final double g = gradient[i];
+                if (g != 0.0) {
+                    weights[i] += (mu * g);
+                    gradient[i] = 0.0;
+                }
+            }
+            return;
+        }
+        //
+        final double alpha = this.alpha;
+        //
+        for (int i = 1; i <= this.weightsnum; i++) {
+            final double dw = (mu * gradient[i]) + (alpha * momentum[i]);
+            momentum[i] = dw;
+            weights[i] += dw;
+            gradient[i] = 0.0;
+        }
+    }
+
+    /**
+     * Performs online gradient descent steps for a range of the current
+     * permutation (or of the given batches) with the given worker.
+     * <br></br>
+     * @param w The worker index.
+     * @param tset The training set.
+     * @param batches The batches or null.
+     * @param lbd The first batch or sample (inclusive).
+     * @param ubd The last batch or sample (exclusive).
+     * @return The sum of the sample errors.
+     */
+    private double performRange(
+        final int w, final SampleSet tset,
+        final int[][] batches, final int lbd, final int ubd
+    ) {
+        final Net net           = this.workers[w];
+        final double[] gradient = this.gradients[w];
+        final double[] momentum = (this.momentums != null)?(
+            this.momentums[w % this.momentums.length]
+        ):(null);
+        //
+        double error = 0.0;
+        long sum     = 0;
+        long max     = 0;
+        //
+        for (int j = lbd; j < ubd; j++) {
+            final long start = this.clock.get();
+            //
+            // compute forward pass.
+            //
+            net.reset();
+            if (batches != null) {
+                error += NetTools.performBatchForward(
+                    net, tset, batches[j], this.features
+                );
+            } else {
+                final Sample sample = tset.get(this.permutation[j]);
+                error += NetTools.performForward(net, sample, this.features);
+            }
+            //
+            // compute backward pass, which accumulates the gradient.
+            //
+            NetTools.performBackward(net);
+            //
+            // update the shared weights.
+            //
+            this.update(gradient, momentum);
+            net.syncWeights();
+            //
+            final long stale = this.clock.getAndIncrement() - start;
+            sum += stale;
+            max = Math.max(max, stale);
+        }
+        //
+        this.stalenesssum[w] = sum;
+        this.stalenessmax[w] = max;
+        this.updates[w]      = (ubd - lbd);
+        //
+        return error;
+    }
+
+    /**
+     * Performs one epoch with all workers, where each worker computes a
+     * contiguous range of the permuted training set (or of its batches).
+     * <br></br>
+     * @param tset The training set.
+     * @return The sum of the sample errors.
+     */
+    private double performEpoch(final SampleSet tset) {
+        final int[][] batches = (this.net.getBatchSize() > 1)?(
+            NetTools.batches(tset, this.permutation, this.net.getBatchSize())
+        ):(null);
+        final int size = (batches != null)?(batches.length):(this.permutation.length);
+        //
+        final int n            = this.workers.length;
+        final double[] errors  = new double[n];
+        final Runnable[] tasks = new Runnable[n];
+        //
+        for (int w = 0; w < n; w++) {
+            final int idx = w;
+            final int lbd = (int)(((long)size * w) / n);
+            final int ubd = (int)(((long)size * (w + 1)) / n);
+            //
+            tasks[w] = new Runnable() {
+                @Override
+                public void run() {
+                    errors[idx] = HogwildGradientDescent.this.performRange(
+                        idx, tset, batches, lbd, ubd
+                    );
+                }
+            };
+        }
+        //
+        final long start = System.nanoTime();
+        //
+        if (n > 1) {
+            this.execute(tasks);
+        } else {
+            tasks[0].run();
+        }
+        //
+        final long time = Math.max(1L, System.nanoTime() - start);
+        //
+        // collect the statistics.
+        //
+        double error = 0.0;
+        long sum     = 0;
+        long count   = 0;
+        long max     = 0;
+        //
+        for (int w = 0; w < n; w++) {
+            error += errors[w];
+            sum   += this.stalenesssum[w];
+            count += this.updates[w];
+            max    = Math.max(max, this.stalenessmax[w]);
+        }
+        this.staleness    = (count > 0)?((double)sum / (double)count):(0.0);
+        this.maxstaleness = max;
+        this.throughput   = ((double)this.permutation.length * 1.0e9) / (double)time;
+        //
+        return error;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void trainEpoch(final int epoch) {
+        if (this.permute) {
+            IntTools.shuffle(this.permutation, this.rnd);
+        }
+        //
+        this.trainerror = (
+            this.performEpoch(this.trainset) / (double)this.permutation.length
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    synchronized
+    public void train() {
+        //
+        this.init();
+        //
+        this.notifyStarted();
+        //
+        // this trainer provides no early stopping.
+        //
+        try {
+            this.iterateEpochs(this.validint, false, 0);
+        } finally {
+            this.releaseWorkers();
+        }
+        //
+        this.notifyFinished();
+    }
+}
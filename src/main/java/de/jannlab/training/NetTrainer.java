@@ -24,8 +24,10 @@ import java.util.Random;
 
 import de.jannlab.Net;
 import de.jannlab.data.SampleSet;
+import de.jannlab.misc.DoubleTools;
 import de.jannlab.tools.Debug;
 import de.jannlab.tools.DefaultNetTrainerListener;
+import de.jannlab.tools.NetTools;
 import de.jannlab.training.NetTrainerListener;
 import de.jannlab.training.exception.NetTrainerException;
 
@@ -298,4 +300,90 @@ public abstract class NetTrainer {
      * Forces the trainer to start the training process.
      */
     public abstract void train();
+
+    /**
+     * Performs a single training epoch for iterateEpochs, i.e., computes
+     * the gradients, updates the weights of the reference network and
+     * sets trainerror to the error of the epoch. Trainers which use
+     * iterateEpochs have to override this method.
+     * <br></br>
+     * @param epoch The index of the epoch.
+     */
+    protected void trainEpoch(final int epoch) {
+        throw new UnsupportedOperationException(
+            this.getClass().getSimpleName() + " does not train epoch-wise."
+        );
+    }
+
+    /**
+     * Iterates the training epochs (see trainEpoch) and performs the
+     * common bookkeeping: the validation error is computed every validint
+     * epochs (it is the training error without separate validation set),
+     * the listeners are notified after each epoch, and the training stops
+     * early when the target error is reached or (if enabled) when the
+     * validation error has not improved for more than earlystopcount
+     * validations. Finally, the weights with the smallest validation error
+     * are written back into the reference network.
+     * <br></br>
+     * @param validint The validation interval.
+     * @param earlystop Use early stopping?
+     * @param earlystopcount Number of misses before early stopping.
+     */
+    protected final void iterateEpochs(
+        final int validint, final boolean earlystop, final int earlystopcount
+    ) {
+        final double[] weights    = this.net.getWeights();
+        final int weightsnum      = this.net.getWeightsNum();
+        final double[] minweights = weights.clone();
+        //
+        int count       = 0;
+        int nbetterctr  = 0;
+        double minerror = Double.MAX_VALUE;
+        //
+        for (int i = 0; i < this.epochs; i++) {
+            this.epoch = i;
+            //
+            this.trainEpoch(i);
+            //
+            if ((this.trainset == this.validationset) || (this.validationset == null)) {
+                this.validationerror = this.trainerror;
+            } else {
+                if ((i % validint) == 0) {
+                    this.validationerror = NetTools.computeError(
+                        this.net, this.validationset
+                    );
+                }
+            }
+            //
+            if ((i % validint) == 0) {
+                if (this.validationerror < minerror) {
+                    minerror   = this.validationerror;
+                    DoubleTools.copy(weights, 1, minweights, 1, weightsnum);
+                    nbetterctr = 0;
+                } else {
+                    nbetterctr++;
+                }
+            }
+            //
+            this.notifyEpoch();
+            //
+            // early stopping.
+            //
+            if (nbetterctr > earlystopcount) {
+                if (earlystop) break;
+            }
+            if (this.validationerror < this.targeterror) {
+                break;
+            }
+            count++;
+        }
+        //
+        // take best weights.
+        //
+        if (count > 0) {
+            this.validationerror = minerror;
+            DoubleTools.copy(minweights, 1, weights, 1, weightsnum);
+            this.net.syncWeights();
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+/**
+ * This class implements the RMSProp optimizer, which divides the 
+ * gradient of each weight by the root of an exponentially decaying 
+ * average of its squared gradients.
+ * <br></br>
+ * References:
+ * <br></br>
+ * Tieleman, Tijmen; Hinton, Geoffrey: Lecture 6.5 - RMSProp: Divide the 
+ * gradient by a running average of its recent magnitude. COURSERA: Neural 
+ * Networks for Machine Learning (2012).
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class RMSProp extends AdaptiveGradientDescent {
+    //
+    public static final double DEFAULT_MU      = 0.001;
+    public static final double DEFAULT_DECAY   = 0.9;
+    public static final double DEFAULT_EPSILON = 1.0e-8;
+    /**
+     * Decay rate of the average of the squared gradients.
+     */
+    private double decay = DEFAULT_DECAY;
+    /**
+     * Constant for numerical stability.
+     */
+    private double epsilon = DEFAULT_EPSILON;
+    /**
+     * The averages of the squared gradients.
+     */
+    private double[] v = null;
+    
+    /**
+     * Creates an instance of RMSProp.
+     */
+    public RMSProp() {
+        super(DEFAULT_MU);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append("decay              : " + this.decay + "\n");
+        out.append("epsilon            : " + this.epsilon + "\n");
+        //
+        return super.toString() + out.toString();
+    }
+    
+    /**
+     * Returns the decay rate of the average of the squared gradients.
+     * @return Value as double.
+     */
+    public final double getDecay() {
+        return this.decay;
+    }
+    /**
+     * Sets the decay rate of the average of the squared gradients.
+     * @param value Value as double.
+     */
+    public final void setDecay(final double value) {
+        this.decay = value;
+    }
+    /**
+     * Returns the constant for numerical stability.
+     * @return Value as double.
+     */
+    public final double getEpsilon() {
+        return this.epsilon;
+    }
+    /**
+     * Sets the constant for numerical stability.
+     * @param value Value as double.
+     */
+    public final void setEpsilon(final double value) {
+        this.epsilon = value;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setupState() {
+        this.v = new double[this.weights.length];
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void step(final double[] gradients) {
+        final double[] weights = this.weights;
+        final double[] v       = this.v;
+        final double rho       = this.decay;
+        final double mu        = this.mu;
+        final double eps       = this.epsilon;
+        //
+        for (int i = 1; i <= this.weightsnum; i++) {
+            final double g  = gradients[i];
+            final double vi = (rho * v[i]) + ((1.0 - rho) * (g * g));
+            v[i] = vi;
+            weights[i] += (mu * g) / (Math.sqrt(vi) + eps);
+            gradients[i] = 0.0;
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package de.jannlab.training;
 
 
+import de.jannlab.Net;
 import de.jannlab.data.SampleSet;
 import de.jannlab.misc.DoubleTools;
 import de.jannlab.tools.NetTools;
@@ -27,7 +28,13 @@ import de.jannlab.tools.NetTools;
 /**
  * This class implements a simple RandomSearch learning algorithm.
  * Per epoch a new random weight vector is generated and at the end
- * of the training the best found vector will be kept.
+ * of the training the best found vector will be kept. With a population
+ * size greater than 1, several random weight vectors are generated per 
+ * epoch and evaluated at once on a copy of the net in population mode
+ * (see Net.writePopulationWeights), so that each sample is processed 
+ * only once for all vectors. The vectors are drawn in the same order as 
+ * with one vector per epoch. Nets in single precision are always 
+ * evaluated vector by vector.
  * <br></br>
  * @author Sebastian Otte
  *
@@ -36,6 +43,7 @@ public final class RandomSearch extends NetTrainer {
     //
     public static final double  DEFAULT_LBD = -100.0;
     public static final double  DEFAULT_UBD = 100.0;
+    public static final int     DEFAULT_POPULATION = 1;
     //
     /**
      * Lower bound of the random choice.
@@ -45,6 +53,10 @@ public final class RandomSearch extends NetTrainer {
      * Upper bound of the random choice.
      */
     private double ubd = DEFAULT_UBD;
+    /**
+     * Number of weight vectors per epoch.
+     */
+    private int population = DEFAULT_POPULATION;
     //
     /**
      * Weight vector of the reference network.
@@ -54,6 +66,18 @@ public final class RandomSearch extends NetTrainer {
      * Number of weights.
      */
     private int weightsnum = 0;
+    /**
+     * The copy of the net in population mode or null.
+     */
+    private Net popnet = null;
+    /**
+     * The weight vectors of an epoch (population mode).
+     */
+    private double[] popweights = null;
+    /**
+     * The errors of the weight vectors of an epoch (population mode).
+     */
+    private double[] poperrors = null;
     /**
      * Creates an instance of RandomSearch.
      */
@@ -80,6 +104,7 @@ public final class RandomSearch extends NetTrainer {
         out.append("epochs       : " + this.epochs + "\n");
         out.append("searchlbd    : " + this.lbd + "\n");
         out.append("searchubd    : " + this.ubd + "\n");
+        out.append("population   : " + this.population + "\n");
         //
         return super.toString() + out.toString();
     }
@@ -112,6 +137,21 @@ public final class RandomSearch extends NetTrainer {
     public final double getSearchUbd() {
         return this.ubd;
     }
+    /**
+     * Returns the number of weight vectors generated per epoch.
+     * @return Population size as int.
+     */
+    public final int getPopulation() {
+        return this.population;
+    }
+    /**
+     * Sets the number of weight vectors generated per epoch. All vectors
+     * of an epoch are evaluated at once in population mode.
+     * @param value Population size as int.
+     */
+    public final void setPopulation(final int value) {
+        this.population = Math.max(1, value);
+    }
    
     /**
      * {@inheritDoc}
@@ -123,6 +163,17 @@ public final class RandomSearch extends NetTrainer {
         this.weights    = this.net.getWeights();
         this.weightsnum = net.getWeightsNum();
         //
+        if ((this.population > 1) && !this.net.isSinglePrecision()) {
+            this.popnet = this.net.copy();
+            this.popnet.rebuffer(this.net.getFrameWidth(), this.population);
+            this.popweights = new double[this.population * this.weightsnum];
+            this.poperrors  = new double[this.population];
+        } else {
+            this.popnet     = null;
+            this.popweights = null;
+            this.poperrors  = null;
+        }
+        //
         this.epoch           = 0;
         this.validationerror = 0.0;
         this.trainerror      = 0.0;
@@ -151,15 +202,32 @@ public final class RandomSearch extends NetTrainer {
         for (int i = 0; i < this.epochs; i++) {
             this.epoch = i;
             //
-            DoubleTools.fill(this.weights, 1, this.weightsnum, this.rnd, this.lbd, this.ubd);
-            double error = NetTools.computeError(this.net, tset);
-            //
-            this.trainerror = error;
-            this.validationerror = error;
-            //
-            if (error < minerror) {
-                minerror   = error;
-                minweights = this.net.getWeights().clone();
+            if (this.popnet != null) {
+                final int best = this.evaluatePopulation(tset);
+                final double error = this.poperrors[best];
+                //
+                this.trainerror = error;
+                this.validationerror = error;
+                //
+                if (error < minerror) {
+                    minerror = error;
+                    DoubleTools.copy(
+                        this.popweights, best * this.weightsnum, 
+                        minweights, 1, this.weightsnum
+                    );
+                }
+            } else {
+                DoubleTools.fill(this.weights, 1, this.weightsnum, this.rnd, this.lbd, this.ubd);
+                this.net.syncWeights();
+                double error = NetTools.computeError(this.net, tset);
+                //
+                this.trainerror = error;
+                this.validationerror = error;
+                //
+                if (error < minerror) {
+                    minerror   = error;
+                    minweights = this.net.getWeights().clone();
+                }
             }
             //
             this.notifyEpoch();
@@ -176,8 +244,44 @@ public final class RandomSearch extends NetTrainer {
             this.trainerror      = minerror;
             this.validationerror = minerror;
             DoubleTools.copy(minweights, 1, this.weights, 1, this.weightsnum);
+            this.net.syncWeights();
         }
         //
         this.notifyFinished();
     }
+    
+    /**
+     * Generates the weight vectors of an epoch and computes their errors 
+     * on the given set at once using the net copy in population mode.
+     * <br></br>
+     * @param set The set of samples.
+     * @return The index of the weight vector with the smallest error.
+     */
+    private int evaluatePopulation(final SampleSet set) {
+        final Net net         = this.popnet;
+        final double[] errors = this.poperrors;
+        final int n           = this.population;
+        //
+        DoubleTools.fill(
+            this.popweights, 0, n * this.weightsnum, 
+            this.rnd, this.lbd, this.ubd
+        );
+        net.writePopulationWeights(this.popweights, 0, n);
+        //
+        for (int p = 0; p < n; p++) {
+            errors[p] = 0.0;
+        }
+        for (int j = 0; j < set.size(); j++) {
+            net.reset();
+            NetTools.performPopulationForward(net, set.get(j), null, errors, 0);
+        }
+        //
+        final double size = (double)set.size();
+        int best = 0;
+        for (int p = 0; p < n; p++) {
+            errors[p] /= size;
+            if (errors[p] < errors[best]) best = p;
+        }
+        return best;
+    }
 }
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+import de.jannlab.training.exception.NetTrainerException;
+
+/**
+ * This class implements resilient backpropagation (Rprop), which adapts
+ * an individual step size for each weight only by the signs of the
+ * successive gradients. Rprop is a batch method, thus the weights are
+ * always updated once per epoch with the summed gradients (offline mode),
+ * which can be computed by several threads (see setThreads). The step
+ * sizes, the previous gradients and the previous weight differences are
+ * kept in flat arrays indexed like the weights vector. The learning rate 
+ * is not used.
+ * <br></br>
+ * The following variants are supported:
+ * <br></br>
+ * RPROP_PLUS: Rprop with weight backtracking on a change of sign.<br></br>
+ * RPROP_MINUS: Rprop without weight backtracking.<br></br>
+ * IRPROP_PLUS: Rprop with weight backtracking only if the error 
+ * increased (default).<br></br>
+ * IRPROP_MINUS: Rprop without weight backtracking, where the weight is 
+ * not changed on a change of sign.
+ * <br></br>
+ * References:
+ * <br></br>
+ * Riedmiller, Martin; Braun, Heinrich: A direct adaptive method for faster
+ * backpropagation learning: The RPROP algorithm. IEEE International 
+ * Conference on Neural Networks (1993).
+ * <br></br>
+ * Igel, Christian; Huesken, Michael: Improving the Rprop learning algorithm.
+ * Proceedings of the Second International Symposium on Neural 
+ * Computation (2000).
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public final class Rprop extends AdaptiveGradientDescent {
+    //
+    public static final int    RPROP_PLUS         = 0;
+    public static final int    RPROP_MINUS        = 1;
+    public static final int    IRPROP_PLUS        = 2;
+    public static final int    IRPROP_MINUS       = 3;
+    //
+    public static final int    DEFAULT_VARIANT    = IRPROP_PLUS;
+    public static final double DEFAULT_ETAPLUS    = 1.2;
+    public static final double DEFAULT_ETAMINUS   = 0.5;
+    public static final double DEFAULT_DELTA0     = 0.1;
+    public static final double DEFAULT_DELTAMAX   = 50.0;
+    public static final double DEFAULT_DELTAMIN   = 1.0e-6;
+    /**
+     * The variant of Rprop.
+     */
+    private int variant = DEFAULT_VARIANT;
+    /**
+     * Increase factor of the step sizes.
+     */
+    private double etaplus = DEFAULT_ETAPLUS;
+    /**
+     * Decrease factor of the step sizes.
+     */
+    private double etaminus = DEFAULT_ETAMINUS;
+    /**
+     * Initial step size.
+     */
+    private double delta0 = DEFAULT_DELTA0;
+    /**
+     * Upper bound of the step sizes.
+     */
+    private double deltamax = DEFAULT_DELTAMAX;
+    /**
+     * Lower bound of the step sizes.
+     */
+    private double deltamin = DEFAULT_DELTAMIN;
+    /**
+     * The step sizes.
+     */
+    private double[] delta = null;
+    /**
+     * The gradients of the previous step.
+     */
+    private double[] gradientslast = null;
+    /**
+     * The weight differences of the previous step.
+     */
+    private double[] dweightslast = null;
+    /**
+     * The training error of the previous step.
+     */
+    private double errorlast = Double.MAX_VALUE;
+    
+    /**
+     * Creates an instance of Rprop.
+     */
+    public Rprop() {
+        super(0.0);
+        this.setOnline(false);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        //
+        out.append("variant            : " + this.variant + "\n");
+        out.append("etaplus            : " + this.etaplus + "\n");
+        out.append("etaminus           : " + this.etaminus + "\n");
+        out.append("delta0             : " + this.delta0 + "\n");
+        out.append("deltamax           : " + this.deltamax + "\n");
+        out.append("deltamin           : " + this.deltamin + "\n");
+        //
+        return super.toString() + out.toString();
+    }
+    
+    /**
+     * Rprop only supports offline mode.
+     * @param value Value as boolean (must be false).
+     */
+    @Override
+    public void setOnline(final boolean value) {
+        if (value) {
+            throw new NetTrainerException("rprop only supports offline mode.");
+        }
+        super.setOnline(value);
+    }
+    /**
+     * Returns the variant of Rprop.
+     * @return Value as int.
+     */
+    public final int getVariant() {
+        return this.variant;
+    }
+    /**
+     * Sets the variant of Rprop (RPROP_PLUS, RPROP_MINUS, IRPROP_PLUS 
+     * or IRPROP_MINUS).
+     * @param value Value as int.
+     */
+    public final void setVariant(final int value) {
+        if ((value < RPROP_PLUS) || (value > IRPROP_MINUS)) {
+            throw new NetTrainerException("unknown rprop variant " + value + ".");
+        }
+        this.variant = value;
+    }
+    /**
+     * Returns the increase factor of the step sizes.
+     * @return Value as double.
+     */
+    public final double getEtaPlus() {
+        return this.etaplus;
+    }
+    /**
+     * Sets the increase factor of the step sizes.
+     * @param value Value as double.
+     */
+    public final void setEtaPlus(final double value) {
+        this.etaplus = value;
+    }
+    /**
+     * Returns the decrease factor of the step sizes.
+     * @return Value as double.
+     */
+    public final double getEtaMinus() {
+        return this.etaminus;
+    }
+    /**
+     * Sets the decrease factor of the step sizes.
+     * @param value Value as double.
+     */
+    public final void setEtaMinus(final double value) {
+        this.etaminus = value;
+    }
+    /**
+     * Returns the initial step size.
+     * @return Value as double.
+     */
+    public final double getInitialDelta() {
+        return this.delta0;
+    }
+    /**
+     * Sets the initial step size.
+     * @param value Value as double.
+     */
+    public final void setInitialDelta(final double value) {
+        this.delta0 = value;
+    }
+    /**
+     * Returns the upper bound of the step sizes.
+     * @return Value as double.
+     */
+    public final double getMaxDelta() {
+        return this.deltamax;
+    }
+    /**
+     * Sets the upper bound of the step sizes.
+     * @param value Value as double.
+     */
+    public final void setMaxDelta(final double value) {
+        this.deltamax = value;
+    }
+    /**
+     * Returns the lower bound of the step sizes.
+     * @return Value as double.
+     */
+    public final double getMinDelta() {
+        return this.deltamin;
+    }
+    /**
+     * Sets the lower bound of the step sizes.
+     * @param value Value as double.
+     */
+    public final void setMinDelta(final double value) {
+        this.deltamin = value;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setupState() {
+        this.delta         = new double[this.weights.length];
+        this.gradientslast = new double[this.weights.length];
+        this.dweightslast  = new double[this.weights.length];
+        this.errorlast     = Double.MAX_VALUE;
+        //
+        for (int i = 1; i <= this.weightsnum; i++) {
+            this.delta[i] = this.delta0;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void step(final double[] gradients) {
+        final double[] weights       = this.weights;
+        final double[] delta         = this.delta;
+        final double[] gradientslast = this.gradientslast;
+        final double[] dweightslast  = this.dweightslast;
+        final double etaplus         = this.etaplus;
+        final double etaminus        = this.etaminus;
+        final double deltamax        = this.deltamax;
+        final double deltamin        = this.deltamin;
+        final int variant            = this.variant;
+        //
+        // the plus variants undo the last weight differences on a change 
+        // of sign, iRprop+ only if the error increased.
+        //
+        final boolean backtrack = (variant == RPROP_PLUS) || (
+            (variant == IRPROP_PLUS) && (this.trainerror > this.errorlast)
+        );
+        //
+        for (int i = 1; i <= this.weightsnum; i++) {
+            final double g = gradients[i];
+            final double s = g * gradientslast[i];
+            //
+            if (s > 0.0) {
+                delta[i] = Math.min(delta[i] * etaplus, deltamax);
+            } else if (s < 0.0) {
+                delta[i] = Math.max(delta[i] * etaminus, deltamin);
+                //
+                if (variant != RPROP_MINUS) {
+                    //
+                    // skip the adaptation in the next step.
+                    //
+                    if (backtrack) {
+                        weights[i] -= dweightslast[i];
+                    }
+                    dweightslast[i]  = 0.0;
+                    gradientslast[i] = 0.0;
+                    gradients[i]     = 0.0;
+                    continue;
+                }
+            }
+            //
+            // the gradients are given in descent direction.
+            //
+            final double dw;
+            if (g > 0.0) {
+                dw = delta[i];
+            } else if (g < 0.0) {
+                dw = -delta[i];
+            } else {
+                dw = 0.0;
+            }
+            weights[i]       += dw;
+            dweightslast[i]  = dw;
+            gradientslast[i] = g;
+            gradients[i]     = 0.0;
+        }
+        this.errorlast = this.trainerror;
+    }
+}
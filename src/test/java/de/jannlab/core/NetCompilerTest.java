@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.jannlab.Net;
+import de.jannlab.generator.MLPGenerator;
+
+/**
+ * Checks that NetCompiler reports why a structure was not compiled.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class NetCompilerTest {
+
+    private static Net mlp() {
+        final MLPGenerator gen = new MLPGenerator();
+        gen.inputLayer(3);
+        gen.hiddenLayer(5, CellType.TANH, true, 1.0);
+        gen.outputLayer(2, CellType.TANH, true, 1.0);
+        return gen.generate();
+    }
+
+    @Test
+    public void testCompile() {
+        final NetKernel kernel = NetCompiler.compile(mlp().getStructure());
+        assertNotNull(NetCompiler.getLastError(), kernel);
+        assertNull(NetCompiler.getLastError());
+    }
+
+    @Test
+    public void testUnresolved() {
+        final NetStructure structure = mlp().getStructure();
+        structure.resolved = false;
+        //
+        assertNull(NetCompiler.compile(structure));
+        assertNotNull(NetCompiler.getLastError());
+        assertTrue(NetCompiler.getLastError().contains("resolved"));
+    }
+
+}
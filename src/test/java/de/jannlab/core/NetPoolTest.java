@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import de.jannlab.Net;
+import de.jannlab.generator.MLPGenerator;
+
+/**
+ * Checks that a NetPool only takes back its own borrowed instances.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class NetPoolTest {
+
+    private static Net mlp() {
+        final MLPGenerator gen = new MLPGenerator();
+        gen.inputLayer(2);
+        gen.hiddenLayer(3, CellType.TANH, true, 1.0);
+        gen.outputLayer(1, CellType.TANH, true, 1.0);
+        return gen.generate();
+    }
+
+    @Test
+    public void testRelease() {
+        final NetPool pool = new NetPool(mlp(), 1);
+        final Net a = pool.borrow();
+        final Net b = pool.borrow();
+        assertEquals(0, pool.getIdle());
+        //
+        pool.release(a);
+        pool.release(b);
+        assertEquals(2, pool.getIdle());
+        //
+        // released instances are borrowed again.
+        //
+        final Net c = pool.borrow();
+        assertSame(a, c);
+        pool.release(c);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateRelease() {
+        final NetPool pool = new NetPool(mlp(), 1);
+        final Net net = pool.borrow();
+        pool.release(net);
+        pool.release(net);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignRelease() {
+        final NetPool pool = new NetPool(mlp(), 1);
+        pool.release(mlp());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOtherPoolRelease() {
+        final Net net   = mlp();
+        final NetPool a = new NetPool(net, 1);
+        final NetPool b = new NetPool(net, 1);
+        b.release(a.borrow());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLocalRelease() {
+        final NetPool pool = new NetPool(mlp(), 1);
+        pool.release(pool.local());
+    }
+
+}
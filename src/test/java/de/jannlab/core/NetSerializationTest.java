@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import de.jannlab.Net;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.tools.NetTools;
+
+/**
+ * Checks that nets which were serialized (via de.jannlab.io.Serializer) by
+ * the former version of this library can still be loaded and computed. The
+ * resources mlp.net, lstm.net and blstm.net were written by the baseline
+ * version, the expected errors were computed by the baseline version from
+ * the loaded nets.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class NetSerializationTest {
+
+    public static final double EPS = 1e-12;
+
+    /**
+     * Builds the sample set for which the reference errors were computed.
+     */
+    private static SampleSet set(final int len) {
+        final SampleSet set = new SampleSet();
+        for (int i = 0; i < 4; i++) {
+            final double[] x = new double[len * 3];
+            final double[] y = new double[len * 2];
+            for (int k = 0; k < x.length; k++) x[k] = Math.sin(i + k + 1);
+            for (int k = 0; k < y.length; k++) y[k] = Math.cos(i + k + 1) / 2.0;
+            set.add(new Sample(x, y, 3, len, 2, len));
+        }
+        return set;
+    }
+
+    private static Net load(final String name) throws Exception {
+        final InputStream in = NetSerializationTest.class.getResourceAsStream(name);
+        assertNotNull(name, in);
+        final ObjectInputStream ois = new ObjectInputStream(
+            new GZIPInputStream(in)
+        );
+        try {
+            return (Net)ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    private static Net roundtrip(final Net net) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream oos = new ObjectOutputStream(bytes);
+        oos.writeObject(net);
+        oos.close();
+        final ObjectInputStream ois = new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray())
+        );
+        try {
+            return (Net)ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    private static void check(
+        final String name, final int len, final double expected
+    ) throws Exception {
+        final Net net = load(name);
+        assertEquals(name, expected, NetTools.computeError(net, set(len)), EPS);
+        //
+        // a loaded net has to survive a further roundtrip.
+        //
+        final Net copy = roundtrip(net);
+        assertEquals(name, expected, NetTools.computeError(copy, set(len)), EPS);
+    }
+
+    @Test
+    public void testFormerMLP() throws Exception {
+        check("mlp.net", 1, 0.07869784942553706);
+    }
+
+    @Test
+    public void testFormerLSTM() throws Exception {
+        check("lstm.net", 5, 0.1259371307556582);
+    }
+
+    @Test
+    public void testFormerBidirectionalLSTM() throws Exception {
+        check("blstm.net", 5, 0.01719725091598194);
+    }
+
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.optimization.diffevo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.jannlab.Net;
+import de.jannlab.core.CellType;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.generator.MLPGenerator;
+import de.jannlab.optimization.BoundedObjective;
+import de.jannlab.optimization.PopulationObjective;
+import de.jannlab.tools.NetObjective;
+
+/**
+ * Checks which evaluation path DifferentialEvolution takes for an 
+ * objective, which is both bounded and population objective.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class DifferentialEvolutionTest {
+
+    public static final int PARAMETERS = 5;
+    public static final int POPSIZE    = 20;
+    public static final int ITERATIONS = 10;
+
+    /**
+     * Sphere function, which counts the calls of each compute method.
+     */
+    private static class CountingObjective 
+        implements BoundedObjective, PopulationObjective {
+        //
+        public int plain      = 0;
+        public int bounded    = 0;
+        public int population = 0;
+        //
+        @Override
+        public int arity() {
+            return PARAMETERS;
+        }
+
+        @Override
+        public double compute(final double[] args, final int offset) {
+            this.plain++;
+            return sphere(args, offset);
+        }
+
+        @Override
+        public double compute(
+            final double[] args, final int offset, final double bound
+        ) {
+            this.bounded++;
+            return sphere(args, offset);
+        }
+
+        @Override
+        public void compute(
+            final double[] args, final int offset, final int num,
+            final double[] results, final int resultsoffset
+        ) {
+            this.population++;
+            for (int i = 0; i < num; i++) {
+                results[resultsoffset + i] = sphere(
+                    args, offset + (i * PARAMETERS)
+                );
+            }
+        }
+
+        private static double sphere(final double[] args, final int offset) {
+            double f = 0.0;
+            for (int i = 0; i < PARAMETERS; i++) {
+                final double x = args[offset + i];
+                f += (x * x);
+            }
+            return f;
+        }
+    }
+
+    private static double optimize(
+        final CountingObjective obj, final boolean popeval
+    ) {
+        final DifferentialEvolution de = new DifferentialEvolution();
+        de.setRnd(new Random(5));
+        de.setParameters(PARAMETERS);
+        de.setPopSize(POPSIZE);
+        de.setPopulationEvaluation(popeval);
+        de.updateObjective(obj);
+        de.initialize();
+        return de.iterate(ITERATIONS, 0.0);
+    }
+
+    @Test
+    public void testBoundedEvaluation() {
+        final CountingObjective obj = new CountingObjective();
+        optimize(obj, false);
+        //
+        assertEquals(0, obj.population);
+        assertEquals(POPSIZE, obj.plain);
+        assertEquals(POPSIZE * ITERATIONS, obj.bounded);
+    }
+
+    @Test
+    public void testPopulationEvaluation() {
+        final CountingObjective obj = new CountingObjective();
+        optimize(obj, true);
+        //
+        assertEquals(0, obj.plain);
+        assertEquals(0, obj.bounded);
+        assertEquals(1 + ITERATIONS, obj.population);
+    }
+
+    private static NetObjective singleObjective() {
+        final MLPGenerator gen = new MLPGenerator();
+        gen.getCoreGenerator().useSinglePrecision(true, false);
+        gen.inputLayer(2);
+        gen.hiddenLayer(3, CellType.TANH, true, 1.0);
+        gen.outputLayer(1, CellType.TANH, true, 1.0);
+        final Net net = gen.generate();
+        //
+        final Random rnd    = new Random(7);
+        final SampleSet set = new SampleSet();
+        for (int i = 0; i < 8; i++) {
+            final double[] x = {rnd.nextDouble(), rnd.nextDouble()};
+            final double[] y = {rnd.nextDouble() - 0.5};
+            set.add(new Sample(x, y, 2, 1, 1, 1));
+        }
+        return new NetObjective(net, set);
+    }
+
+    private static double optimize(
+        final NetObjective obj, final boolean popeval
+    ) {
+        final DifferentialEvolution de = new DifferentialEvolution();
+        de.setRnd(new Random(5));
+        de.setParameters(obj.arity());
+        de.setPopSize(POPSIZE);
+        de.setPopulationEvaluation(popeval);
+        de.updateObjective(obj);
+        de.initialize();
+        return de.iterate(ITERATIONS, 0.0);
+    }
+
+    @Test
+    public void testSinglePrecisionNet() {
+        final NetObjective obj = singleObjective();
+        assertTrue(obj.getNet().isSinglePrecision());
+        //
+        // the population evaluation falls back to single evaluations.
+        //
+        final double error = optimize(obj, true);
+        assertTrue(!Double.isNaN(error));
+        assertEquals(optimize(singleObjective(), false), error, 0.0);
+    }
+
+    @Test
+    public void testSameResult() {
+        assertEquals(
+            optimize(new CountingObjective(), false),
+            optimize(new CountingObjective(), true),
+            0.0
+        );
+    }
+
+}
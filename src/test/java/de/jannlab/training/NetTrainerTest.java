@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.jannlab.Net;
+import de.jannlab.core.CellType;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.generator.MLPGenerator;
+
+/**
+ * Checks the common epoch loop of the trainers (see NetTrainer.iterateEpochs).
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class NetTrainerTest {
+
+    private static Net mlp() {
+        final MLPGenerator gen = new MLPGenerator();
+        gen.inputLayer(2);
+        gen.hiddenLayer(4, CellType.TANH, true, 1.0);
+        gen.outputLayer(1, CellType.TANH, true, 1.0);
+        final Net net = gen.generate();
+        net.initializeWeights(new Random(1));
+        return net;
+    }
+
+    private static SampleSet set() {
+        final Random rnd    = new Random(7);
+        final SampleSet set = new SampleSet();
+        for (int i = 0; i < 8; i++) {
+            final double[] x = {rnd.nextDouble(), rnd.nextDouble()};
+            final double[] y = {rnd.nextDouble() - 0.5};
+            set.add(new Sample(x, y, 2, 1, 1, 1));
+        }
+        return set;
+    }
+
+    /**
+     * Listener which fails within the given epoch.
+     */
+    private static class FailingListener implements NetTrainerListener {
+        private final int fail;
+        public int epochs = 0;
+
+        FailingListener(final int fail) {
+            this.fail = fail;
+        }
+        @Override
+        public void started(final NetTrainer trainer) {}
+        @Override
+        public void epoch(final NetTrainer trainer) {
+            this.epochs++;
+            if (trainer.getEpoch() == this.fail) {
+                throw new IllegalStateException("epoch " + this.fail);
+            }
+        }
+        @Override
+        public void finished(final NetTrainer trainer) {}
+    }
+
+    private static void checkFailure(final NetTrainer trainer) {
+        final Net net = mlp();
+        trainer.setNet(net);
+        trainer.setTrainingSet(set());
+        trainer.setEpochs(5);
+        trainer.clearListener();
+        trainer.addListener(new FailingListener(2));
+        try {
+            trainer.train();
+            fail("exception expected.");
+        } catch (IllegalStateException e) {
+            //
+            // the trainer must not leave its gradient sink in the net.
+            //
+            assertNull(net.getGradientSink());
+        }
+    }
+
+    @Test
+    public void testFailingGradientDescent() {
+        final GradientDescent gd = new GradientDescent();
+        gd.setOnline(false);
+        gd.setThreads(2);
+        checkFailure(gd);
+    }
+
+    @Test
+    public void testFailingAdaptiveGradientDescent() {
+        final Adam adam = new Adam();
+        adam.setOnline(false);
+        adam.setThreads(2);
+        checkFailure(adam);
+        checkFailure(new Rprop());
+    }
+
+    @Test
+    public void testTargetError() {
+        final GradientDescent gd = new GradientDescent();
+        gd.setNet(mlp());
+        gd.setTrainingSet(set());
+        gd.setValidationSet(set());
+        gd.setEpochs(20);
+        gd.setTargetError(Double.MAX_VALUE);
+        gd.clearListener();
+        final FailingListener listener = new FailingListener(-1);
+        gd.addListener(listener);
+        gd.train();
+        //
+        // the target error is reached within the first epoch.
+        //
+        assertEquals(1, listener.epochs);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * JANNLab Neural Network Framework for Java
+ * Copyright (C) 2012-2013 Sebastian Otte
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+
+package de.jannlab.training;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.jannlab.Net;
+import de.jannlab.core.CellType;
+import de.jannlab.data.Sample;
+import de.jannlab.data.SampleSet;
+import de.jannlab.generator.LSTMGenerator;
+import de.jannlab.tools.NetTools;
+
+/**
+ * Checks that RandomSearch with a population evaluates the same weight
+ * vectors as RandomSearch with one vector per epoch.
+ * <br></br>
+ * @author Sebastian Otte
+ */
+public class RandomSearchTest {
+
+    public static final int LENGTH = 5;
+
+    private static SampleSet set() {
+        final Random rnd    = new Random(7);
+        final SampleSet set = new SampleSet();
+        for (int i = 0; i < 6; i++) {
+            final double[] x = new double[LENGTH * 3];
+            final double[] y = new double[LENGTH * 2];
+            for (int k = 0; k < x.length; k++) x[k] = rnd.nextDouble() * 2 - 1;
+            for (int k = 0; k < y.length; k++) y[k] = rnd.nextDouble() * 2 - 1;
+            set.add(new Sample(x, y, 3, LENGTH, 2, LENGTH));
+        }
+        return set;
+    }
+
+    private static double search(final int population, final int epochs) {
+        final LSTMGenerator gen = new LSTMGenerator();
+        gen.inputLayer(3);
+        gen.hiddenLayer(6, CellType.SIGMOID, CellType.TANH, CellType.TANH, true);
+        gen.outputLayer(2, CellType.TANH);
+        final Net net = gen.generate();
+        net.rebuffer(LENGTH);
+        //
+        final RandomSearch rs = new RandomSearch();
+        rs.setNet(net);
+        rs.setTrainingSet(set());
+        rs.setRnd(new Random(11));
+        rs.setEpochs(epochs);
+        rs.setPopulation(population);
+        rs.setSearchLbd(-1.0);
+        rs.setSearchUbd(1.0);
+        rs.clearListener();
+        rs.train();
+        //
+        assertEquals(rs.getTrainingError(), NetTools.computeError(net, set()), 1e-12);
+        return rs.getTrainingError();
+    }
+
+    @Test
+    public void testPopulation() {
+        final double expected = search(1, 24);
+        assertEquals(expected, search(8, 3), 1e-12);
+        assertEquals(expected, search(24, 1), 1e-12);
+    }
+
+}